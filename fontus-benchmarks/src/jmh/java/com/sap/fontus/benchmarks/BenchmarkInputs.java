@@ -0,0 +1,76 @@
+package com.sap.fontus.benchmarks;
+
+import com.sap.fontus.config.Configuration;
+import com.sap.fontus.config.TaintMethod;
+import com.sap.fontus.taintaware.shared.IASTaintRange;
+import com.sap.fontus.taintaware.shared.IASTaintSourceRegistry;
+import com.sap.fontus.taintaware.unified.IASString;
+import com.sap.fontus.taintaware.unified.TaintInformationFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.Random;
+
+/**
+ * Shared benchmark inputs: a pool of strings of which the configured fraction is tainted.
+ * Tainted strings only carry a taint range in their middle, so the taint methods have to track real ranges.
+ */
+@State(Scope.Thread)
+public class BenchmarkInputs {
+    private static final int POOL_SIZE = 64;
+    private static final String[] WORDS = {"alpha", "beta", "gamma", "delta", "epsilon", "zeta", "eta", "theta"};
+
+    @Param({"ARRAY", "RANGE", "INTERVAL", "LAZYBASIC", "BOOLEAN", "UNTAINTED"})
+    public TaintMethod taintMethod;
+
+    @Param({"0.0", "0.1", "0.5", "1.0"})
+    public double taintedFraction;
+
+    private IASString[] pool;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Configuration.setTestConfig(this.taintMethod);
+        Random random = new Random(42);
+        this.pool = new IASString[POOL_SIZE];
+        int tainted = (int) Math.round(POOL_SIZE * this.taintedFraction);
+        for (int i = 0; i < POOL_SIZE; i++) {
+            StringBuilder sb = new StringBuilder();
+            int words = 4 + random.nextInt(8);
+            for (int w = 0; w < words; w++) {
+                if (w > 0) {
+                    sb.append(',');
+                }
+                sb.append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            this.pool[i] = createString(sb.toString(), i < tainted);
+        }
+        // Spread tainted and untainted strings over the pool
+        for (int i = POOL_SIZE - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            IASString tmp = this.pool[i];
+            this.pool[i] = this.pool[j];
+            this.pool[j] = tmp;
+        }
+    }
+
+    private static IASString createString(String s, boolean tainted) {
+        if (!tainted) {
+            return new IASString(s);
+        }
+        int start = s.length() / 4;
+        int end = s.length() - start;
+        IASTaintRange range = new IASTaintRange(start, end, IASTaintSourceRegistry.MD_CS_UNKNOWN_ORIGIN);
+        return new IASString(s, TaintInformationFactory.createTaintInformation(s.length(), Collections.singletonList(range)));
+    }
+
+    /**
+     * Returns the next string of the pool
+     */
+    public IASString next() {
+        IASString s = this.pool[this.index];
+        this.index = (this.index + 1) & (POOL_SIZE - 1);
+        return s;
+    }
+}
@@ -0,0 +1,27 @@
+package com.sap.fontus.benchmarks;
+
+import com.sap.fontus.taintaware.unified.IASFormatter;
+import com.sap.fontus.taintaware.unified.IASString;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class IASFormatterBenchmark {
+    private static final IASString FORMAT = new IASString("<td>%s</td><td>%-12s</td><td>%08.3f</td>");
+
+    @Benchmark
+    public IASString format(BenchmarkInputs inputs) {
+        return new IASFormatter().format(FORMAT, inputs.next(), inputs.next(), 3.14159).toIASString();
+    }
+
+    @Benchmark
+    public IASString formatRepeated(BenchmarkInputs inputs) {
+        IASFormatter formatter = new IASFormatter();
+        for (int i = 0; i < 8; i++) {
+            formatter.format(FORMAT, inputs.next(), inputs.next(), (double) i);
+        }
+        return formatter.toIASString();
+    }
+}
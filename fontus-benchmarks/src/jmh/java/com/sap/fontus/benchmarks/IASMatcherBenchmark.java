@@ -0,0 +1,24 @@
+package com.sap.fontus.benchmarks;
+
+import com.sap.fontus.taintaware.unified.IASPattern;
+import com.sap.fontus.taintaware.unified.IASString;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class IASMatcherBenchmark {
+    private static final IASPattern PATTERN = IASPattern.compile(new IASString("(alpha|gamma)"));
+    private static final IASString REPLACEMENT = new IASString("[$1]");
+
+    @Benchmark
+    public IASString replaceAll(BenchmarkInputs inputs) {
+        return PATTERN.matcher(inputs.next()).replaceAll(REPLACEMENT);
+    }
+
+    @Benchmark
+    public IASString replaceAllTaintedReplacement(BenchmarkInputs inputs) {
+        return PATTERN.matcher(inputs.next()).replaceAll(inputs.next());
+    }
+}
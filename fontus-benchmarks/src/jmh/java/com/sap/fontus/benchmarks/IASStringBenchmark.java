@@ -0,0 +1,46 @@
+package com.sap.fontus.benchmarks;
+
+import com.sap.fontus.taintaware.unified.IASString;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class IASStringBenchmark {
+    private static final IASString COMMA = new IASString(",");
+    private static final IASString ALPHA = new IASString("alpha");
+    private static final IASString OMEGA = new IASString("omega");
+    private static final IASString FORMAT = new IASString("%s=%s (%d)");
+
+    @Benchmark
+    public IASString concat(BenchmarkInputs inputs) {
+        return inputs.next().concat(inputs.next());
+    }
+
+    @Benchmark
+    public IASString substring(BenchmarkInputs inputs) {
+        IASString s = inputs.next();
+        return s.substring(2, s.length() - 2);
+    }
+
+    @Benchmark
+    public IASString[] split(BenchmarkInputs inputs) {
+        return inputs.next().split(COMMA);
+    }
+
+    @Benchmark
+    public IASString replace(BenchmarkInputs inputs) {
+        return inputs.next().replace(ALPHA, OMEGA);
+    }
+
+    @Benchmark
+    public IASString replaceChar(BenchmarkInputs inputs) {
+        return inputs.next().replace(',', ';');
+    }
+
+    @Benchmark
+    public IASString format(BenchmarkInputs inputs) {
+        return IASString.format(FORMAT, inputs.next(), inputs.next(), 42);
+    }
+}
@@ -0,0 +1,36 @@
+package com.sap.fontus.benchmarks;
+
+import com.sap.fontus.taintaware.unified.IASString;
+import com.sap.fontus.taintaware.unified.IASStringBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class IASStringBuilderBenchmark {
+    private static final IASString SEPARATOR = new IASString(", ");
+
+    @Param({"4", "32"})
+    public int appends;
+
+    @Benchmark
+    public IASString appendChain(BenchmarkInputs inputs) {
+        IASStringBuilder sb = new IASStringBuilder();
+        for (int i = 0; i < this.appends; i++) {
+            sb.append(inputs.next()).append(SEPARATOR).append(i);
+        }
+        return sb.toIASString();
+    }
+
+    @Benchmark
+    public IASString insertAndDelete(BenchmarkInputs inputs) {
+        IASStringBuilder sb = new IASStringBuilder(inputs.next());
+        for (int i = 0; i < this.appends; i++) {
+            sb.insert(sb.length() / 2, inputs.next());
+            sb.delete(0, 3);
+        }
+        return sb.toIASString();
+    }
+}
@@ -0,0 +1,74 @@
+package com.sap.fontus.benchmarks;
+
+import com.sap.fontus.config.Configuration;
+import com.sap.fontus.config.TaintMethod;
+import com.sap.fontus.taintaware.unified.IASString;
+import com.sap.fontus.taintaware.unified.IASStringBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares untainted string operations against the uninstrumented java.lang.String and StringBuilder.
+ * The difference is the overhead Fontus adds for strings which never touched a source.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UntaintedOverheadBenchmark {
+
+    @Param({"ARRAY", "RANGE", "INTERVAL", "LAZYBASIC", "BOOLEAN", "UNTAINTED"})
+    public TaintMethod taintMethod;
+
+    private String plainPrefix;
+    private String plainSuffix;
+    private IASString prefix;
+    private IASString suffix;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Configuration.setTestConfig(this.taintMethod);
+        this.plainPrefix = "SELECT * FROM users WHERE name = '";
+        this.plainSuffix = "' ORDER BY id";
+        this.prefix = new IASString(this.plainPrefix);
+        this.suffix = new IASString(this.plainSuffix);
+    }
+
+    @Benchmark
+    public String baselineConcat() {
+        return this.plainPrefix.concat(this.plainSuffix);
+    }
+
+    @Benchmark
+    public IASString concat() {
+        return this.prefix.concat(this.suffix);
+    }
+
+    @Benchmark
+    public String baselineSubstring() {
+        return this.plainPrefix.substring(7, 20);
+    }
+
+    @Benchmark
+    public IASString substring() {
+        return this.prefix.substring(7, 20);
+    }
+
+    @Benchmark
+    public String baselineBuilderAppend() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 8; i++) {
+            sb.append(this.plainPrefix).append(i).append(this.plainSuffix);
+        }
+        return sb.toString();
+    }
+
+    @Benchmark
+    public IASString builderAppend() {
+        IASStringBuilder sb = new IASStringBuilder();
+        for (int i = 0; i < 8; i++) {
+            sb.append(this.prefix).append(i).append(this.suffix);
+        }
+        return sb.toIASString();
+    }
+}
@@ -275,6 +275,8 @@ public final class Constants {
     public static final String LAZY_BASIC_METHOD_PATH = "lazybasic/";
     public static final String ARRAY_METHOD_NAME = "array";
     public static final String ARRAY_METHOD_PATH = "array/";
+    public static final String INTERVAL_METHOD_NAME = "interval";
+    public static final String INTERVAL_METHOD_PATH = "interval/";
     public static final int JAVA_VERSION = getVersion();
 
     private static int getVersion() {
@@ -1,6 +1,7 @@
 package com.sap.fontus;
 
 import com.sap.fontus.agent.InstrumentationConfiguration;
+import com.sap.fontus.asm.TypeHierarchyIndex;
 import com.sap.fontus.config.ConfigurationLoader;
 import com.sap.fontus.config.TaintMethod;
 import com.sap.fontus.config.Configuration;
@@ -47,6 +48,14 @@ public final class Main implements Callable<Void> {
     )
     private File instrumentedClasses;
 
+    @CommandLine.Option(
+            names = {"--type-hierarchy-index"},
+            required = false,
+            paramLabel = "Type Hierarchy Index",
+            description = "Output file for the type hierarchy of all classes in the input, which can be passed to the agent"
+    )
+    private File typeHierarchyIndex;
+
     @CommandLine.Option(
             names = {"-c", "--config"},
             required = false,
@@ -142,6 +151,9 @@ public final class Main implements Callable<Void> {
         this.walkFileTree(this.inputFile, this.outputFile);
 
         IOUtils.writeToFile(this.offlineJarInstrumenter.getClasses(), this.instrumentedClasses);
+        if (this.typeHierarchyIndex != null) {
+            TypeHierarchyIndex.write(this.offlineJarInstrumenter.getTypeHierarchy(), this.typeHierarchyIndex);
+        }
 
         return null;
     }
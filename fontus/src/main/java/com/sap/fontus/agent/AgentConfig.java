@@ -1,12 +1,15 @@
 package com.sap.fontus.agent;
 
+import com.sap.fontus.asm.TypeHierarchyIndex;
 import com.sap.fontus.config.ConfigurationLoader;
 import com.sap.fontus.config.abort.Abort;
+import com.sap.fontus.config.abort.BackPressure;
 import com.sap.fontus.Constants;
 import com.sap.fontus.config.Configuration;
 import com.sap.fontus.config.TaintMethod;
 import com.sap.fontus.config.taintloss.TaintlossHandler;
 import com.sap.fontus.utils.IOUtils;
+import com.sap.fontus.utils.LogLevel;
 import com.sap.fontus.utils.LogUtils;
 import com.sap.fontus.utils.Logger;
 
@@ -76,12 +79,27 @@ public class AgentConfig {
         boolean speculativeInstrumentation = false;
         boolean parallel = false;
         Boolean loggingEnabled = null;
+        LogLevel logLevel = null;
         TaintMethod taintMethod = TaintMethod.defaultTaintMethod();
         Boolean useCaching = null;
         Integer layerThreshold = null;
+        Integer persistentCacheSize = null;
+        Integer bytecodeRegistrySize = null;
+        Integer instrumentedClassCacheSize = null;
+        Integer queryCacheSize = null;
+        String queryCacheFile = null;
+        String taintIndexTable = null;
+        Integer reportQueueSize = null;
+        BackPressure reportBackPressure = null;
+        Integer reportFileSize = null;
+        Integer stackDepth = null;
+        Boolean deduplicateStackTraces = null;
+        Integer taintlossSummaryInterval = null;
+        String taintlossSummaryFile = null;
         Boolean collectStats = null;
         Abort abort = null;
         File instrumentedClassesFile = null;
+        File typeHierarchyIndexFile = null;
         TaintlossHandler taintlossHandler = null;
 
         for (String part : parts) {
@@ -109,6 +127,10 @@ public class AgentConfig {
             if ("parallel".equals(part)) {
                 parallel = true;
             }
+            if (part.startsWith("log_level=")) {
+                String logLevelString = afterEquals(part);
+                logLevel = LogLevel.parse(logLevelString);
+            }
             if (part.startsWith("taintmethod=")) {
                 String taintMethodArgName = afterEquals(part);
                 taintMethod = TaintMethod.getTaintMethodByArgumentName(taintMethodArgName);
@@ -121,6 +143,55 @@ public class AgentConfig {
                 String layerThresholdString = afterEquals(part);
                 layerThreshold = Integer.parseInt(layerThresholdString);
             }
+            if (part.startsWith("persistent_cache_size=")) {
+                String persistentCacheSizeString = afterEquals(part);
+                persistentCacheSize = Integer.parseInt(persistentCacheSizeString);
+            }
+            if (part.startsWith("bytecode_registry_size=")) {
+                String bytecodeRegistrySizeString = afterEquals(part);
+                bytecodeRegistrySize = Integer.parseInt(bytecodeRegistrySizeString);
+            }
+            if (part.startsWith("instrumented_class_cache_size=")) {
+                String instrumentedClassCacheSizeString = afterEquals(part);
+                instrumentedClassCacheSize = Integer.parseInt(instrumentedClassCacheSizeString);
+            }
+            if (part.startsWith("query_cache_size=")) {
+                String queryCacheSizeString = afterEquals(part);
+                queryCacheSize = Integer.parseInt(queryCacheSizeString);
+            }
+            if (part.startsWith("query_cache_file=")) {
+                queryCacheFile = afterEquals(part);
+            }
+            if (part.startsWith("taint_index_table=")) {
+                taintIndexTable = afterEquals(part);
+            }
+            if (part.startsWith("report_queue_size=")) {
+                String reportQueueSizeString = afterEquals(part);
+                reportQueueSize = Integer.parseInt(reportQueueSizeString);
+            }
+            if (part.startsWith("report_back_pressure=")) {
+                String reportBackPressureString = afterEquals(part);
+                reportBackPressure = BackPressure.parse(reportBackPressureString);
+            }
+            if (part.startsWith("report_file_size=")) {
+                String reportFileSizeString = afterEquals(part);
+                reportFileSize = Integer.parseInt(reportFileSizeString);
+            }
+            if (part.startsWith("stack_depth=")) {
+                String stackDepthString = afterEquals(part);
+                stackDepth = Integer.parseInt(stackDepthString);
+            }
+            if (part.startsWith("deduplicate_stack_traces=")) {
+                String deduplicateStackTracesString = afterEquals(part);
+                deduplicateStackTraces = Boolean.parseBoolean(deduplicateStackTracesString);
+            }
+            if (part.startsWith("taintloss_summary_interval=")) {
+                String taintlossSummaryIntervalString = afterEquals(part);
+                taintlossSummaryInterval = Integer.parseInt(taintlossSummaryIntervalString);
+            }
+            if (part.startsWith("taintloss_summary_file=")) {
+                taintlossSummaryFile = afterEquals(part);
+            }
             if (part.startsWith("collect_stats=")) {
                 String collectStatsString = afterEquals(part);
                 collectStats = Boolean.parseBoolean(collectStatsString);
@@ -134,6 +205,10 @@ public class AgentConfig {
                 String filename = afterEquals(part);
                 instrumentedClassesFile = new File(filename);
             }
+            if (part.startsWith("type_hierarchy_index=")) {
+                String filename = afterEquals(part);
+                typeHierarchyIndexFile = new File(filename);
+            }
             if (part.startsWith("blacklisted_main_classes=")) {
                 String filename = afterEquals(part);
                 Configuration blacklist = ConfigurationLoader.loadBlacklistFromFile(new File(filename));
@@ -169,18 +244,67 @@ public class AgentConfig {
                 throw new RuntimeException("Could not read instrumented_classes_file");
             }
         }
+        if (typeHierarchyIndexFile != null) {
+            try {
+                TypeHierarchyIndex.getInstance().load(typeHierarchyIndexFile);
+            } catch (IOException e) {
+                throw new RuntimeException("Could not read type_hierarchy_index");
+            }
+        }
         if (useCaching != null) {
             c.setUseCaching(useCaching);
         }
         if (layerThreshold != null) {
             c.setLayerThreshold(layerThreshold);
         }
+        if (persistentCacheSize != null) {
+            c.setPersistentCacheSize(persistentCacheSize);
+        }
+        if (bytecodeRegistrySize != null) {
+            c.setBytecodeRegistrySize(bytecodeRegistrySize);
+        }
+        if (instrumentedClassCacheSize != null) {
+            c.setInstrumentedClassCacheSize(instrumentedClassCacheSize);
+        }
+        if (queryCacheSize != null) {
+            c.setQueryCacheSize(queryCacheSize);
+        }
+        if (queryCacheFile != null) {
+            c.setQueryCacheFile(queryCacheFile);
+        }
+        if (taintIndexTable != null) {
+            c.setTaintIndexTable(taintIndexTable);
+        }
+        if (reportQueueSize != null) {
+            c.setReportQueueSize(reportQueueSize);
+        }
+        if (reportBackPressure != null) {
+            c.setReportBackPressure(reportBackPressure);
+        }
+        if (reportFileSize != null) {
+            c.setReportFileSize(reportFileSize);
+        }
+        if (stackDepth != null) {
+            c.setStackDepth(stackDepth);
+        }
+        if (deduplicateStackTraces != null) {
+            c.setDeduplicateStackTraces(deduplicateStackTraces);
+        }
+        if (taintlossSummaryInterval != null) {
+            c.setTaintlossSummaryInterval(taintlossSummaryInterval);
+        }
+        if (taintlossSummaryFile != null) {
+            c.setTaintlossSummaryFile(taintlossSummaryFile);
+        }
         if (collectStats != null) {
             c.setCollectStats(collectStats);
         }
         if (loggingEnabled != null) {
             c.setLoggingEnabled(loggingEnabled);
         }
+        if (logLevel != null) {
+            c.setLogLevel(logLevel);
+        }
         if (abort != null) {
             c.setAbort(abort);
         }
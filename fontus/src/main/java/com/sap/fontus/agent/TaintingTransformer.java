@@ -1,5 +1,8 @@
 package com.sap.fontus.agent;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sap.fontus.asm.speculative.InstrumentationJob;
 import com.sap.fontus.asm.speculative.SpeculativeParallelInstrumenter;
 import com.sap.fontus.config.Configuration;
 import com.sap.fontus.instrumentation.Instrumenter;
@@ -13,8 +16,9 @@ import org.objectweb.asm.ClassReader;
 import java.lang.instrument.ClassFileTransformer;
 import java.security.ProtectionDomain;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 class TaintingTransformer implements ClassFileTransformer {
     private static final Logger logger = LogUtils.getLogger();
@@ -23,13 +27,21 @@ class TaintingTransformer implements ClassFileTransformer {
     private final InstrumenterInterface instrumenter;
     private final ClassFinder classFinder;
 
-    private final Map<String, byte[]> classCache = new HashMap<>();
+    private final Cache<String, byte[]> classCache;
+    /**
+     * Classes which are instrumented right now by their loader. Threads defining the same class wait for the running job.
+     */
+    private final Map<Pair<ClassLoader, String>, InstrumentationJob> inFlight = new ConcurrentHashMap<>();
 
-    private int nClasses;
-    private int nInstrumented;
+    private final AtomicInteger nClasses = new AtomicInteger();
+    private final AtomicInteger nInstrumented = new AtomicInteger();
 
     TaintingTransformer(Configuration config) {
         this.config = config;
+        this.classCache = Caffeine.newBuilder()
+                .maximumWeight(config.getInstrumentedClassCacheSize() * 1024L * 1024L)
+                .weigher((String name, byte[] bytes) -> bytes.length)
+                .build();
         this.classFinder = ClassResolverFactory.createClassFinder();
 
         if (config.isSpeculativeActive()) {
@@ -42,13 +54,22 @@ class TaintingTransformer implements ClassFileTransformer {
     @Override
     public byte[] transform(ClassLoader loader, String className, Class<?> classBeingRedefined,
                             ProtectionDomain protectionDomain, byte[] classfileBuffer) {
-        this.nClasses += 1;
-
         if (className == null) {
             className = new ClassReader(classfileBuffer).getClassName();
         }
 
         BytecodeRegistry.getInstance().addClassData(className, classfileBuffer);
+        try {
+            return this.transformClass(loader, className, classfileBuffer);
+        } finally {
+            // Subclasses instrumented later may still need the bytecode, even once it is evicted
+            BytecodeRegistry.getInstance().markDefined(className, classfileBuffer, loader);
+        }
+    }
+
+    private byte[] transformClass(ClassLoader loader, String className, byte[] classfileBuffer) {
+        int classes = this.nClasses.incrementAndGet();
+
         AnnotationLookup.getInstance().checkAnnotationAndCache(className, classfileBuffer);
 
         this.classFinder.addClass(className, loader);
@@ -85,23 +106,26 @@ class TaintingTransformer implements ClassFileTransformer {
         }
 
         try {
-            int hash = Arrays.hashCode(classfileBuffer);
+            CacheArchive.Key cacheKey = null;
             byte[] outArray = null;
-            if (this.config.usePersistentCache() && CacheHandler.get().isCached(hash)) {
-                logger.info("Fetching class {} from cache", className);
-                outArray = CacheHandler.get().fetchFromCache(hash, className);
+            if (this.config.usePersistentCache()) {
+                cacheKey = CacheHandler.get().keyFor(classfileBuffer);
+                outArray = CacheHandler.get().fetchFromCache(cacheKey, className);
+            }
+            if (outArray != null) {
+                logger.info("Fetched class {} from cache", className);
             } else {
                 logger.info("Tainting class: {}", className);
-                outArray = this.instrumenter.instrumentClassByteArray(classfileBuffer, loader, className);
-                if (this.config.usePersistentCache()) {
-                    CacheHandler.get().put(hash, outArray, className);
+                outArray = this.instrument(classfileBuffer, loader, className);
+                if (cacheKey != null) {
+                    CacheHandler.get().put(cacheKey, outArray, className);
                 }
             }
             this.classCache.put(className, outArray);
             VerboseLogger.saveIfVerbose(className, outArray);
-            this.nInstrumented += 1;
-            if (this.config.isShowWelcomeMessage() && ((this.nInstrumented % 100) == 0)) {
-                System.out.println("FONTUS: Processed " + this.nClasses + " classes, Instrumented " + this.nInstrumented + " classes");
+            int instrumented = this.nInstrumented.incrementAndGet();
+            if (this.config.isShowWelcomeMessage() && ((instrumented % 100) == 0)) {
+                System.out.println("FONTUS: Processed " + classes + " classes, Instrumented " + instrumented + " classes");
             }
             return outArray;
         } catch (Exception e) {
@@ -113,8 +137,30 @@ class TaintingTransformer implements ClassFileTransformer {
         return null;
     }
 
+    /**
+     * Instruments the class, unless another thread instruments the same class for the same loader already.
+     * In that case the result or failure of the running job is shared.
+     */
+    private byte[] instrument(byte[] classfileBuffer, ClassLoader loader, String className) {
+        Pair<ClassLoader, String> key = new Pair<>(loader, className);
+        InstrumentationJob job = new InstrumentationJob(this.instrumenter, classfileBuffer, loader, className);
+        InstrumentationJob running = this.inFlight.putIfAbsent(key, job);
+        if (running != null) {
+            if (running.isFor(classfileBuffer)) {
+                return running.await();
+            }
+            // The loader defines another version of the class, e.g. while it is redefined
+            return this.instrumenter.instrumentClassByteArray(classfileBuffer, loader, className);
+        }
+        try {
+            return job.await();
+        } finally {
+            this.inFlight.remove(key, job);
+        }
+    }
+
     public byte[] findInstrumentedClass(String qn) {
-        return this.classCache.get(qn);
+        return this.classCache.getIfPresent(qn);
     }
 
 }
@@ -0,0 +1,164 @@
+package com.sap.fontus.asm;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sap.fontus.asm.resolver.IClassResolver;
+import com.sap.fontus.utils.IOUtils;
+import com.sap.fontus.utils.LogUtils;
+import com.sap.fontus.utils.Logger;
+import com.sap.fontus.utils.lookups.CombinedExcludedLookup;
+import org.mutabilitydetector.asm.typehierarchy.TypeHierarchy;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Super class, interfaces and access flags of all classes whose hierarchy was looked up during instrumentation.
+ * <p>
+ * Each class is parsed once. JDK classes and classes from a prebuilt index file are shared by all class loaders,
+ * all other classes are kept per resolver, as different loaders may define different classes with the same name.
+ */
+public final class TypeHierarchyIndex {
+    private static final Logger logger = LogUtils.getLogger();
+    private static final TypeHierarchyIndex INSTANCE = new TypeHierarchyIndex();
+    private static final String NONE = "-";
+
+    private final Map<String, Entry> shared = new ConcurrentHashMap<>();
+    private final Cache<IClassResolver, Map<String, Entry>> perResolver = Caffeine.newBuilder().weakKeys().build();
+    private final CombinedExcludedLookup combinedExcludedLookup = new CombinedExcludedLookup();
+
+    private TypeHierarchyIndex() {
+    }
+
+    public static TypeHierarchyIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the hierarchy entry of the class or null if the resolver can't find it
+     */
+    public Entry get(String internalName, IClassResolver resolver) {
+        Entry entry = this.shared.get(internalName);
+        if (entry != null) {
+            return entry;
+        }
+        Map<String, Entry> entries = this.perResolver.get(resolver, r -> new ConcurrentHashMap<>());
+        entry = entries.get(internalName);
+        if (entry != null) {
+            return entry;
+        }
+        Optional<byte[]> bytes = resolver.resolve(internalName);
+        if (!bytes.isPresent()) {
+            return null;
+        }
+        entry = Entry.fromClassFile(bytes.get());
+        if (this.combinedExcludedLookup.isJdkClass(internalName)) {
+            Entry previous = this.shared.putIfAbsent(internalName, entry);
+            return previous == null ? entry : previous;
+        }
+        Entry previous = entries.putIfAbsent(internalName, entry);
+        return previous == null ? entry : previous;
+    }
+
+    /**
+     * Adds the entries of an index file written by {@link #write(Collection, File)}. They are shared by all class loaders.
+     */
+    public void load(File file) throws IOException {
+        List<String> lines = IOUtils.readAllLines(file);
+        for (String line : lines) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            Entry entry = Entry.parse(line);
+            this.shared.putIfAbsent(entry.name, entry);
+        }
+        logger.info("Loaded {} type hierarchy entries from {}", lines.size(), file.getAbsolutePath());
+    }
+
+    public static void write(Collection<Entry> entries, File output) throws IOException {
+        List<String> lines = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            lines.add(entry.format());
+        }
+        IOUtils.writeToFile(lines, output);
+    }
+
+    public static final class Entry {
+        private final String name;
+        private final String superName;
+        private final String[] interfaces;
+        private final int access;
+        private volatile TypeHierarchy hierarchy;
+
+        Entry(String name, String superName, String[] interfaces, int access) {
+            this.name = name;
+            this.superName = superName;
+            this.interfaces = interfaces;
+            this.access = access;
+        }
+
+        public static Entry fromClassFile(byte[] classFile) {
+            // Only the header is parsed
+            ClassReader reader = new ClassReader(classFile);
+            return new Entry(reader.getClassName(), reader.getSuperName(), reader.getInterfaces(), reader.getAccess());
+        }
+
+        static Entry parse(String line) {
+            String[] parts = line.split(" ");
+            if (parts.length != 4) {
+                throw new IllegalArgumentException(String.format("Malformed type hierarchy entry: '%s'", line));
+            }
+            String superName = NONE.equals(parts[2]) ? null : parts[2];
+            String[] interfaces = NONE.equals(parts[3]) ? new String[0] : parts[3].split(",");
+            return new Entry(parts[0], superName, interfaces, Integer.parseInt(parts[1]));
+        }
+
+        String format() {
+            String interfaceList = this.interfaces.length == 0 ? NONE : String.join(",", this.interfaces);
+            return this.name + ' ' + this.access + ' ' + (this.superName == null ? NONE : this.superName) + ' ' + interfaceList;
+        }
+
+        /**
+         * Creates a class file which only consists of the class header, so it can be passed where a {@link ClassReader} is expected
+         */
+        byte[] toHeaderClassFile() {
+            ClassWriter writer = new ClassWriter(0);
+            writer.visit(Opcodes.V1_8, this.access, this.name, null, this.superName, this.interfaces);
+            writer.visitEnd();
+            return writer.toByteArray();
+        }
+
+        TypeHierarchy getHierarchy() {
+            return this.hierarchy;
+        }
+
+        void setHierarchy(TypeHierarchy hierarchy) {
+            this.hierarchy = hierarchy;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public String getSuperName() {
+            return this.superName;
+        }
+
+        public String[] getInterfaces() {
+            return this.interfaces.clone();
+        }
+
+        public int getAccess() {
+            return this.access;
+        }
+    }
+}
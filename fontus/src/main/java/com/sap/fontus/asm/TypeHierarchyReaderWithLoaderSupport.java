@@ -1,22 +1,50 @@
 package com.sap.fontus.asm;
 
 import com.sap.fontus.asm.resolver.IClassResolver;
+import org.mutabilitydetector.asm.typehierarchy.TypeHierarchy;
 import org.mutabilitydetector.asm.typehierarchy.TypeHierarchyReader;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.Type;
 
 import java.io.IOException;
 
+/**
+ * Reads type hierarchies through the shared {@link TypeHierarchyIndex}, so common super types are only parsed once
+ */
 public class TypeHierarchyReaderWithLoaderSupport extends TypeHierarchyReader {
 
     private final IClassResolver resolver;
+    private final TypeHierarchyIndex index;
 
     public TypeHierarchyReaderWithLoaderSupport(IClassResolver resolver) {
         this.resolver = resolver;
+        this.index = TypeHierarchyIndex.getInstance();
+    }
+
+    @Override
+    public TypeHierarchy hierarchyOf(Type t) {
+        if (t.getSort() != Type.OBJECT) {
+            return super.hierarchyOf(t);
+        }
+        TypeHierarchyIndex.Entry entry = this.index.get(t.getInternalName(), this.resolver);
+        if (entry == null) {
+            // Fails the same way as without the index
+            return super.hierarchyOf(t);
+        }
+        TypeHierarchy hierarchy = entry.getHierarchy();
+        if (hierarchy == null) {
+            hierarchy = super.hierarchyOf(t);
+            entry.setHierarchy(hierarchy);
+        }
+        return hierarchy;
     }
 
     @Override
     protected ClassReader reader(Type t) throws IOException {
+        TypeHierarchyIndex.Entry entry = this.index.get(t.getInternalName(), this.resolver);
+        if (entry != null) {
+            return new ClassReader(entry.toHeaderClassFile());
+        }
         return new ClassReaderWithLoaderSupport(this.resolver, t.getInternalName());
     }
 }
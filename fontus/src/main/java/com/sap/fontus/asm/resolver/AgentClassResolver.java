@@ -57,7 +57,7 @@ public class AgentClassResolver implements IClassResolver {
 
     }
 
-    private byte[] loadClassBytes(String className) throws IOException {
+    protected byte[] loadClassBytes(String className) throws IOException {
         String fixed = Utils.dotToSlash(className) + Constants.CLASS_FILE_SUFFIX;
         logger.info("Trying to resolve {} from {}", fixed, className);
 
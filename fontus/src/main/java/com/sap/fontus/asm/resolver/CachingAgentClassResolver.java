@@ -21,7 +21,7 @@ public abstract class CachingAgentClassResolver extends AgentClassResolver {
 
             Map<String, byte[]> classes = jarClassResolver.loadClassesFrom(inputStream);
 
-            classes.forEach(BytecodeRegistry.getInstance()::addClassData);
+            classes.forEach((name, data) -> BytecodeRegistry.getInstance().addClassData(name, data, this.classLoader));
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -33,12 +33,20 @@ public abstract class CachingAgentClassResolver extends AgentClassResolver {
             className = className.substring(2, className.length() - 1);
         }
 
-        Optional<byte[]> commonCached = BytecodeRegistry.getInstance().getClassData(className);
+        Optional<byte[]> commonCached = BytecodeRegistry.getInstance().getClassData(className, this.classLoader);
         if (commonCached.isPresent()) {
             return commonCached;
         }
 
-        byte[] bytes = this.classCache.get(className);
-        return Optional.ofNullable(bytes);
+        // Keep the bytes in the bounded registry instead of the unbounded resolver cache
+        try {
+            byte[] bytes = this.loadClassBytes(className);
+            if (bytes != null) {
+                BytecodeRegistry.getInstance().addClassData(className, bytes, this.classLoader);
+            }
+            return Optional.ofNullable(bytes);
+        } catch (IOException e) {
+            return Optional.empty();
+        }
     }
 }
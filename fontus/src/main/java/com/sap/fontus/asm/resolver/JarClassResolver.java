@@ -34,14 +34,13 @@ public class JarClassResolver {
     }
 
     private void findClassInJar(JarInputStream jis, Map<String, byte[]> classes) {
+        CombinedExcludedLookup combinedExcludedLookup = new CombinedExcludedLookup(Thread.currentThread().getContextClassLoader());
         try {
             for (JarEntry jei = jis.getNextJarEntry(); jei != null; jei = jis.getNextJarEntry()) {
                 if (!jei.isDirectory()) {
                     byte[] entryBytes = IOUtils.readStream(jis);
                     InputStream jeis = new ByteArrayInputStream(entryBytes);
 
-                    CombinedExcludedLookup combinedExcludedLookup = new CombinedExcludedLookup(Thread.currentThread().getContextClassLoader());
-
                     if (jei.getName().endsWith(Constants.CLASS_FILE_SUFFIX) &&
                             !combinedExcludedLookup.isJdkClass(jei.getName()) &&
                             !combinedExcludedLookup.isFontusClass(jei.getName()) &&
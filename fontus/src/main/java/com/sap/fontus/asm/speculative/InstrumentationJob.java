@@ -0,0 +1,88 @@
+package com.sap.fontus.asm.speculative;
+
+import com.sap.fontus.instrumentation.InstrumenterInterface;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Instrumentation of a single class which can be shared by several threads.
+ * <p>
+ * The first thread claiming the job instruments the class, all other threads wait for its result.
+ * If the instrumentation fails, the failure is thrown to all of them, the class is never instrumented twice.
+ */
+public final class InstrumentationJob implements Runnable {
+    private final InstrumenterInterface instrumenter;
+    private final byte[] classfileBuffer;
+    private final ClassLoader loader;
+    private final String className;
+    private final AtomicBoolean claimed = new AtomicBoolean(false);
+    private final CompletableFuture<byte[]> result = new CompletableFuture<>();
+
+    public InstrumentationJob(InstrumenterInterface instrumenter, byte[] classfileBuffer, ClassLoader loader, String className) {
+        this.instrumenter = instrumenter;
+        this.classfileBuffer = classfileBuffer;
+        this.loader = loader;
+        this.className = className;
+    }
+
+    /**
+     * Checks whether this job instruments the passed bytecode. Loaders may define different classes with the same name.
+     */
+    public boolean isFor(byte[] classfileBuffer) {
+        return this.classfileBuffer == classfileBuffer || Arrays.equals(this.classfileBuffer, classfileBuffer);
+    }
+
+    /**
+     * Executes the job in the background, if no other thread claimed it yet. Failures are only reported to waiting threads.
+     */
+    @Override
+    public void run() {
+        if (this.claimed.compareAndSet(false, true)) {
+            try {
+                this.execute();
+            } catch (RuntimeException | Error ignored) {
+                // Already passed on to the result
+            }
+        }
+    }
+
+    /**
+     * Returns the instrumented bytecode. If no thread claimed the job yet, it is executed by the calling thread.
+     * Otherwise the calling thread waits for the owning thread and fails with its failure.
+     */
+    public byte[] await() {
+        if (this.claimed.compareAndSet(false, true)) {
+            return this.execute();
+        }
+        try {
+            return this.result.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    public boolean isDone() {
+        return this.result.isDone();
+    }
+
+    private byte[] execute() {
+        try {
+            byte[] instrumented = this.instrumenter.instrumentClassByteArray(this.classfileBuffer, this.loader, this.className);
+            this.result.complete(instrumented);
+            return instrumented;
+        } catch (RuntimeException | Error e) {
+            this.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+}
@@ -10,26 +10,53 @@ import com.sap.fontus.utils.BytecodeRegistry;
 import com.sap.fontus.utils.lookups.CombinedExcludedLookup;
 
 import java.util.Optional;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Instruments classes referenced by the class which is currently instrumented in the background, before they are loaded.
+ * <p>
+ * Speculative jobs are picked up by {@link #instrumentClassByteArray(byte[], ClassLoader, String)} once the class is actually loaded.
+ * If a job did not start yet, the loading thread runs it itself. Jobs which are never picked up are dropped after some time.
+ */
 public class SpeculativeParallelInstrumenter implements InstrumenterInterface {
     private static final SpeculativeParallelInstrumenter INSTANCE = new SpeculativeParallelInstrumenter();
-    private final ExecutorService executorService;
-    private final Cache<String, byte[]> instrumentedCache;
+    private static final int MAX_QUEUED_JOBS = 4096;
+    private static final int MAX_PENDING_JOBS = 10000;
+    private static final long PENDING_JOB_EXPIRY_MINUTES = 5L;
+
+    private final ThreadPoolExecutor executorService;
+    private final Cache<String, InstrumentationJob> pendingJobs;
     private final Instrumenter instrumenter;
     private final Configuration configuration;
     private final CombinedExcludedLookup combinedExcludedLookup;
 
     private SpeculativeParallelInstrumenter() {
-        this.executorService = Executors.newFixedThreadPool(10);
-        this.instrumentedCache = Caffeine.newBuilder().build();
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        AtomicInteger threadCount = new AtomicInteger();
+        // Jobs which do not fit into the queue are dropped, the loading thread instruments the class then
+        this.executorService = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(MAX_QUEUED_JOBS), runnable -> {
+            Thread thread = new Thread(runnable, "fontus-speculative-" + threadCount.incrementAndGet());
+            // Must not keep the instrumented application alive
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+        this.pendingJobs = Caffeine.newBuilder()
+                .maximumSize(MAX_PENDING_JOBS)
+                .expireAfterWrite(PENDING_JOB_EXPIRY_MINUTES, TimeUnit.MINUTES)
+                .build();
         this.configuration = Configuration.getConfiguration();
         this.instrumenter = new Instrumenter(this.configuration);
         this.combinedExcludedLookup = new CombinedExcludedLookup();
     }
 
     public void submitSpeculativeInstrumentation(String internalName, ClassLoader classLoader) {
+        if (this.pendingJobs.asMap().containsKey(internalName)) {
+            return;
+        }
+
         if (ClassResolverFactory.createClassFinder().isClassLoaded(internalName)) {
             return;
         }
@@ -38,28 +65,27 @@ public class SpeculativeParallelInstrumenter implements InstrumenterInterface {
             return;
         }
 
-        Optional<byte[]> commonClass = BytecodeRegistry.getInstance().getClassData(internalName);
+        Optional<byte[]> commonClass = BytecodeRegistry.getInstance().getClassData(internalName, classLoader);
 
         if (commonClass.isPresent()) {
-            byte[] bytes = commonClass.get();
-
-            if (!this.instrumentedCache.asMap().containsKey(internalName)) {
-                this.executorService.submit(() -> {
-                    this.instrumentedCache.get(internalName, (name) -> this.instrumenter.instrumentClassByteArray(bytes, classLoader, name));
-                });
+            InstrumentationJob job = new InstrumentationJob(this.instrumenter, commonClass.get(), classLoader, internalName);
+            if (this.pendingJobs.asMap().putIfAbsent(internalName, job) == null) {
+                this.executorService.execute(job);
             }
         }
     }
 
     @Override
     public byte[] instrumentClassByteArray(byte[] classfileBuffer, ClassLoader loader, String className) {
-        return this.instrumentedCache.get(className, (name) -> this.instrumenter.instrumentClassByteArray(classfileBuffer, loader, name));
+        InstrumentationJob job = this.pendingJobs.asMap().remove(className);
+        if (job != null && job.isFor(classfileBuffer)) {
+            return job.await();
+        }
+        return this.instrumenter.instrumentClassByteArray(classfileBuffer, loader, className);
     }
 
     public static SpeculativeParallelInstrumenter getInstance() {
         return INSTANCE;
     }
 
-
-
 }
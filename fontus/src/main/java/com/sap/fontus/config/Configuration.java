@@ -4,12 +4,15 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlElementWrapper;
 import com.sap.fontus.asm.FunctionCall;
 import com.sap.fontus.config.abort.Abort;
+import com.sap.fontus.config.abort.BackPressure;
 import com.sap.fontus.config.abort.StdErrLoggingAbort;
 import com.sap.fontus.config.taintloss.TaintlossHandler;
 import com.sap.fontus.instrumentation.BlackListEntry;
 import com.sap.fontus.agent.AgentConfig;
+import com.sap.fontus.utils.LogLevel;
 import com.sap.fontus.utils.LogUtils;
 import com.sap.fontus.utils.Logger;
+import com.sap.fontus.utils.lookups.ExcludedPackagesLookup;
 
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
@@ -65,12 +68,96 @@ public class Configuration {
     @XmlElement
     private boolean persistentCache = false;
 
+    /**
+     * Maximum size of the persistent cache in megabytes
+     */
+    @XmlElement
+    private int persistentCacheSize = defaultPersistentCacheSize();
+
+    /**
+     * Maximum size of the original bytecode kept in memory in megabytes
+     */
+    @XmlElement
+    private int bytecodeRegistrySize = defaultBytecodeRegistrySize();
+
+    /**
+     * Maximum size of the instrumented bytecode kept in memory in megabytes
+     */
+    @XmlElement
+    private int instrumentedClassCacheSize = defaultInstrumentedClassCacheSize();
+
+    /**
+     * Maximum size of the rewritten SQL queries, query templates and result columns kept in memory in megabytes
+     */
+    @XmlElement
+    private int queryCacheSize = defaultQueryCacheSize();
+
+    /**
+     * File the rewritten SQL queries are stored in between runs, null if they are not stored
+     */
+    @XmlElement
+    private String queryCacheFile = null;
+
+    /**
+     * Table the data subjects and expiry dates of written taints are recorded in, null if they are not recorded
+     */
+    @XmlElement
+    private String taintIndexTable = null;
+
+    /**
+     * Maximum number of violation reports waiting to be written
+     */
+    @XmlElement
+    private int reportQueueSize = defaultReportQueueSize();
+
+    /**
+     * What happens to violation reports while the queue is full
+     */
+    @XmlElement
+    private BackPressure reportBackPressure = defaultReportBackPressure();
+
+    /**
+     * Size in megabytes after which violation report files are rotated, 0 if they are not rotated
+     */
+    @XmlElement
+    private int reportFileSize = defaultReportFileSize();
+
+    /**
+     * Maximum number of frames captured for sink and taintloss events, 0 captures all frames
+     */
+    @XmlElement
+    private int stackDepth = defaultStackDepth();
+
+    /**
+     * Whether repeated events from the same call site are logged with the call site only
+     */
+    @XmlElement
+    private boolean deduplicateStackTraces = true;
+
+    /**
+     * Seconds between the summaries of the aggregating taintloss handler
+     */
+    @XmlElement
+    private int taintlossSummaryInterval = defaultTaintlossSummaryInterval();
+
+    /**
+     * File the summaries of the aggregating taintloss handler are written to
+     */
+    @XmlElement
+    private String taintlossSummaryFile = defaultTaintlossSummaryFile();
+
     @XmlElement
     private boolean taintPersistence = false;
 
     @XmlElement
     private boolean loggingEnabled = false;
 
+    /**
+     * Least severe level written to the instrumentation log
+     */
+    @XmlElement
+    private LogLevel logLevel = defaultLogLevel();
+
     @XmlElement
     private boolean recursiveTainting = false;
 
@@ -124,6 +211,12 @@ public class Configuration {
     @XmlElement(name = "propagateTaintInFunctions")
     private final List<PropagateTaintInFunction> propagateTaintInFunctions;
 
+    /**
+     * Lookup tables over the method lists above, built on first use as the lists are filled by the deserializer
+     */
+    @JsonIgnore
+    private volatile Lookups lookups;
+
     public Configuration() {
         this.verbose = false;
         this.sourceConfig = new SourceConfig();
@@ -189,6 +282,8 @@ public class Configuration {
             this.resourcesToInstrument.addAll(other.resourcesToInstrument);
             this.passThroughTaints.addAll(other.passThroughTaints);
             this.propagateTaintInFunctions.addAll(other.propagateTaintInFunctions);
+            this.lookups = null;
+            ExcludedPackagesLookup.invalidate();
         }
     }
 
@@ -201,6 +296,16 @@ public class Configuration {
 
         this.converters.clear();
         this.converters.addAll(converted);
+        this.lookups = null;
+    }
+
+    private Lookups getLookups() {
+        Lookups l = this.lookups;
+        if (l == null) {
+            l = new Lookups(this);
+            this.lookups = l;
+        }
+        return l;
     }
 
     void appendBlacklist(Collection<String> other) {
@@ -241,6 +346,50 @@ public class Configuration {
         return 30;
     }
 
+    public static int defaultPersistentCacheSize() {
+        return 256;
+    }
+
+    public static int defaultBytecodeRegistrySize() {
+        return 128;
+    }
+
+    public static int defaultInstrumentedClassCacheSize() {
+        return 64;
+    }
+
+    public static int defaultQueryCacheSize() {
+        return 64;
+    }
+
+    public static int defaultReportQueueSize() {
+        return 8192;
+    }
+
+    public static BackPressure defaultReportBackPressure() {
+        return BackPressure.BLOCK;
+    }
+
+    public static int defaultReportFileSize() {
+        return 64;
+    }
+
+    public static int defaultStackDepth() {
+        return 64;
+    }
+
+    public static int defaultTaintlossSummaryInterval() {
+        return 60;
+    }
+
+    public static String defaultTaintlossSummaryFile() {
+        return "taintloss-summary.ndjson";
+    }
+
+    public static LogLevel defaultLogLevel() {
+        return LogLevel.DEBUG;
+    }
+
     public static boolean defaultCollectStats() {
         return false;
     }
@@ -269,6 +418,110 @@ public class Configuration {
         this.persistentCache = persistentCache;
     }
 
+    public int getPersistentCacheSize() {
+        return this.persistentCacheSize;
+    }
+
+    public void setPersistentCacheSize(int persistentCacheSize) {
+        this.persistentCacheSize = persistentCacheSize;
+    }
+
+    public int getBytecodeRegistrySize() {
+        return this.bytecodeRegistrySize;
+    }
+
+    public void setBytecodeRegistrySize(int bytecodeRegistrySize) {
+        this.bytecodeRegistrySize = bytecodeRegistrySize;
+    }
+
+    public int getInstrumentedClassCacheSize() {
+        return this.instrumentedClassCacheSize;
+    }
+
+    public void setInstrumentedClassCacheSize(int instrumentedClassCacheSize) {
+        this.instrumentedClassCacheSize = instrumentedClassCacheSize;
+    }
+
+    public int getQueryCacheSize() {
+        return this.queryCacheSize;
+    }
+
+    public void setQueryCacheSize(int queryCacheSize) {
+        this.queryCacheSize = queryCacheSize;
+    }
+
+    public String getQueryCacheFile() {
+        return this.queryCacheFile;
+    }
+
+    public void setQueryCacheFile(String queryCacheFile) {
+        this.queryCacheFile = queryCacheFile;
+    }
+
+    public String getTaintIndexTable() {
+        return this.taintIndexTable;
+    }
+
+    public void setTaintIndexTable(String taintIndexTable) {
+        this.taintIndexTable = taintIndexTable;
+    }
+
+    public int getReportQueueSize() {
+        return this.reportQueueSize;
+    }
+
+    public void setReportQueueSize(int reportQueueSize) {
+        this.reportQueueSize = reportQueueSize;
+    }
+
+    public BackPressure getReportBackPressure() {
+        return this.reportBackPressure;
+    }
+
+    public void setReportBackPressure(BackPressure reportBackPressure) {
+        this.reportBackPressure = reportBackPressure;
+    }
+
+    public int getReportFileSize() {
+        return this.reportFileSize;
+    }
+
+    public void setReportFileSize(int reportFileSize) {
+        this.reportFileSize = reportFileSize;
+    }
+
+    public int getStackDepth() {
+        return this.stackDepth;
+    }
+
+    public void setStackDepth(int stackDepth) {
+        this.stackDepth = stackDepth;
+    }
+
+    public boolean isDeduplicateStackTraces() {
+        return this.deduplicateStackTraces;
+    }
+
+    public void setDeduplicateStackTraces(boolean deduplicateStackTraces) {
+        this.deduplicateStackTraces = deduplicateStackTraces;
+    }
+
+    public int getTaintlossSummaryInterval() {
+        return this.taintlossSummaryInterval;
+    }
+
+    public void setTaintlossSummaryInterval(int taintlossSummaryInterval) {
+        this.taintlossSummaryInterval = taintlossSummaryInterval;
+    }
+
+    public String getTaintlossSummaryFile() {
+        return this.taintlossSummaryFile;
+    }
+
+    public void setTaintlossSummaryFile(String taintlossSummaryFile) {
+        this.taintlossSummaryFile = taintlossSummaryFile;
+    }
+
     public int getLayerThreshold() {
         return this.layerThreshold;
     }
@@ -314,16 +567,16 @@ public class Configuration {
     }
 
     public int shouldPropagateTaint(int acc, String owner, String name, String methodDescriptor) {
-        MethodDeclaration md = new MethodDeclaration(acc, owner, name, methodDescriptor);
-        for (PropagateTaintInFunction ptif : this.propagateTaintInFunctions) {
-            if (ptif.getMethod().equals(md)) {
+        for (PropagateTaintInFunction ptif : this.getLookups().propagateTaintInFunctions.get(owner, name, methodDescriptor)) {
+            if (ptif.getMethod().getAccess() == acc) {
                 return ptif.getArgIndex();
             }
         }
         return -1;
     }
+
     public boolean shouldPassThroughTaint(FunctionCall c) {
-        for (FunctionCall fc : this.passThroughTaints) {
+        for (FunctionCall fc : this.getLookups().passThroughTaints.get(c.getOwner(), c.getName(), c.getDescriptor())) {
             if (fc.equals(c)) {
                 return true;
             }
@@ -331,18 +584,12 @@ public class Configuration {
         return false;
     }
 
-        private FunctionCall getConverter(String name) {
-        for (FunctionCall fc : this.converters) {
-            if (fc.getName().equals(name)) {
-                return fc;
-            }
-        }
-        return null;
+    private FunctionCall getConverter(String name) {
+        return this.getLookups().converters.get(name);
     }
 
-
     public boolean needsParameterConversion(FunctionCall c) {
-        for (TakesGeneric tg : this.takeGeneric) {
+        for (TakesGeneric tg : this.getLookups().takeGeneric.get(c.getOwner(), c.getName(), c.getDescriptor())) {
             if (tg.getFunctionCall().equals(c)) {
                 return true;
             }
@@ -351,7 +598,7 @@ public class Configuration {
     }
 
     public FunctionCall getConverterForParameter(FunctionCall c, int index) {
-        for (TakesGeneric tg : this.takeGeneric) {
+        for (TakesGeneric tg : this.getLookups().takeGeneric.get(c.getOwner(), c.getName(), c.getDescriptor())) {
             if (tg.getFunctionCall().equals(c)) {
                 Conversion conversion = tg.getConversionAt(index);
                 if (conversion != null) {
@@ -370,7 +617,7 @@ public class Configuration {
     }
 
     public FunctionCall getConverterForReturnValue(FunctionCall c, boolean onlyAlwaysApply) {
-        for (ReturnsGeneric rg : this.returnGeneric) {
+        for (ReturnsGeneric rg : this.getLookups().returnGeneric.get(c.getOwner(), c.getName(), c.getDescriptor())) {
             if (rg.getFunctionCall().equals(c)) {
                 if (!(onlyAlwaysApply && !rg.isAlwaysApply())) {
                     String converterName = rg.getConverter();
@@ -437,10 +684,29 @@ public class Configuration {
         return !isInitialized() || getConfiguration().loggingEnabled;
     }
 
+    /**
+     * Whether messages of the level are logged, everything is logged before the configuration is initialized
+     */
+    public static boolean isLoggingEnabled(LogLevel level) {
+        if (!isInitialized()) {
+            return true;
+        }
+        Configuration configuration = getConfiguration();
+        return configuration.loggingEnabled && configuration.logLevel.includes(level);
+    }
+
     public void setLoggingEnabled(boolean loggingEnabled) {
         this.loggingEnabled = loggingEnabled;
     }
 
+    public LogLevel getLogLevel() {
+        return this.logLevel;
+    }
+
+    public void setLogLevel(LogLevel logLevel) {
+        this.logLevel = logLevel;
+    }
+
     public List<String> getExcludedPackages() {
         return this.excludedPackages;
     }
@@ -519,7 +785,7 @@ public class Configuration {
 
     @JsonIgnore
     public File getAbortOutputFile() {
-        return new File("fontus-results.json");
+        return new File("fontus-results.ndjson");
     }
 
     public void setRecursiveTainting(boolean recursiveTainting) {
@@ -584,6 +850,7 @@ public class Configuration {
             return;
         }
         this.excludedClasses.add(clazzName);
+        ExcludedPackagesLookup.invalidate();
     }
 
     public void addExcludedPackage(String pkgName) {
@@ -591,7 +858,8 @@ public class Configuration {
             System.out.printf("WARN: Trying to add %s as an excluded package. Packages should end with slashes!%n", pkgName);
             return;
         }
-        this.excludedClasses.add(pkgName);
+        this.excludedPackages.add(pkgName);
+        ExcludedPackagesLookup.invalidate();
     }
 
     private static boolean isClass(String name) {
@@ -628,6 +896,7 @@ public class Configuration {
                 ", verbose=" + this.verbose +
                 ", taintPersistence=" + this.taintPersistence +
                 ", loggingEnabled=" + this.loggingEnabled +
+                ", logLevel=" + this.logLevel +
                 ", recursiveTainting=" + this.recursiveTainting +
                 ", sourceConfig=" + this.sourceConfig +
                 ", sinkConfig=" + this.sinkConfig +
@@ -652,4 +921,24 @@ public class Configuration {
     public void setSpeculativeInstrumentation(boolean speculativeInstrumentation) {
         this.speculativeInstrumentation = speculativeInstrumentation;
     }
+
+    private static final class Lookups {
+        private final MethodIndex<PropagateTaintInFunction> propagateTaintInFunctions;
+        private final MethodIndex<FunctionCall> passThroughTaints;
+        private final MethodIndex<TakesGeneric> takeGeneric;
+        private final MethodIndex<ReturnsGeneric> returnGeneric;
+        private final Map<String, FunctionCall> converters;
+
+        private Lookups(Configuration configuration) {
+            this.propagateTaintInFunctions = new MethodIndex<>(configuration.propagateTaintInFunctions, p -> p.getMethod().getOwner(), p -> p.getMethod().getName(), p -> p.getMethod().getDescriptor());
+            this.passThroughTaints = new MethodIndex<>(configuration.passThroughTaints, FunctionCall::getOwner, FunctionCall::getName, FunctionCall::getDescriptor);
+            this.takeGeneric = new MethodIndex<>(configuration.takeGeneric, t -> t.getFunctionCall().getOwner(), t -> t.getFunctionCall().getName(), t -> t.getFunctionCall().getDescriptor());
+            this.returnGeneric = new MethodIndex<>(configuration.returnGeneric, r -> r.getFunctionCall().getOwner(), r -> r.getFunctionCall().getName(), r -> r.getFunctionCall().getDescriptor());
+            this.converters = new HashMap<>();
+            for (FunctionCall converter : configuration.converters) {
+                // The first converter with a name wins, as with the previous linear scans
+                this.converters.putIfAbsent(converter.getName(), converter);
+            }
+        }
+    }
 }
@@ -0,0 +1,108 @@
+package com.sap.fontus.config;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Hash index over configuration entries which describe a method, keyed by owner, name and descriptor.
+ * <p>
+ * Most lookups during instrumentation are for methods which are not configured at all,
+ * so a bloom filter answers those without allocating a key or touching the map.
+ * Entries sharing a key are kept in configuration order, so callers can still apply the first matching entry.
+ */
+final class MethodIndex<T> {
+    private static final int BITS_PER_ENTRY = 16;
+    private static final int HASH_FUNCTIONS = 3;
+
+    private final Map<Key, List<T>> entries;
+    private final long[] filter;
+    private final int mask;
+
+    MethodIndex(Collection<? extends T> values, Function<? super T, String> owner, Function<? super T, String> name, Function<? super T, String> descriptor) {
+        this.entries = new HashMap<>();
+        int bits = Integer.highestOneBit(Math.max(64, values.size() * BITS_PER_ENTRY - 1) << 1);
+        this.filter = new long[bits >>> 6];
+        this.mask = bits - 1;
+        for (T value : values) {
+            String o = owner.apply(value);
+            String n = name.apply(value);
+            String d = descriptor.apply(value);
+            this.entries.computeIfAbsent(new Key(o, n, d), k -> new ArrayList<>(1)).add(value);
+            int hash = hash(o, n, d);
+            int step = step(hash);
+            for (int i = 0; i < HASH_FUNCTIONS; i++) {
+                int bit = (hash + i * step) & this.mask;
+                this.filter[bit >>> 6] |= 1L << bit;
+            }
+        }
+    }
+
+    /**
+     * Returns all entries for the given method in configuration order
+     */
+    List<T> get(String owner, String name, String descriptor) {
+        if (!this.mightContain(owner, name, descriptor)) {
+            return Collections.emptyList();
+        }
+        List<T> values = this.entries.get(new Key(owner, name, descriptor));
+        return values == null ? Collections.emptyList() : values;
+    }
+
+    boolean mightContain(String owner, String name, String descriptor) {
+        int hash = hash(owner, name, descriptor);
+        int step = step(hash);
+        for (int i = 0; i < HASH_FUNCTIONS; i++) {
+            int bit = (hash + i * step) & this.mask;
+            if ((this.filter[bit >>> 6] & (1L << bit)) == 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int size() {
+        return this.entries.size();
+    }
+
+    private static int hash(String owner, String name, String descriptor) {
+        // String caches its hash code, so this does not rehash the strings on every lookup
+        return (Objects.hashCode(owner) * 31 + Objects.hashCode(name)) * 31 + Objects.hashCode(descriptor);
+    }
+
+    private static int step(int hash) {
+        // Second hash for double hashing, forced to be odd so all bits of the filter are reachable
+        int h = hash * 0x9E3779B9;
+        return (h ^ (h >>> 16)) | 1;
+    }
+
+    private static final class Key {
+        private final String owner;
+        private final String name;
+        private final String descriptor;
+
+        private Key(String owner, String name, String descriptor) {
+            this.owner = owner;
+            this.name = name;
+            this.descriptor = descriptor;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (obj == null || this.getClass() != obj.getClass()) return false;
+            Key that = (Key) obj;
+            return Objects.equals(this.owner, that.owner) && Objects.equals(this.name, that.name) && Objects.equals(this.descriptor, that.descriptor);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash(this.owner, this.name, this.descriptor);
+        }
+    }
+}
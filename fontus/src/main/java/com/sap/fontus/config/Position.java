@@ -2,6 +2,7 @@ package com.sap.fontus.config;
 
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
+import java.util.Objects;
 
 @XmlRootElement(name = "position")
 public class Position {
@@ -71,4 +72,9 @@ public class Position {
         Position position = (Position) o;
         return this.javaSourcePosition == position.javaSourcePosition && this.className.equals(position.className) && this.methodName.equals(position.methodName);
     }
-}
\ No newline at end of file
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.className, this.methodName, this.javaSourcePosition);
+    }
+}
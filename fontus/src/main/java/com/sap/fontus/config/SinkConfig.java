@@ -1,12 +1,18 @@
 package com.sap.fontus.config;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlElementWrapper;
 import com.sap.fontus.asm.FunctionCall;
 
 import javax.xml.bind.annotation.XmlElement;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class SinkConfig {
 
@@ -14,6 +20,12 @@ public class SinkConfig {
     @XmlElement(name = "sink")
     private final List<Sink> sinks;
 
+    /**
+     * Lookup tables over the sinks, built on first use as the list is filled by the deserializer
+     */
+    @JsonIgnore
+    private volatile Index index;
+
     public SinkConfig() {
         this.sinks = new ArrayList<>();
     }
@@ -24,10 +36,20 @@ public class SinkConfig {
 
     public void append(SinkConfig sinkconfig) {
         this.sinks.addAll(sinkconfig.sinks);
+        this.index = null;
+    }
+
+    private Index getIndex() {
+        Index idx = this.index;
+        if (idx == null) {
+            idx = new Index(this.sinks);
+            this.index = idx;
+        }
+        return idx;
     }
 
     public Sink getSinkForFunction(FunctionCall fc) {
-        for (Sink s : this.sinks) {
+        for (Sink s : this.getIndex().byFunction.get(fc.getOwner(), fc.getName(), fc.getDescriptor())) {
             if (s.getFunction().equals(fc)) {
                 return s;
             }
@@ -36,18 +58,16 @@ public class SinkConfig {
     }
 
     public Sink getSinkForFunction(FunctionCall fc, Position pos) {
-        for (Sink s : this.sinks) {
+        Index idx = this.getIndex();
+        for (Sink s : idx.byFunction.get(fc.getOwner(), fc.getName(), fc.getDescriptor())) {
             if (s.getFunction().equals(fc)) {
                 // If no position is specified in the config then this sink applies always
                 if (s.getPositions().isEmpty() || pos == null) {
                     return s;
-                } else {
-                    // check if current position of this function call is a sink position
-                    for (Position p : s.getPositions()) {
-                        if(p.equals(pos)) {
-                            return s;
-                        }
-                    }
+                }
+                // check if current position of this function call is a sink position
+                if (idx.positions.get(s).contains(pos)) {
+                    return s;
                 }
             }
         }
@@ -56,30 +76,15 @@ public class SinkConfig {
     }
 
     public Sink getPositionDependentSinkForFunction(FunctionCall fc, int line) {
-        for (Sink s : this.sinks) {
-            if (s.getFunction().equals(fc)) { // && s.getPosition() == line) {
-                return s;
-            }
-        }
-        return null;
+        return this.getSinkForFunction(fc);
     }
 
     public Sink getSinkForFqn(String fqn) {
-        for (Sink s : this.sinks) {
-            if (s.getFunction().getFqn().equals(fqn)) {
-                return s;
-            }
-        }
-        return null;
+        return this.getIndex().byFqn.get(fqn);
     }
 
     public Sink getSinkForName(String name) {
-        for (Sink s : this.sinks) {
-            if (s.getName().equals(name)) {
-                return s;
-            }
-        }
-        return null;
+        return this.getIndex().byName.get(name);
     }
 
     public boolean containsFunction(FunctionCall fc) {
@@ -96,4 +101,26 @@ public class SinkConfig {
                 "sinks=" + this.sinks +
                 '}';
     }
+
+    private static final class Index {
+        private final MethodIndex<Sink> byFunction;
+        private final Map<Sink, Set<Position>> positions;
+        private final Map<String, Sink> byFqn;
+        private final Map<String, Sink> byName;
+
+        private Index(List<Sink> sinks) {
+            this.byFunction = new MethodIndex<>(sinks, s -> s.getFunction().getOwner(), s -> s.getFunction().getName(), s -> s.getFunction().getDescriptor());
+            this.positions = new IdentityHashMap<>();
+            this.byFqn = new HashMap<>();
+            this.byName = new HashMap<>();
+            for (Sink s : sinks) {
+                if (!s.getPositions().isEmpty()) {
+                    this.positions.put(s, new HashSet<>(s.getPositions()));
+                }
+                // The first sink wins, as with the previous linear scans
+                this.byFqn.putIfAbsent(s.getFunction().getFqn(), s);
+                this.byName.putIfAbsent(s.getName(), s);
+            }
+        }
+    }
 }
@@ -2,10 +2,13 @@ package com.sap.fontus.config;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.xml.bind.annotation.XmlElement;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlElementWrapper;
 
 import com.sap.fontus.asm.FunctionCall;
@@ -22,10 +25,20 @@ public class SourceConfig {
 
     public void append(SourceConfig sourceConfig) {
         this.sources.addAll(sourceConfig.sources);
+        this.index = null;
+    }
+
+    private Index getIndex() {
+        Index idx = this.index;
+        if (idx == null) {
+            idx = new Index(this.sources);
+            this.index = idx;
+        }
+        return idx;
     }
 
     public Source getSourceForFunction(FunctionCall fc) {
-        for (Source s : this.sources) {
+        for (Source s : this.getIndex().byFunction.get(fc.getOwner(), fc.getName(), fc.getDescriptor())) {
             if (s.getFunction().equals(fc)) {
                 return s;
             }
@@ -34,12 +47,7 @@ public class SourceConfig {
     }
 
     public Source getSourceWithName(String name) {
-        for (Source s : this.sources) {
-            if (s.getName().equals(name)) {
-                return s;
-            }
-        }
-        return null;
+        return this.getIndex().byName.get(name);
     }
 
     public boolean containsFunction(FunctionCall fc) {
@@ -54,10 +62,29 @@ public class SourceConfig {
     @XmlElement(name = "source")
     private final List<Source> sources;
 
+    /**
+     * Lookup tables over the sources, built on first use as the list is filled by the deserializer
+     */
+    @JsonIgnore
+    private volatile Index index;
+
     @Override
     public String toString() {
         return "SourceConfig{" +
                 "sources=" + this.sources +
                 '}';
     }
+
+    private static final class Index {
+        private final MethodIndex<Source> byFunction;
+        private final Map<String, Source> byName;
+
+        private Index(List<Source> sources) {
+            this.byFunction = new MethodIndex<>(sources, s -> s.getFunction().getOwner(), s -> s.getFunction().getName(), s -> s.getFunction().getDescriptor());
+            this.byName = new HashMap<>();
+            for (Source s : sources) {
+                this.byName.putIfAbsent(s.getName(), s);
+            }
+        }
+    }
 }
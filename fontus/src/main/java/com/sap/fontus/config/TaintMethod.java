@@ -8,6 +8,7 @@ public enum TaintMethod {
 //    LAZYCOMPLEX(Constants.LAZY_COMPLEX_METHOD_NAME, Constants.LAZY_COMPLEX_METHOD_PATH, new com.sap.fontus.taintaware.lazycomplex.IASFactoryImpl()),
     LAZYBASIC(Constants.LAZY_BASIC_METHOD_NAME, Constants.LAZY_BASIC_METHOD_PATH),
     ARRAY(Constants.ARRAY_METHOD_NAME, Constants.ARRAY_METHOD_PATH),
+    INTERVAL(Constants.INTERVAL_METHOD_NAME, Constants.INTERVAL_METHOD_PATH),
     UNTAINTED(Constants.UNTAINTED_METHOD_NAME, Constants.UNTAINTED_METHOD_PATH);
 
     public static final String defaultTaintMethodName = Constants.BOOLEAN_METHOD_NAME;
@@ -12,8 +12,17 @@ public class AbortObject {
     private final IASTaintRanges ranges;
     private final List<String> stackTrace;
     private final List<String> categories;
+    private final long occurrence;
 
     public AbortObject(String sinkFunction, String sinkName, String payload, IASTaintRanges ranges, List<String> stackTrace) {
+        this(sinkFunction, sinkName, payload, ranges, stackTrace, 1L);
+    }
+
+    /**
+     * @param occurrence How often a violation happened at this call site, the stack trace might only contain the call site if it's larger than 1
+     */
+    public AbortObject(String sinkFunction, String sinkName, String payload, IASTaintRanges ranges, List<String> stackTrace, long occurrence) {
+        this.occurrence = occurrence;
         this.sinkFunction = sinkFunction;
         this.sinkName = sinkName;
         this.payload = payload;
@@ -45,4 +54,8 @@ public class AbortObject {
     public List<String> getCategories() {
         return this.categories;
     }
+
+    public long getOccurrence() {
+        return this.occurrence;
+    }
 }
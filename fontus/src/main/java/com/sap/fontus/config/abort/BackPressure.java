@@ -0,0 +1,34 @@
+package com.sap.fontus.config.abort;
+
+import java.util.Locale;
+
+/**
+ * What an {@link com.sap.fontus.utils.AsyncWriter} does with new items while its queue is full
+ */
+public enum BackPressure {
+    /**
+     * New items are dropped until the writer caught up
+     */
+    DROP,
+    /**
+     * Once the queue is half full only every {@link com.sap.fontus.utils.AsyncWriter#SAMPLE_RATE}th item is queued, the others are dropped
+     */
+    SAMPLE,
+    /**
+     * The reporting thread waits until there is space in the queue, no item is lost
+     */
+    BLOCK;
+
+    /**
+     * @param name the policy name. case insensitive
+     * @return the policy or null if no corresponding one was found
+     */
+    public static BackPressure parse(String name) {
+        for (BackPressure backPressure : values()) {
+            if (backPressure.name().equals(name.toUpperCase(Locale.ROOT))) {
+                return backPressure;
+            }
+        }
+        return null;
+    }
+}
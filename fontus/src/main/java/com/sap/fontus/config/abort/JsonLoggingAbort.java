@@ -1,40 +1,33 @@
 package com.sap.fontus.config.abort;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-
 import com.sap.fontus.config.Configuration;
 import com.sap.fontus.taintaware.IASTaintAware;
 import com.sap.fontus.taintaware.unified.IASString;
+import com.sap.fontus.utils.StackCapture;
 
-import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 
 import static com.sap.fontus.utils.Utils.convertStackTrace;
 
+/**
+ * Appends each violation as JSON object to {@link Configuration#getAbortOutputFile()}, written by a {@link ViolationReporter}
+ */
 public class JsonLoggingAbort extends Abort {
-    private final List<AbortObject> previousAborts = new ArrayList<>();
-    private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Override
     public IASTaintAware abort(IASTaintAware taintAware, Object instance, String sinkFunction, String sinkName, List<StackTraceElement> stackTrace) {
         IASString taintedString = taintAware.toIASString();
+        long occurrence = StackCapture.countOccurrence(stackTrace);
+        // The whole stack is only logged for the first violation at a call site
+        List<StackTraceElement> loggedStackTrace = occurrence > 1L ? StackCapture.callSiteFrames(stackTrace) : stackTrace;
+        // The ranges are copied, as the report is serialized later on
         AbortObject abort = new AbortObject(sinkFunction, sinkName, taintedString.getString(),
-                taintedString.getTaintInformationInitialized().getTaintRanges(taintedString.length()),
-                convertStackTrace(stackTrace));
-        this.previousAborts.add(abort);
-        this.saveAborts();
+                taintedString.getTaintInformationInitialized().getTaintRanges(taintedString.length()).copy(),
+                convertStackTrace(loggedStackTrace), occurrence);
+        ViolationReporter.forJsonFile(Configuration.getConfiguration().getAbortOutputFile()).report(abort);
         return taintAware;
     }
 
-    private void saveAborts() {
-        try {
-            this.objectMapper.writeValue(Configuration.getConfiguration().getAbortOutputFile(), this.previousAborts);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-    }
-
     @Override
     public String getName() {
         return "json_logging";
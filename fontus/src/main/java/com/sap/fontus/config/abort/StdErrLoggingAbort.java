@@ -7,7 +7,8 @@ import java.util.List;
 public class StdErrLoggingAbort extends Abort {
     @Override
     public IASTaintAware abort(IASTaintAware taintAware, Object instance, String sinkFunction, String sinkName, List<StackTraceElement> stackTrace) {
-        System.err.printf("String \"%s\" is tainted and reached sink \"%s\" of category \"%s\"! \n", taintAware, sinkFunction, sinkName);
+        // Formatted right away, as the taint aware might be modified until the report is written
+        ViolationReporter.forStdErr().report(String.format("String \"%s\" is tainted and reached sink \"%s\" of category \"%s\"! ", taintAware, sinkFunction, sinkName));
         // Utils.printStackTrace(stackTrace);
         return taintAware;
     }
@@ -0,0 +1,173 @@
+package com.sap.fontus.config.abort;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sap.fontus.config.Configuration;
+import com.sap.fontus.utils.AsyncWriter;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Writes taint violation reports on a background thread, so sinks don't wait for I/O.
+ * <p>
+ * Reports are formatted and written by an {@link AsyncWriter}. What happens if its queue is full is configured by the
+ * {@link Configuration#getReportBackPressure()}, the number of dropped reports is written to the output as well.
+ * Files are written as newline delimited JSON and rotated once they exceed {@link Configuration#getReportFileSize()}.
+ * <p>
+ * Aborts writing to the same output share one reporter.
+ */
+public final class ViolationReporter {
+    private static final int ROTATED_FILES = 4;
+
+    private static final Map<String, ViolationReporter> reporters = new ConcurrentHashMap<>();
+
+    private final AsyncWriter<Object> writer;
+
+    private ViolationReporter(String name, Output output, Function<Object, String> formatter) {
+        this(name, output, formatter, Configuration.getConfiguration().getReportQueueSize(), Configuration.getConfiguration().getReportBackPressure());
+    }
+
+    ViolationReporter(String name, Output output, Function<Object, String> formatter, int capacity, BackPressure backPressure) {
+        this.writer = new AsyncWriter<>("report-" + name, capacity, backPressure, new AsyncWriter.Output<Object>() {
+            @Override
+            public void write(Object report) throws IOException {
+                output.write(formatter.apply(report));
+            }
+
+            @Override
+            public void dropped(long count) throws IOException {
+                output.write(String.format("{\"dropped\":%d}", count));
+            }
+
+            @Override
+            public void flush() throws IOException {
+                output.flush();
+            }
+        });
+    }
+
+    /**
+     * Reporter writing the reports as JSON objects, one per line
+     */
+    public static ViolationReporter forJsonFile(File file) {
+        return reporters.computeIfAbsent(file.getAbsolutePath(), path -> {
+            ObjectMapper objectMapper = new ObjectMapper();
+            return new ViolationReporter(file.getName(), new FileOutput(file, Configuration.getConfiguration().getReportFileSize() * 1024L * 1024L), report -> {
+                try {
+                    return objectMapper.writeValueAsString(report);
+                } catch (IOException e) {
+                    return String.format("{\"error\":\"Could not serialize report: %s\"}", String.valueOf(e.getMessage()).replace('"', '\''));
+                }
+            });
+        });
+    }
+
+    /**
+     * Reporter writing the reports as they are to stderr
+     */
+    public static ViolationReporter forStdErr() {
+        return reporters.computeIfAbsent("stderr", name -> new ViolationReporter(name, new StreamOutput(System.err), String::valueOf));
+    }
+
+    /**
+     * Queues the report, it has to be immutable, as it is formatted later on
+     */
+    public void report(Object report) {
+        this.writer.submit(report);
+    }
+
+    /**
+     * Writes the queued reports, later reports are written directly
+     */
+    void close() {
+        this.writer.close();
+    }
+
+    interface Output {
+        void write(String line) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    private static final class StreamOutput implements Output {
+        private final PrintStream stream;
+
+        private StreamOutput(PrintStream stream) {
+            this.stream = stream;
+        }
+
+        @Override
+        public void write(String line) {
+            this.stream.println(line);
+        }
+
+        @Override
+        public void flush() {
+            this.stream.flush();
+        }
+    }
+
+    /**
+     * Appends to a file, which is moved to {@code <file>.1} (and the older ones to {@code <file>.2} and so on) once it exceeds the maximum size
+     */
+    static final class FileOutput implements Output {
+        private final File file;
+        private final long maxBytes;
+        private Writer writer;
+        private long written;
+
+        FileOutput(File file, long maxBytes) {
+            this.file = file;
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public void write(String line) throws IOException {
+            if (this.writer == null) {
+                this.open();
+            }
+            this.writer.write(line);
+            this.writer.write('\n');
+            // Close enough for rotation, most reports are ASCII
+            this.written += line.length() + 1L;
+            if (this.maxBytes > 0L && this.written >= this.maxBytes) {
+                this.rotate();
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (this.writer != null) {
+                this.writer.flush();
+            }
+        }
+
+        private void open() throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(this.file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.APPEND), StandardCharsets.UTF_8));
+            this.written = this.file.length();
+        }
+
+        private void rotate() throws IOException {
+            this.writer.close();
+            this.writer = null;
+            for (int i = ROTATED_FILES - 1; i >= 1; i--) {
+                File older = new File(this.file.getPath() + '.' + i);
+                if (older.exists()) {
+                    Files.move(older.toPath(), new File(this.file.getPath() + '.' + (i + 1)).toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(this.file.toPath(), new File(this.file.getPath() + ".1").toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.sap.fontus.config.taintloss;
+
+import com.sap.fontus.taintaware.IASTaintAware;
+
+import java.util.List;
+
+/**
+ * Counts the events per call site with the {@link TaintlossAggregator}, cheap enough to stay enabled in production
+ */
+public class AggregatingTaintlossHandler extends TaintlossHandler {
+    @Override
+    protected void handleTaintlossInternal(IASTaintAware taintAware, List<StackTraceElement> stackTrace) {
+        TaintlossAggregator.INSTANCE.record(stackTrace);
+    }
+
+    @Override
+    public String getName() {
+        return "aggregating";
+    }
+}
@@ -1,6 +1,7 @@
 package com.sap.fontus.config.taintloss;
 
 import com.sap.fontus.taintaware.IASTaintAware;
+import com.sap.fontus.utils.StackCapture;
 
 import java.util.List;
 
@@ -9,8 +10,16 @@ import static com.sap.fontus.utils.Utils.convertStackTrace;
 public abstract class LoggingTaintlossHandler extends TaintlossHandler {
     protected final String format(IASTaintAware taintAware, List<StackTraceElement> stackTrace) {
         StringBuilder stringBuilder = new StringBuilder();
-        stringBuilder.append(String.format("Taintlossy method hit on string \"%s\"!\n", taintAware));
-        List<String> stackTraceStrings = convertStackTrace(stackTrace);
+        long occurrence = StackCapture.countOccurrence(stackTrace);
+        List<String> stackTraceStrings;
+        if (occurrence > 1L) {
+            // The whole stack was logged the first time
+            stringBuilder.append(String.format("Taintlossy method hit on string \"%s\" (%d times at this call site)!\n", taintAware, occurrence));
+            stackTraceStrings = convertStackTrace(StackCapture.callSiteFrames(stackTrace));
+        } else {
+            stringBuilder.append(String.format("Taintlossy method hit on string \"%s\"!\n", taintAware));
+            stackTraceStrings = convertStackTrace(stackTrace);
+        }
         for (String ste : stackTraceStrings) {
             stringBuilder.append("\tat ").append(ste).append('\n');
         }
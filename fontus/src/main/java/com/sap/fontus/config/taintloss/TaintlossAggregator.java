@@ -0,0 +1,123 @@
+package com.sap.fontus.config.taintloss;
+
+import com.sap.fontus.config.Configuration;
+import com.sap.fontus.config.abort.ViolationReporter;
+import com.sap.fontus.utils.StackCapture;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import static com.sap.fontus.utils.Utils.convertStackTrace;
+
+/**
+ * Counts taintloss events per call site ({@link StackCapture#callSite(List)}), instead of logging each event.
+ * <p>
+ * Besides the count, the first and last time an event was seen and the stack trace of the first event are kept.
+ * Summaries of the call sites with new events are written to the {@link Configuration#getTaintlossSummaryFile()} every
+ * {@link Configuration#getTaintlossSummaryInterval()} seconds and on shutdown, the aggregates are available via the
+ * statistics MXBean as well.
+ */
+public final class TaintlossAggregator {
+    public static final TaintlossAggregator INSTANCE = new TaintlossAggregator(
+            summary -> ViolationReporter.forJsonFile(new File(Configuration.getConfiguration().getTaintlossSummaryFile())).report(summary), true);
+    private static final int MAX_CALL_SITES = 10_000;
+    /**
+     * Call site of the events once there are too many call sites
+     */
+    static final String OTHER_CALL_SITES = "<other>";
+
+    private final Map<String, Aggregate> aggregates = new ConcurrentHashMap<>();
+    private final Consumer<? super TaintlossSummary> output;
+    private final boolean scheduled;
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    /**
+     * @param output    Receives the summaries of the call sites with new events
+     * @param scheduled Whether the summaries are written periodically and on shutdown, otherwise only by {@link #writeSummaries()}
+     */
+    TaintlossAggregator(Consumer<? super TaintlossSummary> output, boolean scheduled) {
+        this.output = output;
+        this.scheduled = scheduled;
+    }
+
+    private static final class Aggregate {
+        private final LongAdder count = new LongAdder();
+        private final long firstSeen;
+        private volatile long lastSeen;
+        private final List<String> sampleTrace;
+        // Only accessed while writing summaries
+        private long reportedCount;
+
+        private Aggregate(long now, List<String> sampleTrace) {
+            this.firstSeen = now;
+            this.lastSeen = now;
+            this.sampleTrace = sampleTrace;
+        }
+    }
+
+    public void record(List<StackTraceElement> stackTrace) {
+        this.start();
+        long now = System.currentTimeMillis();
+        String callSite = StackCapture.callSite(stackTrace);
+        Aggregate aggregate = this.aggregates.get(callSite);
+        if (aggregate == null) {
+            if (this.aggregates.size() >= MAX_CALL_SITES) {
+                callSite = OTHER_CALL_SITES;
+            }
+            // The trace is only converted for the first event at a call site
+            aggregate = this.aggregates.computeIfAbsent(callSite, key -> new Aggregate(now, convertStackTrace(stackTrace)));
+        }
+        aggregate.count.increment();
+        aggregate.lastSeen = now;
+    }
+
+    private void start() {
+        if (!this.scheduled || this.started.get() || !this.started.compareAndSet(false, true)) {
+            return;
+        }
+        int interval = Math.max(1, Configuration.getConfiguration().getTaintlossSummaryInterval());
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "fontus-taintloss-summary");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::writeSummaries, interval, interval, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::writeSummaries, "fontus-taintloss-summary-flusher"));
+    }
+
+    synchronized void writeSummaries() {
+        for (Map.Entry<String, Aggregate> entry : this.aggregates.entrySet()) {
+            Aggregate aggregate = entry.getValue();
+            long count = aggregate.count.sum();
+            if (count > aggregate.reportedCount) {
+                this.output.accept(summarize(entry.getKey(), aggregate, count));
+                aggregate.reportedCount = count;
+            }
+        }
+    }
+
+    private static TaintlossSummary summarize(String callSite, Aggregate aggregate, long count) {
+        return new TaintlossSummary(callSite, count, count - aggregate.reportedCount, aggregate.firstSeen, aggregate.lastSeen, aggregate.sampleTrace);
+    }
+
+    public synchronized List<TaintlossSummary> getSummaries() {
+        List<TaintlossSummary> summaries = new ArrayList<>(this.aggregates.size());
+        for (Map.Entry<String, Aggregate> entry : this.aggregates.entrySet()) {
+            summaries.add(summarize(entry.getKey(), entry.getValue(), entry.getValue().count.sum()));
+        }
+        return summaries;
+    }
+
+    public void reset() {
+        this.aggregates.clear();
+    }
+}
@@ -2,6 +2,7 @@ package com.sap.fontus.config.taintloss;
 
 import com.sap.fontus.config.Configuration;
 import com.sap.fontus.taintaware.IASTaintAware;
+import com.sap.fontus.utils.StackCapture;
 
 import java.util.Arrays;
 import java.util.List;
@@ -9,13 +10,11 @@ import java.util.stream.Collectors;
 
 public abstract class TaintlossHandler {
     private static final TaintlossHandler[] handlers = {
-            new StdErrLoggingTaintlossHandler(), new FileLoggingTaintlossHandler(), new StatisticsTaintlossHandler()
+            new StdErrLoggingTaintlossHandler(), new FileLoggingTaintlossHandler(), new StatisticsTaintlossHandler(), new AggregatingTaintlossHandler()
     };
 
     public final void handleTaintloss(IASTaintAware taintAware) {
-        StackTraceElement[] stack = Thread.currentThread().getStackTrace();
-
-        List<StackTraceElement> stackTrace = Arrays.stream(stack, 3, stack.length).collect(Collectors.toList());
+        List<StackTraceElement> stackTrace = StackCapture.captureBelow(TaintlossHandler.class);
 
         this.handleTaintlossInternal(taintAware, stackTrace);
     }
@@ -0,0 +1,57 @@
+package com.sap.fontus.config.taintloss;
+
+import java.util.List;
+
+/**
+ * Taintloss events at one call site, as reported by the {@link TaintlossAggregator}
+ */
+public class TaintlossSummary {
+    private final String callSite;
+    private final long count;
+    private final long newCount;
+    private final long firstSeen;
+    private final long lastSeen;
+    private final List<String> sampleTrace;
+
+    TaintlossSummary(String callSite, long count, long newCount, long firstSeen, long lastSeen, List<String> sampleTrace) {
+        this.callSite = callSite;
+        this.count = count;
+        this.newCount = newCount;
+        this.firstSeen = firstSeen;
+        this.lastSeen = lastSeen;
+        this.sampleTrace = sampleTrace;
+    }
+
+    public String getCallSite() {
+        return this.callSite;
+    }
+
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Number of events since the previous summary was written
+     */
+    public long getNewCount() {
+        return this.newCount;
+    }
+
+    /**
+     * Milliseconds since the epoch
+     */
+    public long getFirstSeen() {
+        return this.firstSeen;
+    }
+
+    public long getLastSeen() {
+        return this.lastSeen;
+    }
+
+    /**
+     * Stack trace of the first event
+     */
+    public List<String> getSampleTrace() {
+        return this.sampleTrace;
+    }
+}
@@ -1,5 +1,6 @@
 package com.sap.fontus.gdpr.metadata;
 
+// Persisted by ordinal in the taint columns, new constants have to be appended
 public enum ProtectionLevel {
     Undefined, Normal, Sensitive
 }
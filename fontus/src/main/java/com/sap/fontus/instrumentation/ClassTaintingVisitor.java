@@ -99,11 +99,11 @@ class ClassTaintingVisitor extends ClassVisitor {
         this.interfaces = interfaces;
 
         if (superName != null) {
-            SpeculativeParallelInstrumenter.getInstance().submitSpeculativeInstrumentation(superName, this.loader);
+            this.prefetch(superName);
         }
         if (interfaces != null) {
             for (String intf : interfaces) {
-                SpeculativeParallelInstrumenter.getInstance().submitSpeculativeInstrumentation(intf, this.loader);
+                this.prefetch(intf);
             }
         }
 
@@ -140,6 +140,21 @@ class ClassTaintingVisitor extends ClassVisitor {
         super.visit(version, access, name, instrumentedSignature, this.superName, interfaces);
     }
 
+    /**
+     * Submits a referenced class for speculative instrumentation, so it is likely instrumented once it is loaded
+     */
+    private void prefetch(String internalName) {
+        if (this.config.isSpeculativeActive()) {
+            SpeculativeParallelInstrumenter.getInstance().submitSpeculativeInstrumentation(internalName, this.loader);
+        }
+    }
+
+    private void prefetch(Type type) {
+        if (type.getSort() == Type.OBJECT) {
+            this.prefetch(type.getInternalName());
+        }
+    }
+
     private void initJdkClasses() {
         ClassTraverser classTraverser = new ClassTraverser(this.combinedExcludedLookup);
         if (!this.isAnnotation) {
@@ -161,9 +176,7 @@ class ClassTaintingVisitor extends ClassVisitor {
             return super.visitField(access, name, descriptor, signature, value);
         }
 
-        String internalName = Type.getType(descriptor).getInternalName();
-
-        SpeculativeParallelInstrumenter.getInstance().submitSpeculativeInstrumentation(internalName, this.loader);
+        this.prefetch(Type.getType(descriptor));
 
         return this.instrumentationHelper.instrumentFieldInstruction(this.visitor, access, name, descriptor, signature, value, (n, d, v) -> this.staticFinalFields.add(FieldData.of(n, d, v))).orElse(null);
     }
@@ -182,9 +195,9 @@ class ClassTaintingVisitor extends ClassVisitor {
 
         Type descriptorType = Type.getMethodType(descriptor);
         for (Type arg : descriptorType.getArgumentTypes()) {
-            SpeculativeParallelInstrumenter.getInstance().submitSpeculativeInstrumentation(arg.getInternalName(), this.loader);
+            this.prefetch(arg);
         }
-        SpeculativeParallelInstrumenter.getInstance().submitSpeculativeInstrumentation(descriptorType.getReturnType().getInternalName(), this.loader);
+        this.prefetch(descriptorType.getReturnType());
 
 
 
@@ -548,7 +561,7 @@ class ClassTaintingVisitor extends ClassVisitor {
                 }
             }
         }
-        logger.info("Creating proxy for inherited, but not overridden JDK method " + m);
+        logger.info("Creating proxy for inherited, but not overridden JDK method {}", m);
         Descriptor originalDescriptor = Descriptor.parseDescriptor(m.getDescriptor());
         Descriptor instrumentedDescriptor = this.instrumentationHelper.instrument(originalDescriptor);
 
@@ -569,7 +582,7 @@ class ClassTaintingVisitor extends ClassVisitor {
             // If this class extends a JDK class (ie we could not add an instrumented method to the superclass),
             // then create a proxy with instrumented arguments to the non-instrumented super class.
             if(Modifier.isStatic(m.getAccess())) {
-                logger.info("Creating static proxy for inherited, but not overridden JDK method " + m);
+                logger.info("Creating static proxy for inherited, but not overridden JDK method {}", m);
                 this.generateInstrumentedStaticProxyToSuper(mv, m, originalDescriptor, instrumentedDescriptor);
             } else {
                 this.generateInstrumentedProxyToSuper(mv, m, originalDescriptor, instrumentedDescriptor);
@@ -587,7 +600,7 @@ class ClassTaintingVisitor extends ClassVisitor {
             MethodVisitor mv2 = super.visitMethod(modifiers, m.getName(), originalDescriptor.toDescriptor(), signature, exceptions);
             // Create an uninstrumented proxy to the instrumented method in this class
             if(Modifier.isStatic(m.getAccess())) {
-                logger.info("Creating static proxy for inherited, but not overridden JDK method " + m);
+                logger.info("Creating static proxy for inherited, but not overridden JDK method {}", m);
                 this.generateProxyToStaticInstrumented(mv2, m.getName(), originalDescriptor);
             } else {
                 this.generateProxyToInstrumented(mv2, m.getName(), originalDescriptor, null, Optional.empty());
@@ -2,20 +2,21 @@ package com.sap.fontus.sanitizer;
 
 import com.alibaba.druid.sql.parser.Token;
 import com.sap.fontus.config.abort.AbortObject;
+import com.sap.fontus.config.abort.ViolationReporter;
 import com.sap.fontus.taintaware.shared.IASTaintRange;
 import com.sap.fontus.taintaware.shared.IASTaintRanges;
 import com.sap.fontus.utils.NetworkRequestObject;
 import com.sap.fontus.utils.NetworkResponseObject;
 
-import java.io.IOException;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.logging.FileHandler;
-import java.util.logging.Logger;
-import java.util.logging.SimpleFormatter;
+import java.util.Map;
 
 public class SQLChecker {
+    private static final File SQL_INJECTION_LOG = new File("sql_injection_logger.ndjson");
 
     // List of tokens which are allowed to be tainted
     // Prevents keywords being tainted
@@ -149,27 +150,34 @@ public class SQLChecker {
         IASTaintRanges taintRanges = abortObject.getRanges();
 
         List<SqlTokenOverlap> jsonArray = getSqlInjectionInfo(tokenRanges, taintRanges, addlPos);
-        System.out.println("logTaintedString : " + jsonArray);
         if(!jsonArray.isEmpty()){
-            Logger logger = Logger.getLogger("SqlInjectionLog");
-            FileHandler fh;
-            try {
-                // This block configures the logger with handler and formatter
-                fh = new FileHandler("sql_injection_logger.log", true);
-                logger.addHandler(fh);
-                SimpleFormatter formatter = new SimpleFormatter();
-                fh.setFormatter(formatter);
-
-                // the following statement is used to log any messages
-                logger.info(jsonArray.toString());
-
-            } catch (SecurityException | IOException e) {
-                e.printStackTrace();
-            }
+            // Written in the background, the exception is what stops the query
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("sinkFunction", sink);
+            report.put("payload", abortObject.getPayload());
+            report.put("overlaps", toReport(jsonArray));
+            ViolationReporter.forJsonFile(SQL_INJECTION_LOG).report(report);
             throw new RuntimeException("Logging: SQL Injection Error");
         }
     }
 
+    /**
+     * Plain values of the overlaps, so they are written as JSON objects without serializing the taint metadata
+     */
+    private static List<Map<String, Object>> toReport(List<SqlTokenOverlap> overlaps) {
+        List<Map<String, Object>> report = new ArrayList<>(overlaps.size());
+        for (SqlTokenOverlap overlap : overlaps) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("token", String.valueOf(overlap.getToken().getToken()));
+            entry.put("tokenBegin", overlap.getToken().begin);
+            entry.put("tokenEnd", overlap.getToken().end);
+            entry.put("taintStart", overlap.getRange().getStart());
+            entry.put("taintEnd", overlap.getRange().getEnd());
+            report.add(entry);
+        }
+        return report;
+    }
+
     public static void main(String[] args) {
         //String sqlString = "insert into table1 values      (data1, data2)";
         String sqlString = "SELECT * FROM student_data where student_name = 1";
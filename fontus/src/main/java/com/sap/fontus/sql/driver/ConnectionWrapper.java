@@ -14,20 +14,31 @@ import java.util.concurrent.Executor;
 public class ConnectionWrapper extends AbstractWrapper implements Connection {
 
     private final Connection delegate;
+    // Null if the taint index is disabled
+    private final TaintIndex.Writer indexWriter;
 
     public static ConnectionWrapper wrap(Connection delegate) {
+        return wrap(delegate, null);
+    }
+
+    public static ConnectionWrapper wrap(Connection delegate, TaintIndex.Writer indexWriter) {
         if (delegate == null) {
             return null;
         }
-        return new ConnectionWrapper(delegate);
+        return new ConnectionWrapper(delegate, indexWriter);
     }
 
     protected ConnectionWrapper(Connection delegate) {
+        this(delegate, null);
+    }
+
+    protected ConnectionWrapper(Connection delegate, TaintIndex.Writer indexWriter) {
         super(delegate);
         if (delegate == null) {
             throw new IllegalArgumentException("Delegate must not be null");
         }
         this.delegate = delegate;
+        this.indexWriter = indexWriter;
     }
 
     public Connection getDelegate() {
@@ -52,38 +63,38 @@ public class ConnectionWrapper extends AbstractWrapper implements Connection {
     @Override
     public PreparedStatement prepareStatement(String sql) throws SQLException {
         Pair<String, QueryParameters> tainted = QueryCache.INSTANCE.parseQuery(sql);
-        return PreparedStatementWrapper.wrap(this.delegate.prepareStatement(tainted.x),sql,tainted.x, tainted.y);
+        return PreparedStatementWrapper.wrap(this.delegate.prepareStatement(tainted.x), sql, tainted.x, tainted.y, this.indexWriter);
     }
 
     @Override
     public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
         Pair<String, QueryParameters> tainted = QueryCache.INSTANCE.parseQuery(sql);
-        return PreparedStatementWrapper.wrap(this.delegate.prepareStatement(tainted.x, resultSetType, resultSetConcurrency),sql,tainted.x, tainted.y);
+        return PreparedStatementWrapper.wrap(this.delegate.prepareStatement(tainted.x, resultSetType, resultSetConcurrency), sql, tainted.x, tainted.y, this.indexWriter);
     }
 
     @Override
     public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
         Pair<String, QueryParameters> tainted = QueryCache.INSTANCE.parseQuery(sql);
-        return PreparedStatementWrapper.wrap(this.delegate.prepareStatement(tainted.x, resultSetType, resultSetConcurrency, resultSetHoldability),sql,tainted.x, tainted.y);
+        return PreparedStatementWrapper.wrap(this.delegate.prepareStatement(tainted.x, resultSetType, resultSetConcurrency, resultSetHoldability), sql, tainted.x, tainted.y, this.indexWriter);
     }
 
     @Override
     public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
         Pair<String, QueryParameters> tainted = QueryCache.INSTANCE.parseQuery(sql);
-        return PreparedStatementWrapper.wrap(this.delegate.prepareStatement(tainted.x, autoGeneratedKeys),sql,tainted.x, tainted.y);
+        return PreparedStatementWrapper.wrap(this.delegate.prepareStatement(tainted.x, autoGeneratedKeys), sql, tainted.x, tainted.y, this.indexWriter);
     }
 
     @Override
     public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
         Pair<String, QueryParameters> tainted = QueryCache.INSTANCE.parseQuery(sql);
         //TODO: fix indexes ?
-        return PreparedStatementWrapper.wrap(this.delegate.prepareStatement(tainted.x, columnIndexes),sql,tainted.x, tainted.y);
+        return PreparedStatementWrapper.wrap(this.delegate.prepareStatement(tainted.x, columnIndexes), sql, tainted.x, tainted.y, this.indexWriter);
     }
 
     @Override
     public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
         Pair<String, QueryParameters> tainted = QueryCache.INSTANCE.parseQuery(sql);
-        return PreparedStatementWrapper.wrap(this.delegate.prepareStatement(tainted.x, columnNames),sql,tainted.x, tainted.y);
+        return PreparedStatementWrapper.wrap(this.delegate.prepareStatement(tainted.x, columnNames), sql, tainted.x, tainted.y, this.indexWriter);
     }
 
     @Override
@@ -0,0 +1,187 @@
+package com.sap.fontus.sql.driver;
+
+import com.sap.fontus.gdpr.metadata.AllowedPurpose;
+import com.sap.fontus.gdpr.metadata.DataSubject;
+import com.sap.fontus.gdpr.metadata.ExpiryDate;
+import com.sap.fontus.gdpr.metadata.GdprMetadata;
+import com.sap.fontus.gdpr.metadata.GdprTaintMetadata;
+import com.sap.fontus.gdpr.metadata.Identifiability;
+import com.sap.fontus.gdpr.metadata.ProtectionLevel;
+import com.sap.fontus.gdpr.metadata.Purpose;
+import com.sap.fontus.gdpr.metadata.Vendor;
+import com.sap.fontus.gdpr.metadata.registry.RegistryLinkedPurpose;
+import com.sap.fontus.gdpr.metadata.registry.RegistryLinkedVendor;
+import com.sap.fontus.gdpr.metadata.simple.SimpleAllowedPurpose;
+import com.sap.fontus.gdpr.metadata.simple.SimpleDataId;
+import com.sap.fontus.gdpr.metadata.simple.SimpleDataSubject;
+import com.sap.fontus.gdpr.metadata.simple.SimpleExpiryDate;
+import com.sap.fontus.gdpr.metadata.simple.SimpleGdprMetadata;
+import com.sap.fontus.gdpr.metadata.simple.SimplePurpose;
+import com.sap.fontus.gdpr.metadata.simple.SimpleVendor;
+import com.sap.fontus.taintaware.shared.IASTaintMetadata;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Field by field encoding of the simple GDPR metadata in the text taint encoding:
+ * <pre>
+ * purposes: collection kind, count, (purpose, expiry, vendor count, vendor...)...
+ * protection level, subjects: collection kind, count, identifier..., data id, portability, unrestricted, identifiability
+ * </pre>
+ * Purposes and vendors linked to the registries are stored by name, others with their id and names. Enums are stored
+ * by ordinal. Other implementations of the metadata are not encodable and written as JSON instead.
+ */
+final class GdprEncoding {
+    private static final String LIST = "l";
+    private static final String SET = "s";
+    private static final String REGISTRY_LINKED = "r";
+    private static final String SIMPLE = "s";
+
+    private GdprEncoding() {
+    }
+
+    static boolean isEncodable(IASTaintMetadata metadata) {
+        if (metadata.getClass() != GdprTaintMetadata.class) {
+            return false;
+        }
+        GdprMetadata gdprMetadata = ((GdprTaintMetadata) metadata).getMetadata();
+        if (gdprMetadata == null || gdprMetadata.getClass() != SimpleGdprMetadata.class
+                || gdprMetadata.getAllowedPurposes() == null || gdprMetadata.getSubjects() == null
+                || gdprMetadata.getProtectionLevel() == null || gdprMetadata.isIdentifiable() == null
+                || (gdprMetadata.getId() != null && gdprMetadata.getId().getClass() != SimpleDataId.class)) {
+            return false;
+        }
+        for (AllowedPurpose allowed : gdprMetadata.getAllowedPurposes()) {
+            if (allowed.getClass() != SimpleAllowedPurpose.class || allowed.getExpiryDate() == null
+                    || allowed.getExpiryDate().getClass() != SimpleExpiryDate.class || !isEncodable(allowed.getAllowedPurpose())
+                    || allowed.getAllowedVendors() == null) {
+                return false;
+            }
+            for (Vendor vendor : allowed.getAllowedVendors()) {
+                if (vendor == null || (vendor.getClass() != SimpleVendor.class && vendor.getClass() != RegistryLinkedVendor.class)) {
+                    return false;
+                }
+            }
+        }
+        for (DataSubject subject : gdprMetadata.getSubjects()) {
+            if (subject == null || subject.getClass() != SimpleDataSubject.class) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isEncodable(Purpose purpose) {
+        return purpose != null && (purpose.getClass() == SimplePurpose.class || purpose.getClass() == RegistryLinkedPurpose.class);
+    }
+
+    static void write(TaintTokens.Writer out, GdprMetadata metadata) {
+        Collection<AllowedPurpose> purposes = metadata.getAllowedPurposes();
+        out.string(purposes instanceof Set ? SET : LIST).number(purposes.size());
+        for (AllowedPurpose allowed : purposes) {
+            writePurpose(out, allowed.getAllowedPurpose());
+            Instant expiry = allowed.getExpiryDate().getDate();
+            out.flag(expiry != null);
+            if (expiry != null) {
+                out.number(expiry.getEpochSecond()).number(expiry.getNano());
+            }
+            out.number(allowed.getAllowedVendors().size());
+            for (Vendor vendor : allowed.getAllowedVendors()) {
+                writeVendor(out, vendor);
+            }
+        }
+        out.number(metadata.getProtectionLevel().ordinal());
+        Collection<DataSubject> subjects = metadata.getSubjects();
+        out.string(subjects instanceof Set ? SET : LIST).number(subjects.size());
+        for (DataSubject subject : subjects) {
+            out.string(subject.getIdentifier());
+        }
+        out.flag(metadata.getId() != null);
+        if (metadata.getId() != null) {
+            UUID uuid = metadata.getId().getUUID();
+            out.number(uuid.getMostSignificantBits()).number(uuid.getLeastSignificantBits());
+        }
+        out.flag(metadata.isQualifiedForPortability()).flag(metadata.isProcessingUnrestricted()).number(metadata.isIdentifiable().ordinal());
+    }
+
+    private static void writePurpose(TaintTokens.Writer out, Purpose purpose) {
+        if (purpose.getClass() == RegistryLinkedPurpose.class) {
+            out.string(REGISTRY_LINKED).string(purpose.getName());
+        } else {
+            out.string(SIMPLE).number(purpose.getId()).string(purpose.getName()).string(purpose.getDescription()).string(purpose.getLegalDescription());
+        }
+    }
+
+    private static void writeVendor(TaintTokens.Writer out, Vendor vendor) {
+        if (vendor.getClass() == RegistryLinkedVendor.class) {
+            out.string(REGISTRY_LINKED).string(vendor.getName());
+        } else {
+            out.string(SIMPLE).number(vendor.getId()).string(vendor.getName());
+        }
+    }
+
+    static GdprMetadata read(TaintTokens.Reader in) {
+        String purposesKind = in.string();
+        int purposeCount = in.integer();
+        Collection<AllowedPurpose> purposes = newCollection(purposesKind, purposeCount);
+        for (int i = 0; i < purposeCount; i++) {
+            Purpose purpose = readPurpose(in);
+            ExpiryDate expiry = in.flag() ? new SimpleExpiryDate(Instant.ofEpochSecond(in.number(), in.integer())) : new SimpleExpiryDate();
+            int vendorCount = in.integer();
+            Set<Vendor> vendors = new HashSet<>(vendorCount);
+            for (int j = 0; j < vendorCount; j++) {
+                vendors.add(readVendor(in));
+            }
+            purposes.add(new SimpleAllowedPurpose(expiry, purpose, vendors));
+        }
+        ProtectionLevel protectionLevel = ProtectionLevel.values()[in.integer()];
+        String subjectsKind = in.string();
+        int subjectCount = in.integer();
+        Collection<DataSubject> subjects = newCollection(subjectsKind, subjectCount);
+        for (int i = 0; i < subjectCount; i++) {
+            subjects.add(new SimpleDataSubject(in.string()));
+        }
+        SimpleDataId id = in.flag() ? new SimpleDataId(new UUID(in.number(), in.number())) : null;
+        boolean portability = in.flag();
+        boolean unrestricted = in.flag();
+        Identifiability identifiability = Identifiability.values()[in.integer()];
+        return new SimpleGdprMetadata(purposes, protectionLevel, subjects, id, portability, unrestricted, identifiability);
+    }
+
+    private static <T> Collection<T> newCollection(String kind, int count) {
+        if (SET.equals(kind)) {
+            return new HashSet<>(count);
+        }
+        if (LIST.equals(kind)) {
+            return new ArrayList<>(count);
+        }
+        throw new IllegalArgumentException(String.format("Unknown collection kind: %s", kind));
+    }
+
+    private static Purpose readPurpose(TaintTokens.Reader in) {
+        String kind = in.string();
+        if (REGISTRY_LINKED.equals(kind)) {
+            return new RegistryLinkedPurpose(in.string());
+        }
+        if (SIMPLE.equals(kind)) {
+            return new SimplePurpose(in.integer(), in.string(), in.string(), in.string());
+        }
+        throw new IllegalArgumentException(String.format("Unknown purpose kind: %s", kind));
+    }
+
+    private static Vendor readVendor(TaintTokens.Reader in) {
+        String kind = in.string();
+        if (REGISTRY_LINKED.equals(kind)) {
+            return new RegistryLinkedVendor(in.string());
+        }
+        if (SIMPLE.equals(kind)) {
+            return new SimpleVendor(in.integer(), in.string());
+        }
+        throw new IllegalArgumentException(String.format("Unknown vendor kind: %s", kind));
+    }
+}
@@ -2,7 +2,12 @@ package com.sap.fontus.sql.driver;
 
 import com.sap.fontus.sql.tainter.QueryParameters;
 import com.sap.fontus.sql.tainter.TaintAssignment;
+import com.sap.fontus.sql.tainter.WriteTarget;
+import com.sap.fontus.taintaware.shared.IASTaintMetadata;
+import com.sap.fontus.taintaware.shared.IASTaintRange;
+import com.sap.fontus.taintaware.shared.IASTaintRanges;
 import com.sap.fontus.taintaware.unified.IASString;
+import com.sap.fontus.utils.Pair;
 
 import java.io.InputStream;
 import java.io.Reader;
@@ -10,6 +15,12 @@ import java.math.BigDecimal;
 import java.net.URL;
 import java.sql.*;
 import java.util.Calendar;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class PreparedStatementWrapper extends StatementWrapper implements IASPreparedStatement {
 
@@ -17,47 +28,147 @@ public class PreparedStatementWrapper extends StatementWrapper implements IASPre
     private final QueryParameters parameters;
     private String originalQuery="";
     private String taintedQuery="";
+    /**
+     * Taints bound since the last execution or batch row, serialized when the row is complete
+     */
+    private final Map<Integer, IASTaintRanges> pendingTaints = new HashMap<>();
+    /**
+     * Taint parameters currently bound to {@link Constants#UNTAINTED}, parameters keep their value between executions.
+     * Many drivers clear the parameters once a row is added to a batch or a batch is executed, so the set is cleared then as well.
+     */
+    private final Set<Integer> untaintedParameters = new HashSet<>();
+    /**
+     * Serialized taints of the current batch, rows often carry identical taints
+     */
+    private final Map<Pair<Integer, List<IASTaintRange>>, String> serializedTaints = new HashMap<>();
+    /**
+     * Encoded metadata of the current batch, so metadata shared by the values of different lengths is encoded once
+     */
+    private final Map<IASTaintMetadata, String> encodedMetadata = new IdentityHashMap<>();
+    /**
+     * Writes the entries of the {@link TaintIndex}, null if it is disabled
+     */
+    private final TaintIndex.Writer indexWriter;
+    /**
+     * Columns the parameters are written to, null if the {@link TaintIndex} is disabled or the query writes no table
+     */
+    private final WriteTarget writeTarget;
+    /**
+     * Original parameter indices of the pending taints, keyed by their taint index
+     */
+    private final Map<Integer, Integer> pendingParameters = new HashMap<>();
+    /**
+     * Taint index entries of the current execution or batch
+     */
+    private final Set<TaintIndex.Entry> indexEntries = new HashSet<>();
 
     public static PreparedStatement wrap(PreparedStatement delegate,String originalQuery,String taintedQuery, QueryParameters parameters) {
+        return wrap(delegate, originalQuery, taintedQuery, parameters, null);
+    }
+
+    public static PreparedStatement wrap(PreparedStatement delegate, String originalQuery, String taintedQuery, QueryParameters parameters, TaintIndex.Writer indexWriter) {
         if (delegate == null) {
             return null;
         }
-        return new PreparedStatementWrapper(delegate,originalQuery,taintedQuery, parameters);
+        return new PreparedStatementWrapper(delegate, originalQuery, taintedQuery, parameters, indexWriter);
     }
     protected PreparedStatementWrapper(PreparedStatement delegate, QueryParameters parameters){
         super(delegate);
         this.delegate=delegate;
         this.parameters = parameters;
+        this.indexWriter = null;
+        this.writeTarget = null;
     }
 
     protected PreparedStatementWrapper(PreparedStatement delegate, String originalQuery,String taintedQuery, QueryParameters parameters) {
+        this(delegate, originalQuery, taintedQuery, parameters, null);
+    }
+
+    protected PreparedStatementWrapper(PreparedStatement delegate, String originalQuery, String taintedQuery, QueryParameters parameters, TaintIndex.Writer indexWriter) {
         super(delegate);
         this.parameters = parameters;
         this.taintedQuery=taintedQuery;
         this.originalQuery=originalQuery;
         this.delegate = delegate;
+        this.indexWriter = indexWriter;
+        this.writeTarget = indexWriter == null ? null : TaintIndex.INSTANCE.getTarget(originalQuery);
     }
     public QueryParameters getParameters() {
         return this.parameters;
     }
 
+    private void bindUntainted(TaintAssignment assignment) throws SQLException {
+        if (!assignment.isHasTaint()) {
+            return;
+        }
+        this.pendingTaints.remove(assignment.getTaintIndex());
+        if (this.untaintedParameters.add(assignment.getTaintIndex())) {
+            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
+        }
+    }
+
+    private void bindTaint(TaintAssignment assignment, IASString value) throws SQLException {
+        if (value == null || !value.isTainted() || !assignment.isHasTaint()) {
+            this.bindUntainted(assignment);
+            return;
+        }
+        // Copied, as the string might be modified before the statement is executed
+        this.pendingTaints.put(assignment.getTaintIndex(), value.getTaintInformationInitialized().getTaintRanges(value.length()).copy());
+        if (this.writeTarget != null) {
+            this.pendingParameters.put(assignment.getTaintIndex(), assignment.getOldIndex());
+        }
+    }
+
+    private void flushTaints() throws SQLException {
+        for (Map.Entry<Integer, IASTaintRanges> entry : this.pendingTaints.entrySet()) {
+            IASTaintRanges ranges = entry.getValue();
+            String serialized = this.serializedTaints.computeIfAbsent(new Pair<>(ranges.getLength(), ranges.getTaintRanges()), key -> Utils.serializeTaints(ranges, this.encodedMetadata));
+            this.delegate.setString(entry.getKey(), serialized);
+            this.untaintedParameters.remove(entry.getKey());
+            if (this.writeTarget != null) {
+                TaintIndex.INSTANCE.collect(this.writeTarget, this.pendingParameters.get(entry.getKey()), ranges, this.indexEntries);
+            }
+        }
+        this.pendingTaints.clear();
+        this.pendingParameters.clear();
+    }
+
+    /**
+     * The caller clears the entries afterwards, whether the execution succeeded or not
+     */
+    private void writeIndex() {
+        if (!this.indexEntries.isEmpty()) {
+            this.indexWriter.write(this.indexEntries);
+        }
+    }
+
     @Override
     public ResultSet executeQuery() throws SQLException {
-        return ResultSetWrapper.wrap(this.delegate.executeQuery());
+        this.flushTaints();
+        this.serializedTaints.clear();
+        this.encodedMetadata.clear();
+        return ResultSetWrapper.wrap(this.delegate.executeQuery(), this.taintedQuery.isEmpty() ? null : this.taintedQuery);
     }
 
     @Override
     public int executeUpdate() throws SQLException {
-        return this.delegate.executeUpdate();
+        this.flushTaints();
+        this.serializedTaints.clear();
+        this.encodedMetadata.clear();
+        try {
+            int updated = this.delegate.executeUpdate();
+            this.writeIndex();
+            return updated;
+        } finally {
+            this.indexEntries.clear();
+        }
     }
 
     @Override
     public void setNull(int parameterIndex, int sqlType) throws SQLException {
         // System.out.printf("Set at idx %d to value null%n", parameterIndex);
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setNull(assignment.getNewIndex(), sqlType);
     }
 
@@ -65,9 +176,7 @@ public class PreparedStatementWrapper extends StatementWrapper implements IASPre
     public void setBoolean(int parameterIndex, boolean x) throws SQLException {
         // System.out.printf("Set at idx %d to value %b%n", parameterIndex, x);
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setBoolean(assignment.getNewIndex(), x);
     }
 
@@ -75,9 +184,7 @@ public class PreparedStatementWrapper extends StatementWrapper implements IASPre
     public void setByte(int parameterIndex, byte x) throws SQLException {
         // System.out.printf("Set at idx %d to value %d%n", parameterIndex, x);
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setByte(assignment.getNewIndex(), x);
     }
 
@@ -85,9 +192,7 @@ public class PreparedStatementWrapper extends StatementWrapper implements IASPre
     public void setShort(int parameterIndex, short x) throws SQLException {
         // System.out.printf("Set at idx %d to value %d%n", parameterIndex, x);
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setShort(assignment.getNewIndex(), x);
     }
 
@@ -95,9 +200,7 @@ public class PreparedStatementWrapper extends StatementWrapper implements IASPre
     public void setInt(int parameterIndex, int x) throws SQLException {
         // System.out.printf("Set at idx %d to value %d%n", parameterIndex, x);
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setInt(assignment.getNewIndex(), x);
     }
 
@@ -105,9 +208,7 @@ public class PreparedStatementWrapper extends StatementWrapper implements IASPre
     public void setLong(int parameterIndex, long x) throws SQLException {
         //System.out.printf("Set at idx %d to value %d%nQuery: %s (%s)", parameterIndex, x, this.taintedQuery, this.originalQuery);
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setLong(assignment.getNewIndex(), x);
     }
 
@@ -115,9 +216,7 @@ public class PreparedStatementWrapper extends StatementWrapper implements IASPre
     public void setFloat(int parameterIndex, float x) throws SQLException {
         // System.out.printf("Set at idx %d to value %f%n", parameterIndex, x);
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setFloat(assignment.getNewIndex(), x);
     }
 
@@ -125,9 +224,7 @@ public class PreparedStatementWrapper extends StatementWrapper implements IASPre
     public void setDouble(int parameterIndex, double x) throws SQLException {
         // System.out.printf("Set at idx %d to value %f%n", parameterIndex, x);
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setDouble(assignment.getNewIndex(), x);
     }
 
@@ -135,9 +232,7 @@ public class PreparedStatementWrapper extends StatementWrapper implements IASPre
     public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException {
         // System.out.printf("Set at idx %d to value %s%n", parameterIndex, x);
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setBigDecimal(assignment.getNewIndex(), x);
     }
 
@@ -146,9 +241,7 @@ public class PreparedStatementWrapper extends StatementWrapper implements IASPre
         //System.out.printf("SetString at idx %d to value %s%n", parameterIndex, x);
         //Utils.printCurrentStackTrace();
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setString(assignment.getNewIndex(), x);
     }
 
@@ -156,9 +249,7 @@ public class PreparedStatementWrapper extends StatementWrapper implements IASPre
     public void setBytes(int parameterIndex, byte[] x) throws SQLException {
         // System.out.printf("Set at idx %d to value %s%n", parameterIndex, Arrays.toString(x));
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setBytes(assignment.getNewIndex(), x);
     }
 
@@ -166,9 +257,7 @@ public class PreparedStatementWrapper extends StatementWrapper implements IASPre
     public void setDate(int parameterIndex, Date x) throws SQLException {
         // System.out.printf("Set at idx %d to value %s%n", parameterIndex, x);
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setDate(assignment.getNewIndex(), x);
     }
 
@@ -176,9 +265,7 @@ public class PreparedStatementWrapper extends StatementWrapper implements IASPre
     public void setTime(int parameterIndex, Time x) throws SQLException {
         // System.out.printf("Set at idx %d to value %s%n", parameterIndex, x);
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setTime(assignment.getNewIndex(), x);
     }
 
@@ -186,27 +273,21 @@ public class PreparedStatementWrapper extends StatementWrapper implements IASPre
     public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException {
         // System.out.printf("Set at idx %d to value %s%n", parameterIndex, x);
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setTimestamp(assignment.getNewIndex(), x);
     }
 
     @Override
     public void setAsciiStream(int parameterIndex, InputStream x, int length) throws SQLException {
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setAsciiStream(assignment.getNewIndex(), x, length);
     }
 
     @Override
     public void setUnicodeStream(int parameterIndex, InputStream x, int length) throws SQLException {
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         //noinspection deprecation
         this.delegate.setUnicodeStream(assignment.getNewIndex(), x, length);
     }
@@ -214,14 +295,15 @@ public class PreparedStatementWrapper extends StatementWrapper implements IASPre
     @Override
     public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException {
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setBinaryStream(assignment.getNewIndex(), x, length);
     }
 
     @Override
     public void clearParameters() throws SQLException {
+        this.pendingTaints.clear();
+        this.pendingParameters.clear();
+        this.untaintedParameters.clear();
         this.delegate.clearParameters();
     }
 
@@ -229,9 +311,7 @@ public class PreparedStatementWrapper extends StatementWrapper implements IASPre
     public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException {
         // System.out.printf("Set at idx %d to value %s%n", parameterIndex, x);
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setObject(assignment.getNewIndex(), x, targetSqlType);
     }
 
@@ -239,64 +319,89 @@ public class PreparedStatementWrapper extends StatementWrapper implements IASPre
     public void setObject(int parameterIndex, Object x) throws SQLException {
         // System.out.printf("Set at idx %d to value %s%n", parameterIndex, x);
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setObject(assignment.getNewIndex(), x);
     }
 
     @Override
     public boolean execute() throws SQLException {
-        return this.delegate.execute();
+        this.flushTaints();
+        this.serializedTaints.clear();
+        this.encodedMetadata.clear();
+        try {
+            boolean hasResultSet = this.delegate.execute();
+            this.writeIndex();
+            return hasResultSet;
+        } finally {
+            this.indexEntries.clear();
+        }
     }
 
     @Override
     public void addBatch() throws SQLException {
-        this.delegate.addBatch();
+        this.flushTaints();
+        try {
+            this.delegate.addBatch();
+        } finally {
+            this.untaintedParameters.clear();
+        }
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        this.serializedTaints.clear();
+        this.encodedMetadata.clear();
+        try {
+            int[] updated = super.executeBatch();
+            this.writeIndex();
+            return updated;
+        } finally {
+            this.untaintedParameters.clear();
+            this.indexEntries.clear();
+        }
+    }
+
+    @Override
+    public void clearBatch() throws SQLException {
+        this.serializedTaints.clear();
+        this.encodedMetadata.clear();
+        this.indexEntries.clear();
+        this.untaintedParameters.clear();
+        super.clearBatch();
     }
 
     @Override
     public void setCharacterStream(int parameterIndex, Reader reader, int length) throws SQLException {
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setCharacterStream(assignment.getNewIndex(), reader, length);
     }
 
     @Override
     public void setRef(int parameterIndex, Ref x) throws SQLException {
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setRef(assignment.getNewIndex(), x);
     }
 
     @Override
     public void setBlob(int parameterIndex, Blob x) throws SQLException {
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setBlob(assignment.getNewIndex(), x);
     }
 
     @Override
     public void setClob(int parameterIndex, Clob x) throws SQLException {
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setClob(assignment.getNewIndex(), x);
     }
 
     @Override
     public void setArray(int parameterIndex, Array x) throws SQLException {
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setArray(assignment.getNewIndex(), x);
     }
 
@@ -304,9 +409,7 @@ public class PreparedStatementWrapper extends StatementWrapper implements IASPre
     public void setDate(int parameterIndex, Date x, Calendar cal) throws SQLException {
         // System.out.printf("Set at idx %d to value %s%n", parameterIndex, x);
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setDate(assignment.getNewIndex(), x, cal);
     }
 
@@ -314,9 +417,7 @@ public class PreparedStatementWrapper extends StatementWrapper implements IASPre
     public void setTime(int parameterIndex, Time x, Calendar cal) throws SQLException {
         // System.out.printf("Set at idx %d to value %s%n", parameterIndex, x);
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setTime(assignment.getNewIndex(), x, cal);
     }
 
@@ -324,9 +425,7 @@ public class PreparedStatementWrapper extends StatementWrapper implements IASPre
     public void setTimestamp(int parameterIndex, Timestamp x, Calendar cal) throws SQLException {
         // System.out.printf("Set at idx %d to value %s%n", parameterIndex, x);
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setTimestamp(assignment.getNewIndex(), x, cal);
     }
 
@@ -334,9 +433,7 @@ public class PreparedStatementWrapper extends StatementWrapper implements IASPre
     public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException {
         // System.out.printf("Set at idx %d to value %s%n", parameterIndex, "null");
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setNull(assignment.getNewIndex(), sqlType, typeName);
     }
 
@@ -344,18 +441,14 @@ public class PreparedStatementWrapper extends StatementWrapper implements IASPre
     public void setURL(int parameterIndex, URL x) throws SQLException {
         // System.out.printf("Set at idx %d to value %s%n", parameterIndex, x);
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setURL(assignment.getNewIndex(), x);
     }
 
     @Override
     public void setRowId(int parameterIndex, RowId x) throws SQLException {
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setRowId(assignment.getNewIndex(), x);
     }
 
@@ -363,162 +456,126 @@ public class PreparedStatementWrapper extends StatementWrapper implements IASPre
     public void setNString(int parameterIndex, String value) throws SQLException {
         // System.out.printf("Set at idx %d to value %s%n", parameterIndex, value);
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setNString(assignment.getNewIndex(), value);
     }
 
     @Override
     public void setNCharacterStream(int parameterIndex, Reader value, long length) throws SQLException {
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setNCharacterStream(assignment.getNewIndex(), value, length);
     }
 
     @Override
     public void setNClob(int parameterIndex, NClob value) throws SQLException {
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setNClob(assignment.getNewIndex(), value);
     }
 
     @Override
     public void setClob(int parameterIndex, Reader reader, long length) throws SQLException {
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setClob(assignment.getNewIndex(), reader, length);
     }
 
     @Override
     public void setBlob(int parameterIndex, InputStream inputStream, long length) throws SQLException {
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setBlob(assignment.getNewIndex(), inputStream, length);
     }
 
     @Override
     public void setNClob(int parameterIndex, Reader reader, long length) throws SQLException {
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setNClob(assignment.getNewIndex(), reader, length);
     }
 
     @Override
     public void setSQLXML(int parameterIndex, SQLXML xmlObject) throws SQLException {
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setSQLXML(assignment.getNewIndex(), xmlObject);
     }
 
     @Override
     public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setObject(assignment.getNewIndex(), x, targetSqlType, scaleOrLength);
     }
 
     @Override
     public void setAsciiStream(int parameterIndex, InputStream x, long length) throws SQLException {
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setAsciiStream(assignment.getNewIndex(), x, length);
     }
 
     @Override
     public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException {
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setBinaryStream(assignment.getNewIndex(), x, length);
     }
 
     @Override
     public void setCharacterStream(int parameterIndex, Reader reader, long length) throws SQLException {
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setCharacterStream(assignment.getNewIndex(), reader, length);
     }
 
     @Override
     public void setAsciiStream(int parameterIndex, InputStream x) throws SQLException {
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setAsciiStream(assignment.getNewIndex(), x);
     }
 
     @Override
     public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException {
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setBinaryStream(assignment.getNewIndex(), x);
     }
 
     @Override
     public void setCharacterStream(int parameterIndex, Reader reader) throws SQLException {
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setCharacterStream(assignment.getNewIndex(), reader);
     }
 
     @Override
     public void setNCharacterStream(int parameterIndex, Reader value) throws SQLException {
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setNCharacterStream(assignment.getNewIndex(), value);
     }
 
     @Override
     public void setClob(int parameterIndex, Reader reader) throws SQLException {
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setClob(assignment.getNewIndex(), reader);
     }
 
     @Override
     public void setBlob(int parameterIndex, InputStream inputStream) throws SQLException {
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setBlob(assignment.getNewIndex(), inputStream);
     }
 
     @Override
     public void setNClob(int parameterIndex, Reader reader) throws SQLException {
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindUntainted(assignment);
         this.delegate.setNClob(assignment.getNewIndex(), reader);
     }
 
@@ -540,43 +597,19 @@ public class PreparedStatementWrapper extends StatementWrapper implements IASPre
 
         this.delegate.setString(assignment.getNewIndex(), x != null ? x.getString() : null);
         //System.out.printf("Setting tainted? (%b) string in prep statement: %s%n", x.isTainted(), x.getString());
-        if(x != null && x.isTainted() && assignment.isHasTaint()) {
-            //System.out.printf("Setting String at idx %d: %s/%s%n", parameterIndex, x.getString(), "foo");
-            //System.out.println(Arrays.toString(this.setVariables));
-            //System.out.println(Arrays.toString(this.newIndex));
-            String json = Utils.serializeTaints(x);
-            this.delegate.setString(assignment.getTaintIndex(), json);
-        }else if( assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindTaint(assignment, x);
     }
 
     @Override
     public void setNString(int parameterIndex, IASString value) throws SQLException {
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
         this.delegate.setNString(assignment.getNewIndex(), value != null ? value.getString() : null);
-        if(value != null &&value.isTainted() && assignment.isHasTaint()) {
-            //System.out.printf("Setting String at idx %d: %s/%s%n", parameterIndex, x.getString(), "foo");
-            //System.out.println(Arrays.toString(this.setVariables));
-            //System.out.println(Arrays.toString(this.newIndex));
-            String json = Utils.serializeTaints(value);
-            this.delegate.setString(assignment.getTaintIndex(), json);
-        }else if( assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindTaint(assignment, value);
     }
 
     private void setTaint(IASString value, int parameterIndex) throws SQLException {
         TaintAssignment assignment = this.parameters.computeAssignment(parameterIndex);
-        if(value.isTainted() && assignment.isHasTaint()) {
-            //System.out.printf("Setting String at idx %d: %s/%s%n", parameterIndex, x.getString(), "foo");
-            //System.out.println(Arrays.toString(this.setVariables));
-            //System.out.println(Arrays.toString(this.newIndex));
-            String json = Utils.serializeTaints(value);
-            this.delegate.setString(assignment.getTaintIndex(), json);
-        } else if( assignment.isHasTaint()) {
-            this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-        }
+        this.bindTaint(assignment, value);
     }
     @Override
     public void setTObject(int parameterIndex, Object x, int targetSqlType) throws SQLException {
@@ -588,14 +621,10 @@ public class PreparedStatementWrapper extends StatementWrapper implements IASPre
                 targetSqlType == Types.LONGVARCHAR)) {
             IASString value = (IASString) x;
             this.delegate.setObject(assignment.getNewIndex(), value.getString(), targetSqlType);
-            if (assignment.isHasTaint()) {
-                this.delegate.setString(assignment.getTaintIndex(), value.isTainted() ? Utils.serializeTaints(value) : Constants.UNTAINTED);
-            }
+            this.bindTaint(assignment, value);
         } else {
             this.delegate.setObject(assignment.getNewIndex(), x, targetSqlType);
-            if (assignment.isHasTaint()) {
-                this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-            }
+            this.bindUntainted(assignment);
         }
     }
 
@@ -609,14 +638,10 @@ public class PreparedStatementWrapper extends StatementWrapper implements IASPre
                 targetSqlType == Types.LONGVARCHAR)) {
             IASString value = (IASString) x;
             this.delegate.setObject(assignment.getNewIndex(), value.getString(), targetSqlType, scaleOrLength);
-            if (assignment.isHasTaint()) {
-                this.delegate.setString(assignment.getTaintIndex(), value.isTainted() ? Utils.serializeTaints(value) : Constants.UNTAINTED);
-            }
+            this.bindTaint(assignment, value);
         } else {
             this.delegate.setObject(assignment.getNewIndex(), x, targetSqlType, scaleOrLength);
-            if (assignment.isHasTaint()) {
-                this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-            }
+            this.bindUntainted(assignment);
         }
     }
 
@@ -626,14 +651,10 @@ public class PreparedStatementWrapper extends StatementWrapper implements IASPre
         if (x instanceof IASString) {
             IASString value = (IASString) x;
             this.delegate.setObject(assignment.getNewIndex(), value.getString());
-            if (assignment.isHasTaint()) {
-               this.delegate.setString(assignment.getTaintIndex(), value.isTainted() ? Utils.serializeTaints(value) : Constants.UNTAINTED);
-            }
+            this.bindTaint(assignment, value);
         } else {
             this.delegate.setObject(assignment.getNewIndex(), x);
-            if (assignment.isHasTaint()) {
-                this.delegate.setString(assignment.getTaintIndex(), Constants.UNTAINTED);
-            }
+            this.bindUntainted(assignment);
         }
 
     }
@@ -1,33 +1,73 @@
 package com.sap.fontus.sql.driver;
 
 
+import com.sap.fontus.sql.tainter.ColumnMap;
+import com.sap.fontus.sql.tainter.QueryCache;
+import com.sap.fontus.taintaware.unified.IASLazyTaintInformation;
 import com.sap.fontus.taintaware.unified.IASString;
+import com.sap.fontus.taintaware.unified.IASTaintInformationable;
 
 import java.io.InputStream;
 import java.io.Reader;
 import java.math.BigDecimal;
 import java.net.URL;
 import java.sql.*;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Map;
+import java.util.function.Supplier;
 
 public class ResultSetWrapper extends AbstractWrapper implements IASResultSet {
     private final ResultSet delegate;
+    /**
+     * Rewritten query this is the result of, if known
+     */
+    private final String query;
+    private ColumnMap columns;
+    /**
+     * Last taint read from each taint column, so repeated reads of a cell and equal taints in consecutive rows are only decoded once
+     */
+    private EncodedTaint[] lastTaints = new EncodedTaint[0];
 
     public static ResultSet wrap(ResultSet delegate) {
+        return wrap(delegate, null);
+    }
+
+    public static ResultSet wrap(ResultSet delegate, String query) {
         if (delegate == null) {
             return null;
         }
-        return new ResultSetWrapper(delegate);
+        return new ResultSetWrapper(delegate, query);
     }
 
     public ResultSetWrapper(ResultSet delegate) {
+        this(delegate, null);
+    }
+
+    public ResultSetWrapper(ResultSet delegate, String query) {
         super(delegate);
         this.delegate = delegate;
+        this.query = query;
     }
 
-    private static int transformColumnIndex(int columnIndex) {
-        return (columnIndex * 2) - 1;
+    private ColumnMap columns() throws SQLException {
+        if (this.columns == null) {
+            ResultSetMetaData metaData = this.delegate.getMetaData();
+            this.columns = this.query != null ? QueryCache.INSTANCE.getColumnMap(this.query, metaData) : ColumnMap.of(metaData);
+        }
+        return this.columns;
+    }
+
+    private int dataIndex(int columnIndex) throws SQLException {
+        return this.columns().getDataIndex(columnIndex);
+    }
+
+    /**
+     * Labels unknown to the column map are left to the driver, which might accept e.g. qualified names
+     */
+    private int dataIndex(String columnLabel) throws SQLException {
+        int columnIndex = this.columns().findColumn(columnLabel);
+        return columnIndex != -1 ? this.columns.getDataIndex(columnIndex) : this.delegate.findColumn(columnLabel);
     }
 
     @Override
@@ -47,162 +87,162 @@ public class ResultSetWrapper extends AbstractWrapper implements IASResultSet {
 
     @Override
     public String getString(int columnIndex) throws SQLException {
-        return this.delegate.getString(transformColumnIndex(columnIndex));
+        return this.delegate.getString(this.dataIndex(columnIndex));
     }
 
     @Override
     public boolean getBoolean(int columnIndex) throws SQLException {
-        return this.delegate.getBoolean(transformColumnIndex(columnIndex));
+        return this.delegate.getBoolean(this.dataIndex(columnIndex));
     }
 
     @Override
     public byte getByte(int columnIndex) throws SQLException {
-        return this.delegate.getByte(transformColumnIndex(columnIndex));
+        return this.delegate.getByte(this.dataIndex(columnIndex));
     }
 
     @Override
     public short getShort(int columnIndex) throws SQLException {
-        return this.delegate.getShort(transformColumnIndex(columnIndex));
+        return this.delegate.getShort(this.dataIndex(columnIndex));
     }
 
     @Override
     public int getInt(int columnIndex) throws SQLException {
-        return this.delegate.getInt(transformColumnIndex(columnIndex));
+        return this.delegate.getInt(this.dataIndex(columnIndex));
     }
 
     @Override
     public long getLong(int columnIndex) throws SQLException {
-        return this.delegate.getLong(transformColumnIndex(columnIndex));
+        return this.delegate.getLong(this.dataIndex(columnIndex));
     }
 
     @Override
     public float getFloat(int columnIndex) throws SQLException {
-        return this.delegate.getFloat(transformColumnIndex(columnIndex));
+        return this.delegate.getFloat(this.dataIndex(columnIndex));
     }
 
     @Override
     public double getDouble(int columnIndex) throws SQLException {
-        return this.delegate.getDouble(transformColumnIndex(columnIndex));
+        return this.delegate.getDouble(this.dataIndex(columnIndex));
     }
 
     @Override
     public BigDecimal getBigDecimal(int columnIndex, int scale) throws SQLException {
-        return this.delegate.getBigDecimal(transformColumnIndex(columnIndex), scale);
+        return this.delegate.getBigDecimal(this.dataIndex(columnIndex), scale);
     }
 
     @Override
     public byte[] getBytes(int columnIndex) throws SQLException {
-        return this.delegate.getBytes(transformColumnIndex(columnIndex));
+        return this.delegate.getBytes(this.dataIndex(columnIndex));
     }
 
     @Override
     public Date getDate(int columnIndex) throws SQLException {
-        return this.delegate.getDate(transformColumnIndex(columnIndex));
+        return this.delegate.getDate(this.dataIndex(columnIndex));
     }
 
     @Override
     public Time getTime(int columnIndex) throws SQLException {
-        return this.delegate.getTime(transformColumnIndex(columnIndex));
+        return this.delegate.getTime(this.dataIndex(columnIndex));
     }
 
     @Override
     public Timestamp getTimestamp(int columnIndex) throws SQLException {
-        return this.delegate.getTimestamp(transformColumnIndex(columnIndex));
+        return this.delegate.getTimestamp(this.dataIndex(columnIndex));
     }
 
     @Override
     public InputStream getAsciiStream(int columnIndex) throws SQLException {
-        return this.delegate.getAsciiStream(transformColumnIndex(columnIndex));
+        return this.delegate.getAsciiStream(this.dataIndex(columnIndex));
     }
 
     @Override
     public InputStream getUnicodeStream(int columnIndex) throws SQLException {
-        return this.delegate.getUnicodeStream(transformColumnIndex(columnIndex));
+        return this.delegate.getUnicodeStream(this.dataIndex(columnIndex));
     }
 
     @Override
     public InputStream getBinaryStream(int columnIndex) throws SQLException {
-        return this.delegate.getBinaryStream(transformColumnIndex(columnIndex));
+        return this.delegate.getBinaryStream(this.dataIndex(columnIndex));
     }
 
     @Override
     public String getString(String columnLabel) throws SQLException {
-        return this.delegate.getString(columnLabel);
+        return this.delegate.getString(this.dataIndex(columnLabel));
     }
 
     @Override
     public boolean getBoolean(String columnLabel) throws SQLException {
-        return this.delegate.getBoolean(columnLabel);
+        return this.delegate.getBoolean(this.dataIndex(columnLabel));
     }
 
     @Override
     public byte getByte(String columnLabel) throws SQLException {
-        return this.delegate.getByte(columnLabel);
+        return this.delegate.getByte(this.dataIndex(columnLabel));
     }
 
     @Override
     public short getShort(String columnLabel) throws SQLException {
-        return this.delegate.getShort(columnLabel);
+        return this.delegate.getShort(this.dataIndex(columnLabel));
     }
 
     @Override
     public int getInt(String columnLabel) throws SQLException {
-        return this.delegate.getInt(columnLabel);
+        return this.delegate.getInt(this.dataIndex(columnLabel));
     }
 
     @Override
     public long getLong(String columnLabel) throws SQLException {
-        return this.delegate.getLong(columnLabel);
+        return this.delegate.getLong(this.dataIndex(columnLabel));
     }
 
     @Override
     public float getFloat(String columnLabel) throws SQLException {
-        return this.delegate.getFloat(columnLabel);
+        return this.delegate.getFloat(this.dataIndex(columnLabel));
     }
 
     @Override
     public double getDouble(String columnLabel) throws SQLException {
-        return this.delegate.getDouble(columnLabel);
+        return this.delegate.getDouble(this.dataIndex(columnLabel));
     }
 
     @Override
     public BigDecimal getBigDecimal(String columnLabel, int scale) throws SQLException {
-        return this.delegate.getBigDecimal(columnLabel, scale);
+        return this.delegate.getBigDecimal(this.dataIndex(columnLabel), scale);
     }
 
     @Override
     public byte[] getBytes(String columnLabel) throws SQLException {
-        return this.delegate.getBytes(columnLabel);
+        return this.delegate.getBytes(this.dataIndex(columnLabel));
     }
 
     @Override
     public Date getDate(String columnLabel) throws SQLException {
-        return this.delegate.getDate(columnLabel);
+        return this.delegate.getDate(this.dataIndex(columnLabel));
     }
 
     @Override
     public Time getTime(String columnLabel) throws SQLException {
-        return this.delegate.getTime(columnLabel);
+        return this.delegate.getTime(this.dataIndex(columnLabel));
     }
 
     @Override
     public Timestamp getTimestamp(String columnLabel) throws SQLException {
-        return this.delegate.getTimestamp(columnLabel);
+        return this.delegate.getTimestamp(this.dataIndex(columnLabel));
     }
 
     @Override
     public InputStream getAsciiStream(String columnLabel) throws SQLException {
-        return this.delegate.getAsciiStream(columnLabel);
+        return this.delegate.getAsciiStream(this.dataIndex(columnLabel));
     }
 
     @Override
     public InputStream getUnicodeStream(String columnLabel) throws SQLException {
-        return this.delegate.getUnicodeStream(columnLabel);
+        return this.delegate.getUnicodeStream(this.dataIndex(columnLabel));
     }
 
     @Override
     public InputStream getBinaryStream(String columnLabel) throws SQLException {
-        return this.delegate.getBinaryStream(columnLabel);
+        return this.delegate.getBinaryStream(this.dataIndex(columnLabel));
     }
 
     @Override
@@ -227,37 +267,39 @@ public class ResultSetWrapper extends AbstractWrapper implements IASResultSet {
 
     @Override
     public Object getObject(int columnIndex) throws SQLException {
-        return this.delegate.getObject(transformColumnIndex(columnIndex));
+        return this.delegate.getObject(this.dataIndex(columnIndex));
     }
 
     @Override
     public Object getObject(String columnLabel) throws SQLException {
-        return this.delegate.getObject(columnLabel);
+        return this.delegate.getObject(this.dataIndex(columnLabel));
     }
 
     @Override
     public int findColumn(String columnLabel) throws SQLException {
-        return this.delegate.findColumn(columnLabel);
+        int columnIndex = this.columns().findColumn(columnLabel);
+        // Data columns are the odd columns of the rewritten query
+        return columnIndex != -1 ? columnIndex : (this.delegate.findColumn(columnLabel) + 1) / 2;
     }
 
     @Override
     public Reader getCharacterStream(int columnIndex) throws SQLException {
-        return this.delegate.getCharacterStream(transformColumnIndex(columnIndex));
+        return this.delegate.getCharacterStream(this.dataIndex(columnIndex));
     }
 
     @Override
     public Reader getCharacterStream(String columnLabel) throws SQLException {
-        return this.delegate.getCharacterStream(columnLabel);
+        return this.delegate.getCharacterStream(this.dataIndex(columnLabel));
     }
 
     @Override
     public BigDecimal getBigDecimal(int columnIndex) throws SQLException {
-        return this.delegate.getBigDecimal(transformColumnIndex(columnIndex));
+        return this.delegate.getBigDecimal(this.dataIndex(columnIndex));
     }
 
     @Override
     public BigDecimal getBigDecimal(String columnLabel) throws SQLException {
-        return this.delegate.getBigDecimal(columnLabel);
+        return this.delegate.getBigDecimal(this.dataIndex(columnLabel));
     }
 
     @Override
@@ -369,191 +411,191 @@ public class ResultSetWrapper extends AbstractWrapper implements IASResultSet {
 
     @Override
     public void updateNull(int columnIndex) throws SQLException {
-        this.delegate.updateNull(transformColumnIndex(columnIndex));
+        this.delegate.updateNull(this.dataIndex(columnIndex));
     }
 
     public void updateBoolean(int columnIndex, boolean x) throws SQLException {
-        this.delegate.updateBoolean(transformColumnIndex(columnIndex), x);
+        this.delegate.updateBoolean(this.dataIndex(columnIndex), x);
     }
 
     @Override
     public void updateByte(int columnIndex, byte x) throws SQLException {
-        this.delegate.updateByte(transformColumnIndex(columnIndex), x);
+        this.delegate.updateByte(this.dataIndex(columnIndex), x);
     }
 
     @Override
     public void updateShort(int columnIndex, short x) throws SQLException {
-        this.delegate.updateShort(transformColumnIndex(columnIndex), x);
+        this.delegate.updateShort(this.dataIndex(columnIndex), x);
     }
 
     @Override
     public void updateInt(int columnIndex, int x) throws SQLException {
-        this.delegate.updateInt(transformColumnIndex(columnIndex), x);
+        this.delegate.updateInt(this.dataIndex(columnIndex), x);
     }
 
     @Override
     public void updateLong(int columnIndex, long x) throws SQLException {
-        this.delegate.updateLong(transformColumnIndex(columnIndex), x);
+        this.delegate.updateLong(this.dataIndex(columnIndex), x);
     }
 
     @Override
     public void updateFloat(int columnIndex, float x) throws SQLException {
-        this.delegate.updateFloat(transformColumnIndex(columnIndex), x);
+        this.delegate.updateFloat(this.dataIndex(columnIndex), x);
     }
 
     @Override
     public void updateDouble(int columnIndex, double x) throws SQLException {
-        this.delegate.updateDouble(transformColumnIndex(columnIndex), x);
+        this.delegate.updateDouble(this.dataIndex(columnIndex), x);
     }
 
     @Override
     public void updateBigDecimal(int columnIndex, BigDecimal x) throws SQLException {
-        this.delegate.updateBigDecimal(transformColumnIndex(columnIndex), x);
+        this.delegate.updateBigDecimal(this.dataIndex(columnIndex), x);
     }
 
     @Override
     public void updateString(int columnIndex, String x) throws SQLException {
-        this.delegate.updateString(transformColumnIndex(columnIndex), x);
+        this.delegate.updateString(this.dataIndex(columnIndex), x);
     }
 
     @Override
     public void updateBytes(int columnIndex, byte[] x) throws SQLException {
-        this.delegate.updateBytes(transformColumnIndex(columnIndex), x);
+        this.delegate.updateBytes(this.dataIndex(columnIndex), x);
     }
 
     @Override
     public void updateDate(int columnIndex, Date x) throws SQLException {
-        this.delegate.updateDate(transformColumnIndex(columnIndex), x);
+        this.delegate.updateDate(this.dataIndex(columnIndex), x);
     }
 
     @Override
     public void updateTime(int columnIndex, Time x) throws SQLException {
-        this.delegate.updateTime(transformColumnIndex(columnIndex), x);
+        this.delegate.updateTime(this.dataIndex(columnIndex), x);
     }
 
     @Override
     public void updateTimestamp(int columnIndex, Timestamp x) throws SQLException {
-        this.delegate.updateTimestamp(transformColumnIndex(columnIndex), x);
+        this.delegate.updateTimestamp(this.dataIndex(columnIndex), x);
     }
 
     @Override
     public void updateAsciiStream(int columnIndex, InputStream x, int length) throws SQLException {
-        this.delegate.updateAsciiStream(transformColumnIndex(columnIndex), x, length);
+        this.delegate.updateAsciiStream(this.dataIndex(columnIndex), x, length);
     }
 
     @Override
     public void updateBinaryStream(int columnIndex, InputStream x, int length) throws SQLException {
-        this.delegate.updateBinaryStream(transformColumnIndex(columnIndex), x, length);
+        this.delegate.updateBinaryStream(this.dataIndex(columnIndex), x, length);
     }
 
     @Override
     public void updateCharacterStream(int columnIndex, Reader x, int length) throws SQLException {
-        this.delegate.updateCharacterStream(transformColumnIndex(columnIndex), x, length);
+        this.delegate.updateCharacterStream(this.dataIndex(columnIndex), x, length);
     }
 
     @Override
     public void updateObject(int columnIndex, Object x, int scaleOrLength) throws SQLException {
-        this.delegate.updateObject(transformColumnIndex(columnIndex), x, scaleOrLength);
+        this.delegate.updateObject(this.dataIndex(columnIndex), x, scaleOrLength);
     }
 
     @Override
     public void updateObject(int columnIndex, Object x) throws SQLException {
-        this.delegate.updateObject(transformColumnIndex(columnIndex), x);
+        this.delegate.updateObject(this.dataIndex(columnIndex), x);
     }
 
     @Override
     public void updateNull(String columnLabel) throws SQLException {
-        this.delegate.updateNull(columnLabel);
+        this.delegate.updateNull(this.dataIndex(columnLabel));
     }
 
     @Override
     public void updateBoolean(String columnLabel, boolean x) throws SQLException {
-        this.delegate.updateBoolean(columnLabel, x);
+        this.delegate.updateBoolean(this.dataIndex(columnLabel), x);
     }
 
     @Override
     public void updateByte(String columnLabel, byte x) throws SQLException {
-        this.delegate.updateByte(columnLabel, x);
+        this.delegate.updateByte(this.dataIndex(columnLabel), x);
     }
 
     @Override
     public void updateShort(String columnLabel, short x) throws SQLException {
-        this.delegate.updateShort(columnLabel, x);
+        this.delegate.updateShort(this.dataIndex(columnLabel), x);
     }
 
     @Override
     public void updateInt(String columnLabel, int x) throws SQLException {
-        this.delegate.updateInt(columnLabel, x);
+        this.delegate.updateInt(this.dataIndex(columnLabel), x);
     }
 
     @Override
     public void updateLong(String columnLabel, long x) throws SQLException {
-        this.delegate.updateLong(columnLabel, x);
+        this.delegate.updateLong(this.dataIndex(columnLabel), x);
     }
 
     @Override
     public void updateFloat(String columnLabel, float x) throws SQLException {
-        this.delegate.updateFloat(columnLabel, x);
+        this.delegate.updateFloat(this.dataIndex(columnLabel), x);
     }
 
     @Override
     public void updateDouble(String columnLabel, double x) throws SQLException {
-        this.delegate.updateDouble(columnLabel, x);
+        this.delegate.updateDouble(this.dataIndex(columnLabel), x);
     }
 
     @Override
     public void updateBigDecimal(String columnLabel, BigDecimal x) throws SQLException {
-        this.delegate.updateBigDecimal(columnLabel, x);
+        this.delegate.updateBigDecimal(this.dataIndex(columnLabel), x);
     }
 
     @Override
     public void updateString(String columnLabel, String x) throws SQLException {
-        this.delegate.updateString(columnLabel, x);
+        this.delegate.updateString(this.dataIndex(columnLabel), x);
     }
 
     @Override
     public void updateBytes(String columnLabel, byte[] x) throws SQLException {
-        this.delegate.updateBytes(columnLabel, x);
+        this.delegate.updateBytes(this.dataIndex(columnLabel), x);
     }
 
     @Override
     public void updateDate(String columnLabel, Date x) throws SQLException {
-        this.delegate.updateDate(columnLabel, x);
+        this.delegate.updateDate(this.dataIndex(columnLabel), x);
     }
 
     @Override
     public void updateTime(String columnLabel, Time x) throws SQLException {
-        this.delegate.updateTime(columnLabel, x);
+        this.delegate.updateTime(this.dataIndex(columnLabel), x);
     }
 
     @Override
     public void updateTimestamp(String columnLabel, Timestamp x) throws SQLException {
-        this.delegate.updateTimestamp(columnLabel, x);
+        this.delegate.updateTimestamp(this.dataIndex(columnLabel), x);
     }
 
     @Override
     public void updateAsciiStream(String columnLabel, InputStream x, int length) throws SQLException {
-        this.delegate.updateAsciiStream(columnLabel, x, length);
+        this.delegate.updateAsciiStream(this.dataIndex(columnLabel), x, length);
     }
 
     @Override
     public void updateBinaryStream(String columnLabel, InputStream x, int length) throws SQLException {
-        this.delegate.updateBinaryStream(columnLabel, x, length);
+        this.delegate.updateBinaryStream(this.dataIndex(columnLabel), x, length);
     }
 
     @Override
     public void updateCharacterStream(String columnLabel, Reader reader, int length) throws SQLException {
-        this.delegate.updateCharacterStream(columnLabel, reader, length);
+        this.delegate.updateCharacterStream(this.dataIndex(columnLabel), reader, length);
     }
 
     @Override
     public void updateObject(String columnLabel, Object x, int scaleOrLength) throws SQLException {
-        this.delegate.updateObject(columnLabel, x, scaleOrLength);
+        this.delegate.updateObject(this.dataIndex(columnLabel), x, scaleOrLength);
     }
 
     @Override
     public void updateObject(String columnLabel, Object x) throws SQLException {
-        this.delegate.updateObject(columnLabel, x);
+        this.delegate.updateObject(this.dataIndex(columnLabel), x);
     }
 
     @Override
@@ -598,154 +640,154 @@ public class ResultSetWrapper extends AbstractWrapper implements IASResultSet {
 
     @Override
     public Object getObject(int columnIndex, Map<String, Class<?>> map) throws SQLException {
-        return this.delegate.getObject(transformColumnIndex(columnIndex), map);
+        return this.delegate.getObject(this.dataIndex(columnIndex), map);
     }
 
     @Override
     public Ref getRef(int columnIndex) throws SQLException {
-        return this.delegate.getRef(transformColumnIndex(columnIndex));
+        return this.delegate.getRef(this.dataIndex(columnIndex));
     }
 
     @Override
     public Blob getBlob(int columnIndex) throws SQLException {
-        return this.delegate.getBlob(transformColumnIndex(columnIndex));
+        return this.delegate.getBlob(this.dataIndex(columnIndex));
     }
 
     @Override
     public Clob getClob(int columnIndex) throws SQLException {
-        return this.delegate.getClob(transformColumnIndex(columnIndex));
+        return this.delegate.getClob(this.dataIndex(columnIndex));
     }
 
     @Override
     public Array getArray(int columnIndex) throws SQLException {
-        return this.delegate.getArray(transformColumnIndex(columnIndex));
+        return this.delegate.getArray(this.dataIndex(columnIndex));
     }
 
     @Override
     public Object getObject(String columnLabel, Map<String, Class<?>> map) throws SQLException {
-        return this.delegate.getObject(columnLabel, map);
+        return this.delegate.getObject(this.dataIndex(columnLabel), map);
     }
 
     @Override
     public Ref getRef(String columnLabel) throws SQLException {
-        return this.delegate.getRef(columnLabel);
+        return this.delegate.getRef(this.dataIndex(columnLabel));
     }
 
     @Override
     public Blob getBlob(String columnLabel) throws SQLException {
-        return this.delegate.getBlob(columnLabel);
+        return this.delegate.getBlob(this.dataIndex(columnLabel));
     }
 
     @Override
     public Clob getClob(String columnLabel) throws SQLException {
-        return this.delegate.getClob(columnLabel);
+        return this.delegate.getClob(this.dataIndex(columnLabel));
     }
 
     @Override
     public Array getArray(String columnLabel) throws SQLException {
-        return this.delegate.getArray(columnLabel);
+        return this.delegate.getArray(this.dataIndex(columnLabel));
     }
 
     @Override
     public Date getDate(int columnIndex, Calendar cal) throws SQLException {
-        return this.delegate.getDate(transformColumnIndex(columnIndex), cal);
+        return this.delegate.getDate(this.dataIndex(columnIndex), cal);
     }
 
     @Override
     public Date getDate(String columnLabel, Calendar cal) throws SQLException {
-        return this.delegate.getDate(columnLabel, cal);
+        return this.delegate.getDate(this.dataIndex(columnLabel), cal);
     }
 
     @Override
     public Time getTime(int columnIndex, Calendar cal) throws SQLException {
-        return this.delegate.getTime(transformColumnIndex(columnIndex), cal);
+        return this.delegate.getTime(this.dataIndex(columnIndex), cal);
     }
 
     @Override
     public Time getTime(String columnLabel, Calendar cal) throws SQLException {
-        return this.delegate.getTime(columnLabel, cal);
+        return this.delegate.getTime(this.dataIndex(columnLabel), cal);
     }
 
     @Override
     public Timestamp getTimestamp(int columnIndex, Calendar cal) throws SQLException {
-        return this.delegate.getTimestamp(transformColumnIndex(columnIndex), cal);
+        return this.delegate.getTimestamp(this.dataIndex(columnIndex), cal);
     }
 
     @Override
     public Timestamp getTimestamp(String columnLabel, Calendar cal) throws SQLException {
-        return this.delegate.getTimestamp(columnLabel, cal);
+        return this.delegate.getTimestamp(this.dataIndex(columnLabel), cal);
     }
 
     @Override
     public URL getURL(int columnIndex) throws SQLException {
-        return this.delegate.getURL(transformColumnIndex(columnIndex));
+        return this.delegate.getURL(this.dataIndex(columnIndex));
     }
 
     @Override
     public URL getURL(String columnLabel) throws SQLException {
-        return this.delegate.getURL(columnLabel);
+        return this.delegate.getURL(this.dataIndex(columnLabel));
     }
 
     @Override
     public void updateRef(int columnIndex, Ref x) throws SQLException {
-        this.delegate.updateRef(transformColumnIndex(columnIndex), x);
+        this.delegate.updateRef(this.dataIndex(columnIndex), x);
     }
 
     @Override
     public void updateRef(String columnLabel, Ref x) throws SQLException {
-        this.delegate.updateRef(columnLabel, x);
+        this.delegate.updateRef(this.dataIndex(columnLabel), x);
     }
 
     @Override
     public void updateBlob(int columnIndex, Blob x) throws SQLException {
-        this.delegate.updateBlob(transformColumnIndex(columnIndex), x);
+        this.delegate.updateBlob(this.dataIndex(columnIndex), x);
     }
 
     @Override
     public void updateBlob(String columnLabel, Blob x) throws SQLException {
-        this.delegate.updateBlob(columnLabel, x);
+        this.delegate.updateBlob(this.dataIndex(columnLabel), x);
     }
 
     @Override
     public void updateClob(int columnIndex, Clob x) throws SQLException {
-        this.delegate.updateClob(transformColumnIndex(columnIndex), x);
+        this.delegate.updateClob(this.dataIndex(columnIndex), x);
     }
 
     @Override
     public void updateClob(String columnLabel, Clob x) throws SQLException {
-        this.delegate.updateClob(columnLabel, x);
+        this.delegate.updateClob(this.dataIndex(columnLabel), x);
     }
 
     @Override
     public void updateArray(int columnIndex, Array x) throws SQLException {
-        this.delegate.updateArray(transformColumnIndex(columnIndex), x);
+        this.delegate.updateArray(this.dataIndex(columnIndex), x);
     }
 
     @Override
     public void updateArray(String columnLabel, Array x) throws SQLException {
-        this.delegate.updateArray(columnLabel, x);
+        this.delegate.updateArray(this.dataIndex(columnLabel), x);
     }
 
     @Override
     public RowId getRowId(int columnIndex) throws SQLException {
-        return this.delegate.getRowId(transformColumnIndex(columnIndex));
+        return this.delegate.getRowId(this.dataIndex(columnIndex));
     }
 
     @Override
     public RowId getRowId(String columnLabel) throws SQLException {
-        return this.delegate.getRowId(columnLabel);
+        return this.delegate.getRowId(this.dataIndex(columnLabel));
     }
 
     @Override
     public void updateRowId(int columnIndex, RowId x) throws SQLException {
         //TODO: do i have to change the RowId?
-        this.delegate.updateRowId(transformColumnIndex(columnIndex), x);
+        this.delegate.updateRowId(this.dataIndex(columnIndex), x);
     }
 
     @Override
     public void updateRowId(String columnLabel, RowId x) throws SQLException {
         //TODO: do i have to change the RowId?
-        this.delegate.updateRowId(columnLabel, x);
+        this.delegate.updateRowId(this.dataIndex(columnLabel), x);
     }
 
     @Override
@@ -760,268 +802,292 @@ public class ResultSetWrapper extends AbstractWrapper implements IASResultSet {
 
     @Override
     public void updateNString(int columnIndex, String nString) throws SQLException {
-        this.delegate.updateNString(transformColumnIndex(columnIndex), nString);
+        this.delegate.updateNString(this.dataIndex(columnIndex), nString);
     }
 
     @Override
     public void updateNString(String columnLabel, String nString) throws SQLException {
-        this.delegate.updateNString(columnLabel, nString);
+        this.delegate.updateNString(this.dataIndex(columnLabel), nString);
     }
 
     @Override
     public void updateNClob(int columnIndex, NClob nClob) throws SQLException {
-        this.delegate.updateNClob(transformColumnIndex(columnIndex), nClob);
+        this.delegate.updateNClob(this.dataIndex(columnIndex), nClob);
     }
 
     @Override
     public void updateNClob(String columnLabel, NClob nClob) throws SQLException {
-        this.delegate.updateNClob(columnLabel, nClob);
+        this.delegate.updateNClob(this.dataIndex(columnLabel), nClob);
     }
 
     @Override
     public NClob getNClob(int columnIndex) throws SQLException {
-        return this.delegate.getNClob(transformColumnIndex(columnIndex));
+        return this.delegate.getNClob(this.dataIndex(columnIndex));
     }
 
     @Override
     public NClob getNClob(String columnLabel) throws SQLException {
-        return this.delegate.getNClob(columnLabel);
+        return this.delegate.getNClob(this.dataIndex(columnLabel));
     }
 
     @Override
     public SQLXML getSQLXML(int columnIndex) throws SQLException {
-        return this.delegate.getSQLXML(transformColumnIndex(columnIndex));
+        return this.delegate.getSQLXML(this.dataIndex(columnIndex));
     }
 
     @Override
     public SQLXML getSQLXML(String columnLabel) throws SQLException {
-        return this.delegate.getSQLXML(columnLabel);
+        return this.delegate.getSQLXML(this.dataIndex(columnLabel));
     }
 
     @Override
     public void updateSQLXML(int columnIndex, SQLXML xmlObject) throws SQLException {
-        this.delegate.updateSQLXML(transformColumnIndex(columnIndex), xmlObject);
+        this.delegate.updateSQLXML(this.dataIndex(columnIndex), xmlObject);
     }
 
     @Override
     public void updateSQLXML(String columnLabel, SQLXML xmlObject) throws SQLException {
-        this.delegate.updateSQLXML(columnLabel, xmlObject);
+        this.delegate.updateSQLXML(this.dataIndex(columnLabel), xmlObject);
     }
 
     @Override
     public String getNString(int columnIndex) throws SQLException {
-        return this.delegate.getNString(transformColumnIndex(columnIndex));
+        return this.delegate.getNString(this.dataIndex(columnIndex));
     }
 
     @Override
     public String getNString(String columnLabel) throws SQLException {
-        return this.delegate.getNString(columnLabel);
+        return this.delegate.getNString(this.dataIndex(columnLabel));
     }
 
     @Override
     public Reader getNCharacterStream(int columnIndex) throws SQLException {
-        return this.delegate.getNCharacterStream(transformColumnIndex(columnIndex));
+        return this.delegate.getNCharacterStream(this.dataIndex(columnIndex));
     }
 
     @Override
     public Reader getNCharacterStream(String columnLabel) throws SQLException {
-        return this.delegate.getNCharacterStream(columnLabel);
+        return this.delegate.getNCharacterStream(this.dataIndex(columnLabel));
     }
 
     @Override
     public void updateNCharacterStream(int columnIndex, Reader x, long length) throws SQLException {
-        this.delegate.updateNCharacterStream(transformColumnIndex(columnIndex), x, length);
+        this.delegate.updateNCharacterStream(this.dataIndex(columnIndex), x, length);
     }
 
     @Override
     public void updateNCharacterStream(String columnLabel, Reader reader, long length) throws SQLException {
-        this.delegate.updateNCharacterStream(columnLabel, reader, length);
+        this.delegate.updateNCharacterStream(this.dataIndex(columnLabel), reader, length);
     }
 
     @Override
     public void updateAsciiStream(int columnIndex, InputStream x, long length) throws SQLException {
-        this.delegate.updateAsciiStream(transformColumnIndex(columnIndex), x, length);
+        this.delegate.updateAsciiStream(this.dataIndex(columnIndex), x, length);
     }
 
     @Override
     public void updateBinaryStream(int columnIndex, InputStream x, long length) throws SQLException {
-        this.delegate.updateBinaryStream(transformColumnIndex(columnIndex), x, length);
+        this.delegate.updateBinaryStream(this.dataIndex(columnIndex), x, length);
     }
 
     @Override
     public void updateCharacterStream(int columnIndex, Reader x, long length) throws SQLException {
-        this.delegate.updateCharacterStream(transformColumnIndex(columnIndex), x, length);
+        this.delegate.updateCharacterStream(this.dataIndex(columnIndex), x, length);
     }
 
     @Override
     public void updateAsciiStream(String columnLabel, InputStream x, long length) throws SQLException {
-        this.delegate.updateAsciiStream(columnLabel, x, length);
+        this.delegate.updateAsciiStream(this.dataIndex(columnLabel), x, length);
     }
 
     @Override
     public void updateBinaryStream(String columnLabel, InputStream x, long length) throws SQLException {
-        this.delegate.updateBinaryStream(columnLabel, x, length);
+        this.delegate.updateBinaryStream(this.dataIndex(columnLabel), x, length);
     }
 
     @Override
     public void updateCharacterStream(String columnLabel, Reader reader, long length) throws SQLException {
-        this.delegate.updateCharacterStream(columnLabel, reader, length);
+        this.delegate.updateCharacterStream(this.dataIndex(columnLabel), reader, length);
     }
 
     @Override
     public void updateBlob(int columnIndex, InputStream inputStream, long length) throws SQLException {
-        this.delegate.updateBlob(transformColumnIndex(columnIndex), inputStream, length);
+        this.delegate.updateBlob(this.dataIndex(columnIndex), inputStream, length);
     }
 
     @Override
     public void updateBlob(String columnLabel, InputStream inputStream, long length) throws SQLException {
-        this.delegate.updateBlob(columnLabel, inputStream, length);
+        this.delegate.updateBlob(this.dataIndex(columnLabel), inputStream, length);
     }
 
     @Override
     public void updateClob(int columnIndex, Reader reader, long length) throws SQLException {
-        this.delegate.updateClob(transformColumnIndex(columnIndex), reader, length);
+        this.delegate.updateClob(this.dataIndex(columnIndex), reader, length);
     }
 
     @Override
     public void updateClob(String columnLabel, Reader reader, long length) throws SQLException {
-        this.delegate.updateClob(columnLabel, reader, length);
+        this.delegate.updateClob(this.dataIndex(columnLabel), reader, length);
     }
 
     @Override
     public void updateNClob(int columnIndex, Reader reader, long length) throws SQLException {
-        this.delegate.updateNClob(transformColumnIndex(columnIndex), reader, length);
+        this.delegate.updateNClob(this.dataIndex(columnIndex), reader, length);
     }
 
     @Override
     public void updateNClob(String columnLabel, Reader reader, long length) throws SQLException {
-        this.delegate.updateNClob(columnLabel, reader, length);
+        this.delegate.updateNClob(this.dataIndex(columnLabel), reader, length);
     }
 
     @Override
     public void updateNCharacterStream(int columnIndex, Reader x) throws SQLException {
-        this.delegate.updateNCharacterStream(transformColumnIndex(columnIndex), x);
+        this.delegate.updateNCharacterStream(this.dataIndex(columnIndex), x);
     }
 
     @Override
     public void updateNCharacterStream(String columnLabel, Reader reader) throws SQLException {
-        this.delegate.updateNCharacterStream(columnLabel, reader);
+        this.delegate.updateNCharacterStream(this.dataIndex(columnLabel), reader);
     }
 
     @Override
     public void updateAsciiStream(int columnIndex, InputStream x) throws SQLException {
-        this.delegate.updateAsciiStream(transformColumnIndex(columnIndex), x);
+        this.delegate.updateAsciiStream(this.dataIndex(columnIndex), x);
     }
 
     @Override
     public void updateBinaryStream(int columnIndex, InputStream x) throws SQLException {
-        this.delegate.updateBinaryStream(transformColumnIndex(columnIndex), x);
+        this.delegate.updateBinaryStream(this.dataIndex(columnIndex), x);
     }
 
     @Override
     public void updateCharacterStream(int columnIndex, Reader x) throws SQLException {
-        this.delegate.updateCharacterStream(transformColumnIndex(columnIndex), x);
+        this.delegate.updateCharacterStream(this.dataIndex(columnIndex), x);
     }
 
     @Override
     public void updateAsciiStream(String columnLabel, InputStream x) throws SQLException {
-        this.delegate.updateAsciiStream(columnLabel, x);
+        this.delegate.updateAsciiStream(this.dataIndex(columnLabel), x);
     }
 
     @Override
     public void updateBinaryStream(String columnLabel, InputStream x) throws SQLException {
-        this.delegate.updateBinaryStream(columnLabel, x);
+        this.delegate.updateBinaryStream(this.dataIndex(columnLabel), x);
     }
 
     @Override
     public void updateCharacterStream(String columnLabel, Reader reader) throws SQLException {
-        this.delegate.updateCharacterStream(columnLabel, reader);
+        this.delegate.updateCharacterStream(this.dataIndex(columnLabel), reader);
     }
 
     @Override
     public void updateBlob(int columnIndex, InputStream inputStream) throws SQLException {
-        this.delegate.updateBlob(transformColumnIndex(columnIndex), inputStream);
+        this.delegate.updateBlob(this.dataIndex(columnIndex), inputStream);
     }
 
     @Override
     public void updateBlob(String columnLabel, InputStream inputStream) throws SQLException {
-        this.delegate.updateBlob(columnLabel, inputStream);
+        this.delegate.updateBlob(this.dataIndex(columnLabel), inputStream);
     }
 
     @Override
     public void updateClob(int columnIndex, Reader reader) throws SQLException {
-        this.delegate.updateClob(transformColumnIndex(columnIndex), reader);
+        this.delegate.updateClob(this.dataIndex(columnIndex), reader);
     }
 
     @Override
     public void updateClob(String columnLabel, Reader reader) throws SQLException {
-        this.delegate.updateClob(columnLabel, reader);
+        this.delegate.updateClob(this.dataIndex(columnLabel), reader);
     }
 
     @Override
     public void updateNClob(int columnIndex, Reader reader) throws SQLException {
-        this.delegate.updateNClob(transformColumnIndex(columnIndex), reader);
+        this.delegate.updateNClob(this.dataIndex(columnIndex), reader);
     }
 
     @Override
     public void updateNClob(String columnLabel, Reader reader) throws SQLException {
-        this.delegate.updateNClob(columnLabel, reader);
+        this.delegate.updateNClob(this.dataIndex(columnLabel), reader);
     }
 
     @Override
     public <T> T getObject(int columnIndex, Class<T> type) throws SQLException {
-        return this.delegate.getObject(transformColumnIndex(columnIndex), type);
+        return this.delegate.getObject(this.dataIndex(columnIndex), type);
     }
 
     @Override
     public <T> T getObject(String columnLabel, Class<T> type) throws SQLException {
-        return this.delegate.getObject(columnLabel, type);
+        return this.delegate.getObject(this.dataIndex(columnLabel), type);
     }
 
     @Override
     public IASString getTString(int columnIndex) throws SQLException {
-        return this.getTStringHelper(transformColumnIndex(columnIndex));
+        String value = this.delegate.getString(this.dataIndex(columnIndex));
+        return this.restoreTaint(value, this.columns.getTaintIndex(columnIndex));
     }
 
     @Override
     public IASString getTString(String columnLabel) throws SQLException {
-        int columnIndex = this.delegate.findColumn(columnLabel);
-        return this.getTStringHelper(columnIndex);
+        return this.getTString(this.findColumn(columnLabel));
     }
 
-    private IASString getTStringHelper(int idx) throws SQLException {
-        String value = this.delegate.getString(idx);
-        String taint = this.delegate.getString(idx + 1);
+    /**
+     * Attaches the taint of the given column to the value. The taint is only decoded once it is inspected.
+     */
+    private IASString restoreTaint(String value, int taintIdx) throws SQLException {
+        String taint = this.delegate.getString(taintIdx);
 
         IASString rv = IASString.fromString(value);
-        if (taint != null && !Constants.UNTAINTED.equals(taint) && !"0".equals(taint)) {
-            //System.out.printf("Restoring taint for '%s': %s%n", value, taint);
-            Utils.restoreTaint(rv, taint);
+        if (rv != null && taint != null && !Constants.UNTAINTED.equals(taint) && !"0".equals(taint)) {
+            rv.setTaint(new IASLazyTaintInformation(rv.length(), this.getEncodedTaint(taintIdx, taint)));
         }
         return rv;
     }
 
+    private EncodedTaint getEncodedTaint(int taintIdx, String taint) {
+        if (taintIdx >= this.lastTaints.length) {
+            this.lastTaints = Arrays.copyOf(this.lastTaints, taintIdx + 1);
+        }
+        EncodedTaint encoded = this.lastTaints[taintIdx];
+        if (encoded == null || !encoded.taint.equals(taint)) {
+            encoded = new EncodedTaint(taint);
+            this.lastTaints[taintIdx] = encoded;
+        }
+        return encoded;
+    }
+
     @Override
     public Object getTObject(String columnLabel) throws SQLException {
-        return getTObject(this.delegate.findColumn(columnLabel));
+        return this.getTObject(this.findColumn(columnLabel));
     }
 
     @Override
     public Object getTObject(int columnIndex) throws SQLException {
-        int idx = transformColumnIndex(columnIndex);
-        Object o = this.delegate.getObject(idx);
+        Object o = this.delegate.getObject(this.dataIndex(columnIndex));
 
         if (o instanceof String) {
-            String s = (String) o;
-            String taint = this.delegate.getString(idx + 1);
-            IASString rv = IASString.fromString(s);
-            if (taint != null && !Constants.UNTAINTED.equals(taint) && !"0".equals(taint)) {
-                //System.out.printf("Restoring taint for '%s': %s%n", value, taint);
-                Utils.restoreTaint(rv, taint);
-            }
-            o = rv;
+            o = this.restoreTaint((String) o, this.columns.getTaintIndex(columnIndex));
         }
         return o;
     }
+
+    private static final class EncodedTaint implements Supplier<IASTaintInformationable> {
+        private final String taint;
+        private IASTaintInformationable decoded;
+        private boolean isDecoded;
+
+        private EncodedTaint(String taint) {
+            this.taint = taint;
+        }
+
+        @Override
+        public synchronized IASTaintInformationable get() {
+            if (!this.isDecoded) {
+                this.decoded = Utils.parseTaint(this.taint);
+                this.isDecoded = true;
+            }
+            return this.decoded;
+        }
+    }
 }
 
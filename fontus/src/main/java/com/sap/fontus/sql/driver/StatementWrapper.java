@@ -34,7 +34,7 @@ public class StatementWrapper extends AbstractWrapper implements Statement {
     @Override
     public ResultSet executeQuery(String sql) throws SQLException {
         Pair<String, QueryParameters> tainted = QueryCache.INSTANCE.parseQuery(sql);
-        return ResultSetWrapper.wrap(this.delegate.executeQuery(tainted.x));
+        return ResultSetWrapper.wrap(this.delegate.executeQuery(tainted.x), tainted.x);
     }
 
     @Override
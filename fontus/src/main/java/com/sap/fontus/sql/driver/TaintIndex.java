@@ -0,0 +1,294 @@
+package com.sap.fontus.sql.driver;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sap.fontus.config.Configuration;
+import com.sap.fontus.config.abort.BackPressure;
+import com.sap.fontus.gdpr.metadata.AllowedPurpose;
+import com.sap.fontus.gdpr.metadata.DataSubject;
+import com.sap.fontus.gdpr.metadata.ExpiryDate;
+import com.sap.fontus.gdpr.metadata.GdprMetadata;
+import com.sap.fontus.gdpr.metadata.GdprTaintMetadata;
+import com.sap.fontus.sql.tainter.QueryCache;
+import com.sap.fontus.sql.tainter.WriteTarget;
+import com.sap.fontus.taintaware.shared.IASTaintRange;
+import com.sap.fontus.taintaware.shared.IASTaintRanges;
+import com.sap.fontus.utils.AsyncWriter;
+import com.sap.fontus.utils.LogUtils;
+import com.sap.fontus.utils.Logger;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records which tables and columns contain data of which data subject and when it expires.
+ * <p>
+ * Prepared INSERT and UPDATE statements add an entry per data subject and written column to the
+ * {@link Configuration#getTaintIndexTable()}, so subject access requests and expiry queries only have to scan the tables
+ * listed there. The rows themselves are not recorded, as their keys are unknown when the parameters are bound.
+ * If the column or table a taint is written to is unknown, e.g. for an INSERT ... SELECT or a REPLACE, it is recorded
+ * as {@link #UNKNOWN}, so the index stays complete for all taints written while it is enabled.
+ * <p>
+ * The entries are written by a background thread on a connection of its own, so they don't take part in the transaction
+ * of the application and don't hold locks on the index until it commits. Entries written before are remembered and
+ * not written again. The table has to exist and is written with MySQL syntax:
+ * <pre>
+ * CREATE TABLE fontus_taint_index (
+ *     subject VARCHAR(255) NOT NULL,
+ *     expiry BIGINT NOT NULL,
+ *     table_name VARCHAR(64) NOT NULL,
+ *     column_name VARCHAR(64) NOT NULL,
+ *     UNIQUE KEY (subject, expiry, table_name, column_name),
+ *     KEY (expiry)
+ * );
+ * </pre>
+ */
+public enum TaintIndex {
+    INSTANCE;
+    /**
+     * Subject recorded for taints without data subjects
+     */
+    public static final String NO_SUBJECT = "";
+    /**
+     * Expiry recorded for taints without expiring purposes
+     */
+    public static final long NO_EXPIRY = Long.MAX_VALUE;
+    /**
+     * Table or column recorded for taints written to an unknown table or column
+     */
+    public static final String UNKNOWN = "*";
+    private static final Logger logger = LogUtils.getLogger();
+    private static final int QUEUE_SIZE = 4096;
+
+    private final String insertQuery;
+    // Empty if the query writes no table
+    private final Cache<String, Optional<WriteTarget>> targets;
+    // Entries in the index, with the writer of the database they were written to
+    private final Cache<Entry, Writer> written;
+    private final Map<String, Writer> writers = new ConcurrentHashMap<>();
+
+    TaintIndex() {
+        Configuration configuration = Configuration.getConfiguration();
+        String table = configuration.getTaintIndexTable();
+        this.insertQuery = table == null ? null : String.format("INSERT IGNORE INTO %s (subject, expiry, table_name, column_name) VALUES (?, ?, ?, ?)", table);
+        long maxBytes = (long) (configuration.getQueryCacheSize() * 1024L * 1024L * QueryCache.TAINT_INDEX_SHARE);
+        this.targets = Caffeine.newBuilder()
+                .maximumWeight(maxBytes / 2)
+                .weigher((String query, Optional<WriteTarget> target) -> 2 * query.length())
+                .build();
+        this.written = Caffeine.newBuilder()
+                .maximumWeight(maxBytes - maxBytes / 2)
+                .weigher((Entry entry, Writer writer) -> entry.getWeight())
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return this.insertQuery != null;
+    }
+
+    /**
+     * @return The table and columns the query writes to or null if the query writes no table
+     */
+    public WriteTarget getTarget(String originalQuery) {
+        if (!this.isEnabled() || originalQuery == null || originalQuery.isEmpty()) {
+            return null;
+        }
+        return this.targets.get(originalQuery, query -> Optional.ofNullable(WriteTarget.of(query))).orElse(null);
+    }
+
+    /**
+     * Adds the entries for the taints written to the column of the parameter
+     */
+    public void collect(WriteTarget target, int parameterIndex, IASTaintRanges ranges, Collection<Entry> entries) {
+        String table = target.getTable() == null ? UNKNOWN : target.getTable();
+        String column = target.getColumn(parameterIndex) == null ? UNKNOWN : target.getColumn(parameterIndex);
+        for (IASTaintRange range : ranges) {
+            if (!(range.getMetadata() instanceof GdprTaintMetadata)) {
+                continue;
+            }
+            GdprMetadata metadata = ((GdprTaintMetadata) range.getMetadata()).getMetadata();
+            long expiry = earliestExpiry(metadata);
+            Collection<DataSubject> subjects = metadata.getSubjects();
+            if (subjects == null || subjects.isEmpty()) {
+                entries.add(new Entry(NO_SUBJECT, expiry, table, column));
+                continue;
+            }
+            for (DataSubject subject : subjects) {
+                String identifier = subject.getIdentifier() == null ? NO_SUBJECT : subject.getIdentifier();
+                entries.add(new Entry(identifier, expiry, table, column));
+            }
+        }
+    }
+
+    private static long earliestExpiry(GdprMetadata metadata) {
+        long expiry = NO_EXPIRY;
+        if (metadata.getAllowedPurposes() == null) {
+            return expiry;
+        }
+        for (AllowedPurpose purpose : metadata.getAllowedPurposes()) {
+            ExpiryDate date = purpose.getExpiryDate();
+            if (date != null && date.hasExpiry()) {
+                expiry = Math.min(expiry, date.getDate().getEpochSecond());
+            }
+        }
+        return expiry;
+    }
+
+    /**
+     * @return The writer for the database behind the URL, shared by all connections to it, or null if the index is disabled
+     */
+    public Writer getWriter(Driver driver, String url, Properties properties) {
+        if (!this.isEnabled()) {
+            return null;
+        }
+        Properties copy = new Properties();
+        if (properties != null) {
+            copy.putAll(properties);
+        }
+        return this.writers.computeIfAbsent(url + '\n' + copy.getProperty("user"), key -> new Writer(driver, url, copy));
+    }
+
+    /**
+     * Writes entries to the index of one database, on a connection opened with the URL and properties of the application
+     */
+    public final class Writer {
+        private final Driver driver;
+        private final String url;
+        private final Properties properties;
+        private final AsyncWriter<Entry> queue;
+
+        private Writer(Driver driver, String url, Properties properties) {
+            this.driver = driver;
+            this.url = url;
+            this.properties = properties;
+            this.queue = new AsyncWriter<>("taint-index", QUEUE_SIZE, BackPressure.BLOCK, new BatchOutput());
+        }
+
+        /**
+         * Queues the entries which are not known to be written already
+         */
+        public void write(Collection<Entry> entries) {
+            for (Entry entry : entries) {
+                if (TaintIndex.this.written.getIfPresent(entry) != this) {
+                    this.queue.submit(entry);
+                }
+            }
+        }
+
+        /**
+         * Inserts the queued entries in one batch on each flush. Failed entries are written again, once they are written
+         * by the application again
+         */
+        private final class BatchOutput implements AsyncWriter.Output<Entry> {
+            private final Set<Entry> pending = new LinkedHashSet<>();
+            private Connection connection;
+
+            @Override
+            public void write(Entry entry) {
+                if (TaintIndex.this.written.getIfPresent(entry) != Writer.this) {
+                    this.pending.add(entry);
+                }
+            }
+
+            @Override
+            public void dropped(long count) {
+                // Nothing is dropped, as the queue blocks
+            }
+
+            @Override
+            public void flush() {
+                if (this.pending.isEmpty()) {
+                    return;
+                }
+                try {
+                    this.insertPending();
+                    for (Entry entry : this.pending) {
+                        TaintIndex.this.written.put(entry, Writer.this);
+                    }
+                } catch (SQLException e) {
+                    logger.error("Could not write {} taint index entries: {}", this.pending.size(), e.getMessage());
+                    this.closeConnection();
+                } finally {
+                    this.pending.clear();
+                }
+            }
+
+            private void insertPending() throws SQLException {
+                if (this.connection == null) {
+                    this.connection = Writer.this.driver.connect(Writer.this.url, Writer.this.properties);
+                    this.connection.setAutoCommit(true);
+                }
+                try (PreparedStatement statement = this.connection.prepareStatement(TaintIndex.this.insertQuery)) {
+                    for (Entry entry : this.pending) {
+                        statement.setString(1, entry.subject);
+                        statement.setLong(2, entry.expiry);
+                        statement.setString(3, entry.table);
+                        statement.setString(4, entry.column);
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                }
+            }
+
+            private void closeConnection() {
+                if (this.connection == null) {
+                    return;
+                }
+                try {
+                    this.connection.close();
+                } catch (SQLException e) {
+                    logger.debug("Could not close the taint index connection: {}", e.getMessage());
+                }
+                this.connection = null;
+            }
+        }
+    }
+
+    public static final class Entry {
+        private final String subject;
+        private final long expiry;
+        private final String table;
+        private final String column;
+
+        Entry(String subject, long expiry, String table, String column) {
+            this.subject = subject;
+            this.expiry = expiry;
+            this.table = table;
+            this.column = column;
+        }
+
+        /**
+         * Roughly the strings and the entry itself in bytes
+         */
+        private int getWeight() {
+            return 2 * (this.subject.length() + this.table.length() + this.column.length()) + 64;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || this.getClass() != o.getClass()) {
+                return false;
+            }
+            Entry entry = (Entry) o;
+            return this.expiry == entry.expiry && this.subject.equals(entry.subject) && this.table.equals(entry.table) && this.column.equals(entry.column);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.subject, this.expiry, this.table, this.column);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.sap.fontus.sql.driver;
+
+/**
+ * Comma separated tokens of the text taint encoding.
+ * <p>
+ * Numbers are written in base 36. In strings, commas and backslashes are escaped with a backslash, {@code \0} stands
+ * for null.
+ */
+final class TaintTokens {
+    private static final char SEPARATOR = ',';
+    private static final char ESCAPE = '\\';
+    private static final String NULL = "\\0";
+
+    private TaintTokens() {
+    }
+
+    static final class Writer {
+        private final StringBuilder builder;
+        private boolean empty = true;
+
+        Writer(StringBuilder builder) {
+            this.builder = builder;
+        }
+
+        Writer number(long value) {
+            this.separate();
+            this.builder.append(Long.toString(value, Character.MAX_RADIX));
+            return this;
+        }
+
+        Writer flag(boolean value) {
+            return this.number(value ? 1L : 0L);
+        }
+
+        Writer string(String value) {
+            this.separate();
+            if (value == null) {
+                this.builder.append(NULL);
+                return this;
+            }
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == SEPARATOR || c == ESCAPE) {
+                    this.builder.append(ESCAPE);
+                }
+                this.builder.append(c);
+            }
+            return this;
+        }
+
+        /**
+         * Appends tokens written by another writer
+         */
+        Writer tokens(String tokens) {
+            this.separate();
+            this.builder.append(tokens);
+            return this;
+        }
+
+        private void separate() {
+            if (!this.empty) {
+                this.builder.append(SEPARATOR);
+            }
+            this.empty = false;
+        }
+    }
+
+    static final class Reader {
+        private final String encoded;
+        private int position;
+
+        Reader(String encoded, int position) {
+            this.encoded = encoded;
+            this.position = position;
+        }
+
+        long number() {
+            return Long.parseLong(this.raw(), Character.MAX_RADIX);
+        }
+
+        int integer() {
+            return Math.toIntExact(this.number());
+        }
+
+        boolean flag() {
+            return this.number() != 0L;
+        }
+
+        String string() {
+            String raw = this.raw();
+            if (NULL.equals(raw)) {
+                return null;
+            }
+            if (raw.indexOf(ESCAPE) < 0) {
+                return raw;
+            }
+            StringBuilder value = new StringBuilder(raw.length());
+            for (int i = 0; i < raw.length(); i++) {
+                char c = raw.charAt(i);
+                if (c == ESCAPE && i + 1 < raw.length()) {
+                    c = raw.charAt(++i);
+                }
+                value.append(c);
+            }
+            return value.toString();
+        }
+
+        /**
+         * @return the token as written, including escapes
+         */
+        private String raw() {
+            if (this.position > this.encoded.length()) {
+                throw new IllegalArgumentException("Truncated taint encoding");
+            }
+            int start = this.position;
+            int i = start;
+            while (i < this.encoded.length() && this.encoded.charAt(i) != SEPARATOR) {
+                if (this.encoded.charAt(i) == ESCAPE) {
+                    i++;
+                }
+                i++;
+            }
+            int end = Math.min(i, this.encoded.length());
+            this.position = end + 1;
+            return this.encoded.substring(start, end);
+        }
+    }
+}
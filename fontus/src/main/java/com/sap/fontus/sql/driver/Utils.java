@@ -7,14 +7,47 @@ import com.owlike.genson.GensonBuilder;
 import com.owlike.genson.reflect.VisibilityFilter;
 import com.owlike.genson.stream.ObjectReader;
 import com.owlike.genson.stream.ObjectWriter;
+import com.sap.fontus.gdpr.metadata.GdprTaintMetadata;
+import com.sap.fontus.taintaware.shared.IASBasicMetadata;
+import com.sap.fontus.taintaware.shared.IASTaintMetadata;
+import com.sap.fontus.taintaware.shared.IASTaintRange;
 import com.sap.fontus.taintaware.shared.IASTaintRanges;
+import com.sap.fontus.taintaware.shared.IASTaintSource;
+import com.sap.fontus.taintaware.shared.IASTaintSourceRegistry;
 import com.sap.fontus.taintaware.unified.IASString;
 import com.sap.fontus.taintaware.unified.IASTaintInformationable;
 import com.sap.fontus.taintaware.unified.TaintInformationFactory;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
+/**
+ * Serialization of taint information into the taint columns.
+ * <p>
+ * Taints are written as comma separated {@link TaintTokens}, prefixed with {@link #ENCODED_PREFIX} and the encoding version:
+ * <pre>
+ * length, metadata count, metadata..., range count, (start - previous end, range length, metadata index)...
+ * </pre>
+ * Each distinct metadata object is only stored once per value and referenced by the ranges by index. Basic metadata is
+ * stored as the name of its source, GDPR metadata field by field (see {@link GdprEncoding}) and all other metadata as JSON.
+ * Values written as JSON or in the Base64 encoded binary format of the first version are still read.
+ */
 public final class Utils {
+    static final String ENCODED_PREFIX = "~";
+    private static final int BINARY_VERSION = 1;
+    private static final int TEXT_VERSION = 2;
+    private static final byte BINARY_BASIC_METADATA = 1;
+    private static final byte BINARY_JSON_METADATA = 2;
+    private static final String BASIC_METADATA = "b";
+    private static final String GDPR_METADATA = "g";
+    private static final String JSON_METADATA = "j";
     private static final Genson serializer = new GensonBuilder()
                 .withConverters(new Utils.InstantConverter())
             .useClassMetadata(true)
@@ -32,8 +65,61 @@ public final class Utils {
     }
 
     public static String serializeTaints(IASString str) {
+        return serializeTaints(str.getTaintInformationInitialized().getTaintRanges(str.length()));
+    }
 
-        return serializer.serialize(str.getTaintInformationInitialized().getTaintRanges(str.length()));
+    static String serializeTaints(IASTaintRanges ranges) {
+        return serializeTaints(ranges, new IdentityHashMap<>());
+    }
+
+    /**
+     * @param encodedMetadata Encoded metadata by metadata object, shared between the values of a statement or batch,
+     *                        so each metadata object is only encoded once
+     */
+    static String serializeTaints(IASTaintRanges ranges, Map<IASTaintMetadata, String> encodedMetadata) {
+        List<IASTaintMetadata> dictionary = new ArrayList<>(1);
+        Map<IASTaintMetadata, Integer> indices = new HashMap<>();
+        StringBuilder rangeTokens = new StringBuilder();
+        TaintTokens.Writer rangeWriter = new TaintTokens.Writer(rangeTokens);
+        int previousEnd = 0;
+        int count = 0;
+        for (IASTaintRange range : ranges) {
+            Integer index = indices.get(range.getMetadata());
+            if (index == null) {
+                index = dictionary.size();
+                dictionary.add(range.getMetadata());
+                indices.put(range.getMetadata(), index);
+            }
+            rangeWriter.number(range.getStart() - previousEnd).number(range.getEnd() - range.getStart()).number(index);
+            previousEnd = range.getEnd();
+            count++;
+        }
+
+        StringBuilder encoded = new StringBuilder(ENCODED_PREFIX).append(TEXT_VERSION);
+        TaintTokens.Writer writer = new TaintTokens.Writer(encoded);
+        writer.number(ranges.getLength()).number(dictionary.size());
+        for (IASTaintMetadata metadata : dictionary) {
+            writer.tokens(encodedMetadata.computeIfAbsent(metadata, Utils::encodeMetadata));
+        }
+        writer.number(count);
+        if (count > 0) {
+            writer.tokens(rangeTokens.toString());
+        }
+        return encoded.toString();
+    }
+
+    private static String encodeMetadata(IASTaintMetadata metadata) {
+        StringBuilder encoded = new StringBuilder();
+        TaintTokens.Writer writer = new TaintTokens.Writer(encoded);
+        if (metadata.getClass() == IASBasicMetadata.class) {
+            writer.string(BASIC_METADATA).string(metadata.getSource().getName());
+        } else if (GdprEncoding.isEncodable(metadata)) {
+            writer.string(GDPR_METADATA).string(metadata.getSource().getName());
+            GdprEncoding.write(writer, ((GdprTaintMetadata) metadata).getMetadata());
+        } else {
+            writer.string(JSON_METADATA).string(serializer.serialize(metadata));
+        }
+        return encoded.toString();
     }
 
     public static void restoreTaint(IASString str, String json) {
@@ -42,11 +128,104 @@ public final class Utils {
     }
 
     public static IASTaintInformationable parseTaint(String json) {
-
-        IASTaintRanges ranges = deserializer.deserialize(json, IASTaintRanges.class);
+        IASTaintRanges ranges = json.startsWith(ENCODED_PREFIX) ? parseEncodedTaint(json) : deserializer.deserialize(json, IASTaintRanges.class);
         return ranges != null ? TaintInformationFactory.createTaintInformation(ranges.getLength(), ranges.getTaintRanges()) : null;
     }
 
+    private static IASTaintRanges parseEncodedTaint(String encoded) {
+        int version = Character.digit(encoded.charAt(ENCODED_PREFIX.length()), 10);
+        if (version == TEXT_VERSION) {
+            return parseTextTaint(new TaintTokens.Reader(encoded, ENCODED_PREFIX.length() + 1));
+        }
+        if (version == BINARY_VERSION) {
+            return parseBinaryTaint(encoded);
+        }
+        throw new IllegalArgumentException(String.format("Unsupported taint encoding version: %d", version));
+    }
+
+    private static IASTaintRanges parseTextTaint(TaintTokens.Reader in) {
+        int length = in.integer();
+        IASTaintMetadata[] dictionary = new IASTaintMetadata[in.integer()];
+        for (int i = 0; i < dictionary.length; i++) {
+            String kind = in.string();
+            if (BASIC_METADATA.equals(kind)) {
+                dictionary[i] = new IASBasicMetadata(IASTaintSourceRegistry.getInstance().getOrRegisterObject(in.string()));
+            } else if (GDPR_METADATA.equals(kind)) {
+                IASTaintSource source = IASTaintSourceRegistry.getInstance().getOrRegisterObject(in.string());
+                dictionary[i] = new GdprTaintMetadata(source, GdprEncoding.read(in));
+            } else if (JSON_METADATA.equals(kind)) {
+                dictionary[i] = deserializer.deserialize(in.string(), IASTaintMetadata.class);
+            } else {
+                throw new IllegalArgumentException(String.format("Unknown taint metadata kind: %s", kind));
+            }
+        }
+        int count = in.integer();
+        List<IASTaintRange> ranges = new ArrayList<>(count);
+        int previousEnd = 0;
+        for (int i = 0; i < count; i++) {
+            int start = previousEnd + in.integer();
+            int end = start + in.integer();
+            ranges.add(new IASTaintRange(start, end, dictionary[in.integer()]));
+            previousEnd = end;
+        }
+        return new IASTaintRanges(length, ranges);
+    }
+
+    /**
+     * Reads values written by the first, Base64 encoded binary version
+     */
+    private static IASTaintRanges parseBinaryTaint(String encoded) {
+        ByteBuffer in = ByteBuffer.wrap(Base64.getDecoder().decode(encoded.substring(ENCODED_PREFIX.length() + 1)));
+        int length = readVarInt(in);
+        IASTaintMetadata[] dictionary = new IASTaintMetadata[readVarInt(in)];
+        for (int i = 0; i < dictionary.length; i++) {
+            byte kind = in.get();
+            if (kind == BINARY_BASIC_METADATA) {
+                String name = readString(in);
+                // The id is only informative, sources are identified by their name, as the ids differ between runs
+                readSignedVarInt(in);
+                dictionary[i] = new IASBasicMetadata(IASTaintSourceRegistry.getInstance().getOrRegisterObject(name));
+            } else if (kind == BINARY_JSON_METADATA) {
+                dictionary[i] = deserializer.deserialize(readString(in), IASTaintMetadata.class);
+            } else {
+                throw new IllegalArgumentException(String.format("Unknown taint metadata kind: %d", kind));
+            }
+        }
+        int count = readVarInt(in);
+        List<IASTaintRange> ranges = new ArrayList<>(count);
+        int previousEnd = 0;
+        for (int i = 0; i < count; i++) {
+            int start = previousEnd + readSignedVarInt(in);
+            int end = start + readVarInt(in);
+            ranges.add(new IASTaintRange(start, end, dictionary[readVarInt(in)]));
+            previousEnd = end;
+        }
+        return new IASTaintRanges(length, ranges);
+    }
+
+    private static int readVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in taint encoding");
+    }
+
+    private static int readSignedVarInt(ByteBuffer in) {
+        int value = readVarInt(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
     public static class InstantConverter implements Converter<Instant> {
 
         @Override
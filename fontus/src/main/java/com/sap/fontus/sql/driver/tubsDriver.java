@@ -60,9 +60,10 @@ public class tubsDriver implements Driver {
 
         final Connection conn;
 
-        conn =  passThru.connect(this.extractRealUrl(url), properties);
+        String realUrl = this.extractRealUrl(url);
+        conn =  passThru.connect(realUrl, properties);
 
-        return ConnectionWrapper.wrap(conn);
+        return ConnectionWrapper.wrap(conn, TaintIndex.INSTANCE.getWriter(passThru, realUrl, properties));
     }
 
     private Driver findPassthru(String url) throws SQLException {
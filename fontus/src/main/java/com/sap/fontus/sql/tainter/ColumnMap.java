@@ -0,0 +1,115 @@
+package com.sap.fontus.sql.tainter;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Columns of the result of a rewritten query, where every column is directly followed by its taint column.
+ * <p>
+ * Column indices and labels are the ones of the original query, resolving them is an array access or a hash lookup.
+ */
+public final class ColumnMap {
+    private final int delegateColumnCount;
+    // Indexed by the column index of the original query, the first slot is unused
+    private final int[] dataIndices;
+    private final int[] taintIndices;
+    private final String[] labels;
+    private final int[] types;
+    private final Map<String, Integer> byLabel;
+    // Labels are case insensitive in JDBC
+    private final Map<String, Integer> byFoldedLabel;
+
+    private ColumnMap(ResultSetMetaData metaData) throws SQLException {
+        this.delegateColumnCount = metaData.getColumnCount();
+        int columnCount = this.delegateColumnCount / 2;
+        this.dataIndices = new int[columnCount + 1];
+        this.taintIndices = new int[columnCount + 1];
+        this.labels = new String[columnCount + 1];
+        this.types = new int[columnCount + 1];
+        this.byLabel = new HashMap<>(columnCount * 2);
+        this.byFoldedLabel = new HashMap<>(columnCount * 2);
+        for (int i = 1; i <= columnCount; i++) {
+            int dataIndex = (i * 2) - 1;
+            this.dataIndices[i] = dataIndex;
+            this.taintIndices[i] = dataIndex + 1;
+            this.labels[i] = metaData.getColumnLabel(dataIndex);
+            this.types[i] = metaData.getColumnType(dataIndex);
+            if (this.labels[i] != null) {
+                // The first column with a label wins, like in ResultSet.findColumn
+                this.byLabel.putIfAbsent(this.labels[i], i);
+                this.byFoldedLabel.putIfAbsent(this.labels[i].toLowerCase(Locale.ROOT), i);
+            }
+        }
+    }
+
+    public static ColumnMap of(ResultSetMetaData metaData) throws SQLException {
+        return new ColumnMap(metaData);
+    }
+
+    /**
+     * Whether the map describes the result, the labels and types of a cached query can change, e.g. if a table is
+     * altered or the same query runs against another schema
+     */
+    public boolean matches(ResultSetMetaData metaData) throws SQLException {
+        if (metaData.getColumnCount() != this.delegateColumnCount) {
+            return false;
+        }
+        for (int i = 1; i < this.dataIndices.length; i++) {
+            if (!Objects.equals(this.labels[i], metaData.getColumnLabel(this.dataIndices[i])) || this.types[i] != metaData.getColumnType(this.dataIndices[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Number of columns of the rewritten query, including the taint columns
+     */
+    public int getDelegateColumnCount() {
+        return this.delegateColumnCount;
+    }
+
+    public int getColumnCount() {
+        return this.dataIndices.length - 1;
+    }
+
+    private boolean isValid(int columnIndex) {
+        return columnIndex > 0 && columnIndex < this.dataIndices.length;
+    }
+
+    /**
+     * Index of the column in the rewritten query.
+     * Invalid indices are mapped as well, so the driver reports them.
+     */
+    public int getDataIndex(int columnIndex) {
+        return this.isValid(columnIndex) ? this.dataIndices[columnIndex] : (columnIndex * 2) - 1;
+    }
+
+    public int getTaintIndex(int columnIndex) {
+        return this.isValid(columnIndex) ? this.taintIndices[columnIndex] : columnIndex * 2;
+    }
+
+    public String getLabel(int columnIndex) {
+        return this.isValid(columnIndex) ? this.labels[columnIndex] : null;
+    }
+
+    public int getType(int columnIndex) {
+        return this.isValid(columnIndex) ? this.types[columnIndex] : Types.OTHER;
+    }
+
+    /**
+     * @return The column index in the original query or -1 if there is no column with this label
+     */
+    public int findColumn(String label) {
+        Integer index = this.byLabel.get(label);
+        if (index == null && label != null) {
+            index = this.byFoldedLabel.get(label.toLowerCase(Locale.ROOT));
+        }
+        return index == null ? -1 : index;
+    }
+}
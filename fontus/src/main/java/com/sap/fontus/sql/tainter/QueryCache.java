@@ -2,53 +2,335 @@ package com.sap.fontus.sql.tainter;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.sap.fontus.config.Configuration;
 import com.sap.fontus.sanitizer.SqlLexerToken;
+import com.sap.fontus.utils.LogUtils;
+import com.sap.fontus.utils.Logger;
 import com.sap.fontus.utils.Pair;
+import com.sap.fontus.utils.Utils;
 import com.sap.fontus.utils.stats.Statistics;
 import net.sf.jsqlparser.JSQLParserException;
 import net.sf.jsqlparser.parser.CCJSqlParserUtil;
 import net.sf.jsqlparser.statement.Statements;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Rewritten SQL queries, keyed by the original query.
+ * <p>
+ * The cache is bounded by the total length of the queries. {@link Configuration#getQueryCacheSize()} is split between
+ * the rewritten queries, the rewritten templates, the result column maps and the caches of the {@code TaintIndex}, so all
+ * of them together stay within it.
+ * If a {@link Configuration#getQueryCacheFile()} is set, the cached queries without literals and the templates are written to
+ * it on shutdown and loaded again on the next start. Queries with literals are not written, as the literals might contain
+ * personal data. Snapshots written by a different Fontus build are ignored, as the rewriting might have changed.
+ * <p>
+ * Queries with inline literals are rewritten via their {@link QueryFingerprint}, so queries only differing in their literals
+ * are parsed once.
+ */
 public enum QueryCache {
     INSTANCE;
-    private int hits = 0;
-    private int misses = 0;
+    private static final Logger logger = LogUtils.getLogger();
+    private static final int SNAPSHOT_MAGIC = 0x46514353;
+    private static final int SNAPSHOT_VERSION = 2;
+    /**
+     * Shares of the query cache size. Templates and column maps are shared by many queries and get the rest
+     */
+    private static final double QUERY_SHARE = 0.5;
+    private static final double TEMPLATE_SHARE = 0.25;
+    /**
+     * Share of the query cache size used by the {@code TaintIndex}, if it is enabled
+     */
+    public static final double TAINT_INDEX_SHARE = 0.125;
+
     private final Cache<String, Pair<String, QueryParameters>> queryCache;
-    private boolean collectStatistics;
+    // Empty if the template can't be used, e.g. because a placeholder ended up in a place where literals are not allowed
+    private final Cache<String, Optional<Pair<QueryFingerprint.Template, QueryParameters>>> templateCache;
+    private final Cache<String, ColumnMap> columnMaps;
+    private final boolean collectStatistics;
+    private final AtomicLong parseNanos = new AtomicLong();
+    private final AtomicLong parsedQueries = new AtomicLong();
+    private final Path snapshot;
 
     QueryCache() {
-        this.collectStatistics = Configuration.getConfiguration().collectStats();
-        this.queryCache = Caffeine.newBuilder().build();
+        Configuration configuration = Configuration.getConfiguration();
+        this.collectStatistics = configuration.collectStats();
+        long maxBytes = configuration.getQueryCacheSize() * 1024L * 1024L;
+        long maxQueryBytes = (long) (maxBytes * QUERY_SHARE);
+        long maxTemplateBytes = (long) (maxBytes * TEMPLATE_SHARE);
+        long maxIndexBytes = configuration.getTaintIndexTable() != null ? (long) (maxBytes * TAINT_INDEX_SHARE) : 0L;
+        this.queryCache = newQueryCache(maxQueryBytes);
+        this.templateCache = Caffeine.newBuilder()
+                .maximumWeight(maxTemplateBytes)
+                .weigher((String template, Optional<Pair<QueryFingerprint.Template, QueryParameters>> rewritten) -> 2 * (template.length() + rewritten.map(r -> r.x.getLength()).orElse(0)))
+                .build();
+        this.columnMaps = Caffeine.newBuilder()
+                .maximumWeight(maxBytes - maxQueryBytes - maxTemplateBytes - maxIndexBytes)
+                // Roughly the label and four ints per column
+                .weigher((String rewritten, ColumnMap columns) -> 2 * rewritten.length() + 64 * columns.getColumnCount())
+                .build();
+        this.snapshot = configuration.getQueryCacheFile() != null ? Paths.get(configuration.getQueryCacheFile()) : null;
+        if (this.snapshot != null) {
+            this.loadSnapshot();
+            Runtime.getRuntime().addShutdownHook(new Thread(this::writeSnapshot, "fontus-query-cache-writer"));
+        }
+    }
+
+    static Cache<String, Pair<String, QueryParameters>> newQueryCache(long maxBytes) {
+        return Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                // Strings take roughly two bytes per character
+                .weigher((String query, Pair<String, QueryParameters> rewritten) -> 2 * (query.length() + rewritten.x.length()))
+                .recordStats()
+                .build();
     }
 
     public Pair<String, QueryParameters> parseQuery(String query) {
         if (this.collectStatistics) {
             Statistics.INSTANCE.incrementTotalQueries();
         }
-        return this.queryCache.get(query, (q) -> {
+        return this.queryCache.get(query, this::rewriteWithFingerprint);
+    }
+
+    private Pair<String, QueryParameters> rewriteWithFingerprint(String query) {
+        QueryFingerprint fingerprint = QueryFingerprint.of(query);
+        if (fingerprint == null) {
+            return this.rewrite(query);
+        }
+        Optional<Pair<QueryFingerprint.Template, QueryParameters>> template = this.templateCache.get(fingerprint.getTemplate(), t -> this.rewriteTemplate(t, fingerprint.getLiteralCount()));
+        if (template.isPresent()) {
+            return new Pair<>(template.get().x.splice(fingerprint), template.get().y);
+        }
+        return this.rewrite(query);
+    }
+
+    private Optional<Pair<QueryFingerprint.Template, QueryParameters>> rewriteTemplate(String template, int literalCount) {
+        try {
+            Pair<String, QueryParameters> rewritten = this.tryRewrite(template);
+            QueryFingerprint.Template compiled = QueryFingerprint.Template.compile(rewritten.x, literalCount);
+            return compiled == null ? Optional.empty() : Optional.of(new Pair<>(compiled, rewritten.y));
+        } catch (JSQLParserException | RuntimeException e) {
+            // The query itself is rewritten instead, which reports the error if it fails as well
+            return Optional.empty();
+        }
+    }
+
+    private Pair<String, QueryParameters> rewrite(String query) {
+        try {
+            return this.tryRewrite(query);
+        } catch (JSQLParserException jsqlParserException) {
+            // Not cached, so the error is reported each time the query is used
+            logger.error("Could not parse query '{}': {}", query, jsqlParserException.getMessage());
+            throw new IllegalArgumentException(String.format("Could not rewrite query: %s", query), jsqlParserException);
+        }
+    }
 
-            StatementTainter tainter = new StatementTainter();
-            Statements stmts = null;
-            try {
-                stmts = CCJSqlParserUtil.parseStatements(query);
-                stmts.accept(tainter);
-            } catch (JSQLParserException jsqlParserException) {
-                jsqlParserException.printStackTrace();
+    private Pair<String, QueryParameters> tryRewrite(String query) throws JSQLParserException {
+        long start = System.nanoTime();
+        StatementTainter tainter = new StatementTainter();
+        Statements stmts = CCJSqlParserUtil.parseStatements(query);
+        stmts.accept(tainter);
+        String rewritten = stmts.toString().trim();
+        this.parseNanos.addAndGet(System.nanoTime() - start);
+        this.parsedQueries.incrementAndGet();
+
+        if (this.collectStatistics) {
+            Statistics.INSTANCE.incrementRewrittenQueries();
+            // This uses a different SQL parser, probably not ideal
+            List<SqlLexerToken> tokens = SqlLexerToken.getLexerTokens(query);
+            Statistics.INSTANCE.incrementTotalQueryLength(tokens.size());
+            tokens = SqlLexerToken.getLexerTokens(rewritten);
+            Statistics.INSTANCE.incrementRewrittenQueryLength(tokens.size());
+        }
+
+        QueryParameters parameters = tainter.getParameters();
+        // Computed before the parameters are shared, so binding a parameter only reads them
+        parameters.computeAssignments();
+        return new Pair<>(rewritten, parameters);
+    }
+
+    /**
+     * Returns the columns of the result of a rewritten query
+     * <p>
+     * Cached maps are only used if the labels and types of the columns still match, as the result columns of e.g. a
+     * {@code SELECT *} can change or differ between schemas.
+     */
+    public ColumnMap getColumnMap(String rewrittenQuery, ResultSetMetaData metaData) throws SQLException {
+        ColumnMap columns = this.columnMaps.getIfPresent(rewrittenQuery);
+        if (columns == null || !columns.matches(metaData)) {
+            columns = ColumnMap.of(metaData);
+            this.columnMaps.put(rewrittenQuery, columns);
+        }
+        return columns;
+    }
+
+    public double getHitRate() {
+        return this.queryCache.stats().hitRate();
+    }
+
+    public long getEvictionCount() {
+        return this.queryCache.stats().evictionCount();
+    }
+
+    public long getSize() {
+        return this.queryCache.estimatedSize();
+    }
+
+    /**
+     * Average time it took to rewrite a query in milliseconds
+     */
+    public double getAverageRewriteTime() {
+        long parsed = this.parsedQueries.get();
+        return parsed > 0 ? (double) this.parseNanos.get() / parsed / 1_000_000.0 : 0.0;
+    }
+
+    /**
+     * Called while the enum constant is constructed, when the static logger is not initialized yet
+     */
+    private void loadSnapshot() {
+        if (!Files.isRegularFile(this.snapshot)) {
+            return;
+        }
+        try {
+            readSnapshot(this.snapshot, Utils.buildIdentifier(), this.queryCache.asMap(), this.templateCache.asMap());
+        } catch (IOException | RuntimeException e) {
+            System.err.printf("Could not load query cache snapshot %s: %s%n", this.snapshot, e.getMessage());
+        }
+    }
+
+    private void writeSnapshot() {
+        try {
+            int written = writeSnapshot(this.snapshot, Utils.buildIdentifier(), this.queryCache.asMap(), this.templateCache.asMap());
+            CacheStats stats = this.queryCache.stats();
+            logger.info("Query cache stats: {}/{} (h/m), {} evictions, {} queries and templates written to {}", stats.hitCount(), stats.missCount(), stats.evictionCount(), written, this.snapshot);
+        } catch (IOException e) {
+            logger.error("Error while writing query cache snapshot: {} - {}", e.getClass().getName(), e.getMessage());
+        }
+    }
+
+    /**
+     * Adds the queries and templates of a snapshot to the targets, once the whole snapshot is read
+     *
+     * @param buildIdentifier Identifies the build which is expected to have written the snapshot
+     * @return False if the snapshot was written by a different build or in another format, the targets are left unchanged then
+     */
+    static boolean readSnapshot(Path snapshot, String buildIdentifier, Map<String, Pair<String, QueryParameters>> queryTarget,
+                                Map<String, Optional<Pair<QueryFingerprint.Template, QueryParameters>>> templateTarget) throws IOException {
+        Map<String, Pair<String, QueryParameters>> queries = new HashMap<>();
+        Map<String, Optional<Pair<QueryFingerprint.Template, QueryParameters>>> templates = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION || !buildIdentifier.equals(in.readUTF())) {
+                return false;
+            }
+            int queryCount = in.readInt();
+            for (int i = 0; i < queryCount; i++) {
+                String query = readString(in);
+                String rewritten = readString(in);
+                queries.put(query, new Pair<>(rewritten, readParameters(in)));
+            }
+            int templateCount = in.readInt();
+            for (int i = 0; i < templateCount; i++) {
+                String template = readString(in);
+                int literalCount = in.readInt();
+                QueryFingerprint.Template compiled = QueryFingerprint.Template.compile(readString(in), literalCount);
+                QueryParameters parameters = readParameters(in);
+                if (compiled != null) {
+                    templates.put(template, Optional.of(new Pair<>(compiled, parameters)));
+                }
+            }
+        }
+        queryTarget.putAll(queries);
+        templateTarget.putAll(templates);
+        return true;
+    }
+
+    private static QueryParameters readParameters(DataInputStream in) throws IOException {
+        ParameterType[] parameterTypes = ParameterType.values();
+        int typeCount = in.readInt();
+        List<ParameterType> types = new ArrayList<>(typeCount);
+        for (int j = 0; j < typeCount; j++) {
+            types.add(parameterTypes[in.readUnsignedByte()]);
+        }
+        return new QueryParameters(types);
+    }
+
+    /**
+     * Replaces the snapshot atomically with the queries without literals and the templates
+     *
+     * @return The number of written queries and templates
+     */
+    static int writeSnapshot(Path snapshot, String buildIdentifier, Map<String, Pair<String, QueryParameters>> queries,
+                             Map<String, Optional<Pair<QueryFingerprint.Template, QueryParameters>>> templates) throws IOException {
+        Path tmp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        List<Map.Entry<String, Pair<String, QueryParameters>>> queryEntries = new ArrayList<>(queries.size());
+        for (Map.Entry<String, Pair<String, QueryParameters>> entry : queries.entrySet()) {
+            if (QueryFingerprint.isLiteralFree(entry.getKey())) {
+                queryEntries.add(entry);
+            }
+        }
+        List<Map.Entry<String, Pair<QueryFingerprint.Template, QueryParameters>>> templateEntries = new ArrayList<>(templates.size());
+        for (Map.Entry<String, Optional<Pair<QueryFingerprint.Template, QueryParameters>>> entry : templates.entrySet()) {
+            entry.getValue().ifPresent(template -> templateEntries.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), template)));
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeUTF(buildIdentifier);
+            out.writeInt(queryEntries.size());
+            for (Map.Entry<String, Pair<String, QueryParameters>> entry : queryEntries) {
+                writeString(out, entry.getKey());
+                writeString(out, entry.getValue().x);
+                writeParameters(out, entry.getValue().y);
             }
-            if (this.collectStatistics) {
-                Statistics.INSTANCE.incrementRewrittenQueries();
-                // This uses a different SQL parser, probably not ideal
-                List<SqlLexerToken> tokens = SqlLexerToken.getLexerTokens(query);
-                Statistics.INSTANCE.incrementTotalQueryLength(tokens.size());
-                tokens = SqlLexerToken.getLexerTokens(stmts.toString());
-                Statistics.INSTANCE.incrementRewrittenQueryLength(tokens.size());
+            out.writeInt(templateEntries.size());
+            for (Map.Entry<String, Pair<QueryFingerprint.Template, QueryParameters>> entry : templateEntries) {
+                writeString(out, entry.getKey());
+                out.writeInt(entry.getValue().x.getLiteralCount());
+                writeString(out, entry.getValue().x.getRewritten());
+                writeParameters(out, entry.getValue().y);
             }
+        }
+        Files.move(tmp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return queryEntries.size() + templateEntries.size();
+    }
 
-            return new Pair<String, QueryParameters>(stmts.toString().trim(), tainter.getParameters());
-        });
+    private static void writeParameters(DataOutputStream out, QueryParameters parameters) throws IOException {
+        List<ParameterType> types = parameters.getTypes();
+        out.writeInt(types.size());
+        for (ParameterType type : types) {
+            out.writeByte(type.ordinal());
+        }
     }
 
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        // writeUTF is limited to 64k bytes, which queries might exceed
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
 }
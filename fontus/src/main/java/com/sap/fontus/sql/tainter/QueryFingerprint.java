@@ -0,0 +1,247 @@
+package com.sap.fontus.sql.tainter;
+
+import com.alibaba.druid.DbType;
+import com.alibaba.druid.sql.parser.Lexer;
+import com.alibaba.druid.sql.parser.SQLParserUtils;
+import com.alibaba.druid.sql.parser.Token;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A query with its string and number literals replaced by numbered placeholders.
+ * <p>
+ * Queries which only differ in their literals share the same template, so the template has to be rewritten only once.
+ * The literals are spliced back into the rewritten template afterwards, see {@link Template}.
+ * Tokenizing uses the same Druid lexer as {@link com.sap.fontus.sanitizer.SqlLexerToken}.
+ */
+public final class QueryFingerprint {
+    private static final String STRING_PLACEHOLDER = "'fontus$literal$%d'";
+    // Fixed width, so it still fits into a long and can't be confused with a different placeholder
+    private static final String NUMBER_PLACEHOLDER = "91%017d";
+    private static final Pattern PLACEHOLDERS = Pattern.compile("'fontus\\$literal\\$(\\d+)'|(?<![\\d.])91(\\d{17})(?![\\d.])");
+
+    private final String template;
+    private final String[] literals;
+
+    private QueryFingerprint(String template, String[] literals) {
+        this.template = template;
+        this.literals = literals;
+    }
+
+    /**
+     * Replaces the literals of the query with placeholders
+     *
+     * @return The fingerprint or null if the query has no literals or can't be tokenized reliably
+     */
+    public static QueryFingerprint of(String query) {
+        if (PLACEHOLDERS.matcher(query).find()) {
+            return null;
+        }
+        StringBuilder template = new StringBuilder(query.length());
+        List<String> literals = new ArrayList<>();
+        int copied = 0;
+        try {
+            Lexer lexer = SQLParserUtils.createLexer(query, DbType.postgresql);
+            int previousEnd = lexer.pos();
+            lexer.nextToken();
+            while (lexer.token() != Token.EOF) {
+                Token token = lexer.token();
+                int end = lexer.pos();
+                if (token == Token.ERROR) {
+                    return null;
+                }
+                if (token == Token.LITERAL_CHARS || token == Token.LITERAL_INT || token == Token.LITERAL_FLOAT) {
+                    int begin = skipWhitespaceAndComments(query, previousEnd, end);
+                    String literal = query.substring(begin, end);
+                    boolean isString = token == Token.LITERAL_CHARS;
+                    if (!(isString ? isStringLiteral(literal) : isNumberLiteral(literal))) {
+                        return null;
+                    }
+                    template.append(query, copied, begin);
+                    template.append(String.format(Locale.ROOT, isString ? STRING_PLACEHOLDER : NUMBER_PLACEHOLDER, literals.size()));
+                    literals.add(literal);
+                    copied = end;
+                }
+                previousEnd = end;
+                lexer.nextToken();
+            }
+        } catch (RuntimeException e) {
+            // Leave queries the lexer does not understand to the regular rewriting
+            return null;
+        }
+        if (literals.isEmpty()) {
+            return null;
+        }
+        template.append(query, copied, query.length());
+        return new QueryFingerprint(template.toString(), literals.toArray(new String[0]));
+    }
+
+    /**
+     * Whether the query contains no literals, which might contain personal data, e.g. before it is stored.
+     * Double quoted identifiers count as literals, as they are strings in MySQL, and so does anything starting with a
+     * dollar sign, which might be a dollar quoted string.
+     *
+     * @return False if the query has literals or can't be tokenized
+     */
+    public static boolean isLiteralFree(String query) {
+        try {
+            Lexer lexer = SQLParserUtils.createLexer(query, DbType.postgresql);
+            int previousEnd = lexer.pos();
+            lexer.nextToken();
+            while (lexer.token() != Token.EOF) {
+                Token token = lexer.token();
+                int end = lexer.pos();
+                if (token == Token.ERROR || token.name().startsWith("LITERAL")) {
+                    return false;
+                }
+                int begin = skipWhitespaceAndComments(query, previousEnd, end);
+                if (begin < end && (query.charAt(begin) == '"' || query.charAt(begin) == '$')) {
+                    return false;
+                }
+                previousEnd = end;
+                lexer.nextToken();
+            }
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static int skipWhitespaceAndComments(String query, int begin, int end) {
+        int i = begin;
+        while (i < end) {
+            if (Character.isWhitespace(query.charAt(i))) {
+                i++;
+            } else if (query.startsWith("--", i)) {
+                int newline = query.indexOf('\n', i);
+                i = newline < 0 ? end : newline + 1;
+            } else if (query.startsWith("/*", i)) {
+                int close = query.indexOf("*/", i + 2);
+                i = close < 0 ? end : close + 2;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    private static boolean isStringLiteral(String literal) {
+        // Backslash escapes are dialect specific, the lexer might not split them the same way as the parser
+        return literal.length() >= 2 && literal.charAt(0) == '\'' && literal.charAt(literal.length() - 1) == '\'' && literal.indexOf('\\') < 0;
+    }
+
+    private static boolean isNumberLiteral(String literal) {
+        if (literal.isEmpty() || !(Character.isDigit(literal.charAt(0)) || literal.charAt(0) == '.')) {
+            return false;
+        }
+        for (int i = 0; i < literal.length(); i++) {
+            char c = literal.charAt(i);
+            if (!(Character.isDigit(c) || c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String getTemplate() {
+        return this.template;
+    }
+
+    public int getLiteralCount() {
+        return this.literals.length;
+    }
+
+    /**
+     * A rewritten template, split at the placeholders
+     */
+    public static final class Template {
+        private final String rewritten;
+        private final int literalCount;
+        // Start and end of the placeholders in the rewritten template and the index of the literal they stand for
+        private final int[] placeholderStarts;
+        private final int[] placeholderEnds;
+        private final int[] literalIndices;
+
+        private Template(String rewritten, int literalCount, int[] placeholderStarts, int[] placeholderEnds, int[] literalIndices) {
+            this.rewritten = rewritten;
+            this.literalCount = literalCount;
+            this.placeholderStarts = placeholderStarts;
+            this.placeholderEnds = placeholderEnds;
+            this.literalIndices = literalIndices;
+        }
+
+        /**
+         * @param rewritten    The rewritten {@link QueryFingerprint#getTemplate()}
+         * @param literalCount Number of placeholders in the template
+         * @return The compiled template or null if the rewriting dropped one of the placeholders
+         */
+        public static Template compile(String rewritten, int literalCount) {
+            List<Integer> starts = new ArrayList<>();
+            List<Integer> ends = new ArrayList<>();
+            List<Integer> indices = new ArrayList<>();
+            boolean[] seen = new boolean[literalCount];
+            Matcher matcher = PLACEHOLDERS.matcher(rewritten);
+            while (matcher.find()) {
+                int index = Integer.parseInt(matcher.group(1) != null ? matcher.group(1) : matcher.group(2));
+                if (index >= literalCount) {
+                    return null;
+                }
+                seen[index] = true;
+                starts.add(matcher.start());
+                ends.add(matcher.end());
+                indices.add(index);
+            }
+            for (boolean s : seen) {
+                if (!s) {
+                    return null;
+                }
+            }
+            return new Template(rewritten, literalCount, toArray(starts), toArray(ends), toArray(indices));
+        }
+
+        private static int[] toArray(List<Integer> values) {
+            int[] array = new int[values.size()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = values.get(i);
+            }
+            return array;
+        }
+
+        /**
+         * The rewritten template with its placeholders, it contains no literals of the queries
+         */
+        public String getRewritten() {
+            return this.rewritten;
+        }
+
+        public int getLiteralCount() {
+            return this.literalCount;
+        }
+
+        /**
+         * Length of the rewritten template, including the placeholders
+         */
+        public int getLength() {
+            return this.rewritten.length();
+        }
+
+        /**
+         * Inserts the literals of a query with the same template into the rewritten template
+         */
+        public String splice(QueryFingerprint fingerprint) {
+            StringBuilder sb = new StringBuilder(this.rewritten.length());
+            int copied = 0;
+            for (int i = 0; i < this.literalIndices.length; i++) {
+                sb.append(this.rewritten, copied, this.placeholderStarts[i]);
+                sb.append(fingerprint.literals[this.literalIndices[i]]);
+                copied = this.placeholderEnds[i];
+            }
+            sb.append(this.rewritten, copied, this.rewritten.length());
+            return sb.toString();
+        }
+    }
+}
@@ -2,20 +2,34 @@ package com.sap.fontus.sql.tainter;
 
 import java.util.*;
 
+/**
+ * JDBC parameters of a rewritten statement and where they and their taints are bound in the rewritten statement.
+ * <p>
+ * The parameters are collected while the statement is rewritten, afterwards they are shared by all threads preparing
+ * the same statement. The assignments are computed once into an immutable array, which is published via a volatile field.
+ */
 public class QueryParameters {
 
     private final List<ParameterType> types;
-    private final HashMap<Integer, TaintAssignment> indices;
-    private boolean indicesCalculated = false;
+    // Indexed by the parameter index of the original statement, the first slot is unused
+    private volatile TaintAssignment[] assignments;
 
     private final Deque<StatementType> stateStack;
 
     QueryParameters() {
         this.types = new ArrayList<>();
-        this.indices = new HashMap<>();
         this.stateStack = new ArrayDeque<>();
     }
 
+    /**
+     * Recreates the parameters of a completely rewritten statement
+     */
+    QueryParameters(List<ParameterType> types) {
+        this();
+        this.types.addAll(types);
+        this.computeAssignments();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -25,12 +39,13 @@ public class QueryParameters {
             return false;
         }
         QueryParameters that = (QueryParameters) o;
-        return this.indicesCalculated == that.indicesCalculated && this.types.equals(that.types) && this.indices.equals(that.indices) && this.stateStack.equals(that.stateStack);
+        // The assignments are derived from the types
+        return this.types.equals(that.types) && this.stateStack.equals(that.stateStack);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(this.types, this.indices, this.indicesCalculated, this.stateStack);
+        return Objects.hash(this.types, this.stateStack);
     }
 
     public void begin(StatementType type) {
@@ -53,36 +68,40 @@ public class QueryParameters {
         //Thread.dumpStack();
     }
 
-    private void computeIndices() {
+    /**
+     * Computes the assignments once the statement is rewritten completely
+     */
+    TaintAssignment[] computeAssignments() {
         if(!this.stateStack.isEmpty()) {
             throw new IllegalStateException("Trying to compute indices despite state stack not being empty");
         }
+        TaintAssignment[] computed = new TaintAssignment[this.types.size() + 1];
         int currentIdx = 1;
         int oldIdx = 1;
         for(ParameterType type : this.types) {
             switch (type) {
                 case ASSIGNMENT_UNTAINTED:
-                    this.indices.put(oldIdx, new TaintAssignment(oldIdx, currentIdx,  type));
+                    computed[oldIdx] = new TaintAssignment(oldIdx, currentIdx,  type);
                     currentIdx ++;
                     break;
                 case ASSIGNMENT:
-                    this.indices.put(oldIdx, new TaintAssignment(oldIdx, currentIdx, currentIdx+1, type));
+                    computed[oldIdx] = new TaintAssignment(oldIdx, currentIdx, currentIdx+1, type);
                     currentIdx += 2;
                     break;
                 case WHERE:
-                    this.indices.put(oldIdx, new TaintAssignment(oldIdx, currentIdx, type));
+                    computed[oldIdx] = new TaintAssignment(oldIdx, currentIdx, type);
                     currentIdx++;
                     break;
                 case SUBSELECT_WHERE:
                     //TODO: This needs additional handling if there are several parameters in the nested query.
                     //Example select
-                    this.indices.put(oldIdx, new TaintAssignment(oldIdx, currentIdx, type));
+                    computed[oldIdx] = new TaintAssignment(oldIdx, currentIdx, type);
                     currentIdx++;
                     break;
                 case ASSIGNMENT_SUBSELECT:
                 case QUERY_SUBSELECT:
                     //TODO: This needs additional handling if there are several parameters in the nested query.
-                    this.indices.put(oldIdx, new TaintAssignment(oldIdx, currentIdx, currentIdx+1, type));
+                    computed[oldIdx] = new TaintAssignment(oldIdx, currentIdx, currentIdx+1, type);
                     currentIdx += 2;
                     break;
                 default:
@@ -92,17 +111,27 @@ public class QueryParameters {
 
             oldIdx++;
         }
+        this.assignments = computed;
+        return computed;
+    }
+
+    List<ParameterType> getTypes() {
+        return Collections.unmodifiableList(this.types);
     }
 
     public int getParameterCount() {
         return this.types.size();
     }
 
+    /**
+     * @return The assignment of the parameter or null if the statement has no parameter with this index
+     */
     public TaintAssignment computeAssignment(int idx) {
-        if(!this.indicesCalculated) {
-            this.computeIndices();
-            this.indicesCalculated = true;
+        TaintAssignment[] computed = this.assignments;
+        if (computed == null) {
+            // Only happens for statements which were not rewritten by the QueryCache, computing them twice is harmless
+            computed = this.computeAssignments();
         }
-        return this.indices.get(idx);
+        return idx > 0 && idx < computed.length ? computed[idx] : null;
     }
 }
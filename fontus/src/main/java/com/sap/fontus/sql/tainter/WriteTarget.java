@@ -0,0 +1,163 @@
+package com.sap.fontus.sql.tainter;
+
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.JdbcParameter;
+import net.sf.jsqlparser.expression.Parenthesis;
+import net.sf.jsqlparser.expression.RowConstructor;
+import net.sf.jsqlparser.expression.operators.relational.ExpressionList;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.schema.Table;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.delete.Delete;
+import net.sf.jsqlparser.statement.insert.Insert;
+import net.sf.jsqlparser.statement.select.Select;
+import net.sf.jsqlparser.statement.select.SelectBody;
+import net.sf.jsqlparser.statement.select.SetOperationList;
+import net.sf.jsqlparser.statement.update.Update;
+import net.sf.jsqlparser.statement.update.UpdateSet;
+import net.sf.jsqlparser.statement.values.ValuesStatement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Table and columns a prepared INSERT or UPDATE statement writes its parameters to.
+ * <p>
+ * Only parameters which are the whole value of a column can be mapped, e.g. {@code VALUES (?, ?), (?, ?)} or {@code SET a = ?}.
+ * Once a value contains a parameter within a larger expression the following parameters are not mapped anymore,
+ * as their position is unknown.
+ */
+public final class WriteTarget {
+    private final String table;
+    // Indexed by the parameter index of the original statement, the first slot is unused
+    private final List<String> columns;
+
+    private WriteTarget(String table, List<String> columns) {
+        this.table = table;
+        this.columns = columns;
+    }
+
+    /**
+     * @return The target or null if the query writes no table. The table of statements other than INSERT and UPDATE,
+     * e.g. a REPLACE or a statement which can't be parsed, is unknown
+     */
+    public static WriteTarget of(String query) {
+        Statement statement;
+        try {
+            statement = CCJSqlParserUtil.parse(query);
+        } catch (JSQLParserException e) {
+            return new WriteTarget(null, Collections.emptyList());
+        }
+        if (statement instanceof Select || statement instanceof Delete) {
+            return null;
+        }
+        if (statement instanceof Insert) {
+            Insert insert = (Insert) statement;
+            return new WriteTarget(tableName(insert.getTable()), insertColumns(insert));
+        }
+        if (statement instanceof Update) {
+            Update update = (Update) statement;
+            List<String> columns = new ArrayList<>();
+            columns.add(null);
+            for (UpdateSet updateSet : update.getUpdateSets()) {
+                if (!mapParameters(updateSet.getColumns(), updateSet.getExpressions(), columns)) {
+                    break;
+                }
+            }
+            return new WriteTarget(tableName(update.getTable()), columns);
+        }
+        return new WriteTarget(null, Collections.emptyList());
+    }
+
+    private static List<String> insertColumns(Insert insert) {
+        List<String> columns = new ArrayList<>();
+        columns.add(null);
+        ValuesStatement values = values(insert.getSelect());
+        if (insert.getColumns() == null || values == null || !(values.getExpressions() instanceof ExpressionList)) {
+            return columns;
+        }
+        for (Expression row : ((ExpressionList) values.getExpressions()).getExpressions()) {
+            if (!mapParameters(insert.getColumns(), rowExpressions(row), columns)) {
+                break;
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * @return The VALUES of the insert or null if it inserts the result of a query
+     */
+    private static ValuesStatement values(Select select) {
+        if (select == null) {
+            return null;
+        }
+        SelectBody body = select.getSelectBody();
+        if (body instanceof SetOperationList && ((SetOperationList) body).getSelects().size() == 1) {
+            body = ((SetOperationList) body).getSelects().get(0);
+        }
+        return body instanceof ValuesStatement ? (ValuesStatement) body : null;
+    }
+
+    /**
+     * Each row is either a row constructor, or a parenthesized value if a single column is inserted
+     */
+    private static List<Expression> rowExpressions(Expression row) {
+        if (row instanceof RowConstructor) {
+            return ((RowConstructor) row).getExprList().getExpressions();
+        }
+        if (row instanceof Parenthesis) {
+            return Collections.singletonList(((Parenthesis) row).getExpression());
+        }
+        return Collections.singletonList(row);
+    }
+
+    /**
+     * @return false if a parameter could not be mapped, so the following ones can't be mapped either
+     */
+    private static boolean mapParameters(List<Column> columns, List<Expression> expressions, List<String> mapped) {
+        if (columns == null || expressions == null || columns.size() != expressions.size()) {
+            return false;
+        }
+        for (int i = 0; i < expressions.size(); i++) {
+            Expression expression = expressions.get(i);
+            if (expression instanceof JdbcParameter) {
+                mapped.add(unquote(columns.get(i).getColumnName()));
+            } else if (expression.toString().indexOf('?') >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String tableName(Table table) {
+        return table == null ? null : unquote(table.getName());
+    }
+
+    private static String unquote(String name) {
+        if (name != null && name.length() >= 2) {
+            char first = name.charAt(0);
+            char last = name.charAt(name.length() - 1);
+            if ((first == '`' || first == '"') && first == last) {
+                return name.substring(1, name.length() - 1);
+            }
+        }
+        return name;
+    }
+
+    /**
+     * @return The written table or null if unknown
+     */
+    public String getTable() {
+        return this.table;
+    }
+
+    /**
+     * @return The column the parameter is written to or null if unknown
+     */
+    public String getColumn(int parameterIndex) {
+        return parameterIndex > 0 && parameterIndex < this.columns.size() ? this.columns.get(parameterIndex) : null;
+    }
+}
@@ -7,18 +7,43 @@ import java.util.List;
 import java.util.Objects;
 
 public class IASTaintInformation implements IASTaintInformationable {
+    private IASCopyOnWrite<IASTaintMetadata[]> shared;
     private IASTaintMetadata[] taints;
 
     public IASTaintInformation(int length) {
-        this.taints = new IASTaintMetadata[length];
+        this(new IASTaintMetadata[length]);
     }
 
     public IASTaintInformation(IASTaintMetadata[] taints) {
-        this.taints = Objects.requireNonNull(taints);
+        this.setTaints(Objects.requireNonNull(taints));
     }
 
     public IASTaintInformation(int size, List<IASTaintRange> ranges) {
-        this.taints = TaintConverter.toTaintArray(size, ranges);
+        this(TaintConverter.toTaintArray(size, ranges));
+    }
+
+    private IASTaintInformation(IASCopyOnWrite<IASTaintMetadata[]> shared) {
+        this.shared = shared;
+        this.taints = shared.get();
+    }
+
+    /**
+     * Replaces the taint array with a new one which is exclusively owned by this instance
+     */
+    private void setTaints(IASTaintMetadata[] taints) {
+        if (this.shared != null) {
+            this.shared.release();
+        }
+        this.shared = new IASCopyOnWrite<>(taints);
+        this.taints = taints;
+    }
+
+    /**
+     * Has to be called before the taint array is modified in place
+     */
+    private void ensureWritable() {
+        this.shared = this.shared.writable(IASTaintMetadata[]::clone);
+        this.taints = this.shared.get();
     }
 
     /**
@@ -28,33 +53,35 @@ public class IASTaintInformation implements IASTaintInformationable {
      * @param end    Exclusive end index. start < end <= length
      * @param data Taint information to set
      */
-    public IASTaintInformationable setTaint(int start, int end, IASTaintMetadata data) {
+    public synchronized IASTaintInformationable setTaint(int start, int end, IASTaintMetadata data) {
         if (start < 0) {
             start = 0;
         }
         if (end > this.taints.length) {
             this.resize(end);
         }
+        this.ensureWritable();
         for (int i = start; i < end; i++) {
             this.taints[i] = data;
         }
         return this;
     }
 
-    public void setTaint(int offset, IASTaintMetadata[] taints) {
+    public synchronized void setTaint(int offset, IASTaintMetadata[] taints) {
         if (offset + taints.length > this.taints.length) {
             int size = offset + taints.length;
             this.resize(size);
         }
+        this.ensureWritable();
 
         System.arraycopy(taints, 0, this.taints, offset, taints.length);
     }
 
-    public IASTaintMetadata[] getTaints() {
+    public synchronized IASTaintMetadata[] getTaints() {
         return this.getTaints(0, this.taints.length);
     }
 
-    public IASTaintMetadata[] getTaints(int start, int end) {
+    public synchronized IASTaintMetadata[] getTaints(int start, int end) {
         this.checkBounds(start, end);
         int length = end - start;
         IASTaintMetadata[] dst = new IASTaintMetadata[length];
@@ -62,7 +89,14 @@ public class IASTaintInformation implements IASTaintInformationable {
         return dst;
     }
 
-    public IASTaintRanges getTaintRanges() {
+    /**
+     * Returns the taint array without copying it. Only for reading!
+     */
+    private synchronized IASTaintMetadata[] getSharedTaints() {
+        return this.taints;
+    }
+
+    public synchronized IASTaintRanges getTaintRanges() {
         return new IASTaintRanges(this.taints.length, TaintConverter.toTaintRanges(this.taints));
     }
 
@@ -71,7 +105,7 @@ public class IASTaintInformation implements IASTaintInformationable {
         return this.getTaintRanges();
     }
 
-    public boolean isTainted() {
+    public synchronized boolean isTainted() {
         if (this.taints == null) {
             return false;
         }
@@ -83,19 +117,28 @@ public class IASTaintInformation implements IASTaintInformationable {
         return false;
     }
 
+    /**
+     * The array is not evaluated lazily, so scanning it is cheap compared to keeping and copying an untainted array around
+     */
+    @Override
+    public synchronized boolean isKnownUntainted() {
+        return !this.isTainted();
+    }
+
     @Override
-    public IASTaintInformationable deleteWithShift(int start, int end) {
+    public synchronized IASTaintInformationable deleteWithShift(int start, int end) {
         this.checkBounds(start, end);
         int removeLength = end - start;
         IASTaintMetadata[] changed = new IASTaintMetadata[this.taints.length - removeLength];
         System.arraycopy(this.taints, 0, changed, 0, start);
         System.arraycopy(this.taints, end, changed, start, this.taints.length - end);
-        this.taints = changed;
+        this.setTaints(changed);
         return this;
     }
 
     @Override
-    public IASTaintInformationable clearTaint(int start, int end) {
+    public synchronized IASTaintInformationable clearTaint(int start, int end) {
+        this.ensureWritable();
         for (int i = start; i < end; i++) {
             this.taints[i] = null;
         }
@@ -103,45 +146,45 @@ public class IASTaintInformation implements IASTaintInformationable {
     }
 
     @Override
-    public IASTaintInformationable replaceTaint(int start, int end, IASTaintInformationable taintInformation) {
-        IASTaintInformation ti = (IASTaintInformation) taintInformation;
-        int replacedLength = this.taints.length - (end - start) + ti.getLength();
+    public synchronized IASTaintInformationable replaceTaint(int start, int end, IASTaintInformationable taintInformation) {
+        IASTaintMetadata[] inserted = ((IASTaintInformation) taintInformation.materialize()).getSharedTaints();
+        int replacedLength = this.taints.length - (end - start) + inserted.length;
         IASTaintMetadata[] replaced = new IASTaintMetadata[replacedLength];
         System.arraycopy(this.taints, 0, replaced, 0, start);
-        System.arraycopy(ti.getTaints(), 0, replaced, start, ti.getLength());
-        System.arraycopy(this.taints, end, replaced, start + ti.getLength(), this.taints.length - end);
-        this.taints = replaced;
+        System.arraycopy(inserted, 0, replaced, start, inserted.length);
+        System.arraycopy(this.taints, end, replaced, start + inserted.length, this.taints.length - end);
+        this.setTaints(replaced);
 
         return this;
     }
 
     @Override
-    public IASTaintInformationable shiftRight(int offset) {
+    public synchronized IASTaintInformationable shiftRight(int offset) {
         int newSize = this.taints.length + offset;
         IASTaintMetadata[] newArray = new IASTaintMetadata[newSize];
         System.arraycopy(this.taints, 0, newArray, offset, this.taints.length);
         // TODO(david): This used to return this without changing anything -> I think we want to change the taints?
-        this.taints = newArray;
+        this.setTaints(newArray);
         return this;
     }
 
     @Override
-    public IASTaintInformationable insertWithShift(int offset, IASTaintInformationable taintInformation) {
+    public synchronized IASTaintInformationable insertWithShift(int offset, IASTaintInformationable taintInformation) {
         return this.replaceTaint(offset, offset, taintInformation);
     }
 
     @SuppressWarnings("MethodDoesntCallSuperMethod")
-    public IASTaintInformation copy() {
-        return new IASTaintInformation(this.taints.clone());
+    public synchronized IASTaintInformation copy() {
+        return new IASTaintInformation(this.shared.share());
     }
 
     @Override
-    public IASTaintMetadata getTaint(int index) {
+    public synchronized IASTaintMetadata getTaint(int index) {
         return this.taints[index];
     }
 
     @Override
-    public IASTaintInformationable slice(int start, int end) {
+    public synchronized IASTaintInformationable slice(int start, int end) {
         int length = end - start;
         IASTaintMetadata[] sliced = new IASTaintMetadata[length];
         System.arraycopy(this.taints, start, sliced, 0, length);
@@ -150,38 +193,41 @@ public class IASTaintInformation implements IASTaintInformationable {
     }
 
     @Override
-    public IASTaintInformationable reversed() {
+    public synchronized IASTaintInformationable reversed() {
+        this.ensureWritable();
         for (int i = 0; i < this.taints.length / 2; i++) {
             this.switchTaint(i, this.taints.length - i - 1);
         }
         return this;
     }
 
-    public void switchTaint(int first, int second) {
+    public synchronized void switchTaint(int first, int second) {
         this.checkBounds(first, second);
+        this.ensureWritable();
         IASTaintMetadata buffer = this.taints[first];
         this.taints[first] = this.taints[second];
         this.taints[second] = buffer;
     }
 
     @Override
-    public IASTaintInformationable resize(int size) {
+    public synchronized IASTaintInformationable resize(int size) {
         if (this.taints.length == size) {
             return this;
         }
         IASTaintMetadata[] old = this.taints;
-        this.taints = new IASTaintMetadata[size];
+        IASTaintMetadata[] resized = new IASTaintMetadata[size];
         int copyLength = Math.min(old.length, size);
-        System.arraycopy(old, 0, this.taints, 0, copyLength);
+        System.arraycopy(old, 0, resized, 0, copyLength);
+        this.setTaints(resized);
         return this;
     }
 
-    public void replaceTaint(int start, int end, IASTaintMetadata[] taints) {
+    public synchronized void replaceTaint(int start, int end, IASTaintMetadata[] taints) {
         this.deleteWithShift(start, end);
         this.insertTaint(start, taints);
     }
 
-    public void insertTaint(int start, IASTaintMetadata[] taints) {
+    public synchronized void insertTaint(int start, IASTaintMetadata[] taints) {
         int newStart = start + taints.length;
         if (start < this.taints.length) {
             IASTaintMetadata[] buffer = new IASTaintMetadata[this.taints.length - start];
@@ -200,18 +246,18 @@ public class IASTaintInformation implements IASTaintInformationable {
     }
 
     @Override
-    public int getLength() {
+    public synchronized int getLength() {
         return this.taints.length;
     }
 
-    public IASTaintMetadata getTaintFor(int position) {
+    public synchronized IASTaintMetadata getTaintFor(int position) {
         if (this.taints[position] == null) {
             return null;
         }
         return this.taints[position];
     }
 
-    public boolean isTaintedAt(int index) {
+    public synchronized boolean isTaintedAt(int index) {
         return this.taints[index] != null;
     }
 }
@@ -21,6 +21,11 @@ public enum IASTaintInformation implements IASTaintInformationable {
         return this.taint;
     }
 
+    @Override
+    public boolean isKnownUntainted() {
+        return !this.taint;
+    }
+
     @Override
     public IASTaintInformationable replaceTaint(int start, int end, IASTaintInformationable taintInformation) {
         return this.mergeTaint(taintInformation);
@@ -0,0 +1,376 @@
+package com.sap.fontus.taintaware.interval;
+
+import com.sap.fontus.taintaware.shared.IASTaintMetadata;
+import com.sap.fontus.taintaware.shared.IASTaintRange;
+import com.sap.fontus.taintaware.shared.IASTaintRanges;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Stores taint ranges as sorted, non-overlapping intervals in parallel primitive arrays.
+ * <p>
+ * In contrast to {@link IASTaintRanges} no intermediate range objects or lists are created while modifying the taint.
+ * Lookups are binary searches over the start/end arrays, edits move the affected tail with a single arraycopy.
+ * Appending at the end of the string (the common case for builders) is amortized O(1).
+ * <p>
+ * The store is not synchronized. It is owned by an {@link IASTaintInformation} through an
+ * {@link com.sap.fontus.taintaware.shared.IASCopyOnWrite}, which only modifies it while it is not shared with other
+ * taint information, so stores shared between strings are only read.
+ */
+public class IASRangeStore implements Serializable {
+    private static final long serialVersionUID = 4916273401872330462L;
+    private static final int[] EMPTY_INTS = new int[0];
+    private static final IASTaintMetadata[] EMPTY_DATA = new IASTaintMetadata[0];
+
+    private int length;
+    private int size;
+    private int[] starts;
+    private int[] ends;
+    private IASTaintMetadata[] data;
+
+    public IASRangeStore(int length) {
+        this.length = length;
+        this.size = 0;
+        this.starts = EMPTY_INTS;
+        this.ends = EMPTY_INTS;
+        this.data = EMPTY_DATA;
+    }
+
+    public IASRangeStore(int length, List<IASTaintRange> ranges) {
+        this(length);
+        for (IASTaintRange range : ranges) {
+            this.setTaint(range.getStart(), range.getEnd(), range.getMetadata());
+        }
+    }
+
+    private IASRangeStore(int length, int size, int[] starts, int[] ends, IASTaintMetadata[] data) {
+        this.length = length;
+        this.size = size;
+        this.starts = starts;
+        this.ends = ends;
+        this.data = data;
+    }
+
+    public int getLength() {
+        return this.length;
+    }
+
+    public int getRangeCount() {
+        return this.size;
+    }
+
+    public boolean isTainted() {
+        return this.size > 0;
+    }
+
+    /**
+     * Returns the metadata of the range covering the position or null if the position is untainted
+     */
+    public IASTaintMetadata getTaintFor(int position) {
+        int idx = this.firstEndingAfter(position);
+        if (idx < this.size && this.starts[idx] <= position) {
+            return this.data[idx];
+        }
+        return null;
+    }
+
+    /**
+     * Overwrites the taint in [start, end). The end is clamped to the length of the store.
+     */
+    public void setTaint(int start, int end, IASTaintMetadata metadata) {
+        if (end > this.length) {
+            end = this.length;
+        }
+        if (start < 0) {
+            start = 0;
+        }
+        if (start >= end) {
+            return;
+        }
+        int idx = this.clear(start, end);
+        this.openSlots(idx, 1);
+        this.starts[idx] = start;
+        this.ends[idx] = end;
+        this.data[idx] = metadata;
+        this.mergeAround(idx);
+    }
+
+    /**
+     * Removes the taint in [start, end). If shift is set, the characters are removed as well and all following ranges are moved to the left.
+     */
+    public void delete(int start, int end, boolean shift) {
+        if (start >= end) {
+            return;
+        }
+        int idx = this.clear(start, end);
+        if (shift) {
+            int count = end - start;
+            for (int i = idx; i < this.size; i++) {
+                this.starts[i] -= count;
+                this.ends[i] -= count;
+            }
+            this.length -= count;
+            this.mergeAt(idx);
+        }
+    }
+
+    /**
+     * Inserts the ranges of the passed store at the index and moves all ranges behind the index to the right.
+     * If the index lies behind the current length, the insertion is appended and only the length of the insertion is added.
+     */
+    public void insert(int index, IASRangeStore insertion) {
+        if (insertion == this) {
+            insertion = this.copy();
+        }
+        int count = insertion.length;
+        int idx = this.split(index);
+        for (int i = idx; i < this.size; i++) {
+            this.starts[i] += count;
+            this.ends[i] += count;
+        }
+        int inserted = insertion.size;
+        int[] insStarts = insertion.starts;
+        int[] insEnds = insertion.ends;
+        IASTaintMetadata[] insData = insertion.data;
+        if (inserted > 0) {
+            this.openSlots(idx, inserted);
+            for (int i = 0; i < inserted; i++) {
+                this.starts[idx + i] = insStarts[i] + index;
+                this.ends[idx + i] = insEnds[i] + index;
+                this.data[idx + i] = insData[i];
+            }
+            this.mergeAt(idx + inserted);
+        }
+        this.mergeAt(idx);
+        this.length += count;
+    }
+
+    /**
+     * Moves all ranges to the right without changing the length
+     */
+    public void shiftRight(int offset) {
+        if (offset == 0) {
+            return;
+        }
+        for (int i = 0; i < this.size; i++) {
+            if (this.starts[i] + offset < 0) {
+                throw new IllegalArgumentException("Illegal shift argument. Through shifting start index would be negative!");
+            }
+            this.starts[i] += offset;
+            this.ends[i] += offset;
+        }
+    }
+
+    public void resize(int length) {
+        if (length < this.length) {
+            int idx = this.firstEndingAfter(length);
+            if (idx < this.size && this.starts[idx] < length) {
+                this.ends[idx] = length;
+                idx++;
+            }
+            this.truncate(idx);
+        }
+        this.length = length;
+    }
+
+    public IASRangeStore slice(int start, int end) {
+        if (end < start || start < 0) {
+            throw new IllegalArgumentException("startIndex: " + start + ", endIndex: " + end);
+        }
+        int from = this.firstEndingAfter(start);
+        int to = this.firstStartingAtOrAfter(end);
+        int count = Math.max(to - from, 0);
+        if (count == 0 || start == end) {
+            return new IASRangeStore(end - start);
+        }
+        int[] newStarts = new int[count];
+        int[] newEnds = new int[count];
+        IASTaintMetadata[] newData = new IASTaintMetadata[count];
+        for (int i = 0; i < count; i++) {
+            newStarts[i] = Math.max(this.starts[from + i], start) - start;
+            newEnds[i] = Math.min(this.ends[from + i], end) - start;
+            newData[i] = this.data[from + i];
+        }
+        return new IASRangeStore(end - start, count, newStarts, newEnds, newData);
+    }
+
+    public void reverse() {
+        for (int i = 0, j = this.size - 1; i <= j; i++, j--) {
+            int start = this.starts[i];
+            int end = this.ends[i];
+            IASTaintMetadata metadata = this.data[i];
+            int otherStart = this.starts[j];
+            int otherEnd = this.ends[j];
+            this.starts[i] = this.length - otherEnd;
+            this.ends[i] = this.length - otherStart;
+            this.data[i] = this.data[j];
+            this.starts[j] = this.length - end;
+            this.ends[j] = this.length - start;
+            this.data[j] = metadata;
+        }
+    }
+
+    public IASRangeStore copy() {
+        return new IASRangeStore(this.length, this.size, Arrays.copyOf(this.starts, this.size), Arrays.copyOf(this.ends, this.size), Arrays.copyOf(this.data, this.size));
+    }
+
+    public List<IASTaintRange> getTaintRanges() {
+        List<IASTaintRange> ranges = new ArrayList<>(this.size);
+        for (int i = 0; i < this.size; i++) {
+            ranges.add(new IASTaintRange(this.starts[i], this.ends[i], this.data[i]));
+        }
+        return ranges;
+    }
+
+    public IASTaintRanges toTaintRanges() {
+        return new IASTaintRanges(this.length, this.getTaintRanges());
+    }
+
+    /**
+     * Index of the first range with end > position (i.e. the first range which may contain the position)
+     */
+    private int firstEndingAfter(int position) {
+        int low = 0;
+        int high = this.size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (this.ends[mid] <= position) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Index of the first range with start >= position
+     */
+    private int firstStartingAtOrAfter(int position) {
+        int low = 0;
+        int high = this.size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (this.starts[mid] < position) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Removes all taint within [start, end) and returns the slot index where a range starting at start would be placed.
+     */
+    private int clear(int start, int end) {
+        int from = this.firstEndingAfter(start);
+        int to = this.firstStartingAtOrAfter(end);
+        if (from >= to) {
+            return from;
+        }
+        boolean keepHead = this.starts[from] < start;
+        boolean keepTail = this.ends[to - 1] > end;
+        int headStart = this.starts[from];
+        IASTaintMetadata headData = this.data[from];
+        int tailEnd = this.ends[to - 1];
+        IASTaintMetadata tailData = this.data[to - 1];
+
+        int remaining = (keepHead ? 1 : 0) + (keepTail ? 1 : 0);
+        this.replaceSlots(from, to, remaining);
+        int idx = from;
+        if (keepHead) {
+            this.starts[idx] = headStart;
+            this.ends[idx] = start;
+            this.data[idx] = headData;
+            idx++;
+        }
+        if (keepTail) {
+            this.starts[idx] = end;
+            this.ends[idx] = tailEnd;
+            this.data[idx] = tailData;
+        }
+        return idx;
+    }
+
+    /**
+     * Splits the range containing the index (if any) and returns the slot index of the first range starting at or after the index
+     */
+    private int split(int index) {
+        int idx = this.firstEndingAfter(index);
+        if (idx < this.size && this.starts[idx] < index) {
+            this.openSlots(idx + 1, 1);
+            this.starts[idx + 1] = index;
+            this.ends[idx + 1] = this.ends[idx];
+            this.data[idx + 1] = this.data[idx];
+            this.ends[idx] = index;
+            idx++;
+        }
+        return idx;
+    }
+
+    private void openSlots(int index, int count) {
+        this.replaceSlots(index, index, count);
+    }
+
+    /**
+     * Replaces the slots [from, to) with count uninitialized slots
+     */
+    private void replaceSlots(int from, int to, int count) {
+        int newSize = this.size - (to - from) + count;
+        if (newSize > this.starts.length) {
+            int capacity = Math.max(newSize, this.starts.length + (this.starts.length >> 1) + 1);
+            this.starts = Arrays.copyOf(this.starts, capacity);
+            this.ends = Arrays.copyOf(this.ends, capacity);
+            this.data = Arrays.copyOf(this.data, capacity);
+        }
+        int tail = this.size - to;
+        if (tail > 0 && to != from + count) {
+            System.arraycopy(this.starts, to, this.starts, from + count, tail);
+            System.arraycopy(this.ends, to, this.ends, from + count, tail);
+            System.arraycopy(this.data, to, this.data, from + count, tail);
+        }
+        for (int i = newSize; i < this.size; i++) {
+            this.data[i] = null;
+        }
+        this.size = newSize;
+    }
+
+    private void truncate(int newSize) {
+        for (int i = newSize; i < this.size; i++) {
+            this.data[i] = null;
+        }
+        this.size = newSize;
+    }
+
+    private void mergeAround(int idx) {
+        this.mergeAt(idx + 1);
+        this.mergeAt(idx);
+    }
+
+    /**
+     * Merges the range at idx into its predecessor if they are adjacent and share the same metadata
+     */
+    private void mergeAt(int idx) {
+        if (idx <= 0 || idx >= this.size) {
+            return;
+        }
+        // Same identity check as IASTaintRanges.merge()
+        if (this.ends[idx - 1] == this.starts[idx] && this.data[idx - 1] == this.data[idx]) {
+            this.ends[idx - 1] = this.ends[idx];
+            this.replaceSlots(idx, idx + 1, 0);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("length: ").append(this.length).append(" ranges: { ");
+        for (int i = 0; i < this.size; i++) {
+            sb.append("[ ").append(this.starts[i]).append(", ").append(this.ends[i]).append(" ), ");
+        }
+        return sb.append('}').toString();
+    }
+}
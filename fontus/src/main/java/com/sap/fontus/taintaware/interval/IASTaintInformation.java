@@ -0,0 +1,137 @@
+package com.sap.fontus.taintaware.interval;
+
+import com.sap.fontus.taintaware.shared.IASCopyOnWrite;
+import com.sap.fontus.taintaware.shared.IASTaintMetadata;
+import com.sap.fontus.taintaware.shared.IASTaintRange;
+import com.sap.fontus.taintaware.shared.IASTaintRanges;
+import com.sap.fontus.taintaware.unified.IASTaintInformationable;
+
+import java.util.List;
+
+public class IASTaintInformation implements IASTaintInformationable {
+    private static final long serialVersionUID = -6184620945184306671L;
+    private IASCopyOnWrite<IASRangeStore> store;
+
+    public IASTaintInformation(int length) {
+        this(new IASRangeStore(length));
+    }
+
+    public IASTaintInformation(int length, List<IASTaintRange> ranges) {
+        this(new IASRangeStore(length, ranges));
+    }
+
+    public IASTaintInformation(IASRangeStore store) {
+        this.store = new IASCopyOnWrite<>(store);
+    }
+
+    private IASTaintInformation(IASCopyOnWrite<IASRangeStore> store) {
+        this.store = store;
+    }
+
+    private IASRangeStore writable() {
+        this.store = this.store.writable(IASRangeStore::copy);
+        return this.store.get();
+    }
+
+    @Override
+    public synchronized boolean isTainted() {
+        return this.store.get().isTainted();
+    }
+
+    @Override
+    public synchronized boolean isKnownUntainted() {
+        return !this.store.get().isTainted();
+    }
+
+    @Override
+    public synchronized IASTaintInformationable deleteWithShift(int start, int end) {
+        this.writable().delete(start, end, true);
+        return this;
+    }
+
+    @Override
+    public synchronized IASTaintInformationable clearTaint(int start, int end) {
+        this.writable().delete(start, end, false);
+        return this;
+    }
+
+    @Override
+    public synchronized IASTaintInformationable replaceTaint(int start, int end, IASTaintInformationable taintInformation) {
+        IASRangeStore insertion = ((IASTaintInformation) taintInformation.materialize()).getSharedStore();
+        IASRangeStore writable = this.writable();
+        writable.delete(start, end, true);
+        writable.insert(start, insertion);
+        return this;
+    }
+
+    @Override
+    public synchronized IASTaintInformationable shiftRight(int offset) {
+        this.writable().shiftRight(offset);
+        return this;
+    }
+
+    @Override
+    public synchronized IASTaintInformationable insertWithShift(int offset, IASTaintInformationable taintInformation) {
+        IASRangeStore insertion = ((IASTaintInformation) taintInformation.materialize()).getSharedStore();
+        this.writable().insert(offset, insertion);
+        return this;
+    }
+
+    @Override
+    public synchronized IASTaintInformationable copy() {
+        return new IASTaintInformation(this.store.share());
+    }
+
+    @Override
+    public synchronized IASTaintInformationable reversed() {
+        this.writable().reverse();
+        return this;
+    }
+
+    @Override
+    public synchronized IASTaintMetadata getTaint(int index) {
+        return this.store.get().getTaintFor(index);
+    }
+
+    @Override
+    public synchronized IASTaintInformationable setTaint(int start, int end, IASTaintMetadata taint) {
+        this.writable().setTaint(start, end, taint);
+        return this;
+    }
+
+    @Override
+    public synchronized int getLength() {
+        return this.store.get().getLength();
+    }
+
+    @Override
+    public synchronized IASTaintInformationable resize(int length) {
+        this.writable().resize(length);
+        return this;
+    }
+
+    @Override
+    public synchronized IASTaintInformationable slice(int start, int end) {
+        return new IASTaintInformation(this.store.get().slice(start, end));
+    }
+
+    /**
+     * Returns the store without copying it. Only for reading!
+     */
+    private synchronized IASRangeStore getSharedStore() {
+        return this.store.get();
+    }
+
+    public synchronized int getRangeCount() {
+        return this.store.get().getRangeCount();
+    }
+
+    public synchronized IASTaintRanges getTaintRanges() {
+        return this.store.get().toTaintRanges();
+    }
+
+    @Override
+    public IASTaintRanges getTaintRanges(int length) {
+        return this.getTaintRanges();
+    }
+}
@@ -129,6 +129,11 @@ public class IASTaintInformation implements IASTaintInformationable {
         return this.getTaintRanges().isTainted();
     }
 
+    @Override
+    public synchronized boolean isKnownUntainted() {
+        return this.isBase() && ((BaseLayer) this.layers.get(0)).getBase().isEmpty();
+    }
+
     @Override
     public IASTaintInformationable deleteWithShift(int start, int end) {
         IASTaintInformation copied = this.copy();
@@ -145,7 +150,7 @@ public class IASTaintInformation implements IASTaintInformationable {
     public IASTaintInformationable replaceTaint(int start, int end, IASTaintInformationable taintInformation) {
         IASTaintInformation copied = this.copy();
         copied.appendLayer(new DeleteLayer(start, end));
-        copied.appendLayer(new InsertLayer(start, (IASTaintInformation) taintInformation));
+        copied.appendLayer(new InsertLayer(start, (IASTaintInformation) taintInformation.materialize()));
         return copied;
     }
 
@@ -159,7 +164,7 @@ public class IASTaintInformation implements IASTaintInformationable {
     @Override
     public IASTaintInformationable insertWithShift(int offset, IASTaintInformationable taintInformation) {
         IASTaintInformation copied = this.copy();
-        copied.appendLayer(new InsertLayer(offset, (IASTaintInformation) taintInformation));
+        copied.appendLayer(new InsertLayer(offset, (IASTaintInformation) taintInformation.materialize()));
         return copied;
     }
 
@@ -182,9 +187,11 @@ public class IASTaintInformation implements IASTaintInformationable {
 
     @Override
     public IASTaintInformationable setTaint(int start, int end, IASTaintMetadata taint) {
-        this.appendLayer(new DeleteLayer(start, end));
-        this.appendLayer(new InsertLayer(start, new IASTaintInformation(end - start, List.of(new IASTaintRange(0, end - start, taint)))));
-        return this;
+        // Other instances may be layered on top of this one, so we must not modify it
+        IASTaintInformation copied = this.copy();
+        copied.appendLayer(new DeleteLayer(start, end));
+        copied.appendLayer(new InsertLayer(start, new IASTaintInformation(end - start, List.of(new IASTaintRange(0, end - start, taint)))));
+        return copied;
     }
 
     @Override
@@ -1,5 +1,6 @@
 package com.sap.fontus.taintaware.range;
 
+import com.sap.fontus.taintaware.shared.IASCopyOnWrite;
 import com.sap.fontus.taintaware.shared.IASTaintMetadata;
 import com.sap.fontus.taintaware.shared.IASTaintRange;
 import com.sap.fontus.taintaware.shared.IASTaintRanges;
@@ -8,100 +9,124 @@ import com.sap.fontus.taintaware.unified.IASTaintInformationable;
 import java.util.List;
 
 public class IASTaintInformation implements IASTaintInformationable {
-    private final IASTaintRanges ranges;
+    private IASCopyOnWrite<IASTaintRanges> ranges;
 
     public IASTaintInformation(int length) {
-        this.ranges = new IASTaintRanges(length);
+        this(new IASTaintRanges(length));
     }
 
     public IASTaintInformation(int length, List<IASTaintRange> ranges) {
-        this.ranges = new IASTaintRanges(length, ranges);
+        this(new IASTaintRanges(length, ranges));
     }
 
     public IASTaintInformation(IASTaintRanges ranges) {
+        this.ranges = new IASCopyOnWrite<>(ranges);
+    }
+
+    private IASTaintInformation(IASCopyOnWrite<IASTaintRanges> ranges) {
         this.ranges = ranges;
     }
 
+    private IASTaintRanges writable() {
+        this.ranges = this.ranges.writable(IASTaintRanges::copy);
+        return this.ranges.get();
+    }
+
     @Override
-    public boolean isTainted() {
-        return this.ranges.isTainted();
+    public synchronized boolean isTainted() {
+        return this.ranges.get().isTainted();
     }
 
     @Override
-    public IASTaintInformationable deleteWithShift(int start, int end) {
-        this.ranges.delete(start, end, true);
+    public synchronized boolean isKnownUntainted() {
+        return this.ranges.get().isEmpty();
+    }
+
+    @Override
+    public synchronized IASTaintInformationable deleteWithShift(int start, int end) {
+        this.writable().delete(start, end, true);
         return this;
     }
 
     @Override
-    public IASTaintInformationable clearTaint(int start, int end) {
-        this.ranges.delete(start, end, false);
+    public synchronized IASTaintInformationable clearTaint(int start, int end) {
+        this.writable().delete(start, end, false);
         return this;
     }
 
     @Override
-    public IASTaintInformationable replaceTaint(int start, int end, IASTaintInformationable taintInformation) {
-        this.ranges.delete(start, end, true);
-        this.ranges.insertTaint(start, ((IASTaintInformation) taintInformation).getTaintRanges());
+    public synchronized IASTaintInformationable replaceTaint(int start, int end, IASTaintInformationable taintInformation) {
+        IASTaintRanges insertion = ((IASTaintInformation) taintInformation.materialize()).getSharedRanges();
+        IASTaintRanges writable = this.writable();
+        writable.delete(start, end, true);
+        writable.insertTaint(start, insertion);
         return this;
     }
 
     @Override
-    public IASTaintInformationable shiftRight(int offset) {
-        this.ranges.shiftRight(offset);
+    public synchronized IASTaintInformationable shiftRight(int offset) {
+        this.writable().shiftRight(offset);
         return this;
     }
 
     @Override
-    public IASTaintInformationable insertWithShift(int offset, IASTaintInformationable taintInformation) {
-        this.ranges.insertTaint(offset, ((IASTaintInformation) taintInformation).getTaintRanges());
+    public synchronized IASTaintInformationable insertWithShift(int offset, IASTaintInformationable taintInformation) {
+        IASTaintRanges insertion = ((IASTaintInformation) taintInformation.materialize()).getSharedRanges();
+        this.writable().insertTaint(offset, insertion);
         return this;
     }
 
     @Override
-    public IASTaintInformationable copy() {
-        return new IASTaintInformation(this.ranges.copy());
+    public synchronized IASTaintInformationable copy() {
+        return new IASTaintInformation(this.ranges.share());
     }
 
     @Override
-    public IASTaintInformationable reversed() {
-        this.ranges.reversed();
+    public synchronized IASTaintInformationable reversed() {
+        this.writable().reversed();
         return this;
     }
 
     @Override
-    public IASTaintMetadata getTaint(int index) {
-        return this.ranges.getTaintFor(index);
+    public synchronized IASTaintMetadata getTaint(int index) {
+        return this.ranges.get().getTaintFor(index);
     }
 
     @Override
-    public IASTaintInformationable setTaint(int start, int end, IASTaintMetadata taint) {
-        this.ranges.setTaint(start, end, taint);
+    public synchronized IASTaintInformationable setTaint(int start, int end, IASTaintMetadata taint) {
+        this.writable().setTaint(start, end, taint);
         return this;
     }
 
     @Override
-    public int getLength() {
-        return this.ranges.getLength();
+    public synchronized int getLength() {
+        return this.ranges.get().getLength();
     }
 
     @Override
-    public IASTaintInformationable resize(int length) {
-        this.ranges.resize(length);
+    public synchronized IASTaintInformationable resize(int length) {
+        this.writable().resize(length);
         return this;
     }
 
     @Override
-    public IASTaintInformationable slice(int start, int end) {
-        return new IASTaintInformation(this.ranges.slice(start, end));
+    public synchronized IASTaintInformationable slice(int start, int end) {
+        return new IASTaintInformation(this.ranges.get().slice(start, end));
+    }
+
+    /**
+     * Returns the ranges without copying them. Only for reading!
+     */
+    private IASTaintRanges getSharedRanges() {
+        return this.ranges.get();
     }
 
-    public IASTaintRanges getTaintRanges() {
-        return this.ranges.copy();
+    public synchronized IASTaintRanges getTaintRanges() {
+        return this.ranges.get().copy();
     }
 
     @Override
     public IASTaintRanges getTaintRanges(int length) {
         return this.getTaintRanges();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,88 @@
+package com.sap.fontus.taintaware.shared;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+/**
+ * Reference counted handle to taint storage which is shared between several taint information instances.
+ * <p>
+ * Each owner holds its own handle. Copying a taint information only creates a new handle to the same storage and
+ * increments the owner count. The storage is copied once an owner wants to modify it while other owners still
+ * reference it. Owners give up their share when they switch to another storage, so the last remaining owner modifies
+ * the storage in place again. Shares are not released when their owner is garbage collected, such a share only costs
+ * the remaining owners one additional copy on their next write.
+ *
+ * @param <T> Type of the shared storage
+ */
+public final class IASCopyOnWrite<T> implements Serializable {
+    private static final long serialVersionUID = -3519478530263419716L;
+    private final Storage<T> storage;
+    /**
+     * Handles are only used by their owner, which already synchronizes access to them
+     */
+    private boolean released;
+
+    public IASCopyOnWrite(T value) {
+        this(new Storage<>(value));
+    }
+
+    private IASCopyOnWrite(Storage<T> storage) {
+        this.storage = storage;
+    }
+
+    /**
+     * Returns the storage for read access. The returned value must not be modified!
+     */
+    public T get() {
+        return this.storage.value;
+    }
+
+    /**
+     * Returns a handle to the same storage for an additional owner
+     */
+    public IASCopyOnWrite<T> share() {
+        this.storage.owners.incrementAndGet();
+        return new IASCopyOnWrite<>(this.storage);
+    }
+
+    public boolean isShared() {
+        return this.storage.owners.get() > 1;
+    }
+
+    /**
+     * Returns a handle whose storage may be modified by the caller.
+     * If the storage is shared, a copy is created and this handle is released.
+     *
+     * @param copier Creates a deep copy of the storage
+     */
+    public IASCopyOnWrite<T> writable(UnaryOperator<T> copier) {
+        if (this.storage.owners.get() <= 1) {
+            return this;
+        }
+        IASCopyOnWrite<T> copied = new IASCopyOnWrite<>(copier.apply(this.storage.value));
+        // Release only after the copy is done, so the last owner can't modify the storage while we are copying it
+        this.release();
+        return copied;
+    }
+
+    /**
+     * Gives up the share of the owner, the handle must not be used afterwards
+     */
+    public void release() {
+        if (!this.released) {
+            this.released = true;
+            this.storage.owners.decrementAndGet();
+        }
+    }
+
+    private static final class Storage<T> implements Serializable {
+        private static final long serialVersionUID = 2687005367236612447L;
+        private final T value;
+        private final AtomicInteger owners = new AtomicInteger(1);
+
+        private Storage(T value) {
+            this.value = value;
+        }
+    }
+}
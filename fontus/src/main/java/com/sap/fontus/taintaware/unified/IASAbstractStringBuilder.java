@@ -42,9 +42,14 @@ public abstract class IASAbstractStringBuilder implements Serializable, Comparab
     }
 
     protected void appendShifted(IASTaintInformationable append, int length) {
-        if (append == null) {
+        // Untainted operands never cause taint storage to be created
+        if (append == null || append.isKnownUntainted() || (this.isUninitialized() && !append.isTainted())) {
             if (this.isInitialized()) {
-                this.taintInformation.resize(this.length() + length);
+                if (this.taintInformation.isKnownUntainted()) {
+                    this.taintInformation = null;
+                } else {
+                    this.taintInformation = this.taintInformation.resize(this.length() + length);
+                }
             }
             return;
         }
@@ -75,7 +80,7 @@ public abstract class IASAbstractStringBuilder implements Serializable, Comparab
                 if (this.isUninitialized()) {
                     this.taintInformation = TaintInformationFactory.createTaintInformation(this.length());
                 }
-                this.taintInformation.addRange(0, this.length(), data);
+                this.taintInformation = this.taintInformation.addRange(0, this.length(), data);
             }
         } else {
             this.taintInformation = null;
@@ -85,7 +90,7 @@ public abstract class IASAbstractStringBuilder implements Serializable, Comparab
     @Override
     public void setContent(String content, IASTaintInformationable taintInformation) {
         this.stringBuilder = new StringBuilder(content);
-        this.taintInformation = taintInformation == null ? null : taintInformation.copy();
+        this.taintInformation = TaintInformationFactory.copyIfTainted(taintInformation);
     }
 
     public boolean isTainted() {
@@ -175,7 +180,7 @@ public abstract class IASAbstractStringBuilder implements Serializable, Comparab
     public IASAbstractStringBuilder delete(int start, int end) {
         this.stringBuilder.delete(start, end);
         if (this.isTainted()) {
-            this.taintInformation.deleteWithShift(start, end);
+            this.taintInformation = this.taintInformation.deleteWithShift(start, end);
         }
         return this;
     }
@@ -183,7 +188,7 @@ public abstract class IASAbstractStringBuilder implements Serializable, Comparab
     public IASAbstractStringBuilder deleteCharAt(int index) {
         this.stringBuilder.deleteCharAt(index);
         if (this.isTainted()) {
-            this.taintInformation.deleteWithShift(index, index + 1);
+            this.taintInformation = this.taintInformation.deleteWithShift(index, index + 1);
         }
         return this;
     }
@@ -194,7 +199,7 @@ public abstract class IASAbstractStringBuilder implements Serializable, Comparab
             this.taintInformation = TaintInformationFactory.createTaintInformation(this.length());
         }
         if (this.isTainted() || str.isTainted()) {
-            this.taintInformation.replaceTaint(start, end, str.getTaintInformationInitialized().copy());
+            this.taintInformation = this.taintInformation.replaceTaint(start, end, str.getTaintInformationInitialized().copy());
         }
         return this;
     }
@@ -217,7 +222,7 @@ public abstract class IASAbstractStringBuilder implements Serializable, Comparab
             this.taintInformation = TaintInformationFactory.createTaintInformation(this.length());
         }
         if (this.isTainted() || str.isTainted()) {
-            this.taintInformation.insertWithShift(offset, str.getTaintInformationInitialized().copy());
+            this.taintInformation = this.taintInformation.insertWithShift(offset, str.getTaintInformationInitialized().copy());
         }
         this.stringBuilder.insert(offset, str);
         return this;
@@ -290,7 +295,7 @@ public abstract class IASAbstractStringBuilder implements Serializable, Comparab
     public IASAbstractStringBuilder reverse() {
         this.stringBuilder.reverse();
         if (this.isTainted()) {
-            this.taintInformation.reversed();
+            this.taintInformation = this.taintInformation.reversed();
         }
         this.handleSurrogatesForReversed();
 
@@ -310,13 +315,13 @@ public abstract class IASAbstractStringBuilder implements Serializable, Comparab
                 IASTaintMetadata oldHighTaint = this.taintInformation.getTaint(i);
                 IASTaintMetadata oldLowTaint = this.taintInformation.getTaint(i + 1);
 
-                this.taintInformation.clearTaint(i, i + 2);
+                this.taintInformation = this.taintInformation.clearTaint(i, i + 2);
 
                 if (oldHighTaint != null) {
-                    this.taintInformation.setTaint(i + 1, oldHighTaint);
+                    this.taintInformation = this.taintInformation.setTaint(i + 1, oldHighTaint);
                 }
                 if (oldLowTaint != null) {
-                    this.taintInformation.setTaint(i, oldLowTaint);
+                    this.taintInformation = this.taintInformation.setTaint(i, oldLowTaint);
                 }
             }
         }
@@ -328,7 +333,7 @@ public abstract class IASAbstractStringBuilder implements Serializable, Comparab
     }
 
     public IASString toIASString() {
-        return new IASString(this.stringBuilder.toString(), this.taintInformation == null ? null : this.taintInformation.copy());
+        return new IASString(this.stringBuilder.toString(), this.taintInformation);
     }
 
     public int capacity() {
@@ -346,7 +351,7 @@ public abstract class IASAbstractStringBuilder implements Serializable, Comparab
     public void setCharAt(int index, char c) {
         this.stringBuilder.setCharAt(index, c);
         if (this.isTainted()) {
-            this.taintInformation.clearTaint(index, index + 1);
+            this.taintInformation = this.taintInformation.clearTaint(index, index + 1);
         }
     }
 
@@ -416,7 +421,7 @@ public abstract class IASAbstractStringBuilder implements Serializable, Comparab
     public void setLength(int newLength) {
         this.stringBuilder.setLength(newLength);
         if (this.isTainted()) {
-            this.taintInformation.resize(newLength);
+            this.taintInformation = this.taintInformation.resize(newLength);
         }
     }
 
@@ -443,7 +448,7 @@ public abstract class IASAbstractStringBuilder implements Serializable, Comparab
     }
 
     public IASTaintInformationable getTaintInformationCopied() {
-        return this.taintInformation == null ? null : this.taintInformation.copy();
+        return TaintInformationFactory.copyIfTainted(this.taintInformation);
     }
 
     @Override
@@ -34,8 +34,8 @@ class IASCharArrayTaint {
         }
         IASTaintInformationable slice = taint.slice(srcBegin, srcEnd);
         // Shift the taint
-        slice.resize(dst.length);
-        slice.shiftRight(dstBegin);
+        slice = slice.resize(dst.length);
+        slice = slice.shiftRight(dstBegin);
         // Save in the cache
         this.setTaint(dst, slice);
         return slice;
@@ -0,0 +1,121 @@
+package com.sap.fontus.taintaware.unified;
+
+import com.sap.fontus.taintaware.shared.IASTaintMetadata;
+import com.sap.fontus.taintaware.shared.IASTaintRanges;
+
+import java.util.function.Supplier;
+
+/**
+ * Taint information which is only created when it is first accessed, e.g. taints restored from a database.
+ * <p>
+ * The decoder may be shared by several instances and has to cache its result, which is never modified:
+ * each instance works on its own copy of the decoded taint information.
+ */
+public final class IASLazyTaintInformation implements IASTaintInformationable {
+    private static final long serialVersionUID = 2879401720947384720L;
+    private final transient Supplier<IASTaintInformationable> decoder;
+    private final int length;
+    private IASTaintInformationable resolved;
+
+    /**
+     * @param length  Length of the string the taint belongs to
+     * @param decoder Returns the decoded taint information or null if it is untainted
+     */
+    public IASLazyTaintInformation(int length, Supplier<IASTaintInformationable> decoder) {
+        this.length = length;
+        this.decoder = decoder;
+    }
+
+    @Override
+    public synchronized IASTaintInformationable materialize() {
+        if (this.resolved == null) {
+            IASTaintInformationable decoded = this.decoder.get();
+            this.resolved = decoded != null ? decoded.copy() : TaintInformationFactory.createTaintInformation(this.length);
+        }
+        return this.resolved;
+    }
+
+    private synchronized boolean isResolved() {
+        return this.resolved != null;
+    }
+
+    @Override
+    public boolean isTainted() {
+        return this.materialize().isTainted();
+    }
+
+    @Override
+    public IASTaintInformationable deleteWithShift(int start, int end) {
+        return this.materialize().deleteWithShift(start, end);
+    }
+
+    @Override
+    public IASTaintInformationable clearTaint(int start, int end) {
+        return this.materialize().clearTaint(start, end);
+    }
+
+    @Override
+    public IASTaintInformationable replaceTaint(int start, int end, IASTaintInformationable taintInformation) {
+        return this.materialize().replaceTaint(start, end, taintInformation);
+    }
+
+    @Override
+    public IASTaintInformationable shiftRight(int offset) {
+        return this.materialize().shiftRight(offset);
+    }
+
+    @Override
+    public IASTaintInformationable insertWithShift(int offset, IASTaintInformationable taintInformation) {
+        return this.materialize().insertWithShift(offset, taintInformation);
+    }
+
+    @Override
+    public IASTaintInformationable copy() {
+        if (this.isResolved()) {
+            return this.materialize().copy();
+        }
+        // Copies which are never inspected don't decode the taint either
+        return new IASLazyTaintInformation(this.length, this.decoder);
+    }
+
+    @Override
+    public IASTaintInformationable reversed() {
+        return this.materialize().reversed();
+    }
+
+    @Override
+    public IASTaintMetadata getTaint(int index) {
+        return this.materialize().getTaint(index);
+    }
+
+    @Override
+    public IASTaintInformationable setTaint(int start, int end, IASTaintMetadata taint) {
+        return this.materialize().setTaint(start, end, taint);
+    }
+
+    @Override
+    public synchronized int getLength() {
+        // The length is known without decoding, once resolved the taint information may have been modified in place
+        return this.resolved == null ? this.length : this.resolved.getLength();
+    }
+
+    @Override
+    public IASTaintInformationable resize(int length) {
+        return this.materialize().resize(length);
+    }
+
+    @Override
+    public IASTaintInformationable slice(int start, int end) {
+        return this.materialize().slice(start, end);
+    }
+
+    @Override
+    public IASTaintRanges getTaintRanges(int length) {
+        return this.materialize().getTaintRanges(length);
+    }
+
+    private Object writeReplace() {
+        // The decoder is not serializable
+        return this.materialize();
+    }
+}
@@ -193,7 +193,7 @@ public final class IASMatcher {
                 taintInformation = taintInformation.replaceTaint(start, end, replacement.getTaintInformationInitialized().copy());
             }
         } else {
-            taintInformation.resize(replacedStr.length());
+            taintInformation = taintInformation.resize(replacedStr.length());
         }
 
         return new IASString(replacedStr, taintInformation);
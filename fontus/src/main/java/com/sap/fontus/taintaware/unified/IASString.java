@@ -66,7 +66,7 @@ public final class IASString implements IASTaintAware, Comparable<IASString>, Ch
 
     public IASString(String s, IASTaintInformationable taintInformation) {
         this(s);
-        this.taintInformation = taintInformation == null ? null : taintInformation.copy();
+        this.taintInformation = TaintInformationFactory.copyIfTainted(taintInformation);
         if (Configuration.getConfiguration().collectStats()) {
             Statistics.INSTANCE.addRangeCount(taintInformation);
         }
@@ -74,7 +74,7 @@ public final class IASString implements IASTaintAware, Comparable<IASString>, Ch
 
     public IASString(CharSequence sequence, IASTaintInformationable taintInformation) {
         this(sequence.toString());
-        this.taintInformation = taintInformation == null ? null : taintInformation.copy();
+        this.taintInformation = TaintInformationFactory.copyIfTainted(taintInformation);
         if (Configuration.getConfiguration().collectStats()) {
             Statistics.INSTANCE.addRangeCount(this.taintInformation);
         }
@@ -135,7 +135,7 @@ public final class IASString implements IASTaintAware, Comparable<IASString>, Ch
     @Override
     public void setContent(String content, IASTaintInformationable taintInformation) {
         this.string = content;
-        this.taintInformation = taintInformation == null ? null : taintInformation.copy();
+        this.taintInformation = TaintInformationFactory.copyIfTainted(taintInformation);
     }
 
     public void initialize() {
@@ -210,15 +210,15 @@ public final class IASString implements IASTaintAware, Comparable<IASString>, Ch
     }
 
     public IASString(IASStringBuilder builder) {
-        this(builder.toString(), builder.getTaintInformationCopied());
+        this(builder.toString(), builder.getTaintInformation());
     }
 
     public IASString(IASStringBuffer buffer) {
-        this(buffer.toString(), buffer.getTaintInformationCopied());
+        this(buffer.toString(), buffer.getTaintInformation());
     }
 
     public IASString(IASString string) {
-        this(string.string, string.getTaintInformationCopied());
+        this(string.string, string.taintInformation);
     }
 
     /**
@@ -410,7 +410,7 @@ public final class IASString implements IASTaintAware, Comparable<IASString>, Ch
      * @return
      */
     public IASString replace(char oldChar, char newChar) {
-        return new IASString(this.string.replace(oldChar, newChar), this.getTaintInformationCopied());
+        return new IASString(this.string.replace(oldChar, newChar), this.taintInformation);
     }
 
     public boolean matches(IASString regex) {
@@ -490,19 +490,19 @@ public final class IASString implements IASTaintAware, Comparable<IASString>, Ch
     }
 
     public IASString toLowerCase(Locale locale) {
-        return new IASString(this.string.toLowerCase(locale), this.getTaintInformationCopied());
+        return new IASString(this.string.toLowerCase(locale), this.taintInformation);
     }
 
     public IASString toLowerCase() {
-        return new IASString(this.string.toLowerCase(), this.getTaintInformationCopied());
+        return new IASString(this.string.toLowerCase(), this.taintInformation);
     }
 
     public IASString toUpperCase(Locale locale) {
-        return new IASString(this.string.toUpperCase(locale), this.getTaintInformationCopied());
+        return new IASString(this.string.toUpperCase(locale), this.taintInformation);
     }
 
     public IASString toUpperCase() {
-        return new IASString(this.string.toUpperCase(), this.getTaintInformationCopied());
+        return new IASString(this.string.toUpperCase(), this.taintInformation);
     }
 
     public IASString trim() {
@@ -737,7 +737,7 @@ public final class IASString implements IASTaintAware, Comparable<IASString>, Ch
     }
 
     public IASTaintInformationable getTaintInformationCopied() {
-        return taintInformation != null ? this.taintInformation.copy() : null;
+        return TaintInformationFactory.copyIfTainted(this.taintInformation);
     }
 
     public void setTaint(IASTaintInformationable taint) {
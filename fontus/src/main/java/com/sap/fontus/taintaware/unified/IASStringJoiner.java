@@ -66,25 +66,25 @@ public class IASStringJoiner {
         IASTaintInformationable taintInformation = TaintInformationFactory.createTaintInformation(length);
         // Append prefix
         if (this.prefixTaint != null) {
-            taintInformation.insertWithShift(length, this.prefixTaint);
+            taintInformation = taintInformation.insertWithShift(length, this.prefixTaint);
             length += taintInformation.getLength();
         }
         for (int i = 0; i < this.taintList.size(); i++) {
             IASTaintInformationable e = this.taintList.get(i);
             if (e != null) {
-                taintInformation.insertWithShift(length, e.copy());
+                taintInformation = taintInformation.insertWithShift(length, e.copy());
                 length += e.getLength();
             }
             // Check if we need to add delimiter
             if (i < (this.taintList.size() - 1)) {
                 if (this.delimiterTaint != null) {
-                    taintInformation.insertWithShift(length, this.delimiterTaint.copy());
+                    taintInformation = taintInformation.insertWithShift(length, this.delimiterTaint.copy());
                     length += this.delimiterTaint.getLength();
                 }
             }
         }
         if (this.suffixTaint != null) {
-            taintInformation.insertWithShift(length, this.suffixTaint.copy());
+            taintInformation = taintInformation.insertWithShift(length, this.suffixTaint.copy());
         }
         return taintInformation;
     }
@@ -9,16 +9,15 @@ import com.sap.fontus.taintaware.IASTaintAware;
 import com.sap.fontus.taintaware.shared.IASBasicMetadata;
 import com.sap.fontus.taintaware.shared.IASTaintSource;
 import com.sap.fontus.taintaware.shared.IASTaintSourceRegistry;
+import com.sap.fontus.utils.StackCapture;
 import com.sap.fontus.utils.lookups.CombinedExcludedLookup;
 import com.sap.fontus.utils.stats.Statistics;
 
-import java.lang.reflect.Field;
+import java.lang.invoke.MethodHandle;
 import java.util.*;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
-import static com.sap.fontus.utils.ClassTraverser.getAllFields;
-
 /**
  * This class provides the interface between the instrumented bytecode and taint setters / getters
  */
@@ -43,15 +42,7 @@ public class IASTaintHandler {
     }
 
     public static List<StackTraceElement> getCleanedStackTrace() {
-        StackTraceElement[] stackTrace = Thread.currentThread().getStackTrace();
-        List<StackTraceElement> cleanedStackTrace = new ArrayList<>();
-        for (int i = 1; i < stackTrace.length; i++) {
-            StackTraceElement ste = stackTrace[i];
-            if (!ste.getClassName().startsWith(IASTaintHandler.class.getName())) {
-                cleanedStackTrace.add(ste);
-            }
-        }
-        return cleanedStackTrace;
+        return StackCapture.captureExcluding(IASTaintHandler.class.getName());
     }
 
     /**
@@ -88,7 +79,7 @@ public class IASTaintHandler {
     }
 
     protected static Object traverseObject(Object object, Function<IASTaintAware, IASTaintAware> atomicHandler) {
-        List<Object> visited = new ArrayList<>();
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
         return traverseObject(object, new Function<Object, Object>() {
             @Override
             public Object apply(Object o) {
@@ -97,87 +88,89 @@ public class IASTaintHandler {
         }, visited, atomicHandler);
     }
 
-    protected static Object traverseObject(Object object, Function<Object, Object> traverser, List<Object> visited, Function<IASTaintAware, IASTaintAware> atomicHandler) {
+    protected static Object traverseObject(Object object, Function<Object, Object> traverser, Set<Object> visited, Function<IASTaintAware, IASTaintAware> atomicHandler) {
         if (object == null) {
             return null;
-        } else if (visited.contains(object)) {
-            return object;
-        } else if (object.getClass().isEnum()) {
-            return object;
         }
-        visited.add(object);
-
-        boolean isArray = object.getClass().isArray();
-        boolean isPrimitive = isArray ? object.getClass().getComponentType().isPrimitive() : object.getClass().isPrimitive();
-        boolean isIterable = Iterable.class.isAssignableFrom(object.getClass());
-        boolean isEnumerate = Enumeration.class.isAssignableFrom(object.getClass());
-        boolean isList = List.class.isAssignableFrom(object.getClass());
-        boolean isMap = Map.class.isAssignableFrom(object.getClass());
-        Class<?> cls = object.getClass();
-
-        if (isArray && isPrimitive) {
+        TraversalPlan plan = TraversalPlan.of(object.getClass());
+        if (plan.getKind() == TraversalPlan.Kind.SKIP || !visited.add(object)) {
             return object;
         }
 
-        if (IASTaintAware.class.isAssignableFrom(cls)) {
-            atomicHandler.apply((IASTaintAware) object);
-        } else if (isArray) {
-            Object[] array = (Object[]) object;
-            for (int i = 0; i < array.length; i++) {
-                array[i] = traverser.apply(array[i]);
-            }
-        } else if (isList) {
-            List<Object> list = (List<Object>) object;
-
-            boolean isUnmodifiable = cls.getName().startsWith("java.util.Collections$Unmodifiable") || cls.getName().startsWith("java.util.Collections$Singleton");
-
-            for (int i = 0; i < list.size(); i++) {
-                Object traversed = traverser.apply(list.get(i));
-                if (!isUnmodifiable) {
-                    list.set(i, traversed);
+        switch (plan.getKind()) {
+            case TAINT_AWARE:
+                atomicHandler.apply((IASTaintAware) object);
+                break;
+            case ARRAY: {
+                Object[] array = (Object[]) object;
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = traverser.apply(array[i]);
                 }
+                break;
             }
-        } else if (isIterable) {
-            Iterable<Object> iterable = (Iterable<Object>) object;
-            for (Object o : iterable) {
-                traverser.apply(o);
+            case LIST: {
+                List<Object> list = (List<Object>) object;
+                for (int i = 0; i < list.size(); i++) {
+                    Object traversed = traverser.apply(list.get(i));
+                    if (!plan.isUnmodifiable()) {
+                        list.set(i, traversed);
+                    }
+                }
+                break;
             }
-        } else if (isMap) {
-            Map<Object, Object> map = (Map<Object, Object>) object;
-            if (!map.isEmpty()) {
-                Map<Object, Object> newMap = new HashMap<>(map.size());
-                for(Map.Entry<Object, Object> e : map.entrySet()) {
-                    Object key = traverser.apply(e.getKey());
-                    Object value = traverser.apply(e.getValue());
-                    newMap.put(key, value);
+            case ITERABLE: {
+                Iterable<Object> iterable = (Iterable<Object>) object;
+                for (Object o : iterable) {
+                    traverser.apply(o);
                 }
-                object = newMap; // map.entrySet().stream().collect(Collectors.toMap(e -> traverser.apply(e.getKey()), e -> traverser.apply(e.getValue())));
+                break;
             }
-        } else if (isEnumerate) {
-            Enumeration<Object> enumeration = (Enumeration<Object>) object;
-            List<Object> list = Collections.list(enumeration);
-            for (Object o : list) {
-                traverser.apply(o);
+            case MAP: {
+                Map<Object, Object> map = (Map<Object, Object>) object;
+                if (!map.isEmpty()) {
+                    Map<Object, Object> newMap = new HashMap<>(map.size());
+                    for (Map.Entry<Object, Object> e : map.entrySet()) {
+                        Object key = traverser.apply(e.getKey());
+                        Object value = traverser.apply(e.getValue());
+                        newMap.put(key, value);
+                    }
+                    object = newMap;
+                }
+                break;
             }
-            object = Collections.enumeration(list);
-        } else if (combinedExcludedLookup.isJdkClass(cls) || combinedExcludedLookup.isAnnotation(cls) || combinedExcludedLookup.isPackageExcluded(cls)) {
-            return object;
-        } else if (Configuration.getConfiguration().isRecursiveTainting()) {
-            List<Field> fields = getAllFields(cls);
-            for (Field f : fields) {
-                f.setAccessible(true);
-                Object attr;
-                try {
-                    attr = f.get(object);
-                    traverseObject(attr, traverser, visited, atomicHandler);
-                } catch (IllegalAccessException e) {
-                    e.printStackTrace();
+            case ENUMERATION: {
+                Enumeration<Object> enumeration = (Enumeration<Object>) object;
+                List<Object> list = Collections.list(enumeration);
+                for (Object o : list) {
+                    traverser.apply(o);
                 }
+                object = Collections.enumeration(list);
+                break;
             }
+            case FIELDS:
+                if (Configuration.getConfiguration().isRecursiveTainting()) {
+                    for (MethodHandle getter : plan.getGetters()) {
+                        traverseObject(getField(getter, object), traverser, visited, atomicHandler);
+                    }
+                }
+                break;
+            default:
+                break;
         }
         return object;
     }
 
+    private static Object getField(MethodHandle getter, Object object) {
+        try {
+            return (Object) getter.invokeExact(object);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            // Field getters don't throw checked exceptions
+            throw new IllegalStateException(e);
+        }
+    }
+
     /**
      * Hook function called at all taint sinks in the bytecode
      *
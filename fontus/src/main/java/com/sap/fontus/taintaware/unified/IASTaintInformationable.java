@@ -8,6 +8,23 @@ import java.io.Serializable;
 public interface IASTaintInformationable extends Serializable {
     boolean isTainted();
 
+    /**
+     * Cheap check whether this instance carries no taint at all.
+     * In contrast to {@link #isTainted()} this must never trigger an expensive evaluation, so lazy implementations may return false although they are untainted.
+     */
+    default boolean isKnownUntainted() {
+        return false;
+    }
+
+    /**
+     * Returns the instance which actually holds the taint storage.
+     * Implementations which receive taint information of their own type as argument have to call this before accessing its storage,
+     * as lazy implementations only create it here.
+     */
+    default IASTaintInformationable materialize() {
+        return this;
+    }
+
     IASTaintInformationable deleteWithShift(int start, int end);
 
     IASTaintInformationable clearTaint(int start, int end);
@@ -18,6 +35,11 @@ public interface IASTaintInformationable extends Serializable {
 
     IASTaintInformationable insertWithShift(int offset, IASTaintInformationable taintInformation);
 
+    /**
+     * Creates an independent copy of this taint information.
+     * Implementations may share the underlying storage with the copy and defer copying it until one of both is modified.
+     * Therefore, callers always have to continue with the instance returned by a modifying operation.
+     */
     IASTaintInformationable copy();
 
     default IASTaintInformationable addRange(int start, int end, IASTaintMetadata data) {
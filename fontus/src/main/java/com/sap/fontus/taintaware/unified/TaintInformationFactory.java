@@ -9,12 +9,27 @@ public final class TaintInformationFactory {
     private TaintInformationFactory() {
     }
 
+    /**
+     * Copies the taint information for a new owner.
+     * Untainted strings are represented by null, so no taint storage is kept (and later copied or shifted) for them.
+     *
+     * @return A copy or null if the taint information is known to be untainted
+     */
+    static IASTaintInformationable copyIfTainted(IASTaintInformationable taintInformation) {
+        if (taintInformation == null || taintInformation.isKnownUntainted()) {
+            return null;
+        }
+        return taintInformation.copy();
+    }
+
     static IASTaintInformationable createTaintInformation(int size) {
         switch (Configuration.getConfiguration().getTaintMethod()) {
             case ARRAY:
                 return new com.sap.fontus.taintaware.array.IASTaintInformation(size);
             case RANGE:
                 return new com.sap.fontus.taintaware.range.IASTaintInformation(size);
+            case INTERVAL:
+                return new com.sap.fontus.taintaware.interval.IASTaintInformation(size);
             case BOOLEAN:
                 return com.sap.fontus.taintaware.bool.IASTaintInformation.UNTAINTED;
             case LAZYBASIC:
@@ -38,6 +53,8 @@ public final class TaintInformationFactory {
                 return new com.sap.fontus.taintaware.array.IASTaintInformation(size, ranges);
             case RANGE:
                 return new com.sap.fontus.taintaware.range.IASTaintInformation(size, ranges);
+            case INTERVAL:
+                return new com.sap.fontus.taintaware.interval.IASTaintInformation(size, ranges);
             case BOOLEAN:
                 return com.sap.fontus.taintaware.bool.IASTaintInformation.TAINTED;
             case LAZYBASIC:
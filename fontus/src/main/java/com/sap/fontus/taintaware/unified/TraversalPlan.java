@@ -0,0 +1,138 @@
+package com.sap.fontus.taintaware.unified;
+
+import com.sap.fontus.taintaware.IASTaintAware;
+import com.sap.fontus.utils.ClassTraverser;
+import com.sap.fontus.utils.LogUtils;
+import com.sap.fontus.utils.Logger;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * How {@link IASTaintHandler#traverseObject} handles the objects of a class, resolved once per class.
+ * <p>
+ * For classes whose fields are traversed when recursive tainting is enabled, getters are only created for the
+ * instance fields which can hold taint aware objects, i.e. not for primitive and enum fields or fields of final types
+ * which are skipped anyway.
+ */
+final class TraversalPlan {
+    private static final Logger logger = LogUtils.getLogger();
+    private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodHandle[] NO_GETTERS = new MethodHandle[0];
+
+    private static final ClassValue<TraversalPlan> plans = new ClassValue<TraversalPlan>() {
+        @Override
+        protected TraversalPlan computeValue(Class<?> type) {
+            return new TraversalPlan(type);
+        }
+    };
+
+    enum Kind {
+        /**
+         * Enums, primitive arrays and excluded classes, which are returned as they are
+         */
+        SKIP,
+        TAINT_AWARE,
+        ARRAY,
+        LIST,
+        ITERABLE,
+        MAP,
+        ENUMERATION,
+        FIELDS
+    }
+
+    private final Class<?> type;
+    private final Kind kind;
+    private final boolean unmodifiable;
+    private volatile MethodHandle[] getters;
+
+    private TraversalPlan(Class<?> type) {
+        this.type = type;
+        this.kind = resolveKind(type);
+        this.unmodifiable = type.getName().startsWith("java.util.Collections$Unmodifiable") || type.getName().startsWith("java.util.Collections$Singleton");
+    }
+
+    static TraversalPlan of(Class<?> type) {
+        return plans.get(type);
+    }
+
+    private static Kind resolveKind(Class<?> type) {
+        if (type.isEnum() || type.isPrimitive() || (type.isArray() && type.getComponentType().isPrimitive())) {
+            return Kind.SKIP;
+        } else if (IASTaintAware.class.isAssignableFrom(type)) {
+            return Kind.TAINT_AWARE;
+        } else if (type.isArray()) {
+            return Kind.ARRAY;
+        } else if (List.class.isAssignableFrom(type)) {
+            return Kind.LIST;
+        } else if (Iterable.class.isAssignableFrom(type)) {
+            return Kind.ITERABLE;
+        } else if (Map.class.isAssignableFrom(type)) {
+            return Kind.MAP;
+        } else if (Enumeration.class.isAssignableFrom(type)) {
+            return Kind.ENUMERATION;
+        } else if (IASTaintHandler.combinedExcludedLookup.isJdkClass(type) || IASTaintHandler.combinedExcludedLookup.isAnnotation(type) || IASTaintHandler.combinedExcludedLookup.isPackageExcluded(type)) {
+            return Kind.SKIP;
+        }
+        return Kind.FIELDS;
+    }
+
+    Kind getKind() {
+        return this.kind;
+    }
+
+    /**
+     * Whether the list can't be modified, so traversed elements are not set again
+     */
+    boolean isUnmodifiable() {
+        return this.unmodifiable;
+    }
+
+    /**
+     * Getters of type {@code (Object)Object} for the fields to traverse, created on first use
+     */
+    MethodHandle[] getGetters() {
+        MethodHandle[] getters = this.getters;
+        if (getters == null) {
+            // Racy but idempotent
+            getters = this.createGetters();
+            this.getters = getters;
+        }
+        return getters;
+    }
+
+    private MethodHandle[] createGetters() {
+        if (this.kind != Kind.FIELDS) {
+            return NO_GETTERS;
+        }
+        List<MethodHandle> getters = new ArrayList<>();
+        for (Field field : ClassTraverser.getAllFields(this.type)) {
+            if (Modifier.isStatic(field.getModifiers()) || !canHoldTaintAware(field.getType())) {
+                continue;
+            }
+            try {
+                field.setAccessible(true);
+                getters.add(lookup.unreflectGetter(field).asType(GETTER_TYPE));
+            } catch (IllegalAccessException | RuntimeException e) {
+                logger.error("Skipping field {} of {} in traversal: {}", field.getName(), this.type.getName(), e.getMessage());
+            }
+        }
+        return getters.toArray(NO_GETTERS);
+    }
+
+    private static boolean canHoldTaintAware(Class<?> fieldType) {
+        if (fieldType.isPrimitive() || fieldType.isEnum()) {
+            return false;
+        }
+        // Subclasses of non final types might be traversed, even if the field type itself is skipped
+        return !Modifier.isFinal(fieldType.getModifiers()) || of(fieldType).kind != Kind.SKIP;
+    }
+}
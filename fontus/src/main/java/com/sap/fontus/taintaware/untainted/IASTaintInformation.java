@@ -15,6 +15,11 @@ public class IASTaintInformation implements IASTaintInformationable {
         return false;
     }
 
+    @Override
+    public boolean isKnownUntainted() {
+        return true;
+    }
+
     @Override
     public IASTaintInformationable deleteWithShift(int start, int end) {
         return this;
@@ -0,0 +1,175 @@
+package com.sap.fontus.utils;
+
+import com.sap.fontus.config.abort.BackPressure;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes items on a background thread, so the calling threads don't wait for I/O.
+ * <p>
+ * Items are put into a bounded, lock free queue and written by a daemon writer thread, which flushes the output
+ * whenever the queue is drained. What happens if the queue is full is decided by the {@link BackPressure}, the number
+ * of dropped items is passed to the output as well. Queued items are written on shutdown, items submitted afterwards
+ * are written directly.
+ *
+ * @param <T> Type of the written items, they have to be immutable, as they are written later on
+ */
+public final class AsyncWriter<T> {
+    public static final int SAMPLE_RATE = 16;
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final String name;
+    private final Queue<T> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong sampled = new AtomicLong();
+    private final int capacity;
+    private final BackPressure backPressure;
+    private final Output<? super T> output;
+    private final Thread writer;
+    private volatile boolean closed;
+
+    /**
+     * @param name Name of the writer threads
+     */
+    public AsyncWriter(String name, int capacity, BackPressure backPressure, Output<? super T> output) {
+        this.name = name;
+        this.capacity = Math.max(1, capacity);
+        this.backPressure = backPressure;
+        this.output = output;
+        this.writer = new Thread(this::writeItems, "fontus-" + name + "-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+        try {
+            Runtime.getRuntime().addShutdownHook(new Thread(this::close, "fontus-" + name + "-flusher"));
+        } catch (IllegalStateException e) {
+            // Created while shutting down, items are written directly
+            this.closed = true;
+        }
+    }
+
+    public void submit(T item) {
+        if (this.closed) {
+            this.writeDirectly(item);
+            return;
+        }
+        if (this.backPressure == BackPressure.SAMPLE && this.queued.get() >= this.capacity / 2
+                && this.sampled.incrementAndGet() % SAMPLE_RATE != 0) {
+            this.dropped.incrementAndGet();
+            return;
+        }
+        while (!this.tryReserve()) {
+            if (this.closed) {
+                this.writeDirectly(item);
+                return;
+            }
+            if (this.backPressure != BackPressure.BLOCK) {
+                this.dropped.incrementAndGet();
+                return;
+            }
+            LockSupport.unpark(this.writer);
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+        }
+        this.queue.offer(item);
+        if (this.closed) {
+            // Closed while the item was queued, the writer might be done already
+            this.drain();
+        }
+        LockSupport.unpark(this.writer);
+    }
+
+    private boolean tryReserve() {
+        int current;
+        do {
+            current = this.queued.get();
+            if (current >= this.capacity) {
+                return false;
+            }
+        } while (!this.queued.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private void writeItems() {
+        while (!this.closed) {
+            if (!this.drain()) {
+                LockSupport.parkNanos(this, IDLE_NANOS);
+            }
+        }
+    }
+
+    /**
+     * @return whether anything was written
+     */
+    private synchronized boolean drain() {
+        boolean written = false;
+        T item;
+        while ((item = this.queue.poll()) != null) {
+            this.queued.decrementAndGet();
+            this.write(item);
+            written = true;
+        }
+        long droppedItems = this.dropped.getAndSet(0L);
+        if (droppedItems > 0) {
+            try {
+                this.output.dropped(droppedItems);
+            } catch (IOException e) {
+                System.err.printf("Could not write to %s: %s%n", this.name, e.getMessage());
+            }
+            written = true;
+        }
+        if (written) {
+            this.flush();
+        }
+        return written;
+    }
+
+    private synchronized void writeDirectly(T item) {
+        this.write(item);
+        this.flush();
+    }
+
+    private synchronized void write(T item) {
+        try {
+            this.output.write(item);
+        } catch (IOException e) {
+            System.err.printf("Could not write to %s: %s%n", this.name, e.getMessage());
+        }
+    }
+
+    private synchronized void flush() {
+        try {
+            this.output.flush();
+        } catch (IOException e) {
+            System.err.printf("Could not flush %s: %s%n", this.name, e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the queued items, later items are written directly
+     */
+    public void close() {
+        this.closed = true;
+        LockSupport.unpark(this.writer);
+        this.drain();
+    }
+
+    /**
+     * Called by the writer thread only, or by the submitting thread once the writer is closed
+     */
+    public interface Output<T> {
+        void write(T item) throws IOException;
+
+        /**
+         * @param count Number of items dropped since the last call
+         */
+        void dropped(long count) throws IOException;
+
+        void flush() throws IOException;
+    }
+}
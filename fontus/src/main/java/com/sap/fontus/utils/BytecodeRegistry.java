@@ -1,17 +1,64 @@
 package com.sap.fontus.utils;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.sap.fontus.Constants;
+import com.sap.fontus.config.Configuration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Original bytecode of all classes seen by the agent.
+ * <p>
+ * The bytecode is kept in a cache bounded by {@link Configuration#getBytecodeRegistrySize()}.
+ * The bytecode of defined classes is additionally kept per defining loader, in a cache with the same bound. Both
+ * caches mostly reference the same arrays. Once the bytecode of a defined class is evicted, it is checked whether the
+ * loader can re-read the class. If so, the loader is remembered, so evicted bytecode can be re-read lazily when it is
+ * needed again (e.g. to instrument a subclass).
+ * The bytecode of generated classes (e.g. proxies or classes defined from memory) can't be re-read. It is kept outside
+ * of the bounded caches as long as the defining loader is alive, as subclasses may be instrumented at any time.
+ */
 public class BytecodeRegistry {
-    private static final BytecodeRegistry INSTANCE = new BytecodeRegistry();
-    private final Map<String, byte[]> bytecodeCache;
+    private static final Logger logger = LogUtils.getLogger();
+    private static final BytecodeRegistry INSTANCE = new BytecodeRegistry(Configuration.isInitialized() ? Configuration.getConfiguration().getBytecodeRegistrySize() : Configuration.defaultBytecodeRegistrySize());
+    /**
+     * Remembered origins per megabyte of the registry size. An origin takes about 100 bytes, so they use less than a tenth of the budget.
+     */
+    private static final long ORIGINS_PER_MEGABYTE = 1024L;
+    private final Cache<String, byte[]> bytecodeCache;
+    /**
+     * Bytecode of defined classes, until it is evicted
+     */
+    private final Cache<Origin, byte[]> defined;
+    /**
+     * Classes which can be re-read from the loader they were registered with
+     */
+    private final Cache<Origin, Boolean> origins;
+    private final Cache<ClassLoader, Map<String, byte[]>> generated;
+    private final AtomicLong reloads = new AtomicLong();
 
-    private BytecodeRegistry() {
-        this.bytecodeCache = new ConcurrentHashMap<>();
+    BytecodeRegistry(int maxMegabytes) {
+        this.bytecodeCache = Caffeine.newBuilder()
+                .maximumWeight(maxMegabytes * 1024L * 1024L)
+                .weigher((String name, byte[] data) -> data.length)
+                .recordStats()
+                .build();
+        this.defined = Caffeine.newBuilder()
+                .maximumWeight(maxMegabytes * 1024L * 1024L)
+                .weigher((Origin origin, byte[] data) -> data.length)
+                .evictionListener(this::evicted)
+                .build();
+        this.origins = Caffeine.newBuilder().maximumSize(maxMegabytes * ORIGINS_PER_MEGABYTE).build();
+        this.generated = Caffeine.newBuilder().weakKeys().build();
     }
 
     public static BytecodeRegistry getInstance() {
@@ -19,27 +66,169 @@ public class BytecodeRegistry {
     }
 
     public void addClassData(String internalName, byte[] data) {
+        this.addClassData(internalName, data, null);
+    }
+
+    /**
+     * Registers the bytecode of a class
+     *
+     * @param loader The loader the bytecode can be re-read from, null if unknown
+     */
+    public void addClassData(String internalName, byte[] data, ClassLoader loader) {
         Objects.requireNonNull(internalName);
         Objects.requireNonNull(data);
 
         internalName = Utils.dotToSlash(internalName);
 
-        this.bytecodeCache.putIfAbsent(internalName, data);
+        if (loader != null) {
+            this.origins.put(new Origin(loader, internalName), Boolean.TRUE);
+        }
+        this.bytecodeCache.asMap().putIfAbsent(internalName, data);
+    }
+
+    /**
+     * Marks the class as defined by the loader. Its bytecode is kept until it is evicted. If the loader can re-read
+     * the class then, it is remembered as origin of the class. Otherwise the bytecode is kept as long as the loader is
+     * alive.
+     *
+     * @param loader The defining loader, null for the bootstrap loader
+     */
+    public void markDefined(String internalName, byte[] data, ClassLoader loader) {
+        if (loader == null) {
+            // Bootstrap classes are re-read from the system resources by the class resolvers
+            return;
+        }
+        this.defined.put(new Origin(loader, Utils.dotToSlash(internalName)), data);
+    }
+
+    /**
+     * Only looks up the class file for evicted classes, as most defined classes are never requested again
+     */
+    private void evicted(Origin origin, byte[] data, RemovalCause cause) {
+        ClassLoader loader = origin == null ? null : origin.loader.get();
+        if (loader == null || data == null) {
+            // Nobody can request the classes of a collected loader
+            return;
+        }
+        if (loader.getResource(origin.internalName + Constants.CLASS_FILE_SUFFIX) != null) {
+            this.origins.put(origin, Boolean.TRUE);
+        } else {
+            this.generated.get(loader, l -> new ConcurrentHashMap<>()).putIfAbsent(origin.internalName, data);
+        }
     }
 
+    /**
+     * Returns the bytecode of the class if it is still cached, without re-reading it
+     */
     public Optional<byte[]> getClassData(String internalName) {
-        if (this.bytecodeCache.containsKey(internalName)) {
-            return Optional.of(this.bytecodeCache.get(internalName));
+        return this.getClassData(internalName, null);
+    }
+
+    /**
+     * Returns the bytecode of the class. Evicted bytecode is re-read from the loader or one of its parents,
+     * if the class was registered with it.
+     */
+    public Optional<byte[]> getClassData(String internalName, ClassLoader loader) {
+        internalName = Utils.dotToSlash(internalName);
+        byte[] data = this.bytecodeCache.getIfPresent(internalName);
+        for (ClassLoader current = loader; data == null && current != null; current = current.getParent()) {
+            Origin origin = new Origin(current, internalName);
+            data = this.defined.getIfPresent(origin);
+            if (data == null) {
+                Map<String, byte[]> generatedClasses = this.generated.getIfPresent(current);
+                if (generatedClasses != null) {
+                    data = generatedClasses.get(internalName);
+                }
+            }
+            if (data == null && this.origins.getIfPresent(origin) != null) {
+                data = this.reload(internalName, current);
+            }
         }
-        return Optional.empty();
+        return Optional.ofNullable(data);
+    }
+
+    private byte[] reload(String internalName, ClassLoader loader) {
+        try (InputStream is = loader.getResourceAsStream(internalName + Constants.CLASS_FILE_SUFFIX)) {
+            if (is == null) {
+                return null;
+            }
+            byte[] data = IOUtils.readStream(is);
+            this.reloads.incrementAndGet();
+            this.bytecodeCache.put(internalName, data);
+            return data;
+        } catch (IOException e) {
+            logger.error("Could not re-read bytecode of {}: {}", internalName, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Evicts the bytecode of all defined classes, for tests
+     */
+    void evictDefinedClasses() {
+        this.defined.policy().eviction().ifPresent(eviction -> eviction.setMaximum(0L));
+        this.defined.cleanUp();
     }
 
     public Map<String, byte[]> getModifiableBytecodeCache() {
-        return this.bytecodeCache;
+        return this.bytecodeCache.asMap();
     }
 
     public Map<String, byte[]> getUnmodifiableBytecodeCache() {
-        return Collections.unmodifiableMap(this.bytecodeCache);
+        return Collections.unmodifiableMap(this.bytecodeCache.asMap());
+    }
+
+    public long getHitCount() {
+        return this.bytecodeCache.stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return this.bytecodeCache.stats().missCount();
+    }
+
+    public long getEvictionCount() {
+        return this.bytecodeCache.stats().evictionCount();
+    }
+
+    public long getReloadCount() {
+        return this.reloads.get();
     }
 
+    public long getSize() {
+        return this.bytecodeCache.estimatedSize();
+    }
+
+    /**
+     * Class name and its loader. The loader is only weakly referenced, origins of collected loaders are only equal to
+     * themselves and are evicted by the size bound.
+     */
+    private static final class Origin {
+        private final WeakReference<ClassLoader> loader;
+        private final String internalName;
+        private final int hash;
+
+        private Origin(ClassLoader loader, String internalName) {
+            this.loader = new WeakReference<>(loader);
+            this.internalName = internalName;
+            this.hash = 31 * System.identityHashCode(loader) + internalName.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Origin)) {
+                return false;
+            }
+            Origin other = (Origin) o;
+            ClassLoader loader = this.loader.get();
+            return this.hash == other.hash && loader != null && loader == other.loader.get() && this.internalName.equals(other.internalName);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
 }
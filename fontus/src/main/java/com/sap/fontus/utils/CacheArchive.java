@@ -0,0 +1,449 @@
+package com.sap.fontus.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persistent, size bounded store for instrumented class files.
+ * <p>
+ * All class files are appended to a single data file which is memory mapped on startup, so warm starts only open two files.
+ * The index file maps the content hash of each entry to its position in the data file and is written on {@link #close()}.
+ * Entries which were appended after the last index write are recovered by scanning the tail of the data file.
+ * <p>
+ * Reads are lock free and may happen concurrently. If the stored bytes exceed the size bound, the least recently used entries are evicted.
+ * The records of evicted entries stay in the data file and count against the size bound until the data file is compacted,
+ * which happens as soon as the bound is exceeded, so the data file never grows beyond it.
+ */
+public final class CacheArchive implements Closeable {
+    private static final Logger logger = LogUtils.getLogger();
+
+    public static final String DATA_FILE_NAME = "classes.dat";
+    public static final String INDEX_FILE_NAME = "classes.idx";
+
+    private static final int DATA_MAGIC = 0x46434144; // FCAD
+    private static final int INDEX_MAGIC = 0x46434149; // FCAI
+    private static final int FORMAT_VERSION = 1;
+    private static final int DATA_HEADER_SIZE = 8;
+    private static final int INDEX_HEADER_SIZE = 20;
+    private static final int RECORD_HEADER_SIZE = Key.SIZE + 4;
+    private static final int INDEX_ENTRY_SIZE = Key.SIZE + 8 + 4 + 8;
+    /**
+     * Evicting stops once the archive is below this share of its bound, so not every put after reaching the bound evicts and compacts
+     */
+    private static final double EVICTION_TARGET = 0.75;
+
+    private final Path dataFile;
+    private final Path indexFile;
+    private final long maxBytes;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+    private final Object writeLock = new Object();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private volatile Segment segment;
+    private long end;
+    private long liveBytes;
+    /**
+     * Bytes of records in the data file which are no longer referenced by the index
+     */
+    private long deadBytes;
+
+    public CacheArchive(Path directory, long maxBytes) throws IOException {
+        this.dataFile = directory.resolve(DATA_FILE_NAME);
+        this.indexFile = directory.resolve(INDEX_FILE_NAME);
+        this.maxBytes = maxBytes;
+        Files.createDirectories(directory);
+        this.open();
+    }
+
+    private void open() throws IOException {
+        this.segment = new Segment(FileChannel.open(this.dataFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        if (!this.hasValidDataHeader()) {
+            this.reset();
+        }
+        this.end = this.readIndex();
+        this.recoverTail();
+        this.deadBytes = this.end - DATA_HEADER_SIZE - this.liveBytes;
+        if (this.liveBytes > this.maxBytes) {
+            this.evict();
+        }
+        if (this.deadBytes > this.liveBytes || this.liveBytes + this.deadBytes > this.maxBytes) {
+            this.compact();
+        } else {
+            this.segment.map(this.end);
+        }
+        logger.info("Opened cache archive {} with {} entries ({} bytes)", this.dataFile, this.entries.size(), this.liveBytes);
+    }
+
+    private boolean hasValidDataHeader() throws IOException {
+        if (this.segment.channel.size() < DATA_HEADER_SIZE) {
+            return false;
+        }
+        ByteBuffer header = ByteBuffer.allocate(DATA_HEADER_SIZE);
+        readFully(this.segment.channel, header, 0L);
+        header.flip();
+        return header.getInt() == DATA_MAGIC && header.getInt() == FORMAT_VERSION;
+    }
+
+    private void reset() throws IOException {
+        this.segment.channel.truncate(0L);
+        ByteBuffer header = ByteBuffer.allocate(DATA_HEADER_SIZE);
+        header.putInt(DATA_MAGIC).putInt(FORMAT_VERSION).flip();
+        writeFully(this.segment.channel, header, 0L);
+        Files.deleteIfExists(this.indexFile);
+    }
+
+    /**
+     * Loads the index file with a single read
+     *
+     * @return The end of the data covered by the index
+     */
+    private long readIndex() throws IOException {
+        if (!Files.isRegularFile(this.indexFile)) {
+            return DATA_HEADER_SIZE;
+        }
+        try {
+            ByteBuffer index = ByteBuffer.wrap(Files.readAllBytes(this.indexFile));
+            if (index.getInt() != INDEX_MAGIC || index.getInt() != FORMAT_VERSION) {
+                return DATA_HEADER_SIZE;
+            }
+            long indexedEnd = index.getLong();
+            int count = index.getInt();
+            if (indexedEnd > this.segment.channel.size() || index.remaining() != count * INDEX_ENTRY_SIZE) {
+                logger.error("Cache index {} does not match the archive, ignoring it", this.indexFile);
+                return DATA_HEADER_SIZE;
+            }
+            long maxTick = 0L;
+            for (int i = 0; i < count; i++) {
+                Key key = Key.read(index);
+                long offset = index.getLong();
+                int length = index.getInt();
+                long lastUse = index.getLong();
+                this.entries.put(key, new Entry(this.segment, offset, length, lastUse));
+                this.liveBytes += RECORD_HEADER_SIZE + length;
+                maxTick = Math.max(maxTick, lastUse);
+            }
+            this.clock.set(maxTick);
+            return indexedEnd;
+        } catch (BufferUnderflowException ex) {
+            logger.error("Cache index {} is truncated, ignoring it", this.indexFile);
+            this.entries.clear();
+            this.liveBytes = 0L;
+            return DATA_HEADER_SIZE;
+        }
+    }
+
+    /**
+     * Adds all records which were appended after the index was written.
+     * A partially written record at the end of the data file is cut off.
+     */
+    private void recoverTail() throws IOException {
+        FileChannel channel = this.segment.channel;
+        long size = channel.size();
+        ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        while (this.end + RECORD_HEADER_SIZE <= size) {
+            recordHeader.clear();
+            readFully(channel, recordHeader, this.end);
+            recordHeader.flip();
+            Key key = Key.read(recordHeader);
+            int length = recordHeader.getInt();
+            long offset = this.end + RECORD_HEADER_SIZE;
+            if (length < 0 || offset + length > size) {
+                break;
+            }
+            Entry previous = this.entries.put(key, new Entry(this.segment, offset, length, this.clock.incrementAndGet()));
+            if (previous != null) {
+                this.liveBytes -= RECORD_HEADER_SIZE + previous.length;
+            }
+            this.liveBytes += RECORD_HEADER_SIZE + length;
+            this.end = offset + length;
+        }
+        if (this.end < size) {
+            channel.truncate(this.end);
+        }
+    }
+
+    /**
+     * Rewrites the data file so it only contains live entries.
+     * <p>
+     * Entries are only replaced once the new data file is in place. Concurrent reads of an entry in the old data file
+     * either still succeed or fail with a {@link ClosedChannelException} and are retried with the moved entry.
+     */
+    private void compact() throws IOException {
+        Path compacted = this.dataFile.resolveSibling(DATA_FILE_NAME + ".tmp");
+        List<Map.Entry<Key, Entry>> live = new ArrayList<>(this.entries.entrySet());
+        live.sort(Comparator.comparingLong(e -> e.getValue().offset));
+        long[] offsets = new long[live.size()];
+        long position;
+        try (FileChannel target = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(DATA_HEADER_SIZE);
+            header.putInt(DATA_MAGIC).putInt(FORMAT_VERSION).flip();
+            position = writeFully(target, header, 0L);
+            for (int i = 0; i < live.size(); i++) {
+                Entry entry = live.get(i).getValue();
+                position = writeRecord(target, position, live.get(i).getKey(), entry.read());
+                offsets[i] = position - entry.length;
+            }
+            target.force(false);
+        }
+        Segment old = this.segment;
+        Files.move(compacted, this.dataFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Segment current = new Segment(FileChannel.open(this.dataFile, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        current.map(position);
+        for (int i = 0; i < live.size(); i++) {
+            Entry entry = live.get(i).getValue();
+            this.entries.put(live.get(i).getKey(), new Entry(current, offsets[i], entry.length, entry.lastUse));
+        }
+        this.segment = current;
+        this.end = position;
+        this.deadBytes = 0L;
+        old.channel.close();
+        // The old index points into the replaced data file
+        this.writeIndex();
+        logger.info("Compacted cache archive {} to {} bytes", this.dataFile, this.end);
+    }
+
+    /**
+     * Returns the stored class file or null if there is none
+     */
+    public byte[] get(Key key) throws IOException {
+        Entry entry = this.entries.get(key);
+        while (entry != null) {
+            entry.lastUse = this.clock.incrementAndGet();
+            try {
+                return entry.read();
+            } catch (ClosedChannelException ex) {
+                // The data file was compacted while reading, the entry was moved or evicted
+                Entry moved = this.entries.get(key);
+                if (moved == entry) {
+                    throw ex;
+                }
+                entry = moved;
+            }
+        }
+        return null;
+    }
+
+    public boolean contains(Key key) {
+        return this.entries.containsKey(key);
+    }
+
+    public void put(Key key, byte[] bytes) throws IOException {
+        long size = RECORD_HEADER_SIZE + bytes.length;
+        if (size > this.maxBytes || this.entries.containsKey(key)) {
+            return;
+        }
+        synchronized (this.writeLock) {
+            if (this.entries.containsKey(key)) {
+                return;
+            }
+            this.end = writeRecord(this.segment.channel, this.end, key, bytes);
+            this.entries.put(key, new Entry(this.segment, this.end - bytes.length, bytes.length, this.clock.incrementAndGet()));
+            this.liveBytes += size;
+            if (this.liveBytes > this.maxBytes) {
+                this.evict();
+            }
+            if (this.liveBytes + this.deadBytes > this.maxBytes) {
+                this.compact();
+            }
+        }
+    }
+
+    private void evict() {
+        List<Map.Entry<Key, Entry>> candidates = new ArrayList<>(this.entries.entrySet());
+        candidates.sort(Comparator.comparingLong(e -> e.getValue().lastUse));
+        long target = (long) (this.maxBytes * EVICTION_TARGET);
+        for (Map.Entry<Key, Entry> candidate : candidates) {
+            if (this.liveBytes <= target) {
+                break;
+            }
+            this.entries.remove(candidate.getKey());
+            long size = RECORD_HEADER_SIZE + candidate.getValue().length;
+            this.liveBytes -= size;
+            this.deadBytes += size;
+            this.evictions.incrementAndGet();
+        }
+    }
+
+    private void writeIndex() throws IOException {
+        List<Map.Entry<Key, Entry>> snapshot = new ArrayList<>(this.entries.entrySet());
+        ByteBuffer index = ByteBuffer.allocate(INDEX_HEADER_SIZE + snapshot.size() * INDEX_ENTRY_SIZE);
+        index.putInt(INDEX_MAGIC).putInt(FORMAT_VERSION).putLong(this.end).putInt(snapshot.size());
+        for (Map.Entry<Key, Entry> e : snapshot) {
+            Entry entry = e.getValue();
+            e.getKey().write(index);
+            index.putLong(entry.offset).putInt(entry.length).putLong(entry.lastUse);
+        }
+        Path tmp = this.indexFile.resolveSibling(INDEX_FILE_NAME + ".tmp");
+        Files.write(tmp, index.array());
+        Files.move(tmp, this.indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Persists the index and releases the data file
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this.writeLock) {
+            FileChannel channel = this.segment.channel;
+            if (!channel.isOpen()) {
+                return;
+            }
+            channel.force(false);
+            this.writeIndex();
+            channel.close();
+        }
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    public long getStoredBytes() {
+        synchronized (this.writeLock) {
+            return this.liveBytes;
+        }
+    }
+
+    public long getEvictions() {
+        return this.evictions.get();
+    }
+
+    /**
+     * Size of the data file, including the records of evicted entries which were not compacted yet
+     */
+    public long getFileBytes() {
+        synchronized (this.writeLock) {
+            return this.end;
+        }
+    }
+
+    private static long writeRecord(FileChannel channel, long position, Key key, byte[] bytes) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + bytes.length);
+        key.write(record);
+        record.putInt(bytes.length).put(bytes).flip();
+        return writeFully(channel, record, position);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long current = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, current);
+            if (read < 0) {
+                throw new IOException(String.format("Unexpected end of cache archive at %d", current));
+            }
+            current += read;
+        }
+    }
+
+    private static long writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long current = position;
+        while (buffer.hasRemaining()) {
+            current += channel.write(buffer, current);
+        }
+        return current;
+    }
+
+    /**
+     * An open data file and its memory mapped prefix, replaced as a whole when the data file is compacted
+     */
+    private static final class Segment {
+        private final FileChannel channel;
+        private volatile MappedByteBuffer mapped;
+
+        private Segment(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        private void map(long end) throws IOException {
+            long mappable = Math.min(end, Integer.MAX_VALUE);
+            this.mapped = this.channel.map(FileChannel.MapMode.READ_ONLY, 0L, mappable);
+        }
+    }
+
+    private static final class Entry {
+        private final Segment segment;
+        private final long offset;
+        private final int length;
+        private volatile long lastUse;
+
+        private Entry(Segment segment, long offset, int length, long lastUse) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+            this.lastUse = lastUse;
+        }
+
+        private byte[] read() throws IOException {
+            byte[] bytes = new byte[this.length];
+            MappedByteBuffer mapped = this.segment.mapped;
+            if (mapped != null && this.offset + this.length <= mapped.limit()) {
+                ByteBuffer view = mapped.duplicate();
+                view.position((int) this.offset);
+                view.get(bytes);
+            } else {
+                readFully(this.segment.channel, ByteBuffer.wrap(bytes), this.offset);
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * SHA-256 digest identifying a cache entry
+     */
+    public static final class Key {
+        public static final int SIZE = 32;
+        private final byte[] digest;
+        private final int hash;
+
+        public Key(byte[] digest) {
+            if (digest.length != SIZE) {
+                throw new IllegalArgumentException(String.format("Expected a digest of %d bytes, got %d", SIZE, digest.length));
+            }
+            this.digest = digest;
+            this.hash = Arrays.hashCode(digest);
+        }
+
+        private static Key read(ByteBuffer buffer) {
+            byte[] digest = new byte[SIZE];
+            buffer.get(digest);
+            return new Key(digest);
+        }
+
+        private void write(ByteBuffer buffer) {
+            buffer.put(this.digest);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || this.getClass() != o.getClass()) {
+                return false;
+            }
+            return Arrays.equals(this.digest, ((Key) o).digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+}
@@ -1,83 +1,142 @@
 package com.sap.fontus.utils;
 
-import com.sap.fontus.Constants;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sap.fontus.config.Configuration;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.util.Objects;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Persistent cache of instrumented classes.
+ * <p>
+ * Classes are identified by the SHA-256 digest of their original bytecode, the Fontus build and the configuration,
+ * so a changed agent or configuration never receives stale bytecode.
+ */
 public enum CacheHandler {
     INSTANCE;
-    private final Set<Integer> hashes;
-    private final File cacheFolder;
-    private long misses = 0L;
-    private long hits = 0L;
+    private static final Logger logger = LogUtils.getLogger();
+    private static final String CACHE_FOLDER = "./tmp/agent/cache";
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final MessageDigest saltedDigest;
+    private final CacheArchive archive;
 
     CacheHandler() {
-        this.hashes = ConcurrentHashMap.newKeySet();
-        this.cacheFolder = new File("./tmp/agent/cache");
-        if(!this.cacheFolder.exists()) {
-            this.cacheFolder.mkdirs();
+        this.saltedDigest = createSaltedDigest();
+        this.archive = openArchive(Paths.get(CACHE_FOLDER), Configuration.getConfiguration().getPersistentCacheSize() * 1024L * 1024L);
+        if (this.archive != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(this::close, "fontus-cache-writer"));
         }
-        this.populate();
     }
 
     public static CacheHandler get() {
         return INSTANCE;
     }
 
-    private void populate() {
+    private static CacheArchive openArchive(Path folder, long maxBytes) {
         try {
-            for (final File f : Objects.requireNonNull(this.cacheFolder.listFiles())) {
-
-                if (!f.isFile()) {
-                    continue;
-                }
+            return new CacheArchive(folder, maxBytes);
+        } catch (IOException ex) {
+            logger.error("Error while opening cache: {} - {}", ex.getClass().getName(), ex.getMessage());
+            return null;
+        }
+    }
 
-                String fileName = f.getName();
-                // Assumption: all files of the form <hash>.class
-                String hash = fileName.substring(0, fileName.indexOf('.'));
-                this.hashes.add(Integer.valueOf(hash));
+    private static MessageDigest createSaltedDigest() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+            digest.update(Utils.buildIdentifier().getBytes(StandardCharsets.UTF_8));
+            digest.update(configurationFingerprint());
+            return digest;
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(DIGEST_ALGORITHM + " is not available", ex);
+        }
+    }
 
-            }
-        } catch(Exception ex) {
-            System.out.printf("Error while populating cache: %s - %s%n", ex.getClass().getName(), ex.getMessage());
+    /**
+     * The taint method is not part of the serialized configuration, so it is added separately
+     */
+    private static byte[] configurationFingerprint() {
+        Configuration configuration = Configuration.getConfiguration();
+        String taintMethod = String.valueOf(configuration.getTaintMethod());
+        try {
+            return (taintMethod + '|' + new ObjectMapper().writeValueAsString(configuration)).getBytes(StandardCharsets.UTF_8);
+        } catch (Exception ex) {
+            logger.error("Could not serialize configuration for the cache key: {} - {}", ex.getClass().getName(), ex.getMessage());
+            return taintMethod.getBytes(StandardCharsets.UTF_8);
         }
     }
-    public void put(int hash, byte[] classFileBuffer, String className) throws IOException {
-        File cb = new File(String.format("./tmp/agent/cache/%d.%s%s", hash, Utils.slashToDot(className), Constants.CLASS_FILE_SUFFIX));
-        boolean created = cb.createNewFile();
-        if(!created) {
-            System.out.printf("Tried to put file with hash %d into cache but file exists?%n", hash);
+
+    /**
+     * Computes the cache key of an uninstrumented class file
+     */
+    public CacheArchive.Key keyFor(byte[] classfileBuffer) {
+        MessageDigest digest;
+        try {
+            digest = (MessageDigest) this.saltedDigest.clone();
+        } catch (CloneNotSupportedException ex) {
+            // Only happens for exotic security providers
+            digest = createSaltedDigest();
         }
-        Files.write(cb.toPath(), classFileBuffer);
-        this.hashes.add(hash);
+        return new CacheArchive.Key(digest.digest(classfileBuffer));
     }
 
-    public byte[] fetchFromCache(int hash, String className) throws IOException {
-        if(!this.hashes.contains(hash)) {
-            throw new IllegalStateException(String.format("Trying to fetch file with hash %d from cache despite it not exisiting!!!", hash));
+    /**
+     * Returns the cached instrumented class or null if it is not cached
+     */
+    public byte[] fetchFromCache(CacheArchive.Key key, String className) {
+        byte[] cached = null;
+        if (this.archive != null) {
+            try {
+                cached = this.archive.get(key);
+            } catch (IOException ex) {
+                logger.error("Error while fetching {} from cache: {}", className, ex.getMessage());
+            }
         }
-        File cb = new File(String.format("./tmp/agent/cache/%d.%s%s", hash, Utils.slashToDot(className), Constants.CLASS_FILE_SUFFIX));
-        if(!cb.isFile()) {
-            throw new IllegalStateException(String.format("Trying to fetch file ('%s') which does not exist!!!", cb.getName()));
+        if (cached == null) {
+            this.misses.incrementAndGet();
+        } else {
+            this.hits.incrementAndGet();
         }
-        return Files.readAllBytes(cb.toPath());
+        return cached;
     }
 
-    public boolean isCached(int hash) {
-        boolean isCached = this.hashes.contains(hash);
-        if(isCached) {
-            this.hits++;
-        } else {
-            this.misses++;
+    public void put(CacheArchive.Key key, byte[] classFileBuffer, String className) {
+        if (this.archive == null) {
+            return;
+        }
+        try {
+            this.archive.put(key, classFileBuffer);
+        } catch (IOException ex) {
+            logger.error("Error while putting {} into cache: {}", className, ex.getMessage());
         }
-        if((this.hits + this.misses)%1000L == 0L) {
-            System.out.printf("Cache stats: %d/%d (h/m) (size: %d)%n", this.hits, this.misses, this.hashes.size());
+    }
+
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    public long getEvictions() {
+        return this.archive == null ? 0L : this.archive.getEvictions();
+    }
+
+    private void close() {
+        try {
+            this.archive.close();
+            logger.info("Cache stats: {}/{} (h/m), {} evictions (size: {}, {} bytes, {} bytes on disk)", this.hits.get(), this.misses.get(), this.archive.getEvictions(), this.archive.size(), this.archive.getStoredBytes(), this.archive.getFileBytes());
+        } catch (IOException ex) {
+            logger.error("Error while closing cache: {} - {}", ex.getClass().getName(), ex.getMessage());
         }
-        return isCached;
     }
 }
@@ -25,12 +25,9 @@ public class ClassTraverser {
 
     public static List<Field> getAllFields(Class<?> origClass) {
         List<Field> fields = new ArrayList<>();
+        // Fields of different classes are never equal, so there is nothing to deduplicate
         for (Class<?> cls = origClass; cls != null; cls = cls.getSuperclass()) {
-            for (Field f : cls.getDeclaredFields()) {
-                if (!fields.contains(f)) {
-                    fields.add(f);
-                }
-            }
+            Collections.addAll(fields, cls.getDeclaredFields());
         }
         return fields;
     }
@@ -63,7 +60,7 @@ public class ClassTraverser {
                     }
                 }
             } catch (IOException e) {
-                logger.error("Could not load class " + cls.getInternalName() + " for ClassTraverser.readMethods");
+                logger.error("Could not load class {} for ClassTraverser.readMethods", cls.getInternalName());
             }
         }
     }
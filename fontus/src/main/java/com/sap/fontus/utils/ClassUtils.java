@@ -67,7 +67,7 @@ public final class ClassUtils {
         if (bytes.isPresent()) {
             return isInterface(new ClassReader(bytes.get()).getAccess());
         } else {
-            logger.error("Could not resolve class " + internalName + " for isInterface checking");
+            logger.error("Could not resolve class {} for isInterface checking", internalName);
             return false;
         }
     }
@@ -0,0 +1,70 @@
+package com.sap.fontus.utils;
+
+import com.sap.fontus.config.abort.BackPressure;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Appends log lines to a file on a background thread.
+ * <p>
+ * The file is opened once and written through a buffer by an {@link AsyncWriter}. If more than {@link #CAPACITY}
+ * lines are waiting, the logging thread waits for the writer, so no line is lost.
+ */
+final class LogAppender {
+    private static final int CAPACITY = 65_536;
+
+    private static final Map<String, LogAppender> appenders = new ConcurrentHashMap<>();
+
+    private final AsyncWriter<String> writer;
+
+    private LogAppender(String fileName) {
+        this.writer = new AsyncWriter<>("log", CAPACITY, BackPressure.BLOCK, new FileOutput(fileName));
+    }
+
+    static LogAppender forFile(String fileName) {
+        return appenders.computeIfAbsent(fileName, LogAppender::new);
+    }
+
+    void append(String line) {
+        this.writer.submit(line);
+    }
+
+    private static final class FileOutput implements AsyncWriter.Output<String> {
+        private final String fileName;
+        private Writer writer;
+
+        private FileOutput(String fileName) {
+            this.fileName = fileName;
+        }
+
+        @Override
+        public void write(String line) throws IOException {
+            if (this.writer == null) {
+                this.writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(Paths.get(this.fileName), StandardOpenOption.CREATE, StandardOpenOption.APPEND), StandardCharsets.UTF_8));
+            }
+            this.writer.write(line);
+            this.writer.write(System.lineSeparator());
+        }
+
+        @Override
+        public void dropped(long count) throws IOException {
+            this.write(String.format("Dropped %d log lines", count));
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (this.writer != null) {
+                this.writer.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.sap.fontus.utils;
+
+import java.util.Locale;
+
+/**
+ * Levels of the {@link Logger}, ordered from the most to the least severe
+ */
+public enum LogLevel {
+    ERROR,
+    WARN,
+    INFO,
+    DEBUG;
+
+    /**
+     * Whether messages of the given level are logged if this is the configured level
+     */
+    public boolean includes(LogLevel level) {
+        return level.ordinal() <= this.ordinal();
+    }
+
+    /**
+     * @param name the level name. case insensitive
+     * @return the level or null if no corresponding one was found
+     */
+    public static LogLevel parse(String name) {
+        for (LogLevel level : values()) {
+            if (level.name().equals(name.toUpperCase(Locale.ROOT))) {
+                return level;
+            }
+        }
+        return null;
+    }
+}
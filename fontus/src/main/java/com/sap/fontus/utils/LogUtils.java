@@ -6,6 +6,9 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 public final class LogUtils {
+    // All loggers of a run share one file
+    private static final String FILE_NAME = getFileName();
+
     private LogUtils() {
     }
 
@@ -18,7 +21,7 @@ public final class LogUtils {
         } else {
             callerClass = ReflectionUtils.getCallerClass();
         }
-        return new Logger(callerClass.getName(), getFileName());
+        return new Logger(callerClass.getName(), FILE_NAME);
     }
 
     private static String getFileName() {
@@ -2,15 +2,18 @@ package com.sap.fontus.utils;
 
 import com.sap.fontus.config.Configuration;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.text.MessageFormat;
-import java.util.regex.Pattern;
-
+/**
+ * Logs to the instrumentation log file, if logging is enabled.
+ * <p>
+ * Messages use {@code {}} placeholders, see {@link MessageTemplate}, messages without arguments are written as they
+ * are. The level is checked before the message is formatted and the overloads for up to three arguments don't
+ * allocate a varargs array, so disabled log statements cost next to nothing. Lines are written by a
+ * {@link LogAppender} on a background thread.
+ */
 public class Logger {
     private final String sourceClass;
     private final String outputFile;
+    private LogAppender appender;
 
     public Logger(String sourceClass, String outputFile) {
         this.sourceClass = sourceClass;
@@ -21,52 +24,147 @@ public class Logger {
         return "unknown";
     }
 
+    public boolean isEnabled(LogLevel level) {
+        return Configuration.isLoggingEnabled(level);
+    }
+
+    public boolean isDebugEnabled() {
+        return this.isEnabled(LogLevel.DEBUG);
+    }
+
     public void log(String level, String message) {
         if (Configuration.isLoggingEnabled()) {
-            String line = String.format("%s\t|%s\t|%s", level, this.sourceClass, message);
-            try {
-                BufferedWriter writer = new BufferedWriter(new FileWriter(this.outputFile, true));
-                writer.write(line);
-                writer.newLine();
-                writer.close();
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+            this.write(level, message);
+        }
+    }
+
+    private void write(String level, String message) {
+        LogAppender appender = this.appender;
+        if (appender == null) {
+            // Only created once something is logged, racy but idempotent
+            appender = LogAppender.forFile(this.outputFile);
+            this.appender = appender;
+        }
+        appender.append(level + "\t|" + this.sourceClass + "\t|" + message);
+    }
+
+    public void error(String message) {
+        if (this.isEnabled(LogLevel.ERROR)) {
+            this.write("ERROR", message);
+        }
+    }
+
+    public void error(String message, Object first) {
+        if (this.isEnabled(LogLevel.ERROR)) {
+            this.write("ERROR", MessageTemplate.of(message).format(first));
+        }
+    }
+
+    public void error(String message, Object first, Object second) {
+        if (this.isEnabled(LogLevel.ERROR)) {
+            this.write("ERROR", MessageTemplate.of(message).format(first, second));
+        }
+    }
+
+    public void error(String message, Object first, Object second, Object third) {
+        if (this.isEnabled(LogLevel.ERROR)) {
+            this.write("ERROR", MessageTemplate.of(message).format(first, second, third));
         }
     }
 
     public void error(String message, Object... insertions) {
-        if (Configuration.isLoggingEnabled()) {
-            message = this.format(message, insertions);
-            this.log("ERROR", message);
+        if (this.isEnabled(LogLevel.ERROR)) {
+            this.write("ERROR", MessageTemplate.of(message).format(insertions));
         }
     }
 
-    public void info(String message, Object... insertions) {
-        if (Configuration.isLoggingEnabled()) {
-            message = this.format(message, insertions);
-            this.log("INFO", message);
+    public void warn(String message) {
+        if (this.isEnabled(LogLevel.WARN)) {
+            this.write("WARN", message);
         }
     }
 
-    private String format(String message, Object... insertions) {
-        for (int i = 0; message.contains("{}"); i++) {
-            message = message.replaceFirst(Pattern.quote("{}"), "{" + i + "}");
+    public void warn(String message, Object first) {
+        if (this.isEnabled(LogLevel.WARN)) {
+            this.write("WARN", MessageTemplate.of(message).format(first));
         }
-        return MessageFormat.format(message, insertions);
     }
 
-    public void debug(String message, String insertions) {
-        if (Configuration.isLoggingEnabled()) {
-            message = this.format(message, insertions);
-            this.log("DEBUG", message);
+    public void warn(String message, Object first, Object second) {
+        if (this.isEnabled(LogLevel.WARN)) {
+            this.write("WARN", MessageTemplate.of(message).format(first, second));
+        }
+    }
+
+    public void warn(String message, Object first, Object second, Object third) {
+        if (this.isEnabled(LogLevel.WARN)) {
+            this.write("WARN", MessageTemplate.of(message).format(first, second, third));
         }
     }
 
     public void warn(String message, Object... insertions) {
-        if (Configuration.isLoggingEnabled()) {
-            message = this.format(message, insertions);
-            this.log("WARN", message);
+        if (this.isEnabled(LogLevel.WARN)) {
+            this.write("WARN", MessageTemplate.of(message).format(insertions));
+        }
+    }
+
+    public void info(String message) {
+        if (this.isEnabled(LogLevel.INFO)) {
+            this.write("INFO", message);
+        }
+    }
+
+    public void info(String message, Object first) {
+        if (this.isEnabled(LogLevel.INFO)) {
+            this.write("INFO", MessageTemplate.of(message).format(first));
+        }
+    }
+
+    public void info(String message, Object first, Object second) {
+        if (this.isEnabled(LogLevel.INFO)) {
+            this.write("INFO", MessageTemplate.of(message).format(first, second));
+        }
+    }
+
+    public void info(String message, Object first, Object second, Object third) {
+        if (this.isEnabled(LogLevel.INFO)) {
+            this.write("INFO", MessageTemplate.of(message).format(first, second, third));
+        }
+    }
+
+    public void info(String message, Object... insertions) {
+        if (this.isEnabled(LogLevel.INFO)) {
+            this.write("INFO", MessageTemplate.of(message).format(insertions));
+        }
+    }
+
+    public void debug(String message) {
+        if (this.isEnabled(LogLevel.DEBUG)) {
+            this.write("DEBUG", message);
+        }
+    }
+
+    public void debug(String message, Object first) {
+        if (this.isEnabled(LogLevel.DEBUG)) {
+            this.write("DEBUG", MessageTemplate.of(message).format(first));
+        }
+    }
+
+    public void debug(String message, Object first, Object second) {
+        if (this.isEnabled(LogLevel.DEBUG)) {
+            this.write("DEBUG", MessageTemplate.of(message).format(first, second));
+        }
+    }
+
+    public void debug(String message, Object first, Object second, Object third) {
+        if (this.isEnabled(LogLevel.DEBUG)) {
+            this.write("DEBUG", MessageTemplate.of(message).format(first, second, third));
+        }
+    }
+
+    public void debug(String message, Object... insertions) {
+        if (this.isEnabled(LogLevel.DEBUG)) {
+            this.write("DEBUG", MessageTemplate.of(message).format(insertions));
         }
     }
 }
@@ -0,0 +1,110 @@
+package com.sap.fontus.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A log message with {@code {}} placeholders, split into its literal parts once and cached by the message.
+ * <p>
+ * Arguments are inserted with {@link String#valueOf(Object)}, arguments without a placeholder are ignored and
+ * placeholders without an argument are kept as they are.
+ */
+final class MessageTemplate {
+    private static final String PLACEHOLDER = "{}";
+    private static final int MAX_TEMPLATES = 4096;
+    private static final Cache<String, MessageTemplate> templates = Caffeine.newBuilder().maximumSize(MAX_TEMPLATES).build();
+
+    private final String message;
+    /**
+     * The literals before, between and after the placeholders, one more than there are placeholders
+     */
+    private final String[] parts;
+
+    private MessageTemplate(String message) {
+        this.message = message;
+        List<String> parts = new ArrayList<>();
+        int start = 0;
+        int index;
+        while ((index = message.indexOf(PLACEHOLDER, start)) >= 0) {
+            parts.add(message.substring(start, index));
+            start = index + PLACEHOLDER.length();
+        }
+        parts.add(message.substring(start));
+        this.parts = parts.toArray(new String[0]);
+    }
+
+    static MessageTemplate of(String message) {
+        return templates.get(message, MessageTemplate::new);
+    }
+
+    String format() {
+        return this.message;
+    }
+
+    String format(Object first) {
+        if (this.parts.length == 1) {
+            return this.message;
+        }
+        StringBuilder builder = this.start();
+        this.append(builder, 0, first);
+        return this.finish(builder, 1);
+    }
+
+    String format(Object first, Object second) {
+        if (this.parts.length == 1) {
+            return this.message;
+        }
+        StringBuilder builder = this.start();
+        this.append(builder, 0, first);
+        this.append(builder, 1, second);
+        return this.finish(builder, 2);
+    }
+
+    String format(Object first, Object second, Object third) {
+        if (this.parts.length == 1) {
+            return this.message;
+        }
+        StringBuilder builder = this.start();
+        this.append(builder, 0, first);
+        this.append(builder, 1, second);
+        this.append(builder, 2, third);
+        return this.finish(builder, 3);
+    }
+
+    String format(Object... arguments) {
+        if (this.parts.length == 1 || arguments == null) {
+            return this.message;
+        }
+        StringBuilder builder = this.start();
+        for (int i = 0; i < arguments.length; i++) {
+            this.append(builder, i, arguments[i]);
+        }
+        return this.finish(builder, arguments.length);
+    }
+
+    private StringBuilder start() {
+        return new StringBuilder(this.message.length() + 32).append(this.parts[0]);
+    }
+
+    /**
+     * Appends the argument of the placeholder at the index and the literal following it
+     */
+    private void append(StringBuilder builder, int index, Object argument) {
+        if (index + 1 < this.parts.length) {
+            builder.append(argument).append(this.parts[index + 1]);
+        }
+    }
+
+    /**
+     * Appends the placeholders without an argument
+     */
+    private String finish(StringBuilder builder, int arguments) {
+        for (int i = arguments + 1; i < this.parts.length; i++) {
+            builder.append(PLACEHOLDER).append(this.parts[i]);
+        }
+        return builder.toString();
+    }
+}
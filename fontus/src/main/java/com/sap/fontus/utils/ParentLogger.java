@@ -2,10 +2,8 @@ package com.sap.fontus.utils;
 
 import com.sap.fontus.config.Configuration;
 
-import java.text.MessageFormat;
 import java.util.logging.Level;
 import java.util.logging.LogRecord;
-import java.util.regex.Pattern;
 
 public class ParentLogger extends java.util.logging.Logger {
     public ParentLogger() {
@@ -39,10 +37,7 @@ public class ParentLogger extends java.util.logging.Logger {
     }
 
     private String format(String message, Object... insertions) {
-        for(int i = 0; message.contains("{}"); i++) {
-            message = message.replaceFirst(Pattern.quote("{}"), "{"+ i +"}");
-        }
-        return MessageFormat.format(message, insertions);
+        return MessageTemplate.of(message).format(insertions);
     }
 
     public void debug(String message, String insertions) {
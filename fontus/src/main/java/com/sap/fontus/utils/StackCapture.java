@@ -0,0 +1,142 @@
+package com.sap.fontus.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sap.fontus.config.Configuration;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Captures the stack of the current thread for sink and taintloss events.
+ * <p>
+ * The stack is walked with a {@link StackWalker} up to {@link Configuration#getStackDepth()} frames, instead of
+ * materializing the whole stack. Frames are only converted to {@link StackTraceElement}s when they are accessed.
+ * <p>
+ * Call sites are identified by their innermost frames, so repeated events from the same code location can be
+ * counted instead of logging the whole stack each time.
+ */
+public final class StackCapture {
+    /**
+     * Number of innermost frames identifying a call site
+     */
+    public static final int CALL_SITE_FRAMES = 4;
+    private static final int MAX_CALL_SITES = 10_000;
+
+    private static final StackWalker walker = StackWalker.getInstance();
+    private static final Cache<String, AtomicLong> occurrences = Caffeine.newBuilder().maximumSize(MAX_CALL_SITES).build();
+
+    private StackCapture() {
+    }
+
+    /**
+     * Captures the stack without the frames of classes starting with the prefix
+     */
+    public static List<StackTraceElement> captureExcluding(String classPrefix) {
+        return capture(frames -> frames.filter(frame -> !frame.getClassName().startsWith(classPrefix)));
+    }
+
+    /**
+     * Captures the stack starting at the caller of the given class
+     */
+    public static List<StackTraceElement> captureBelow(Class<?> clazz) {
+        String className = clazz.getName();
+        return capture(frames -> frames.dropWhile(frame -> frame.getClassName().equals(className)));
+    }
+
+    private static List<StackTraceElement> capture(Function<Stream<StackWalker.StackFrame>, Stream<StackWalker.StackFrame>> selector) {
+        int depth = Configuration.getConfiguration().getStackDepth();
+        return walker.walk(frames -> {
+            Stream<StackWalker.StackFrame> selected = selector.apply(frames.dropWhile(isCaptureFrame()));
+            if (depth > 0) {
+                selected = selected.limit(depth);
+            }
+            return new CapturedStack(selected.toArray(StackWalker.StackFrame[]::new));
+        });
+    }
+
+    private static Predicate<StackWalker.StackFrame> isCaptureFrame() {
+        return frame -> frame.getClassName().equals(StackCapture.class.getName());
+    }
+
+    /**
+     * Counts the event at the call site of the stack
+     *
+     * @return How often an event happened at this call site, including this one. Always 1 if call sites are not deduplicated
+     */
+    public static long countOccurrence(List<StackTraceElement> stack) {
+        if (!Configuration.getConfiguration().isDeduplicateStackTraces()) {
+            return 1L;
+        }
+        return occurrences.get(callSite(stack), key -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Fingerprint of the call site of the stack
+     */
+    public static String callSite(List<StackTraceElement> stack) {
+        if (stack instanceof CapturedStack) {
+            return ((CapturedStack) stack).getCallSite();
+        }
+        return callSiteFrames(stack).stream()
+                .map(element -> element.getClassName() + '.' + element.getMethodName() + ':' + element.getLineNumber())
+                .collect(Collectors.joining("|"));
+    }
+
+    /**
+     * The innermost frames of the stack, which identify the call site
+     */
+    public static List<StackTraceElement> callSiteFrames(List<StackTraceElement> stack) {
+        return stack.subList(0, Math.min(CALL_SITE_FRAMES, stack.size()));
+    }
+
+    /**
+     * Stack frames converted to {@link StackTraceElement}s on access
+     */
+    private static final class CapturedStack extends AbstractList<StackTraceElement> implements RandomAccess {
+        private final StackWalker.StackFrame[] frames;
+        private final StackTraceElement[] elements;
+
+        private CapturedStack(StackWalker.StackFrame[] frames) {
+            this.frames = frames;
+            this.elements = new StackTraceElement[frames.length];
+        }
+
+        @Override
+        public StackTraceElement get(int index) {
+            StackTraceElement element = this.elements[index];
+            if (element == null) {
+                // Racy but idempotent
+                element = this.frames[index].toStackTraceElement();
+                this.elements[index] = element;
+            }
+            return element;
+        }
+
+        @Override
+        public int size() {
+            return this.frames.length;
+        }
+
+        /**
+         * Built from the frames directly, without converting them
+         */
+        private String getCallSite() {
+            StringBuilder callSite = new StringBuilder(256);
+            for (int i = 0; i < Math.min(CALL_SITE_FRAMES, this.frames.length); i++) {
+                StackWalker.StackFrame frame = this.frames[i];
+                if (i > 0) {
+                    callSite.append('|');
+                }
+                callSite.append(frame.getClassName()).append('.').append(frame.getMethodName()).append('@').append(frame.getByteCodeIndex());
+            }
+            return callSite.toString();
+        }
+    }
+}
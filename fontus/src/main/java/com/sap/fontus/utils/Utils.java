@@ -11,9 +11,19 @@ import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public final class Utils {
     private static final CombinedExcludedLookup combinedExcludedLookup = new CombinedExcludedLookup();
@@ -41,7 +51,7 @@ public final class Utils {
     public static void logStackTrace(List<StackTraceElement> stackTrace) {
         List<String> stackTraceStrings = convertStackTrace(stackTrace);
         for (String ste: stackTraceStrings) {
-            logger.error("\tat " + ste);
+            logger.error("\tat {}", ste);
         }
     }
 
@@ -159,4 +169,42 @@ public final class Utils {
         int index = classPath.lastIndexOf(Constants.CLASS_FILE_SUFFIX);
         return classPath.substring(0, index);
     }
+
+    /**
+     * Identifies the running Fontus build, so caches written by another build are not used.
+     * <p>
+     * Snapshot versions don't change between builds, so the size and timestamp of the agent jar are included.
+     * When running from a class directory, the newest class file is used instead. If the location of Fontus is unknown,
+     * the identifier is unique to the running JVM.
+     */
+    public static String buildIdentifier() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(Objects.toString(Utils.class.getPackage().getImplementationVersion(), "development"));
+        CodeSource codeSource = Utils.class.getProtectionDomain().getCodeSource();
+        URL location = codeSource == null ? null : codeSource.getLocation();
+        try {
+            if (location == null || !"file".equals(location.getProtocol())) {
+                throw new IOException(String.format("Can't inspect the location of Fontus: %s", location));
+            }
+            Path path = Paths.get(location.toURI());
+            if (Files.isDirectory(path)) {
+                sb.append('|').append(newestModification(path));
+            } else {
+                sb.append('|').append(Files.size(path)).append('|').append(Files.getLastModifiedTime(path).toMillis());
+            }
+        } catch (IOException | URISyntaxException | RuntimeException e) {
+            sb.append("|jvm-").append(ManagementFactory.getRuntimeMXBean().getStartTime()).append('-').append(ProcessHandle.current().pid());
+        }
+        return sb.toString();
+    }
+
+    private static long newestModification(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            long newest = 0L;
+            for (Path file : (Iterable<Path>) files::iterator) {
+                newest = Math.max(newest, Files.getLastModifiedTime(file).toMillis());
+            }
+            return newest;
+        }
+    }
 }
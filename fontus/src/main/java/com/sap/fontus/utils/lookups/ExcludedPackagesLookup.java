@@ -1,31 +1,112 @@
 package com.sap.fontus.utils.lookups;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.sap.fontus.config.Configuration;
 
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Checks names against the excluded packages and classes of the configuration.
+ * <p>
+ * The configured lists are compiled into a prefix trie and a hash set, and the verdicts are cached per name.
+ * Both are rebuilt when the configuration is replaced or {@link #invalidate()} is called after the lists changed.
+ * Every invalidation increments a version, exclusions built from an older version are discarded, even if they were
+ * published after the invalidation.
+ */
 public final class ExcludedPackagesLookup {
+    private static final int MAX_CACHED_VERDICTS = 100_000;
+    private static final byte EXCLUDED_PACKAGE = 1;
+    private static final byte EXCLUDED_CLASS = 2;
+
+    private static final AtomicLong version = new AtomicLong();
+    private static final AtomicReference<Exclusions> exclusions = new AtomicReference<>();
+
     private ExcludedPackagesLookup() {
     }
 
     public static boolean isExcludedPackage(String internalName) {
-        for (String excludedPackage : Configuration.getConfiguration().getExcludedPackages()) {
-            if(internalName.startsWith(excludedPackage)) {
-                return true;
+        return (verdict(internalName) & EXCLUDED_PACKAGE) != 0;
+    }
+
+    public static boolean isExcludedClass(String internalName) {
+        return (verdict(internalName) & EXCLUDED_CLASS) != 0;
+    }
+
+    /**
+     * Drops the compiled exclusions, has to be called whenever the excluded packages or classes of the configuration change
+     */
+    public static void invalidate() {
+        version.incrementAndGet();
+        exclusions.set(null);
+    }
+
+    private static byte verdict(String internalName) {
+        Configuration configuration = Configuration.getConfiguration();
+        Exclusions current = exclusions.get();
+        while (current == null || current.configuration != configuration || current.version != version.get()) {
+            long expected = version.get();
+            Exclusions built;
+            try {
+                built = new Exclusions(configuration, expected);
+            } catch (ConcurrentModificationException e) {
+                // The lists are being changed, which invalidates the exclusions once done
+                continue;
+            }
+            // Built from lists which changed in the meantime otherwise
+            if (version.get() == expected) {
+                exclusions.compareAndSet(current, built);
             }
+            current = exclusions.get();
         }
-        return false;
+        return current.verdicts.get(internalName, current::compute);
     }
 
-    public static boolean isExcludedClass(String internalName) {
-        String clazzName = internalName;
-        if(clazzName.contains("$")) {
-            // TODO: is this sound? Trying to detect inner classes
-            clazzName = clazzName.split("\\$")[0];
+    private static final class Exclusions {
+        private final Configuration configuration;
+        private final long version;
+        private final PrefixTrie packages;
+        private final Set<String> classes;
+        private final Cache<String, Byte> verdicts;
+
+        private Exclusions(Configuration configuration, long version) {
+            this.configuration = configuration;
+            this.version = version;
+            this.packages = new PrefixTrie(configuration.getExcludedPackages());
+            this.classes = new HashSet<>(configuration.getExcludedClasses());
+            this.verdicts = Caffeine.newBuilder().maximumSize(MAX_CACHED_VERDICTS).build();
+        }
+
+        private byte compute(String internalName) {
+            byte verdict = 0;
+            if (this.packages.matchesPrefixOf(internalName)) {
+                verdict |= EXCLUDED_PACKAGE;
+            }
+            if (this.isExcludedClass(internalName)) {
+                verdict |= EXCLUDED_CLASS;
+            }
+            return verdict;
         }
-        for (String excludedClass : Configuration.getConfiguration().getExcludedClasses()) {
-            if(clazzName.equals(excludedClass)) {
+
+        /**
+         * Nested classes are named {@code Outer$Nested}, but {@code $} is also legal in top level class names.
+         * So the name itself and every prefix ending before a {@code $} are checked, which excludes explicitly listed
+         * nested classes as well as all classes nested in (or generated for) an excluded class.
+         */
+        private boolean isExcludedClass(String internalName) {
+            if (this.classes.contains(internalName)) {
                 return true;
             }
+            for (int separator = internalName.indexOf('$'); separator > 0; separator = internalName.indexOf('$', separator + 1)) {
+                if (this.classes.contains(internalName.substring(0, separator))) {
+                    return true;
+                }
+            }
+            return false;
         }
-        return false;
     }
 }
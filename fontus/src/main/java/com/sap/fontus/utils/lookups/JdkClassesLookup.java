@@ -1,5 +1,7 @@
 package com.sap.fontus.utils.lookups;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.sap.fontus.utils.ClassUtils;
 import com.sap.fontus.utils.LogUtils;
 import com.sap.fontus.utils.Logger;
@@ -15,12 +17,12 @@ public final class JdkClassesLookup {
     private static final Logger logger = LogUtils.getLogger();
     private static final Pattern MODULE_INFO_PATTERN = Pattern.compile("^(.*/)?module-info(\\.class)?$");
     private static final Pattern PACKAGE_INFO_PATTERN = Pattern.compile("^(.*/)?package-info(\\.class)?$");
+    private static final int MAX_CACHED_VERDICTS = 100_000;
 
     private JdkClassesLookup(Collection<String> classes) {
         this.jdkClasses = new HashSet<>(classes.size());
         this.jdkClasses.addAll(classes);
-        this.blacklistedPrefixes = new ArrayList<>();
-        this.blacklistedPrefixes.addAll(Arrays.asList("sun/",
+        this.blacklistedPrefixes = new PrefixTrie(Arrays.asList("sun/",
                 "com/sun/proxy",
                 "com/sun/crypto/",
                 "jdk/",
@@ -31,6 +33,7 @@ public final class JdkClassesLookup {
                 "org/openjdk/jmh/",
                 "org/apache/commons/commons-math3/",
                 "org/jacoco"));
+        this.verdicts = Caffeine.newBuilder().maximumSize(MAX_CACHED_VERDICTS).build();
     }
 
     public static JdkClassesLookup getInstance() {
@@ -61,21 +64,18 @@ public final class JdkClassesLookup {
             return true;
         }
 
-        boolean blacklisted = false;
-        for (String blacklistedPrefix : this.blacklistedPrefixes) {
-            if (internalName.startsWith(blacklistedPrefix)) {
-                blacklisted = true;
-                break;
-            }
-        }
-
-        if (blacklisted && !internalName.startsWith("javax/servlet")) {
+        // The verdict only depends on the name, apart from the MXBean check below
+        if (this.verdicts.get(internalName, this::isJdkClassName)) {
             return true;
         }
 
         // MXBeans have a reduced set of usable data types
         // Obviously IASString isn't part of it
-        if (internalName.endsWith("MXBean") && ClassUtils.isInterface(internalName, loader)) {
+        return internalName.endsWith("MXBean") && ClassUtils.isInterface(internalName, loader);
+    }
+
+    private boolean isJdkClassName(String internalName) {
+        if (this.blacklistedPrefixes.matchesPrefixOf(internalName) && !internalName.startsWith("javax/servlet")) {
             return true;
         }
 
@@ -91,10 +91,10 @@ public final class JdkClassesLookup {
             }
         }
 
-        //TODO: is the split on $ the optimal way to only get the prefix? This is supposed to catch inner classes too
-        String[] parts = internalName.split("\\$");
-        assert parts[0] != null;
-        return this.jdkClasses.contains(parts[0]);
+        // Inner classes are looked up by their outermost class
+        int innerClassSeparator = internalName.indexOf('$');
+        String outerName = innerClassSeparator < 0 ? internalName : internalName.substring(0, innerClassSeparator);
+        return this.jdkClasses.contains(outerName);
     }
 
     private final Set<String> jdkClasses;
@@ -103,6 +103,8 @@ public final class JdkClassesLookup {
         private static final JdkClassesLookup INSTANCE = initializeLookupTable("openjdk12_classes.list"); // TODO: Make configurable
     }
 
-    private final List<String> blacklistedPrefixes;
+    private final PrefixTrie blacklistedPrefixes;
+
+    private final Cache<String, Boolean> verdicts;
 
 }
@@ -0,0 +1,68 @@
+package com.sap.fontus.utils.lookups;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Character trie answering whether a name starts with any of a fixed set of prefixes,
+ * in time proportional to the length of the matched prefix instead of the number of prefixes.
+ */
+final class PrefixTrie {
+    private final Node root = new Node();
+
+    PrefixTrie(Collection<String> prefixes) {
+        for (String prefix : prefixes) {
+            Node node = this.root;
+            for (int i = 0; i < prefix.length() && !node.terminal; i++) {
+                node = node.childOrCreate(prefix.charAt(i));
+            }
+            node.terminal = true;
+            // Longer prefixes below a shorter one can never be reached
+            node.labels = new char[0];
+            node.children = new Node[0];
+        }
+    }
+
+    boolean matchesPrefixOf(String name) {
+        Node node = this.root;
+        for (int i = 0; i < name.length(); i++) {
+            if (node.terminal) {
+                return true;
+            }
+            node = node.child(name.charAt(i));
+            if (node == null) {
+                return false;
+            }
+        }
+        return node.terminal;
+    }
+
+    private static final class Node {
+        private char[] labels = new char[0];
+        private Node[] children = new Node[0];
+        private boolean terminal;
+
+        private Node child(char c) {
+            // Fan out is small for package names, so a linear scan beats hashing
+            for (int i = 0; i < this.labels.length; i++) {
+                if (this.labels[i] == c) {
+                    return this.children[i];
+                }
+            }
+            return null;
+        }
+
+        private Node childOrCreate(char c) {
+            Node child = this.child(c);
+            if (child == null) {
+                child = new Node();
+                int size = this.labels.length;
+                this.labels = Arrays.copyOf(this.labels, size + 1);
+                this.children = Arrays.copyOf(this.children, size + 1);
+                this.labels[size] = c;
+                this.children[size] = child;
+            }
+            return child;
+        }
+    }
+}
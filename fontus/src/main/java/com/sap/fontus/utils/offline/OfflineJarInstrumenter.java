@@ -1,6 +1,7 @@
 package com.sap.fontus.utils.offline;
 
 import com.sap.fontus.Constants;
+import com.sap.fontus.asm.TypeHierarchyIndex;
 import com.sap.fontus.config.Configuration;
 import com.sap.fontus.utils.LogUtils;
 import com.sap.fontus.utils.Logger;
@@ -11,9 +12,12 @@ import org.objectweb.asm.ClassReader;
 import java.io.*;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.jar.JarInputStream;
@@ -26,6 +30,7 @@ public class OfflineJarInstrumenter {
     private static final Logger logger = LogUtils.getLogger();
 
     private final List<String> classes = new ArrayList<>();
+    private final Map<String, TypeHierarchyIndex.Entry> typeHierarchy = new ConcurrentHashMap<>();
     private final OfflineClassInstrumenter offlineClassInstrumenter;
 
     public OfflineJarInstrumenter(Configuration configuration) {
@@ -36,6 +41,13 @@ public class OfflineJarInstrumenter {
         return this.classes;
     }
 
+    /**
+     * Hierarchy entries of all classes read from the processed jars, which can be loaded by the agent
+     */
+    public Collection<TypeHierarchyIndex.Entry> getTypeHierarchy() {
+        return this.typeHierarchy.values();
+    }
+
     private Pair<JarEntry, byte[]> processJarEntry(Pair<JarEntry, byte[]> input) {
         JarEntry jei = input.x;
         byte[] entryBytes = input.y;
@@ -45,6 +57,10 @@ public class OfflineJarInstrumenter {
         if (!jei.isDirectory()) {
             InputStream jeis = new ByteArrayInputStream(entryBytes);
 
+            if (jei.getName().endsWith(Constants.CLASS_FILE_SUFFIX)) {
+                this.recordTypeHierarchy(jei.getName(), entryBytes);
+            }
+
             CombinedExcludedLookup combinedExcludedLookup = new CombinedExcludedLookup(Thread.currentThread().getContextClassLoader());
 
             if (jei.getName().endsWith(Constants.CLASS_FILE_SUFFIX) &&
@@ -117,6 +133,15 @@ public class OfflineJarInstrumenter {
         }
     }
 
+    private void recordTypeHierarchy(String entryName, byte[] classBytes) {
+        try {
+            TypeHierarchyIndex.Entry entry = TypeHierarchyIndex.Entry.fromClassFile(classBytes);
+            this.typeHierarchy.putIfAbsent(entry.getName(), entry);
+        } catch (RuntimeException e) {
+            logger.error("Could not read type hierarchy of {}: {}", entryName, e.getMessage());
+        }
+    }
+
     private String getName(byte[] classBytes) {
         return new ClassReader(classBytes).getClassName();
     }
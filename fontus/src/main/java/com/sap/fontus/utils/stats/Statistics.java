@@ -2,12 +2,19 @@ package com.sap.fontus.utils.stats;
 
 import com.sap.fontus.Constants;
 import com.sap.fontus.agent.TaintAgent;
+import com.sap.fontus.config.Configuration;
+import com.sap.fontus.config.taintloss.TaintlossAggregator;
+import com.sap.fontus.config.taintloss.TaintlossSummary;
 import com.sap.fontus.taintaware.IASTaintAware;
 import com.sap.fontus.taintaware.range.IASTaintInformation;
 import com.sap.fontus.taintaware.unified.IASTaintInformationable;
+import com.sap.fontus.sql.tainter.QueryCache;
+import com.sap.fontus.utils.BytecodeRegistry;
+import com.sap.fontus.utils.CacheHandler;
 
 import javax.management.*;
 import java.lang.management.ManagementFactory;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
@@ -71,6 +78,7 @@ public enum Statistics implements StatisticsMXBean {
         this.totalQueriesLength.set(0L);
         this.rewrittenQueryLength.set(0L);
         this.taintlossHits.clear();
+        TaintlossAggregator.INSTANCE.reset();
     }
 
     public void incrementTaintlossHits(String call) {
@@ -109,6 +117,8 @@ public enum Statistics implements StatisticsMXBean {
         long rangeCount = 0L;
         if (taintInformationable instanceof IASTaintInformation) {
             rangeCount = ((IASTaintInformation) taintInformationable).getTaintRanges().getTaintRanges().size();
+        } else if (taintInformationable instanceof com.sap.fontus.taintaware.interval.IASTaintInformation) {
+            rangeCount = ((com.sap.fontus.taintaware.interval.IASTaintInformation) taintInformationable).getRangeCount();
         }
 
         this.taintRangeSum.addAndGet(rangeCount);
@@ -243,6 +253,11 @@ public enum Statistics implements StatisticsMXBean {
         return this.taintlossHits;
     }
 
+    @Override
+    public List<TaintlossSummary> getTaintlossSummaries() {
+        return TaintlossAggregator.INSTANCE.getSummaries();
+    }
+
     @Override
     public void saveClassBytecode(String qn) {
         TaintAgent.logInstrumentedClass(qn);
@@ -391,5 +406,68 @@ public enum Statistics implements StatisticsMXBean {
         return this.sinkCoverage.size();
     }
 
+    @Override
+    public long getBytecodeRegistryHits() {
+        return BytecodeRegistry.getInstance().getHitCount();
+    }
+
+    @Override
+    public long getBytecodeRegistryMisses() {
+        return BytecodeRegistry.getInstance().getMissCount();
+    }
+
+    @Override
+    public long getBytecodeRegistryEvictions() {
+        return BytecodeRegistry.getInstance().getEvictionCount();
+    }
+
+    @Override
+    public long getBytecodeRegistryReloads() {
+        return BytecodeRegistry.getInstance().getReloadCount();
+    }
+
+    @Override
+    public long getBytecodeRegistrySize() {
+        return BytecodeRegistry.getInstance().getSize();
+    }
+
+    @Override
+    public double getQueryCacheHitRate() {
+        return QueryCache.INSTANCE.getHitRate();
+    }
+
+    @Override
+    public long getQueryCacheEvictions() {
+        return QueryCache.INSTANCE.getEvictionCount();
+    }
+
+    @Override
+    public long getQueryCacheSize() {
+        return QueryCache.INSTANCE.getSize();
+    }
+
+    @Override
+    public double getAverageQueryRewriteTime() {
+        return QueryCache.INSTANCE.getAverageRewriteTime();
+    }
+
+    /**
+     * The persistent cache opens its archive on first use, so it is only asked if it is enabled
+     */
+    @Override
+    public long getPersistentCacheHits() {
+        return Configuration.getConfiguration().usePersistentCache() ? CacheHandler.get().getHits() : 0L;
+    }
+
+    @Override
+    public long getPersistentCacheMisses() {
+        return Configuration.getConfiguration().usePersistentCache() ? CacheHandler.get().getMisses() : 0L;
+    }
+
+    @Override
+    public long getPersistentCacheEvictions() {
+        return Configuration.getConfiguration().usePersistentCache() ? CacheHandler.get().getEvictions() : 0L;
+    }
+
 
 }
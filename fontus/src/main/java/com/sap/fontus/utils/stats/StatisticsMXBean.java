@@ -1,5 +1,8 @@
 package com.sap.fontus.utils.stats;
 
+import com.sap.fontus.config.taintloss.TaintlossSummary;
+
+import java.util.List;
 import java.util.Map;
 
 public interface StatisticsMXBean {
@@ -43,6 +46,8 @@ public interface StatisticsMXBean {
 
     Map<String, Long> getTaintlossHits();
 
+    List<TaintlossSummary> getTaintlossSummaries();
+
     void saveClassBytecode(String qn);
 
     double getSourceCoverage();
@@ -61,4 +66,28 @@ public interface StatisticsMXBean {
     long getSinkCount();
     long getUniqueSinkCount();
 
+    long getBytecodeRegistryHits();
+
+    long getBytecodeRegistryMisses();
+
+    long getBytecodeRegistryEvictions();
+
+    long getBytecodeRegistryReloads();
+
+    long getBytecodeRegistrySize();
+
+    double getQueryCacheHitRate();
+
+    long getQueryCacheEvictions();
+
+    long getQueryCacheSize();
+
+    double getAverageQueryRewriteTime();
+
+    long getPersistentCacheHits();
+
+    long getPersistentCacheMisses();
+
+    long getPersistentCacheEvictions();
+
 }
@@ -3,6 +3,7 @@ package com.sap.fontus;
 import com.sap.fontus.agent.AgentConfig;
 import com.sap.fontus.config.Configuration;
 import com.sap.fontus.config.TaintMethod;
+import com.sap.fontus.config.abort.BackPressure;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -88,4 +89,12 @@ class AgentConfigTests {
         assertEquals(3, cfg.getBlacklistedMainClasses().size(), "Should retrieve the correct number of blacklisted classes.");
         assertEquals("montypythonsflyingclass", cfg.getBlacklistedMainClasses().get(2), "Should retrieve the correct blacklisted classes.");
     }
+
+    @Test
+    void parseReportOptions() {
+        Configuration cfg = AgentConfig.parseConfig("report_queue_size=128,report_back_pressure=Sample,report_file_size=0");
+        assertEquals(128, cfg.getReportQueueSize(), "Should parse the report queue size.");
+        assertEquals(BackPressure.SAMPLE, cfg.getReportBackPressure(), "Should parse the back pressure case insensitively.");
+        assertEquals(0, cfg.getReportFileSize(), "Should parse the report file size.");
+    }
 }
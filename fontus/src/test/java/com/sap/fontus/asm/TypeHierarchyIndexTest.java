@@ -0,0 +1,90 @@
+package com.sap.fontus.asm;
+
+import com.sap.fontus.asm.resolver.IClassResolver;
+import com.sap.fontus.config.Configuration;
+import com.sap.fontus.config.TaintMethod;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TypeHierarchyIndexTest {
+
+    @BeforeAll
+    static void init() {
+        Configuration.setTestConfig(TaintMethod.RANGE);
+    }
+
+    private static byte[] classFile(String name, String superName, String... interfaces) {
+        ClassWriter writer = new ClassWriter(0);
+        writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, name, null, superName, interfaces);
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    @Test
+    void testEntryFormatRoundTrip() {
+        TypeHierarchyIndex.Entry entry = TypeHierarchyIndex.Entry.fromClassFile(classFile("com/example/Foo", "com/example/Bar", "java/io/Serializable", "java/lang/Runnable"));
+
+        TypeHierarchyIndex.Entry parsed = TypeHierarchyIndex.Entry.parse(entry.format());
+
+        assertEquals("com/example/Foo", parsed.getName());
+        assertEquals("com/example/Bar", parsed.getSuperName());
+        assertArrayEquals(new String[]{"java/io/Serializable", "java/lang/Runnable"}, parsed.getInterfaces());
+        assertEquals(entry.getAccess(), parsed.getAccess());
+    }
+
+    @Test
+    void testEntryWithoutSuperClassAndInterfaces() {
+        TypeHierarchyIndex.Entry entry = new TypeHierarchyIndex.Entry("java/lang/Object", null, new String[0], Opcodes.ACC_PUBLIC);
+
+        TypeHierarchyIndex.Entry parsed = TypeHierarchyIndex.Entry.parse(entry.format());
+
+        assertNull(parsed.getSuperName());
+        assertEquals(0, parsed.getInterfaces().length);
+    }
+
+    @Test
+    void testClassIsResolvedOnce() {
+        AtomicInteger resolved = new AtomicInteger();
+        IClassResolver resolver = name -> {
+            resolved.incrementAndGet();
+            return "com/example/Child".equals(name) ? Optional.of(classFile(name, "com/example/Parent")) : Optional.empty();
+        };
+
+        TypeHierarchyIndex.Entry first = TypeHierarchyIndex.getInstance().get("com/example/Child", resolver);
+        TypeHierarchyIndex.Entry second = TypeHierarchyIndex.getInstance().get("com/example/Child", resolver);
+
+        assertSame(first, second);
+        assertEquals("com/example/Parent", first.getSuperName());
+        assertEquals(1, resolved.get());
+        assertNull(TypeHierarchyIndex.getInstance().get("com/example/Missing", resolver));
+    }
+
+    @Test
+    void testReaderUsesIndex() {
+        IClassResolver resolver = name -> {
+            switch (name) {
+                case "com/example/A":
+                    return Optional.of(classFile(name, "java/lang/Object"));
+                case "com/example/B":
+                    return Optional.of(classFile(name, "com/example/A"));
+                case "com/example/C":
+                    return Optional.of(classFile(name, "com/example/A"));
+                default:
+                    return Optional.empty();
+            }
+        };
+        TypeHierarchyReaderWithLoaderSupport reader = new TypeHierarchyReaderWithLoaderSupport(resolver);
+
+        assertEquals(Type.getObjectType("com/example/A"), reader.getSuperClass(Type.getObjectType("com/example/B")));
+        assertTrue(reader.isAssignableFrom(Type.getObjectType("com/example/A"), Type.getObjectType("com/example/C")));
+        assertSame(reader.hierarchyOf(Type.getObjectType("com/example/B")), reader.hierarchyOf(Type.getObjectType("com/example/B")));
+    }
+}
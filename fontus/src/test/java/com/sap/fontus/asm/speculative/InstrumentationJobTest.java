@@ -0,0 +1,115 @@
+package com.sap.fontus.asm.speculative;
+
+import com.sap.fontus.instrumentation.InstrumenterInterface;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstrumentationJobTest {
+    private static final byte[] INPUT = {1, 2, 3};
+    private static final byte[] OUTPUT = {4, 5, 6};
+
+    @Test
+    void testConcurrentCallersShareOneInstrumentation() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        InstrumenterInterface instrumenter = (buffer, loader, name) -> {
+            calls.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return OUTPUT;
+        };
+        InstrumentationJob job = new InstrumentationJob(instrumenter, INPUT, null, "Foo");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<byte[]> first = executor.submit(job::await);
+            started.await();
+            Future<byte[]> second = executor.submit(job::await);
+            release.countDown();
+
+            assertArrayEquals(OUTPUT, first.get());
+            assertArrayEquals(OUTPUT, second.get());
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testAwaitRunsUnclaimedJob() {
+        AtomicInteger calls = new AtomicInteger();
+        InstrumentationJob job = new InstrumentationJob((buffer, loader, name) -> {
+            calls.incrementAndGet();
+            return OUTPUT;
+        }, INPUT, null, "Foo");
+
+        assertArrayEquals(OUTPUT, job.await());
+        job.run();
+
+        assertTrue(job.isDone());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testFailureIsThrownToOwner() {
+        InstrumentationJob job = new InstrumentationJob((buffer, loader, name) -> {
+            throw new IllegalStateException("broken");
+        }, INPUT, null, "Foo");
+
+        assertThrows(IllegalStateException.class, job::await);
+        assertTrue(job.isDone());
+    }
+
+    @Test
+    void testFailureIsThrownToWaitingCallers() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        InstrumentationJob job = new InstrumentationJob((buffer, loader, name) -> {
+            calls.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IllegalStateException("broken");
+        }, INPUT, null, "Foo");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<byte[]> first = executor.submit(job::await);
+            started.await();
+            Future<byte[]> second = executor.submit(job::await);
+            release.countDown();
+
+            ExecutionException ownerFailure = assertThrows(ExecutionException.class, first::get);
+            ExecutionException waiterFailure = assertThrows(ExecutionException.class, second::get);
+            assertInstanceOf(IllegalStateException.class, ownerFailure.getCause());
+            assertInstanceOf(IllegalStateException.class, waiterFailure.getCause());
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testIsFor() {
+        InstrumentationJob job = new InstrumentationJob((buffer, loader, name) -> OUTPUT, INPUT, null, "Foo");
+
+        assertTrue(job.isFor(INPUT));
+        assertTrue(job.isFor(new byte[]{1, 2, 3}));
+        assertFalse(job.isFor(new byte[]{1, 2}));
+    }
+}
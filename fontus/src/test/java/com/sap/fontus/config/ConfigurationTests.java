@@ -1,5 +1,6 @@
 package com.sap.fontus.config;
 
+import com.sap.fontus.asm.FunctionCall;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,6 +11,8 @@ import java.io.PrintStream;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ConfigurationTests {
     private Configuration getConfiguration(String name) {
@@ -44,6 +47,23 @@ class ConfigurationTests {
         assertEquals(config.getPassThroughTaints().size(), 2);
     }
 
+    @Test
+    void testPassThroughTaintLookup() {
+        Configuration config = this.getConfiguration("configuration_passThroughTaints.xml");
+        assertTrue(config.shouldPassThroughTaint(new FunctionCall(184, "com/sap/fontus/taintaware/IASStringUtils", "convertTStringList", "(Ljava/util/List;)Ljava/util/List;", false)));
+        assertFalse(config.shouldPassThroughTaint(new FunctionCall(182, "com/sap/fontus/taintaware/IASStringUtils", "convertTStringList", "(Ljava/util/List;)Ljava/util/List;", false)));
+        assertFalse(config.shouldPassThroughTaint(new FunctionCall(184, "com/sap/fontus/taintaware/IASStringUtils", "convertTStringList", "(Ljava/util/Set;)Ljava/util/Set;", false)));
+    }
+
+    @Test
+    void testLookupAfterAppend() {
+        Configuration config = this.getConfiguration("configuration_propagate_inside_tests.xml");
+        FunctionCall passThrough = new FunctionCall(184, "com/sap/fontus/taintaware/IASStringUtils", "convertStringList", "(Ljava/util/List;)Ljava/util/List;", false);
+        assertFalse(config.shouldPassThroughTaint(passThrough));
+        config.append(this.getConfiguration("configuration_passThroughTaints.xml"));
+        assertTrue(config.shouldPassThroughTaint(passThrough));
+    }
+
     @Test
     void testExcludedPackages() {
         Configuration config = this.getConfiguration("configuration_excluded_packages.xml");
@@ -0,0 +1,73 @@
+package com.sap.fontus.config;
+
+import com.sap.fontus.asm.FunctionCall;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MethodIndexTest {
+
+    @BeforeAll
+    static void init() {
+        Configuration.setTestConfig(TaintMethod.RANGE);
+    }
+
+    private static FunctionCall call(String owner, String name) {
+        return new FunctionCall(182, owner, name, "(Ljava/lang/String;)V", false);
+    }
+
+    @Test
+    void testEntriesAreKeptInOrder() {
+        List<FunctionCall> calls = Arrays.asList(call("a/B", "foo"), call("a/B", "bar"), new FunctionCall(184, "a/B", "foo", "(Ljava/lang/String;)V", false));
+        MethodIndex<FunctionCall> index = new MethodIndex<>(calls, FunctionCall::getOwner, FunctionCall::getName, FunctionCall::getDescriptor);
+
+        List<FunctionCall> found = index.get("a/B", "foo", "(Ljava/lang/String;)V");
+
+        assertEquals(2, found.size());
+        assertEquals(182, found.get(0).getOpcode());
+        assertEquals(184, found.get(1).getOpcode());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void testMissingMethods() {
+        List<FunctionCall> calls = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            calls.add(call("a/B" + i, "foo"));
+        }
+        MethodIndex<FunctionCall> index = new MethodIndex<>(calls, FunctionCall::getOwner, FunctionCall::getName, FunctionCall::getDescriptor);
+
+        for (FunctionCall fc : calls) {
+            assertTrue(index.mightContain(fc.getOwner(), fc.getName(), fc.getDescriptor()));
+        }
+        assertTrue(index.get("a/C", "foo", "(Ljava/lang/String;)V").isEmpty());
+        assertTrue(index.get("a/B1", "foo", "()V").isEmpty());
+    }
+
+    @Test
+    void testEmptyIndex() {
+        MethodIndex<FunctionCall> index = new MethodIndex<>(Collections.emptyList(), FunctionCall::getOwner, FunctionCall::getName, FunctionCall::getDescriptor);
+
+        assertFalse(index.mightContain("a/B", "foo", "()V"));
+        assertTrue(index.get("a/B", "foo", "()V").isEmpty());
+    }
+
+    @Test
+    void testPositionDependentSinks() {
+        Position position = new Position("a/Caller", "run", 42);
+        Sink positional = new Sink("positional", call("a/B", "foo"), Collections.emptyList(), Collections.emptyList(), null, FunctionCall.EmptyFunctionCall, Collections.singletonList(position));
+        SinkConfig sinkConfig = new SinkConfig(new ArrayList<>(Collections.singletonList(positional)));
+
+        assertSame(positional, sinkConfig.getSinkForFunction(call("a/B", "foo"), new Position("a/Caller", "run", 42)));
+        assertNull(sinkConfig.getSinkForFunction(call("a/B", "foo"), new Position("a/Caller", "run", 43)));
+        assertSame(positional, sinkConfig.getSinkForFunction(call("a/B", "foo"), null));
+        assertSame(positional, sinkConfig.getSinkForName("positional"));
+        assertNull(sinkConfig.getSinkForFunction(call("a/B", "bar")));
+    }
+}
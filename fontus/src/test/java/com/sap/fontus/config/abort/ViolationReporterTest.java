@@ -0,0 +1,162 @@
+package com.sap.fontus.config.abort;
+
+import com.sap.fontus.config.Configuration;
+import com.sap.fontus.config.TaintMethod;
+import com.sap.fontus.utils.AsyncWriter;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ViolationReporterTest {
+
+    @TempDir
+    Path directory;
+
+    @BeforeAll
+    static void init() {
+        Configuration.setTestConfig(TaintMethod.RANGE);
+    }
+
+    @Test
+    void testDropWhenFull() throws InterruptedException {
+        GatedOutput output = new GatedOutput();
+        ViolationReporter reporter = new ViolationReporter("drop", output, String::valueOf, 2, BackPressure.DROP);
+        output.stallWriter(reporter);
+
+        reporter.report("a");
+        reporter.report("b");
+        reporter.report("c");
+        reporter.report("d");
+        reporter.report("e");
+        output.open();
+        reporter.close();
+
+        assertEquals(Arrays.asList("stalled", "a", "b", "{\"dropped\":3}"), output.getLines());
+    }
+
+    @Test
+    void testSampleWhenHalfFull() throws InterruptedException {
+        GatedOutput output = new GatedOutput();
+        ViolationReporter reporter = new ViolationReporter("sample", output, String::valueOf, 4, BackPressure.SAMPLE);
+        output.stallWriter(reporter);
+
+        reporter.report("a");
+        reporter.report("b");
+        // The queue is half full, only every SAMPLE_RATEth report is queued
+        for (int i = 1; i <= 2 * AsyncWriter.SAMPLE_RATE; i++) {
+            reporter.report(Integer.toString(i));
+        }
+        output.open();
+        reporter.close();
+
+        List<String> expected = Arrays.asList("stalled", "a", "b", Integer.toString(AsyncWriter.SAMPLE_RATE),
+                Integer.toString(2 * AsyncWriter.SAMPLE_RATE), String.format("{\"dropped\":%d}", 2 * AsyncWriter.SAMPLE_RATE - 2));
+        assertEquals(expected, output.getLines());
+    }
+
+    @Test
+    void testBlockWhenFull() throws InterruptedException {
+        GatedOutput output = new GatedOutput();
+        ViolationReporter reporter = new ViolationReporter("block", output, String::valueOf, 2, BackPressure.BLOCK);
+        output.stallWriter(reporter);
+
+        reporter.report("a");
+        reporter.report("b");
+        Thread blocked = new Thread(() -> reporter.report("c"));
+        blocked.start();
+        blocked.join(200L);
+        assertTrue(blocked.isAlive());
+
+        output.open();
+        blocked.join(TimeUnit.SECONDS.toMillis(10L));
+        assertFalse(blocked.isAlive());
+        reporter.close();
+
+        assertEquals(Arrays.asList("stalled", "a", "b", "c"), output.getLines());
+    }
+
+    @Test
+    void testDrainOnClose() {
+        GatedOutput output = new GatedOutput();
+        output.open();
+        ViolationReporter reporter = new ViolationReporter("close", output, String::valueOf, 100, BackPressure.DROP);
+        for (int i = 0; i < 50; i++) {
+            reporter.report(Integer.toString(i));
+        }
+        reporter.close();
+        assertEquals(50, output.getLines().size());
+
+        // Written directly after closing
+        reporter.report("late");
+        assertEquals("late", output.getLines().get(50));
+    }
+
+    @Test
+    void testRotation() throws IOException {
+        File file = this.directory.resolve("reports.ndjson").toFile();
+        ViolationReporter reporter = new ViolationReporter("rotate", new ViolationReporter.FileOutput(file, 16L), String::valueOf, 100, BackPressure.DROP);
+        reporter.report("0123456789");
+        reporter.report("abcdefghij");
+        reporter.report("klmnopqrst");
+        reporter.close();
+
+        assertEquals(Arrays.asList("0123456789", "abcdefghij"), Files.readAllLines(new File(file.getPath() + ".1").toPath(), StandardCharsets.UTF_8));
+        assertEquals(Collections.singletonList("klmnopqrst"), Files.readAllLines(file.toPath(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Records the lines and lets the writer wait in its first write until it is opened
+     */
+    private static final class GatedOutput implements ViolationReporter.Output {
+        private final List<String> lines = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch writing = new CountDownLatch(1);
+        private final CountDownLatch open = new CountDownLatch(1);
+
+        /**
+         * Queues a report the writer is stuck on, so the following reports stay in the queue
+         */
+        void stallWriter(ViolationReporter reporter) throws InterruptedException {
+            reporter.report("stalled");
+            assertTrue(this.writing.await(10L, TimeUnit.SECONDS));
+        }
+
+        void open() {
+            this.open.countDown();
+        }
+
+        List<String> getLines() {
+            synchronized (this.lines) {
+                return new ArrayList<>(this.lines);
+            }
+        }
+
+        @Override
+        public void write(String line) {
+            this.writing.countDown();
+            try {
+                this.open.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            this.lines.add(line);
+        }
+
+        @Override
+        public void flush() {
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.sap.fontus.config.taintloss;
+
+import com.sap.fontus.config.Configuration;
+import com.sap.fontus.config.TaintMethod;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaintlossAggregatorTest {
+
+    @BeforeAll
+    static void init() {
+        Configuration.setTestConfig(TaintMethod.RANGE);
+    }
+
+    private static final List<StackTraceElement> first = Arrays.asList(
+            new StackTraceElement("a.Lossy", "toCharArray", "Lossy.java", 10),
+            new StackTraceElement("b.Caller", "call", "Caller.java", 20));
+    private static final List<StackTraceElement> second = Arrays.asList(
+            new StackTraceElement("a.Lossy", "toCharArray", "Lossy.java", 10),
+            new StackTraceElement("b.Caller", "call", "Caller.java", 30));
+
+    @Test
+    void testEventsAreCountedPerCallSite() {
+        TaintlossAggregator aggregator = new TaintlossAggregator(summary -> {}, false);
+        aggregator.record(first);
+        aggregator.record(first);
+        aggregator.record(second);
+
+        List<TaintlossSummary> summaries = aggregator.getSummaries();
+        assertEquals(2, summaries.size());
+        long total = summaries.stream().mapToLong(TaintlossSummary::getCount).sum();
+        assertEquals(3L, total);
+        for (TaintlossSummary summary : summaries) {
+            assertEquals(2, summary.getSampleTrace().size());
+        }
+    }
+
+    @Test
+    void testOnlyNewEventsAreWritten() {
+        List<TaintlossSummary> written = new ArrayList<>();
+        TaintlossAggregator aggregator = new TaintlossAggregator(written::add, false);
+        aggregator.record(first);
+        aggregator.record(second);
+        aggregator.writeSummaries();
+        assertEquals(2, written.size());
+
+        written.clear();
+        aggregator.record(first);
+        aggregator.record(first);
+        aggregator.writeSummaries();
+        assertEquals(1, written.size());
+        assertEquals(3L, written.get(0).getCount());
+        assertEquals(2L, written.get(0).getNewCount());
+
+        written.clear();
+        aggregator.writeSummaries();
+        assertTrue(written.isEmpty());
+    }
+}
@@ -2,20 +2,39 @@ package com.sap.fontus.gdpr;
 
 import com.sap.fontus.config.Configuration;
 import com.sap.fontus.config.TaintMethod;
+import com.sap.fontus.gdpr.metadata.AllowedPurpose;
 import com.sap.fontus.gdpr.metadata.GdprMetadata;
 import com.sap.fontus.gdpr.metadata.GdprTaintMetadata;
 import com.sap.fontus.gdpr.metadata.Identifiability;
 import com.sap.fontus.gdpr.metadata.ProtectionLevel;
+import com.sap.fontus.gdpr.metadata.registry.RegistryLinkedPurpose;
+import com.sap.fontus.gdpr.metadata.registry.RegistryLinkedVendor;
+import com.sap.fontus.gdpr.metadata.simple.SimpleAllowedPurpose;
 import com.sap.fontus.gdpr.metadata.simple.SimpleDataId;
 import com.sap.fontus.gdpr.metadata.simple.SimpleDataSubject;
+import com.sap.fontus.gdpr.metadata.simple.SimpleExpiryDate;
 import com.sap.fontus.gdpr.metadata.simple.SimpleGdprMetadata;
+import com.sap.fontus.gdpr.metadata.simple.SimplePurpose;
+import com.sap.fontus.gdpr.metadata.simple.SimpleVendor;
 import com.sap.fontus.sql.driver.Utils;
+import com.sap.fontus.taintaware.shared.IASTaintRange;
+import com.sap.fontus.taintaware.shared.IASTaintSourceRegistry;
 import com.sap.fontus.taintaware.unified.IASString;
+import com.sap.fontus.taintaware.unified.TaintInformationFactory;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 
 class SerializationTests {
 
@@ -87,4 +106,102 @@ class SerializationTests {
         Utils.restoreTaint(restored, json);
         assertTrue(restored.isTainted());
     }
+
+    @Test
+    void testBasicMetadataRanges() {
+        List<IASTaintRange> ranges = Arrays.asList(
+                new IASTaintRange(1, 3, IASTaintSourceRegistry.MD_CS_UNKNOWN_ORIGIN),
+                new IASTaintRange(5, 6, IASTaintSourceRegistry.MD_CHAR_UNKNOWN_ORIGIN),
+                new IASTaintRange(7, 9, IASTaintSourceRegistry.MD_CS_UNKNOWN_ORIGIN));
+        IASString foo = new IASString("foobarbaz", TaintInformationFactory.createTaintInformation(9, ranges));
+        String encoded = Utils.serializeTaints(foo);
+        IASString restored = IASString.fromString("foobarbaz");
+        Utils.restoreTaint(restored, encoded);
+        List<IASTaintRange> restoredRanges = restored.getTaintInformation().getTaintRanges(9).getTaintRanges();
+        assertEquals(ranges, restoredRanges);
+        assertSame(IASTaintSourceRegistry.TS_CS_UNKNOWN_ORIGIN, restoredRanges.get(0).getMetadata().getSource());
+    }
+
+    @Test
+    void testSharedGdprMetadata() {
+        GdprMetadata metadata = new SimpleGdprMetadata(
+                Set.of(),
+                ProtectionLevel.Normal,
+                new SimpleDataSubject("test"),
+                new SimpleDataId(),
+                true,
+                true,
+                Identifiability.NotExplicit);
+        List<IASTaintRange> ranges = Arrays.asList(
+                new IASTaintRange(0, 2, new GdprTaintMetadata(1, metadata)),
+                new IASTaintRange(4, 6, new GdprTaintMetadata(1, metadata)));
+        IASString foo = new IASString("foobar", TaintInformationFactory.createTaintInformation(6, ranges));
+        String encoded = Utils.serializeTaints(foo);
+        IASString restored = IASString.fromString("foobar");
+        Utils.restoreTaint(restored, encoded);
+        assertEquals(2, restored.getTaintInformation().getTaintRanges(6).getTaintRanges().size());
+        assertEquals(encoded, Utils.serializeTaints(restored));
+    }
+
+    @Test
+    void testGdprMetadataFields() {
+        Instant expiry = Instant.ofEpochSecond(1_700_000_000L, 42);
+        Set<AllowedPurpose> purposes = new HashSet<>(Arrays.asList(
+                new SimpleAllowedPurpose(new SimpleExpiryDate(expiry), new SimplePurpose(3, "Shopping", "desc, with comma", "\\legal"), Set.of(new SimpleVendor(7, "acme"))),
+                new SimpleAllowedPurpose(new RegistryLinkedPurpose("Marketing"), Set.of(new RegistryLinkedVendor("ads")))));
+        UUID uuid = UUID.randomUUID();
+        GdprMetadata metadata = new SimpleGdprMetadata(purposes, ProtectionLevel.Sensitive, Arrays.asList(new SimpleDataSubject("a,b"), new SimpleDataSubject("c")),
+                new SimpleDataId(uuid), false, true, Identifiability.Explicit);
+        IASString foo = IASString.fromString("foo");
+        foo.setTaint(new GdprTaintMetadata(IASTaintSourceRegistry.TS_CS_UNKNOWN_ORIGIN, metadata));
+
+        String encoded = Utils.serializeTaints(foo);
+        assertFalse(encoded.contains("@class"));
+        IASString restored = IASString.fromString("foo");
+        Utils.restoreTaint(restored, encoded);
+        GdprTaintMetadata restoredTaint = (GdprTaintMetadata) restored.getTaintInformation().getTaint(0);
+        GdprMetadata restoredMetadata = restoredTaint.getMetadata();
+        assertSame(IASTaintSourceRegistry.TS_CS_UNKNOWN_ORIGIN, restoredTaint.getSource());
+        assertEquals(ProtectionLevel.Sensitive, restoredMetadata.getProtectionLevel());
+        assertEquals(Identifiability.Explicit, restoredMetadata.isIdentifiable());
+        assertFalse(restoredMetadata.isQualifiedForPortability());
+        assertTrue(restoredMetadata.isProcessingUnrestricted());
+        assertEquals(uuid, restoredMetadata.getId().getUUID());
+        assertEquals(metadata.getSubjects(), restoredMetadata.getSubjects());
+        assertEquals(2, restoredMetadata.getAllowedPurposes().size());
+        for (AllowedPurpose allowed : restoredMetadata.getAllowedPurposes()) {
+            if ("Shopping".equals(allowed.getAllowedPurpose().getName())) {
+                assertEquals(new SimplePurpose(3, "Shopping", "desc, with comma", "\\legal"), allowed.getAllowedPurpose());
+                assertEquals(expiry, allowed.getExpiryDate().getDate());
+                assertEquals(Set.of(new SimpleVendor(7, "acme")), allowed.getAllowedVendors());
+            } else {
+                assertInstanceOf(RegistryLinkedPurpose.class, allowed.getAllowedPurpose());
+                assertEquals("Marketing", allowed.getAllowedPurpose().getName());
+                assertFalse(allowed.getExpiryDate().hasExpiry());
+                assertEquals("ads", allowed.getAllowedVendors().iterator().next().getName());
+            }
+        }
+    }
+
+    @Test
+    void testFirstBinaryVersionIsRead() {
+        // length 3, one basic metadata of CharSequenceUnknownOrigin with id 3, one range from 0 to 3
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(3);
+        bytes.write(1);
+        bytes.write(1);
+        byte[] name = "CharSequenceUnknownOrigin".getBytes(StandardCharsets.UTF_8);
+        bytes.write(name.length);
+        bytes.write(name, 0, name.length);
+        bytes.write(6);
+        bytes.write(1);
+        bytes.write(0);
+        bytes.write(3);
+        bytes.write(0);
+        String encoded = "~1" + Base64.getEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+
+        IASString restored = IASString.fromString("foo");
+        Utils.restoreTaint(restored, encoded);
+        assertEquals(Collections.singletonList(new IASTaintRange(0, 3, IASTaintSourceRegistry.MD_CS_UNKNOWN_ORIGIN)), restored.getTaintInformation().getTaintRanges(3).getTaintRanges());
+    }
 }
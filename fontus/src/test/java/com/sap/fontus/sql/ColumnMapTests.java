@@ -0,0 +1,80 @@
+package com.sap.fontus.sql;
+
+import com.sap.fontus.sql.tainter.ColumnMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SuppressWarnings({"JDBCResourceOpenedButNotSafelyClosed", "CallToDriverManagerGetConnection", "SqlResolve"})
+class ColumnMapTests {
+
+    private Connection conn;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        this.conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement stmt = this.conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE contacts ( id INTEGER PRIMARY KEY, `__taint__id` TEXT, first_name TEXT NOT NULL, `__taint__first_name` TEXT);");
+        }
+    }
+
+    @AfterEach
+    void teardown() throws SQLException {
+        this.conn.close();
+    }
+
+    @Test
+    void testIndicesAndLabels() throws SQLException {
+        try (Statement stmt = this.conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, `__taint__id`, first_name, `__taint__first_name` FROM contacts")) {
+            ColumnMap columns = ColumnMap.of(rs.getMetaData());
+            assertEquals(4, columns.getDelegateColumnCount());
+            assertEquals(2, columns.getColumnCount());
+            assertEquals(3, columns.getDataIndex(2));
+            assertEquals(4, columns.getTaintIndex(2));
+            assertEquals("first_name", columns.getLabel(2));
+            assertEquals(2, columns.findColumn("first_name"));
+            assertEquals(2, columns.findColumn("FIRST_NAME"));
+            assertEquals(-1, columns.findColumn("last_name"));
+        }
+    }
+
+    @Test
+    void testInvalidIndexIsLeftToTheDriver() throws SQLException {
+        try (Statement stmt = this.conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, `__taint__id` FROM contacts")) {
+            ColumnMap columns = ColumnMap.of(rs.getMetaData());
+            assertEquals(5, columns.getDataIndex(3));
+            assertEquals(6, columns.getTaintIndex(3));
+        }
+    }
+
+    @Test
+    void testOtherLabelsDoNotMatch() throws SQLException {
+        ColumnMap columns;
+        try (Statement stmt = this.conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT * FROM contacts")) {
+            columns = ColumnMap.of(rs.getMetaData());
+            assertTrue(columns.matches(rs.getMetaData()));
+        }
+        // Same column count, as if the table was altered or the query ran against another schema
+        try (Statement stmt = this.conn.createStatement()) {
+            stmt.executeUpdate("DROP TABLE contacts");
+            stmt.executeUpdate("CREATE TABLE contacts ( id INTEGER PRIMARY KEY, `__taint__id` TEXT, given_name TEXT NOT NULL, `__taint__given_name` TEXT);");
+        }
+        try (Statement stmt = this.conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT * FROM contacts")) {
+            assertFalse(columns.matches(rs.getMetaData()));
+        }
+    }
+}
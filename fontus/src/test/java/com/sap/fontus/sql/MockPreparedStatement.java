@@ -5,11 +5,21 @@ import java.io.Reader;
 import java.math.BigDecimal;
 import java.net.URL;
 import java.sql.*;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @SuppressWarnings("RedundantThrows")
 public class MockPreparedStatement implements PreparedStatement {
     private final PreparedStatement delegate;
+    /**
+     * Bound parameters, cleared by adding a batch row or clearing the batch like e.g. sqlite-jdbc does
+     */
+    private final Map<Integer, Object> parameters = new HashMap<>();
+    private final List<Map<Integer, Object>> batch = new ArrayList<>();
+    private final List<Map<Integer, Object>> executedRows = new ArrayList<>();
     MockPreparedStatement(PreparedStatement delegate, String sql) {
         this.delegate = delegate;
     }
@@ -52,7 +62,7 @@ public class MockPreparedStatement implements PreparedStatement {
 
     @Override
     public void setInt(int parameterIndex, int x) throws SQLException {
-
+        this.parameters.put(parameterIndex, x);
     }
 
     @Override
@@ -77,7 +87,7 @@ public class MockPreparedStatement implements PreparedStatement {
 
     @Override
     public void setString(int parameterIndex, String x) throws SQLException {
-
+        this.parameters.put(parameterIndex, x);
     }
 
     @Override
@@ -117,7 +127,7 @@ public class MockPreparedStatement implements PreparedStatement {
 
     @Override
     public void clearParameters() throws SQLException {
-
+        this.parameters.clear();
     }
 
     @Override
@@ -127,7 +137,7 @@ public class MockPreparedStatement implements PreparedStatement {
 
     @Override
     public void setObject(int parameterIndex, Object x) throws SQLException {
-
+        this.parameters.put(parameterIndex, x);
     }
 
     @Override
@@ -137,7 +147,8 @@ public class MockPreparedStatement implements PreparedStatement {
 
     @Override
     public void addBatch() throws SQLException {
-
+        this.batch.add(new HashMap<>(this.parameters));
+        this.parameters.clear();
     }
 
     @Override
@@ -422,12 +433,23 @@ public class MockPreparedStatement implements PreparedStatement {
 
     @Override
     public void clearBatch() throws SQLException {
-
+        this.batch.clear();
+        this.parameters.clear();
     }
 
     @Override
     public int[] executeBatch() throws SQLException {
-        return new int[0];
+        int[] updated = new int[this.batch.size()];
+        this.executedRows.addAll(this.batch);
+        this.batch.clear();
+        return updated;
+    }
+
+    /**
+     * Parameters of all rows of the executed batches
+     */
+    List<Map<Integer, Object>> getExecutedRows() {
+        return this.executedRows;
     }
 
     @Override
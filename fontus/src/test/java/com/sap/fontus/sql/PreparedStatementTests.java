@@ -465,6 +465,54 @@ class PreparedStatementTests {
         ResultSet rss = ps.executeQuery();
     }
 
+    @Test
+    void testUntaintedColumnsAreBoundForEveryBatchRow() throws Exception {
+        String query = "INSERT INTO contacts VALUES(?, ?, ?, ?, ?)";
+        Connection c = ConnectionWrapper.wrap(new MockConnection(this.conn));
+        PreparedStatement ps = c.prepareStatement(query);
+        MockPreparedStatement mps = ps.unwrap(MockPreparedStatement.class);
+
+        for (int batch = 0; batch < 2; batch++) {
+            for (int row = 0; row < 2; row++) {
+                ps.setInt(1, 10 * batch + row);
+                ps.setString(2, "Test");
+                ps.setString(3, "User");
+                ps.setString(4, String.format("test%d%d@user.com", batch, row));
+                ps.setString(5, String.format("1234%d%d", batch, row));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        assertEquals(4, mps.getExecutedRows().size());
+        for (java.util.Map<Integer, Object> row : mps.getExecutedRows()) {
+            for (int i = 0; i < 5; i++) {
+                // The taint column of each parameter follows its value
+                assertEquals("", row.get((i * 2) + 2));
+            }
+        }
+    }
+
+    @Test
+    void testUntaintedColumnsAreBoundAfterClearBatch() throws Exception {
+        String query = "INSERT INTO meta VALUES(?, ?)";
+        Connection c = ConnectionWrapper.wrap(new MockConnection(this.conn));
+        PreparedStatement ps = c.prepareStatement(query);
+        MockPreparedStatement mps = ps.unwrap(MockPreparedStatement.class);
+
+        ps.setInt(1, 4);
+        ps.setString(2, "baz");
+        ps.clearBatch();
+        ps.setInt(1, 4);
+        ps.setString(2, "baz");
+        ps.addBatch();
+        ps.executeBatch();
+
+        assertEquals(1, mps.getExecutedRows().size());
+        assertEquals("", mps.getExecutedRows().get(0).get(2));
+        assertEquals("", mps.getExecutedRows().get(0).get(4));
+    }
+
     @Test
     void testRidiculousSqlStatement() throws SQLException {
         // This crashes with earlier versions of the SQL Parser
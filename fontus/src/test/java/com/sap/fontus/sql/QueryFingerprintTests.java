@@ -0,0 +1,64 @@
+package com.sap.fontus.sql;
+
+import com.sap.fontus.sql.tainter.QueryFingerprint;
+import com.sap.fontus.sql.tainter.Utils;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryFingerprintTests {
+
+    private static String rewriteViaTemplate(String query) {
+        QueryFingerprint fingerprint = QueryFingerprint.of(query);
+        assertNotNull(fingerprint);
+        QueryFingerprint.Template template = QueryFingerprint.Template.compile(Utils.taintSqlStatement(fingerprint.getTemplate()), fingerprint.getLiteralCount());
+        assertNotNull(template);
+        return template.splice(fingerprint);
+    }
+
+    @Test
+    void testSameTemplateForDifferentLiterals() {
+        QueryFingerprint first = QueryFingerprint.of("SELECT name FROM users WHERE id = 42 AND role = 'admin'");
+        QueryFingerprint second = QueryFingerprint.of("SELECT name FROM users WHERE id = 7 AND role = 'it''s'");
+        assertNotNull(first);
+        assertNotNull(second);
+        assertEquals(first.getTemplate(), second.getTemplate());
+        assertEquals(2, first.getLiteralCount());
+    }
+
+    @Test
+    void testNoLiterals() {
+        assertNull(QueryFingerprint.of("SELECT name FROM users WHERE id = ?"));
+    }
+
+    @Test
+    void testSelectMatchesDirectRewrite() {
+        String query = "SELECT name, 'x' AS tag FROM users WHERE id = 42 AND score > 1.5 LIMIT 10";
+        assertEquals(Utils.taintSqlStatement(query), rewriteViaTemplate(query));
+    }
+
+    @Test
+    void testInsertMatchesDirectRewrite() {
+        String query = "INSERT INTO foo (a, b) VALUES ('hello world', 3), ('it''s', 4)";
+        assertEquals(Utils.taintSqlStatement(query), rewriteViaTemplate(query));
+    }
+
+    @Test
+    void testUpdateMatchesDirectRewrite() {
+        String query = "UPDATE foo SET a = 'bar' /* comment */ WHERE b = -12";
+        assertEquals(Utils.taintSqlStatement(query), rewriteViaTemplate(query));
+    }
+
+    @Test
+    void testLiteralFree() {
+        assertTrue(QueryFingerprint.isLiteralFree("SELECT `a` FROM t WHERE b = ? /* 'comment' */"));
+        assertFalse(QueryFingerprint.isLiteralFree("SELECT a FROM t WHERE b = 'jane'"));
+        assertFalse(QueryFingerprint.isLiteralFree("SELECT a FROM t LIMIT 10"));
+        assertFalse(QueryFingerprint.isLiteralFree("SELECT a FROM t WHERE b = \"jane\""));
+        assertFalse(QueryFingerprint.isLiteralFree("SELECT a FROM t WHERE b = $$jane$$"));
+    }
+}
@@ -0,0 +1,76 @@
+package com.sap.fontus.sql;
+
+import com.sap.fontus.sql.tainter.WriteTarget;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SuppressWarnings("SqlResolve")
+class WriteTargetTests {
+
+    @Test
+    void testInsert() {
+        WriteTarget target = WriteTarget.of("INSERT INTO `contacts` (id, `first_name`, last_name) VALUES (?, 'Jane', ?)");
+        assertEquals("contacts", target.getTable());
+        assertEquals("id", target.getColumn(1));
+        assertEquals("last_name", target.getColumn(2));
+        assertNull(target.getColumn(3));
+    }
+
+    @Test
+    void testInsertMultipleRows() {
+        WriteTarget target = WriteTarget.of("INSERT INTO contacts (first_name, last_name) VALUES (?, ?), (?, ?)");
+        assertEquals("first_name", target.getColumn(1));
+        assertEquals("last_name", target.getColumn(2));
+        assertEquals("first_name", target.getColumn(3));
+        assertEquals("last_name", target.getColumn(4));
+    }
+
+    @Test
+    void testInsertSingleColumn() {
+        WriteTarget target = WriteTarget.of("INSERT INTO contacts (first_name) VALUES (?), (?)");
+        assertEquals("first_name", target.getColumn(1));
+        assertEquals("first_name", target.getColumn(2));
+    }
+
+    @Test
+    void testInsertSelectIsNotMapped() {
+        WriteTarget target = WriteTarget.of("INSERT INTO contacts (first_name) SELECT name FROM people WHERE id = ?");
+        assertEquals("contacts", target.getTable());
+        assertNull(target.getColumn(1));
+    }
+
+    @Test
+    void testUpdate() {
+        WriteTarget target = WriteTarget.of("UPDATE contacts SET first_name = ?, last_name = ? WHERE id = ?");
+        assertEquals("contacts", target.getTable());
+        assertEquals("first_name", target.getColumn(1));
+        assertEquals("last_name", target.getColumn(2));
+        assertNull(target.getColumn(3));
+    }
+
+    @Test
+    void testParametersAfterExpressionAreNotMapped() {
+        WriteTarget target = WriteTarget.of("INSERT INTO contacts (first_name, last_name) VALUES (UPPER(?), ?)");
+        assertNull(target.getColumn(1));
+        assertNull(target.getColumn(2));
+    }
+
+    @Test
+    void testSelectHasNoTarget() {
+        assertNull(WriteTarget.of("SELECT first_name FROM contacts WHERE id = ?"));
+    }
+
+    @Test
+    void testDeleteHasNoTarget() {
+        assertNull(WriteTarget.of("DELETE FROM contacts WHERE id = ?"));
+    }
+
+    @Test
+    void testUnparseableTableIsUnknown() {
+        WriteTarget target = WriteTarget.of("INSERT INTO contacts VALUES (?) ON BOGUS");
+        assertNull(target.getTable());
+        assertNull(target.getColumn(1));
+    }
+}
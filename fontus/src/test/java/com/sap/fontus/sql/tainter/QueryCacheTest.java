@@ -0,0 +1,159 @@
+package com.sap.fontus.sql.tainter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.sap.fontus.config.Configuration;
+import com.sap.fontus.config.TaintMethod;
+import com.sap.fontus.utils.Pair;
+import com.sap.fontus.utils.Utils;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryCacheTest {
+    @TempDir
+    Path folder;
+
+    @BeforeAll
+    static void init() {
+        Configuration.setTestConfig(TaintMethod.RANGE);
+    }
+
+    private static Map<String, Pair<String, QueryParameters>> queries() {
+        Map<String, Pair<String, QueryParameters>> queries = new HashMap<>();
+        queries.put("SELECT a FROM t WHERE b = ?", new Pair<>("SELECT a, `__taint__a` FROM t WHERE b = ?", new QueryParameters(Collections.singletonList(ParameterType.WHERE))));
+        queries.put("INSERT INTO t (a, b) VALUES (?, ?)", new Pair<>("INSERT INTO t (a, `__taint__a`, b, `__taint__b`) VALUES (?, ?, ?, ?)", new QueryParameters(Arrays.asList(ParameterType.ASSIGNMENT, ParameterType.ASSIGNMENT))));
+        return queries;
+    }
+
+    private static Map<String, Optional<Pair<QueryFingerprint.Template, QueryParameters>>> templates() {
+        QueryFingerprint fingerprint = QueryFingerprint.of("SELECT a FROM t WHERE b = 'secret'");
+        QueryFingerprint.Template template = QueryFingerprint.Template.compile(fingerprint.getTemplate().replace("SELECT a", "SELECT a, `__taint__a`"), fingerprint.getLiteralCount());
+        Map<String, Optional<Pair<QueryFingerprint.Template, QueryParameters>>> templates = new HashMap<>();
+        templates.put(fingerprint.getTemplate(), Optional.of(new Pair<>(template, new QueryParameters(Collections.emptyList()))));
+        templates.put("SELECT broken", Optional.empty());
+        return templates;
+    }
+
+    @Test
+    void testSnapshotRoundTrip() throws IOException {
+        Path snapshot = this.folder.resolve("queries.bin");
+        assertEquals(3, QueryCache.writeSnapshot(snapshot, "build-1", queries(), templates()));
+
+        Map<String, Pair<String, QueryParameters>> restored = new HashMap<>();
+        Map<String, Optional<Pair<QueryFingerprint.Template, QueryParameters>>> restoredTemplates = new HashMap<>();
+        assertTrue(QueryCache.readSnapshot(snapshot, "build-1", restored, restoredTemplates));
+
+        assertEquals(queries().keySet(), restored.keySet());
+        for (Map.Entry<String, Pair<String, QueryParameters>> query : queries().entrySet()) {
+            assertEquals(query.getValue().x, restored.get(query.getKey()).x);
+            assertEquals(query.getValue().y.getTypes(), restored.get(query.getKey()).y.getTypes());
+        }
+        assertEquals(3, restored.get("INSERT INTO t (a, b) VALUES (?, ?)").y.computeAssignment(2).getNewIndex());
+        assertFalse(Files.exists(this.folder.resolve("queries.bin.tmp")));
+
+        // Templates which can't be used are not written
+        assertEquals(1, restoredTemplates.size());
+        QueryFingerprint fingerprint = QueryFingerprint.of("SELECT a FROM t WHERE b = 'other'");
+        assertEquals("SELECT a, `__taint__a` FROM t WHERE b = 'other'", restoredTemplates.get(fingerprint.getTemplate()).get().x.splice(fingerprint));
+    }
+
+    @Test
+    void testQueriesWithLiteralsAreNotWritten() throws IOException {
+        Path snapshot = this.folder.resolve("queries.bin");
+        Map<String, Pair<String, QueryParameters>> queries = queries();
+        queries.put("SELECT a FROM t WHERE b = 'jane.doe@example.com'", new Pair<>("SELECT a, `__taint__a` FROM t WHERE b = 'jane.doe@example.com'", new QueryParameters(Collections.emptyList())));
+        queries.put("SELECT a FROM t WHERE b = 4711", new Pair<>("SELECT a, `__taint__a` FROM t WHERE b = 4711", new QueryParameters(Collections.emptyList())));
+        queries.put("SELECT a FROM t WHERE b = \"jane\"", new Pair<>("SELECT a, `__taint__a` FROM t WHERE b = \"jane\"", new QueryParameters(Collections.emptyList())));
+        assertEquals(2, QueryCache.writeSnapshot(snapshot, "build-1", queries, new HashMap<>()));
+
+        String contents = new String(Files.readAllBytes(snapshot), StandardCharsets.UTF_8);
+        assertFalse(contents.contains("jane"));
+        assertFalse(contents.contains("4711"));
+    }
+
+    @Test
+    void testSnapshotOfOtherBuildIsIgnored() throws IOException {
+        Path snapshot = this.folder.resolve("queries.bin");
+        QueryCache.writeSnapshot(snapshot, "build-1", queries(), templates());
+
+        Map<String, Pair<String, QueryParameters>> restored = new HashMap<>();
+        assertFalse(QueryCache.readSnapshot(snapshot, "build-2", restored, new HashMap<>()));
+        assertTrue(restored.isEmpty());
+    }
+
+    @Test
+    void testSnapshotOfOtherFormatIsIgnored() throws IOException {
+        Path snapshot = this.folder.resolve("queries.bin");
+        Map<String, Pair<String, QueryParameters>> restored = new HashMap<>();
+
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(snapshot))) {
+            out.writeInt(0x12345678);
+            out.writeInt(1);
+            out.writeUTF("build-1");
+            out.writeInt(0);
+        }
+        assertFalse(QueryCache.readSnapshot(snapshot, "build-1", restored, new HashMap<>()));
+
+        QueryCache.writeSnapshot(snapshot, "build-1", queries(), templates());
+        byte[] bytes = Files.readAllBytes(snapshot);
+        // The format version follows the magic
+        bytes[7]++;
+        Files.write(snapshot, bytes);
+        assertFalse(QueryCache.readSnapshot(snapshot, "build-1", restored, new HashMap<>()));
+        assertTrue(restored.isEmpty());
+    }
+
+    @Test
+    void testTruncatedSnapshotFails() throws IOException {
+        Path snapshot = this.folder.resolve("queries.bin");
+        QueryCache.writeSnapshot(snapshot, "build-1", queries(), templates());
+        byte[] bytes = Files.readAllBytes(snapshot);
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length - 3));
+
+        Map<String, Pair<String, QueryParameters>> restored = new HashMap<>();
+        Map<String, Optional<Pair<QueryFingerprint.Template, QueryParameters>>> restoredTemplates = new HashMap<>();
+        assertThrows(IOException.class, () -> QueryCache.readSnapshot(snapshot, "build-1", restored, restoredTemplates));
+        // The queries read before the snapshot ended are not added either
+        assertTrue(restored.isEmpty());
+        assertTrue(restoredTemplates.isEmpty());
+    }
+
+    @Test
+    void testEvictsByQueryLength() {
+        Cache<String, Pair<String, QueryParameters>> cache = QueryCache.newQueryCache(1000L);
+        char[] padding = new char[40];
+        Arrays.fill(padding, ' ');
+        for (int i = 0; i < 10; i++) {
+            // 2 * (50 + 50) bytes each
+            String query = String.format("SELECT %03d", i) + new String(padding);
+            cache.put(query, new Pair<>(query.replace("SELECT", "select"), new QueryParameters(Collections.emptyList())));
+        }
+        cache.cleanUp();
+
+        assertTrue(cache.estimatedSize() <= 5);
+        assertTrue(cache.stats().evictionCount() >= 5);
+        long weight = cache.policy().eviction().get().weightedSize().getAsLong();
+        assertTrue(weight <= 1000L);
+    }
+
+    @Test
+    void testBuildIdentifier() {
+        String identifier = Utils.buildIdentifier();
+
+        assertFalse(identifier.isEmpty());
+        assertEquals(identifier, Utils.buildIdentifier());
+    }
+}
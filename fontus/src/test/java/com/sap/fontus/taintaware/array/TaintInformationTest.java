@@ -105,6 +105,27 @@ class TaintInformationTest {
         assertArrayEquals(new IASTaintMetadata[]{md2, md1, md1, md1, md2}, ti.getTaints());
     }
 
+    @Test
+    void testCopyOnWrite() {
+        IASTaintInformation ti = new IASTaintInformation(new IASTaintMetadata[]{md1, md1, md1});
+
+        IASTaintInformation copy = ti.copy();
+        copy.setTaint(0, 1, md2);
+        ti.clearTaint(2, 3);
+
+        assertArrayEquals(new IASTaintMetadata[]{md1, md1, md0}, ti.getTaints());
+        assertArrayEquals(new IASTaintMetadata[]{md2, md1, md1}, copy.getTaints());
+    }
+
+    @Test
+    void testKnownUntainted() {
+        IASTaintInformation ti = new IASTaintInformation(3);
+        assertTrue(ti.isKnownUntainted());
+
+        ti.setTaint(1, 2, md1);
+        assertFalse(ti.isKnownUntainted());
+    }
+
     @Test
     void testGetTaint1() {
         IASTaintInformation ti = new IASTaintInformation(0);
@@ -0,0 +1,231 @@
+package com.sap.fontus.taintaware.interval;
+
+import com.sap.fontus.config.Configuration;
+import com.sap.fontus.config.TaintMethod;
+import com.sap.fontus.taintaware.shared.IASBasicMetadata;
+import com.sap.fontus.taintaware.shared.IASTaintMetadata;
+import com.sap.fontus.taintaware.shared.IASTaintRange;
+import com.sap.fontus.taintaware.shared.IASTaintSourceRegistry;
+import com.sap.fontus.taintaware.unified.IASTaintInformationable;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaintInformationTest {
+
+    @BeforeAll
+    static void init() {
+        Configuration.setTestConfig(TaintMethod.INTERVAL);
+    }
+
+    private static final IASTaintMetadata md1 = new IASBasicMetadata(IASTaintSourceRegistry.getInstance().getOrRegisterObject("dummy"));
+    private static final IASTaintMetadata md2 = new IASBasicMetadata(IASTaintSourceRegistry.getInstance().getOrRegisterObject("dummy2"));
+    private static final IASTaintMetadata md3 = new IASBasicMetadata(IASTaintSourceRegistry.getInstance().getOrRegisterObject("dummy3"));
+
+    private static List<IASTaintRange> ranges(IASTaintInformation ti) {
+        return ti.getTaintRanges().getTaintRanges();
+    }
+
+    @Test
+    void testSetTaint() {
+        IASTaintInformation ti = new IASTaintInformation(5);
+
+        ti.setTaint(1, 4, md1);
+
+        assertTrue(ti.isTainted());
+        assertEquals(Collections.singletonList(new IASTaintRange(1, 4, md1)), ranges(ti));
+        assertNull(ti.getTaint(0));
+        assertEquals(md1, ti.getTaint(3));
+        assertNull(ti.getTaint(4));
+    }
+
+    @Test
+    void testSetTaintClampedToLength() {
+        IASTaintInformation ti = new IASTaintInformation(3);
+
+        ti.setTaint(1, 10, md1);
+
+        assertEquals(Collections.singletonList(new IASTaintRange(1, 3, md1)), ranges(ti));
+    }
+
+    @Test
+    void testSetTaintSplitsExistingRange() {
+        IASTaintInformation ti = new IASTaintInformation(10);
+
+        ti.setTaint(0, 10, md1);
+        ti.setTaint(3, 6, md2);
+
+        assertEquals(Arrays.asList(new IASTaintRange(0, 3, md1), new IASTaintRange(3, 6, md2), new IASTaintRange(6, 10, md1)), ranges(ti));
+    }
+
+    @Test
+    void testSetTaintMergesAdjacentRanges() {
+        IASTaintInformation ti = new IASTaintInformation(10);
+
+        ti.setTaint(0, 3, md1);
+        ti.setTaint(6, 10, md1);
+        ti.setTaint(3, 6, md1);
+
+        assertEquals(Collections.singletonList(new IASTaintRange(0, 10, md1)), ranges(ti));
+    }
+
+    @Test
+    void testClearTaint() {
+        IASTaintInformation ti = new IASTaintInformation(10);
+
+        ti.setTaint(0, 10, md1);
+        ti.clearTaint(2, 4);
+
+        assertEquals(Arrays.asList(new IASTaintRange(0, 2, md1), new IASTaintRange(4, 10, md1)), ranges(ti));
+        assertEquals(10, ti.getLength());
+    }
+
+    @Test
+    void testDeleteWithShift() {
+        IASTaintInformation ti = new IASTaintInformation(10);
+
+        ti.setTaint(0, 2, md1);
+        ti.setTaint(4, 6, md2);
+        ti.setTaint(8, 10, md1);
+        ti.deleteWithShift(2, 8);
+
+        assertEquals(Collections.singletonList(new IASTaintRange(0, 4, md1)), ranges(ti));
+        assertEquals(4, ti.getLength());
+    }
+
+    @Test
+    void testInsertWithShiftIntoRange() {
+        IASTaintInformation ti = new IASTaintInformation(4);
+        ti.setTaint(0, 4, md1);
+        IASTaintInformation insertion = new IASTaintInformation(2);
+        insertion.setTaint(0, 2, md2);
+
+        ti.insertWithShift(2, insertion);
+
+        assertEquals(Arrays.asList(new IASTaintRange(0, 2, md1), new IASTaintRange(2, 4, md2), new IASTaintRange(4, 6, md1)), ranges(ti));
+        assertEquals(6, ti.getLength());
+    }
+
+    @Test
+    void testInsertUntaintedRestoresSplit() {
+        IASTaintInformation ti = new IASTaintInformation(4);
+        ti.setTaint(0, 4, md1);
+
+        ti.insertWithShift(2, new IASTaintInformation(0));
+
+        assertEquals(Collections.singletonList(new IASTaintRange(0, 4, md1)), ranges(ti));
+    }
+
+    @Test
+    void testAppend() {
+        IASTaintInformation ti = new IASTaintInformation(0);
+        for (int i = 0; i < 100; i++) {
+            IASTaintInformation insertion = new IASTaintInformation(1);
+            insertion.setTaint(0, 1, i % 2 == 0 ? md1 : md2);
+            ti.insertWithShift(ti.getLength(), insertion);
+        }
+
+        assertEquals(100, ti.getLength());
+        assertEquals(100, ti.getRangeCount());
+        assertEquals(md1, ti.getTaint(98));
+        assertEquals(md2, ti.getTaint(99));
+    }
+
+    @Test
+    void testSlice() {
+        IASTaintInformation ti = new IASTaintInformation(10);
+        ti.setTaint(2, 5, md1);
+        ti.setTaint(7, 9, md2);
+
+        IASTaintInformation sliced = (IASTaintInformation) ti.slice(3, 8);
+
+        assertEquals(5, sliced.getLength());
+        assertEquals(Arrays.asList(new IASTaintRange(0, 2, md1), new IASTaintRange(4, 5, md2)), ranges(sliced));
+        assertFalse(((IASTaintInformation) ti.slice(5, 5)).isTainted());
+    }
+
+    @Test
+    void testReversed() {
+        IASTaintInformation ti = new IASTaintInformation(10);
+        ti.setTaint(0, 2, md1);
+        ti.setTaint(5, 6, md2);
+        ti.setTaint(7, 10, md3);
+
+        ti.reversed();
+
+        assertEquals(Arrays.asList(new IASTaintRange(0, 3, md3), new IASTaintRange(4, 5, md2), new IASTaintRange(8, 10, md1)), ranges(ti));
+    }
+
+    @Test
+    void testResize() {
+        IASTaintInformation ti = new IASTaintInformation(10);
+        ti.setTaint(2, 5, md1);
+        ti.setTaint(7, 9, md2);
+
+        ti.resize(3);
+
+        assertEquals(Collections.singletonList(new IASTaintRange(2, 3, md1)), ranges(ti));
+        assertEquals(3, ti.getLength());
+    }
+
+    @Test
+    void testCopyIsIndependent() {
+        IASTaintInformation ti = new IASTaintInformation(5);
+        ti.setTaint(0, 5, md1);
+
+        IASTaintInformationable copy = ti.copy();
+        copy.clearTaint(0, 5);
+
+        assertTrue(ti.isTainted());
+        assertFalse(copy.isTainted());
+    }
+
+    @Test
+    void testMatchesArrayTaintInformation() {
+        IASTaintMetadata[] metadata = {md1, md2, md3};
+        Random random = new Random(42);
+        for (int run = 0; run < 500; run++) {
+            int length = random.nextInt(20);
+            IASTaintInformationable interval = new IASTaintInformation(length);
+            IASTaintInformationable array = new com.sap.fontus.taintaware.array.IASTaintInformation(length);
+            for (int op = 0; op < 15; op++) {
+                int current = interval.getLength();
+                int start = random.nextInt(current + 1);
+                int end = start + random.nextInt(current - start + 1);
+                switch (random.nextInt(5)) {
+                    case 0:
+                        IASTaintMetadata md = metadata[random.nextInt(metadata.length)];
+                        interval.setTaint(start, end, md);
+                        array.setTaint(start, end, md);
+                        break;
+                    case 1:
+                        interval.deleteWithShift(start, end);
+                        array.deleteWithShift(start, end);
+                        break;
+                    case 2:
+                        interval.clearTaint(start, end);
+                        array.clearTaint(start, end);
+                        break;
+                    case 3:
+                        interval.insertWithShift(start, interval.slice(start, end));
+                        array.insertWithShift(start, array.slice(start, end));
+                        break;
+                    default:
+                        interval.reversed();
+                        array.reversed();
+                        break;
+                }
+                assertEquals(array.getLength(), interval.getLength());
+                for (int i = 0; i < interval.getLength(); i++) {
+                    assertEquals(array.getTaint(i), interval.getTaint(i));
+                }
+            }
+        }
+    }
+}
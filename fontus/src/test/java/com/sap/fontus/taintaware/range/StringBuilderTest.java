@@ -69,6 +69,26 @@ class StringBuilderTest {
         assertThat(this.foo.toIASString(), TaintMatcher.taintUninitialized());
     }
 
+    @Test
+    void append_untaintedKeepsUninitialized() {
+        IASString initializedButUntainted = new IASString("bar");
+        initializedButUntainted.initialize();
+
+        this.foo.append(new IASString("bar")).append(initializedButUntainted).append(42);
+
+        assertThat(this.foo.toString(), is("foobarbar42"));
+        assertThat(this.foo, TaintMatcher.taintUninitialized());
+    }
+
+    @Test
+    void append_untaintedDropsEmptyTaint() {
+        THelper.get(this.foo);
+
+        this.foo.append(new IASString("bar"));
+
+        assertThat(this.foo, TaintMatcher.taintUninitialized());
+    }
+
     @Test
     void setLength_1() {
         IASStringBuilder sb = new IASStringBuilder("Hello World!");
@@ -0,0 +1,50 @@
+package com.sap.fontus.taintaware.shared;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IASCopyOnWriteTest {
+
+    @Test
+    void testWritableCopiesSharedStorage() {
+        IASCopyOnWrite<int[]> original = new IASCopyOnWrite<>(new int[]{1, 2});
+        IASCopyOnWrite<int[]> copy = original.share();
+        assertSame(original.get(), copy.get());
+        assertTrue(original.isShared());
+
+        IASCopyOnWrite<int[]> written = copy.writable(int[]::clone);
+        assertNotSame(original.get(), written.get());
+        assertArrayEquals(original.get(), written.get());
+        assertFalse(original.isShared());
+        assertSame(original, original.writable(int[]::clone));
+    }
+
+    @Test
+    void testReleasedOwnerIsNotCounted() {
+        IASCopyOnWrite<int[]> original = new IASCopyOnWrite<>(new int[]{1, 2});
+        IASCopyOnWrite<int[]> copy = original.share();
+        copy.release();
+        assertFalse(original.isShared());
+        // Releasing twice must not release the share of another owner
+        copy.release();
+        IASCopyOnWrite<int[]> other = original.share();
+        assertTrue(original.isShared());
+        other.release();
+    }
+
+    @Test
+    void testDroppedOwnerCostsOneCopy() {
+        IASCopyOnWrite<int[]> original = new IASCopyOnWrite<>(new int[]{1, 2});
+        shareAndDrop(original);
+        assertTrue(original.isShared());
+        IASCopyOnWrite<int[]> written = original.writable(int[]::clone);
+        assertNotSame(original, written);
+        assertFalse(written.isShared());
+        assertSame(written, written.writable(int[]::clone));
+    }
+
+    private static void shareAndDrop(IASCopyOnWrite<int[]> original) {
+        original.share();
+    }
+}
@@ -0,0 +1,73 @@
+package com.sap.fontus.taintaware.unified;
+
+import com.sap.fontus.config.Configuration;
+import com.sap.fontus.config.TaintMethod;
+import com.sap.fontus.taintaware.shared.IASTaintRange;
+import com.sap.fontus.taintaware.shared.IASTaintSourceRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IASLazyTaintInformationTest {
+    private final AtomicInteger decodings = new AtomicInteger();
+    private final IASTaintInformationable decoded = TaintInformationFactory.createTaintInformation(6,
+            Collections.singletonList(new IASTaintRange(0, 3, IASTaintSourceRegistry.MD_CS_UNKNOWN_ORIGIN)));
+    private final Supplier<IASTaintInformationable> decoder = () -> {
+        this.decodings.incrementAndGet();
+        return this.decoded;
+    };
+
+    @BeforeAll
+    static void init() {
+        Configuration.setTestConfig(TaintMethod.RANGE);
+    }
+
+    @Test
+    void testNotDecodedUntilInspected() {
+        IASString string = IASString.fromString("foobar");
+        string.setTaint(new IASLazyTaintInformation(6, this.decoder));
+
+        IASString copy = new IASString(string);
+        assertSame(IASLazyTaintInformation.class, copy.getTaintInformation().getClass());
+        assertEquals(0, this.decodings.get());
+
+        assertTrue(string.isTaintedAt(2));
+        assertFalse(string.isTaintedAt(3));
+        assertEquals(1, this.decodings.get());
+    }
+
+    @Test
+    void testDecodedTaintIsNotModified() {
+        IASString string = IASString.fromString("foobar");
+        string.setTaint(new IASLazyTaintInformation(6, this.decoder));
+
+        IASString concatenated = IASString.fromString("baz").concat(string);
+        string.setTaint(string.getTaintInformation().clearTaint(0, 6));
+
+        assertFalse(string.isTainted());
+        assertTrue(concatenated.isTaintedAt(3));
+        assertFalse(concatenated.isTaintedAt(0));
+        assertTrue(this.decoded.isTainted());
+    }
+
+    @Test
+    void testLengthDoesNotDecode() {
+        IASLazyTaintInformation lazy = new IASLazyTaintInformation(6, this.decoder);
+
+        assertEquals(6, lazy.getLength());
+        assertEquals(0, this.decodings.get());
+    }
+
+    @Test
+    void testUntaintedDecoding() {
+        IASLazyTaintInformation lazy = new IASLazyTaintInformation(6, () -> null);
+
+        assertFalse(lazy.isTainted());
+        assertEquals(6, lazy.getLength());
+    }
+}
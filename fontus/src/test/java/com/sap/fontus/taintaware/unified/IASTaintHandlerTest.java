@@ -91,4 +91,34 @@ class IASTaintHandlerTest {
         assertTrue(result instanceof List);
     }
 
+    @Test
+    void testEqualObjectsAreTaintedSeparately() {
+        List<IASString> list = new ArrayList<>();
+        list.add(new IASString("same"));
+        list.add(new IASString("same"));
+
+        IASTaintHandler.taint(list, null, null, 1, "foo");
+
+        assertTrue(list.get(0).isTainted());
+        assertTrue(list.get(1).isTainted());
+    }
+
+    static class B extends A {
+        private final int count = 1;
+        private final Integer boxed = 2;
+
+        B(IASString string) {
+            super(string);
+        }
+    }
+
+    @Test
+    void testRecursiveTaintInheritedField() {
+        IASString string = new IASString("test");
+
+        IASTaintHandler.taint(new B(string), null, null, 1, "foo");
+
+        assertTrue(string.isTainted());
+        assertEquals(2, TraversalPlan.of(B.class).getGetters().length);
+    }
 }
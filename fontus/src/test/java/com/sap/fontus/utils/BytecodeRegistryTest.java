@@ -0,0 +1,130 @@
+package com.sap.fontus.utils;
+
+import com.sap.fontus.config.Configuration;
+import com.sap.fontus.config.TaintMethod;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BytecodeRegistryTest {
+    private static final String NAME = Utils.getInternalName(BytecodeRegistryTest.class);
+    private static final byte[] DATA = {1, 2, 3};
+
+    @BeforeAll
+    static void init() {
+        Configuration.setTestConfig(TaintMethod.RANGE);
+    }
+
+    @Test
+    void testGetClassData() {
+        BytecodeRegistry registry = new BytecodeRegistry(1);
+        registry.addClassData(NAME, DATA);
+
+        assertArrayEquals(DATA, registry.getClassData(NAME).get());
+        assertArrayEquals(DATA, registry.getClassData(NAME.replace('/', '.')).get());
+        assertFalse(registry.getClassData("com/sap/fontus/DoesNotExist").isPresent());
+    }
+
+    @Test
+    void testDefinedClassIsKeptUntilEvicted() {
+        BytecodeRegistry registry = new BytecodeRegistry(1);
+        registry.addClassData(NAME, DATA);
+
+        registry.markDefined(NAME, DATA, BytecodeRegistryTest.class.getClassLoader());
+
+        assertArrayEquals(DATA, registry.getClassData(NAME).get());
+        assertEquals(0L, registry.getReloadCount());
+    }
+
+    @Test
+    void testEvictedClassIsReloadedFromLoader() {
+        BytecodeRegistry registry = new BytecodeRegistry(1);
+        ClassLoader loader = BytecodeRegistryTest.class.getClassLoader();
+        registry.addClassData(NAME, DATA);
+        registry.markDefined(NAME, DATA, loader);
+
+        registry.getModifiableBytecodeCache().remove(NAME);
+        registry.evictDefinedClasses();
+        assertFalse(registry.getClassData(NAME).isPresent());
+        // Child loaders delegate to the defining loader
+        Optional<byte[]> reloaded = registry.getClassData(NAME, new URLClassLoader(new URL[0], loader));
+
+        assertTrue(reloaded.isPresent());
+        // The real class file, not the registered dummy bytes
+        assertEquals(0xCAFEBABE, ((reloaded.get()[0] & 0xFF) << 24) | ((reloaded.get()[1] & 0xFF) << 16) | ((reloaded.get()[2] & 0xFF) << 8) | (reloaded.get()[3] & 0xFF));
+        assertEquals(1L, registry.getReloadCount());
+    }
+
+    @Test
+    void testOriginIsKeyedByLoader() {
+        BytecodeRegistry registry = new BytecodeRegistry(1);
+        registry.addClassData(NAME, DATA);
+        registry.markDefined(NAME, DATA, BytecodeRegistryTest.class.getClassLoader());
+
+        registry.getModifiableBytecodeCache().remove(NAME);
+        registry.evictDefinedClasses();
+
+        assertFalse(registry.getClassData(NAME, new URLClassLoader(new URL[0], null)).isPresent());
+        assertEquals(0L, registry.getReloadCount());
+    }
+
+    @Test
+    void testGeneratedClassIsKeptWhileLoaderIsAlive() {
+        BytecodeRegistry registry = new BytecodeRegistry(1);
+        String generated = "com/sap/fontus/Generated$$Proxy";
+        ClassLoader loader = new URLClassLoader(new URL[0], BytecodeRegistryTest.class.getClassLoader());
+        registry.addClassData(generated, DATA);
+
+        registry.markDefined(generated, DATA, loader);
+        registry.getModifiableBytecodeCache().remove(generated);
+        registry.evictDefinedClasses();
+
+        assertArrayEquals(DATA, registry.getClassData(generated, loader).get());
+        assertArrayEquals(DATA, registry.getClassData(generated, new URLClassLoader(new URL[0], loader)).get());
+        assertFalse(registry.getClassData(generated, BytecodeRegistryTest.class.getClassLoader()).isPresent());
+    }
+
+    @Test
+    void testClassFileIsOnlyLookedUpOnEviction() {
+        BytecodeRegistry registry = new BytecodeRegistry(1);
+        CountingLoader loader = new CountingLoader(BytecodeRegistryTest.class.getClassLoader());
+        registry.addClassData(NAME, DATA);
+
+        registry.markDefined(NAME, DATA, loader);
+        assertArrayEquals(DATA, registry.getClassData(NAME, loader).get());
+        assertEquals(0, loader.lookups);
+
+        registry.evictDefinedClasses();
+        assertEquals(1, loader.lookups);
+    }
+
+    @Test
+    void testDefinedClassWithoutLoaderIsKept() {
+        BytecodeRegistry registry = new BytecodeRegistry(1);
+        registry.addClassData(NAME, DATA);
+
+        registry.markDefined(NAME, DATA, null);
+
+        assertArrayEquals(DATA, registry.getClassData(NAME).get());
+        assertEquals(0L, registry.getReloadCount());
+    }
+
+    private static final class CountingLoader extends ClassLoader {
+        private int lookups;
+
+        private CountingLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        public URL getResource(String name) {
+            this.lookups++;
+            return super.getResource(name);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.sap.fontus.utils;
+
+import com.sap.fontus.config.Configuration;
+import com.sap.fontus.config.TaintMethod;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheArchiveTest {
+    @TempDir
+    Path folder;
+
+    @BeforeAll
+    static void init() {
+        Configuration.setTestConfig(TaintMethod.RANGE);
+    }
+
+    private static CacheArchive.Key key(int i) {
+        byte[] digest = new byte[CacheArchive.Key.SIZE];
+        ByteBuffer.wrap(digest).putInt(i);
+        return new CacheArchive.Key(digest);
+    }
+
+    private static byte[] bytes(int length, int value) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) (value + i);
+        }
+        return bytes;
+    }
+
+    @Test
+    void testPutAndGet() throws IOException {
+        try (CacheArchive archive = new CacheArchive(this.folder, 1024 * 1024)) {
+            archive.put(key(1), bytes(100, 1));
+
+            assertTrue(archive.contains(key(1)));
+            assertArrayEquals(bytes(100, 1), archive.get(key(1)));
+            assertNull(archive.get(key(2)));
+        }
+    }
+
+    @Test
+    void testReopenUsesIndex() throws IOException {
+        try (CacheArchive archive = new CacheArchive(this.folder, 1024 * 1024)) {
+            archive.put(key(1), bytes(100, 1));
+            archive.put(key(2), bytes(200, 2));
+        }
+        assertTrue(Files.isRegularFile(this.folder.resolve(CacheArchive.INDEX_FILE_NAME)));
+
+        try (CacheArchive archive = new CacheArchive(this.folder, 1024 * 1024)) {
+            assertEquals(2, archive.size());
+            assertArrayEquals(bytes(100, 1), archive.get(key(1)));
+            assertArrayEquals(bytes(200, 2), archive.get(key(2)));
+        }
+    }
+
+    @Test
+    void testRecoversEntriesMissingInIndex() throws IOException {
+        try (CacheArchive archive = new CacheArchive(this.folder, 1024 * 1024)) {
+            archive.put(key(1), bytes(100, 1));
+        }
+        Path index = this.folder.resolve(CacheArchive.INDEX_FILE_NAME);
+        byte[] indexBytes = Files.readAllBytes(index);
+        try (CacheArchive archive = new CacheArchive(this.folder, 1024 * 1024)) {
+            archive.put(key(2), bytes(50, 2));
+        }
+        // Simulate a crash before the index was written
+        Files.write(index, indexBytes);
+
+        try (CacheArchive archive = new CacheArchive(this.folder, 1024 * 1024)) {
+            assertEquals(2, archive.size());
+            assertArrayEquals(bytes(50, 2), archive.get(key(2)));
+        }
+    }
+
+    @Test
+    void testTruncatedRecordIsDropped() throws IOException {
+        try (CacheArchive archive = new CacheArchive(this.folder, 1024 * 1024)) {
+            archive.put(key(1), bytes(100, 1));
+            archive.put(key(2), bytes(100, 2));
+        }
+        Files.delete(this.folder.resolve(CacheArchive.INDEX_FILE_NAME));
+        Path data = this.folder.resolve(CacheArchive.DATA_FILE_NAME);
+        try (FileChannel channel = FileChannel.open(data, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 10);
+        }
+
+        try (CacheArchive archive = new CacheArchive(this.folder, 1024 * 1024)) {
+            assertEquals(1, archive.size());
+            assertArrayEquals(bytes(100, 1), archive.get(key(1)));
+            assertNull(archive.get(key(2)));
+        }
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsed() throws IOException {
+        try (CacheArchive archive = new CacheArchive(this.folder, 1000)) {
+            archive.put(key(1), bytes(250, 1));
+            archive.put(key(2), bytes(250, 2));
+            archive.put(key(3), bytes(250, 3));
+            archive.get(key(1));
+            archive.put(key(4), bytes(250, 4));
+
+            assertFalse(archive.contains(key(2)));
+            assertTrue(archive.contains(key(1)));
+            assertTrue(archive.contains(key(4)));
+            assertTrue(archive.getStoredBytes() <= 1000);
+            assertTrue(archive.getEvictions() > 0);
+        }
+    }
+
+    @Test
+    void testCompactsEvictedEntries() throws IOException {
+        Path data = this.folder.resolve(CacheArchive.DATA_FILE_NAME);
+        try (CacheArchive archive = new CacheArchive(this.folder, 1000)) {
+            for (int i = 0; i < 20; i++) {
+                archive.put(key(i), bytes(200, i));
+                assertTrue(archive.getFileBytes() <= 1000);
+                assertArrayEquals(bytes(200, i), archive.get(key(i)));
+            }
+            assertTrue(Files.size(data) <= 1000);
+            assertEquals(archive.getStoredBytes() + 8, archive.getFileBytes());
+        }
+
+        try (CacheArchive archive = new CacheArchive(this.folder, 1000)) {
+            assertTrue(Files.size(data) <= 1000);
+            assertArrayEquals(bytes(200, 19), archive.get(key(19)));
+        }
+    }
+
+    @Test
+    void testCompactionDoesNotInvalidateRead() throws IOException {
+        try (CacheArchive archive = new CacheArchive(this.folder, 1000)) {
+            archive.put(key(1), bytes(200, 1));
+            archive.put(key(2), bytes(200, 2));
+            archive.put(key(3), bytes(200, 3));
+            archive.get(key(1));
+            archive.put(key(4), bytes(200, 4));
+            long before = archive.getFileBytes();
+            archive.put(key(5), bytes(200, 5));
+            assertTrue(archive.getFileBytes() < before);
+            // Entries which survived the compaction are read from the new data file
+            assertArrayEquals(bytes(200, 1), archive.get(key(1)));
+            assertArrayEquals(bytes(200, 4), archive.get(key(4)));
+            assertArrayEquals(bytes(200, 5), archive.get(key(5)));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.sap.fontus.utils;
+
+import com.sap.fontus.config.Configuration;
+import com.sap.fontus.config.TaintMethod;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageTemplateTest {
+
+    @BeforeAll
+    static void init() {
+        Configuration.setTestConfig(TaintMethod.RANGE);
+    }
+
+    @Test
+    void testPlaceholdersAreReplaced() {
+        assertEquals("Tainting class: a/B", MessageTemplate.of("Tainting class: {}").format("a/B"));
+        assertEquals("1 <- 2 implements: 3", MessageTemplate.of("{} <- {} implements: {}").format(1, 2, 3));
+        assertEquals("a, b, c, d", MessageTemplate.of("{}, {}, {}, {}").format("a", "b", "c", "d"));
+    }
+
+    @Test
+    void testQuotesAreKept() {
+        assertEquals("Suggested file 'x' does not exist!", MessageTemplate.of("Suggested file '{}' does not exist!").format("x"));
+    }
+
+    @Test
+    void testArgumentCountMismatch() {
+        assertEquals("Failed to write class file", MessageTemplate.of("Failed to write class file").format(new Exception()));
+        assertEquals("a 1 {} b", MessageTemplate.of("a {} {} b").format(1));
+        assertEquals("null", MessageTemplate.of("{}").format((Object) null));
+    }
+
+    @Test
+    void testLevels() {
+        assertTrue(LogLevel.DEBUG.includes(LogLevel.ERROR));
+        assertTrue(LogLevel.INFO.includes(LogLevel.INFO));
+        assertFalse(LogLevel.WARN.includes(LogLevel.INFO));
+        assertEquals(LogLevel.WARN, LogLevel.parse("warn"));
+        assertNull(LogLevel.parse("trace"));
+    }
+}
@@ -0,0 +1,53 @@
+package com.sap.fontus.utils;
+
+import com.sap.fontus.config.Configuration;
+import com.sap.fontus.config.TaintMethod;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StackCaptureTest {
+
+    @BeforeAll
+    static void init() {
+        Configuration.setTestConfig(TaintMethod.RANGE);
+    }
+
+    private static List<StackTraceElement> captureHere() {
+        return StackCapture.captureBelow(StackCapture.class);
+    }
+
+    @Test
+    void testCaptureStartsAtCaller() {
+        List<StackTraceElement> stack = captureHere();
+        assertEquals(StackCaptureTest.class.getName(), stack.get(0).getClassName());
+        assertEquals("captureHere", stack.get(0).getMethodName());
+        assertTrue(stack.size() <= Configuration.getConfiguration().getStackDepth());
+    }
+
+    @Test
+    void testCaptureExcludesPrefix() {
+        List<StackTraceElement> stack = StackCapture.captureExcluding(StackCaptureTest.class.getName());
+        for (StackTraceElement element : stack) {
+            assertFalse(element.getClassName().startsWith(StackCaptureTest.class.getName()));
+        }
+    }
+
+    @Test
+    void testOccurrencesAreCountedPerCallSite() {
+        long first = 0L;
+        long last = 0L;
+        for (int i = 0; i < 3; i++) {
+            long occurrence = StackCapture.countOccurrence(captureHere());
+            if (i == 0) {
+                first = occurrence;
+            }
+            last = occurrence;
+        }
+        assertEquals(first + 2L, last);
+        assertEquals(StackCapture.CALL_SITE_FRAMES, StackCapture.callSiteFrames(captureHere()).size());
+    }
+}
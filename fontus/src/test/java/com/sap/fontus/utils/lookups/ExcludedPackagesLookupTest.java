@@ -0,0 +1,100 @@
+package com.sap.fontus.utils.lookups;
+
+import com.sap.fontus.config.Configuration;
+import com.sap.fontus.config.TaintMethod;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExcludedPackagesLookupTest {
+
+    @BeforeAll
+    static void init() {
+        Configuration.setTestConfig(TaintMethod.RANGE);
+    }
+
+    @Test
+    void testPrefixTrie() {
+        PrefixTrie trie = new PrefixTrie(Arrays.asList("sun/misc/", "sun/", "com/sun/proxy", "org/jacoco"));
+
+        assertTrue(trie.matchesPrefixOf("sun/misc/Unsafe"));
+        assertTrue(trie.matchesPrefixOf("sun/nio/Foo"));
+        assertTrue(trie.matchesPrefixOf("com/sun/proxy$Proxy1"));
+        assertTrue(trie.matchesPrefixOf("org/jacoco"));
+        assertFalse(trie.matchesPrefixOf("org/jacocx/Foo"));
+        assertFalse(trie.matchesPrefixOf("sun"));
+        assertFalse(trie.matchesPrefixOf("com/sun/"));
+        assertFalse(trie.matchesPrefixOf(""));
+        assertFalse(new PrefixTrie(Collections.emptyList()).matchesPrefixOf("sun/misc/Unsafe"));
+    }
+
+    @Test
+    void testAddedPackageIsExcluded() {
+        assertFalse(ExcludedPackagesLookup.isExcludedPackage("com/example/lookup/Foo"));
+
+        Configuration.getConfiguration().addExcludedPackage("com/example/lookup/");
+
+        assertTrue(ExcludedPackagesLookup.isExcludedPackage("com/example/lookup/Foo"));
+        assertFalse(ExcludedPackagesLookup.isExcludedClass("com/example/lookup/Foo"));
+    }
+
+    @Test
+    void testAddedClassIsExcludedWithInnerClasses() {
+        assertFalse(ExcludedPackagesLookup.isExcludedClass("com/example/other/Bar$Inner"));
+
+        Configuration.getConfiguration().addExcludedClass("com/example/other/Bar");
+
+        assertTrue(ExcludedPackagesLookup.isExcludedClass("com/example/other/Bar"));
+        assertTrue(ExcludedPackagesLookup.isExcludedClass("com/example/other/Bar$Inner"));
+        assertFalse(ExcludedPackagesLookup.isExcludedClass("com/example/other/Barrier"));
+        assertFalse(ExcludedPackagesLookup.isExcludedPackage("com/example/other/Bar"));
+    }
+
+    @Test
+    void testExcludedNestedClass() {
+        Configuration.getConfiguration().addExcludedClass("com/example/nested/Outer$Inner");
+        Configuration.getConfiguration().addExcludedClass("com/example/nested/Generated$$Proxy");
+
+        assertTrue(ExcludedPackagesLookup.isExcludedClass("com/example/nested/Outer$Inner"));
+        assertTrue(ExcludedPackagesLookup.isExcludedClass("com/example/nested/Outer$Inner$1"));
+        assertFalse(ExcludedPackagesLookup.isExcludedClass("com/example/nested/Outer"));
+        assertFalse(ExcludedPackagesLookup.isExcludedClass("com/example/nested/Outer$Other"));
+        assertTrue(ExcludedPackagesLookup.isExcludedClass("com/example/nested/Generated$$Proxy"));
+        assertFalse(ExcludedPackagesLookup.isExcludedClass("com/example/nested/Generated"));
+    }
+
+    @Test
+    void testAddedClassesAreExcludedWhileOthersRebuild() throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread reader = new Thread(() -> {
+                int n = 0;
+                while (running.get()) {
+                    ExcludedPackagesLookup.isExcludedClass("com/example/race/Reader" + n++);
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+        try {
+            for (int i = 0; i < 200; i++) {
+                String name = "com/example/race/Added" + i;
+                Configuration.getConfiguration().addExcludedClass(name);
+                assertTrue(ExcludedPackagesLookup.isExcludedClass(name));
+            }
+        } finally {
+            running.set(false);
+            for (Thread reader : readers) {
+                reader.join();
+            }
+        }
+    }
+}
@@ -620,7 +620,7 @@ if __name__ == "__main__":
                             help="Runs all tests in safe mode.")
     ARG_PARSER.add_argument("--config", default=CONFIG_FILE)
     ARG_PARSER.add_argument("--taint_type", choices=['boolean', 'range',
-                                                     'array', 'lazybasic', 'lazycomplex'],
+                                                     'array', 'lazybasic', 'lazycomplex', 'interval'],
                             default='boolean')
 
     asyncio.run(main(ARG_PARSER.parse_args()))
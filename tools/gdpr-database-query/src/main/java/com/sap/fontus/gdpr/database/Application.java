@@ -78,6 +78,29 @@ public class Application implements Callable<Void> {
     )
     private String catalog;
 
+    @CommandLine.Option(
+            names = {"-t", "--threads"},
+            paramLabel = "Threads",
+            description = "Number of tables processed concurrently",
+            defaultValue = "1"
+    )
+    private int threads;
+
+    @CommandLine.Option(
+            names = {"-f", "--fetch-size"},
+            paramLabel = "Fetch size",
+            description = "Number of rows fetched from the database at once, 0 streams rows one by one",
+            defaultValue = "1000"
+    )
+    private int fetchSize;
+
+    public int getThreads() {
+        return this.threads;
+    }
+
+    public int getFetchSize() {
+        return this.fetchSize;
+    }
 
     public static void main(String[] args) {
         new CommandLine(new Application())
@@ -2,97 +2,234 @@ package com.sap.fontus.gdpr.database;
 
 import com.sap.fontus.config.Configuration;
 import com.sap.fontus.config.TaintMethod;
+import com.sap.fontus.sql.driver.TaintIndex;
 import com.sap.fontus.sql.driver.Utils;
 import com.sap.fontus.taintaware.unified.IASTaintInformationable;
 
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 
+/**
+ * Walks all rows of all tables of a catalog and reports the columns to an {@link InformationGatherer}.
+ * <p>
+ * Rows are fetched in chunks of the fetch size via server side cursors (or streamed, if the fetch size is 0),
+ * so tables don't have to fit into memory. With more than one thread, tables are processed concurrently,
+ * each with its own connection and its own gatherer, and the taints are decoded on the worker threads.
+ * <p>
+ * If the application recorded its taints in a {@link TaintIndex}, only the tables the index lists are processed. If it
+ * lists an unknown table, or data might have been written before the index was enabled, all tables are processed,
+ * the listed ones first.
+ */
 public class Processor {
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+
     private final String userName;
     private final String password;
     private final String catalog;
     private final String connectionString;
 
-    private final InformationGatherer gatherer;
+    private final Supplier<? extends InformationGatherer> gatherers;
+    private final int threads;
+    private final int fetchSize;
+    // Null if all tables are processed
+    private Set<String> restrictedTables;
+    private Set<String> prioritizedTables = new HashSet<>();
 
     public Processor(String host, String userName, String password, String catalog, InformationGatherer gatherer) {
+        this(host, userName, password, catalog, () -> gatherer, 1, DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * @param gatherers Creates the gatherer for a table, has to return a new instance for each table if threads is larger than 1
+     * @param threads   Number of tables processed concurrently
+     * @param fetchSize Number of rows fetched at once, 0 streams the rows one by one
+     */
+    public Processor(String host, String userName, String password, String catalog, Supplier<? extends InformationGatherer> gatherers, int threads, int fetchSize) {
         Configuration.setTestConfig(TaintMethod.RANGE);
         this.userName = userName;
         this.password = password;
         this.catalog = catalog;
-        this.connectionString = String.format("jdbc:mysql://%s/%s?useUnicode=true&characterEncoding=UTF-8", host, this.catalog);
+        String cursorFetch = fetchSize > 0 ? "&useCursorFetch=true" : "";
+        this.connectionString = String.format("jdbc:mysql://%s/%s?useUnicode=true&characterEncoding=UTF-8%s", host, this.catalog, cursorFetch);
+
+        this.gatherers = gatherers;
+        this.threads = Math.max(1, threads);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Processes the tables with these names before all others
+     */
+    public void prioritizeTables(Collection<String> tables) {
+        this.prioritizedTables = new HashSet<>(tables);
+    }
+
+    /**
+     * Only processes the tables with these names
+     */
+    public void restrictToTables(Collection<String> tables) {
+        this.restrictedTables = new HashSet<>(tables);
+    }
+
+    /**
+     * Processes the tables listed in the taint index first, and only those if the index is complete
+     *
+     * @param scanAll Whether the index might be incomplete, as data was written before it was enabled
+     */
+    public void useIndex(Set<String> indexed, boolean scanAll) {
+        this.prioritizeTables(indexed);
+        if (!scanAll && !indexed.contains(TaintIndex.UNKNOWN)) {
+            this.restrictToTables(indexed);
+        }
+    }
+
+    /**
+     * Reads the tables listed in the taint index, e.g. with the condition {@code subject = ?}
+     */
+    public Set<String> findIndexedTables(String indexTable, String condition, Object value) throws SQLException {
+        Set<String> tables = new HashSet<>();
+        try (Connection conn = this.connect();
+             PreparedStatement ps = conn.prepareStatement(String.format("SELECT DISTINCT table_name FROM %s WHERE %s", indexTable, condition))) {
+            ps.setObject(1, value);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    tables.add(rs.getString(1));
+                }
+            }
+        }
+        return tables;
+    }
 
-        this.gatherer = gatherer;
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(this.connectionString, this.userName, this.password);
     }
 
     public void run() throws SQLException {
-        try (Connection conn = DriverManager.getConnection(this.connectionString, this.userName, this.password)
-        ) {
+        try (Connection conn = this.connect()) {
             //System.out.println("connected");
-            DatabaseMetaData metaData = conn.getMetaData();
-            ResultSet tables = metaData.getTables(this.catalog, null, null, new String[]{"TABLE"/*, "VIEW"*/});
-
-            /*ResultSetMetaData rsm = tables.getMetaData();
-            for(int i = 0; i < rsm.getColumnCount(); i++) {
-                System.out.println(rsm.getColumnName(i+1));
-            }*/
-
-
-            while (tables.next()) {
-
-                String cat = tables.getString(1);
-                String schema = tables.getString(2);
-                String name = tables.getString(3);
-                String type = tables.getString(4);
-                //System.out.printf("%s.%s.%s - %s%n", cat, schema, name, type);
-                int size = getTableSize(conn, cat, name);
-                this.gatherer.beginTable(cat, name);
-                this.gatherer.tableSize(size);
-                this.processTable(conn, cat, name);
-                this.gatherer.endTable();
+            List<String[]> tables = this.getTables(conn);
+            if (this.threads == 1) {
+                for (String[] table : tables) {
+                    this.processTable(conn, table[0], table[1]);
+                }
+            } else {
+                this.runConcurrently(tables);
             }
             //System.out.println("done");
         }
     }
 
-    private int getTableSize(Connection conn, String catalog, String table) {
-        int size = -1;
+    private List<String[]> getTables(Connection conn) throws SQLException {
+        List<String[]> tables = new ArrayList<>();
+        DatabaseMetaData metaData = conn.getMetaData();
+        try (ResultSet rs = metaData.getTables(this.catalog, null, null, new String[]{"TABLE"/*, "VIEW"*/})) {
+            while (rs.next()) {
+                String cat = rs.getString(1);
+                String name = rs.getString(3);
+                //System.out.printf("%s.%s.%s - %s%n", cat, rs.getString(2), name, rs.getString(4));
+                if (this.restrictedTables == null || this.restrictedTables.contains(name)) {
+                    tables.add(new String[]{cat, name});
+                }
+            }
+        }
+        // Stable, so the remaining tables keep their order
+        tables.sort(Comparator.comparing(table -> !this.prioritizedTables.contains(table[1])));
+        return tables;
+    }
+
+    private void runConcurrently(List<String[]> tables) throws SQLException {
+        ExecutorService pool = Executors.newFixedThreadPool(this.threads);
         try {
-            PreparedStatement ps = conn.prepareStatement("SELECT (DATA_LENGTH + INDEX_LENGTH) AS SIZE FROM information_schema.TABLES WHERE TABLE_SCHEMA=? AND TABLE_NAME=?");
+            List<Future<Void>> results = new ArrayList<>(tables.size());
+            for (String[] table : tables) {
+                results.add(pool.submit(() -> {
+                    // Streamed result sets occupy their connection until they are closed
+                    try (Connection conn = this.connect()) {
+                        this.processTable(conn, table[0], table[1]);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while processing tables", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw new SQLException("Error while processing tables", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void processTable(Connection conn, String catalog, String table) throws SQLException {
+        InformationGatherer gatherer = this.gatherers.get();
+        int size = getTableSize(conn, catalog, table);
+        gatherer.beginTable(catalog, table);
+        gatherer.tableSize(size);
+        this.processRows(conn, gatherer, catalog, table);
+        gatherer.endTable();
+    }
+
+    private static int getTableSize(Connection conn, String catalog, String table) {
+        int size = -1;
+        try (PreparedStatement ps = conn.prepareStatement("SELECT (DATA_LENGTH + INDEX_LENGTH) AS SIZE FROM information_schema.TABLES WHERE TABLE_SCHEMA=? AND TABLE_NAME=?")) {
             ps.setString(1, catalog);
             ps.setString(2, table);
-            ResultSet rs = ps.executeQuery();
-            rs.next();
-            size = rs.getInt("SIZE");
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                size = rs.getInt("SIZE");
+            }
         } catch (SQLException e) {
             System.out.println("Exception computing table size: " + e.getMessage());
         }
         return size;
     }
 
-    private void processTable(Connection conn, String catalog, String table) throws SQLException {
-        try (PreparedStatement ps = conn.prepareStatement(String.format("SELECT * from %s.%s", catalog, table)); ResultSet rs = ps.executeQuery()) {
-            ResultSetMetaData metaData = ps.getMetaData();
-            int columnCount = metaData.getColumnCount();
-            assert columnCount % 2 == 0;
-            int row = 0;
-            while (rs.next()) {
-                row++;
-                this.gatherer.nextRow();
+    private void processRows(Connection conn, InformationGatherer gatherer, String catalog, String table) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(String.format("SELECT * from %s.%s", catalog, table), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            // MySQL only streams the rows for this special value
+            ps.setFetchSize(this.fetchSize > 0 ? this.fetchSize : Integer.MIN_VALUE);
+            try (ResultSet rs = ps.executeQuery()) {
+                ResultSetMetaData metaData = rs.getMetaData();
+                int columnCount = metaData.getColumnCount();
+                assert columnCount % 2 == 0;
+                // Resolved once per table instead of once per cell
+                String[] columnNames = new String[columnCount + 1];
+                String[] columnTypes = new String[columnCount + 1];
                 for (int i = 2; i <= columnCount; i += 2) {
                     String columnName = metaData.getColumnName(i);
                     if (!columnName.startsWith("__taint__")) {
                         throw new IllegalStateException(String.format("In %s.%s the column %s at index %d is not a taint column!%n", catalog, table, columnName, i));
                     }
-                    int columnIndex = i - 1;
-                    String originalColumnName = metaData.getColumnName(columnIndex);
-                    String taintValue = rs.getString(i);
-                    String columnType = metaData.getColumnTypeName(columnIndex);
-                    if (taintValue == null || "0".equals(taintValue)) {
-                        this.gatherer.untaintedColumn(columnIndex, originalColumnName, columnType,  rs.getObject(columnIndex));
-                    } else {
-                        IASTaintInformationable tis = Utils.parseTaint(taintValue);
-                        this.gatherer.taintedColumn(columnIndex, originalColumnName, columnType, rs.getString(columnIndex), tis);
+                    columnNames[i - 1] = metaData.getColumnName(i - 1);
+                    columnTypes[i - 1] = metaData.getColumnTypeName(i - 1);
+                }
+                while (rs.next()) {
+                    gatherer.nextRow();
+                    for (int i = 2; i <= columnCount; i += 2) {
+                        int columnIndex = i - 1;
+                        String taintValue = rs.getString(i);
+                        if (taintValue == null || "0".equals(taintValue)) {
+                            gatherer.untaintedColumn(columnIndex, columnNames[columnIndex], columnTypes[columnIndex], rs.getObject(columnIndex));
+                        } else {
+                            IASTaintInformationable tis = Utils.parseTaint(taintValue);
+                            gatherer.taintedColumn(columnIndex, columnNames[columnIndex], columnTypes[columnIndex], rs.getString(columnIndex), tis);
+                        }
                     }
                 }
             }
@@ -4,6 +4,7 @@ import com.sap.fontus.gdpr.database.Application;
 import com.sap.fontus.gdpr.database.Processor;
 import picocli.CommandLine;
 
+import java.util.Set;
 import java.util.concurrent.Callable;
 
 @CommandLine.Command(name = "sar", description = "Subject Access Request")
@@ -23,9 +24,26 @@ public class SubjectAccessRequest implements Callable<Void> {
     )
     private String id;
 
+    @CommandLine.Option(
+            names = {"--index-table"},
+            paramLabel = "Index Table",
+            description = "Taint index table of the application, only the tables it lists for the subject are scanned"
+    )
+    private String indexTable;
+
+    @CommandLine.Option(
+            names = {"--scan-all"},
+            description = "Also scan the tables not listed in the index table, e.g. because data was written before the index was enabled"
+    )
+    private boolean scanAll;
+
     @Override
     public Void call() throws java.sql.SQLException {
-        Processor processor = new Processor(this.parent.getHost(), this.parent.getUsername(), this.parent.getPassword(), this.parent.getCatalog(), new SubjectAccessRequestGatherer(this.id));
+        Processor processor = new Processor(this.parent.getHost(), this.parent.getUsername(), this.parent.getPassword(), this.parent.getCatalog(), () -> new SubjectAccessRequestGatherer(this.id), this.parent.getThreads(), this.parent.getFetchSize());
+        if (this.indexTable != null) {
+            Set<String> indexed = processor.findIndexedTables(this.indexTable, "subject = ?", this.id);
+            processor.useIndex(indexed, this.scanAll);
+        }
         processor.run();
         return null;
     }
@@ -4,17 +4,19 @@ import com.sap.fontus.gdpr.database.Application;
 import com.sap.fontus.gdpr.database.Processor;
 import picocli.CommandLine;
 
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 
 @CommandLine.Command(name = "size", description = "Collect Table Sizes")
 public class DataSize implements Callable<Void> {
 
     @Override
     public Void call() throws java.sql.SQLException {
-        DataSizeGatherer gatherer = new DataSizeGatherer();
-        Processor statisticsProcessor = new Processor(this.parent.getHost(), this.parent.getUsername(), this.parent.getPassword(), this.parent.getCatalog(),  gatherer);
+        Map<String, Integer> sizes = new ConcurrentHashMap<>();
+        Processor statisticsProcessor = new Processor(this.parent.getHost(), this.parent.getUsername(), this.parent.getPassword(), this.parent.getCatalog(), () -> new DataSizeGatherer(sizes), this.parent.getThreads(), this.parent.getFetchSize());
         statisticsProcessor.run();
-        gatherer.printStatistics();
+        DataSizeGatherer.printStatistics(sizes);
         return null;
     }
 
@@ -4,14 +4,18 @@ package com.sap.fontus.gdpr.database.data;
 import com.sap.fontus.gdpr.database.AbstractInformationGatherer;
 import com.sap.fontus.taintaware.unified.IASTaintInformationable;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
 
 class DataSizeGatherer extends AbstractInformationGatherer {
 
-    private Map<String, Integer> sizeMap = new HashMap<>();
+    private final Map<String, Integer> sizeMap;
+
+    /**
+     * @param sizeMap Collects the sizes, shared by the gatherers of all tables
+     */
+    DataSizeGatherer(Map<String, Integer> sizeMap) {
+        this.sizeMap = sizeMap;
+    }
 
     @Override
     public void beginTable(String catalog, String table) {
@@ -42,10 +46,10 @@ class DataSizeGatherer extends AbstractInformationGatherer {
     public void untaintedColumn(int index, String name, String type, Object value) {
     }
 
-    public void printStatistics() {
-        int total = 0;
-        for (String key: this.sizeMap.keySet()) {
-            int rowSize = this.sizeMap.get(key);
+    public static void printStatistics(Map<String, Integer> sizeMap) {
+        long total = 0;
+        for (String key: sizeMap.keySet()) {
+            int rowSize = sizeMap.get(key);
             // System.out.println(key + ": " + rowSize);
             if (rowSize > 0) {
                 total += rowSize;
@@ -20,7 +20,7 @@ public class DefaultValues  implements Callable<Void> {
 
     @Override
     public Void call() throws java.sql.SQLException {
-        Processor processor = new Processor(this.parent.getHost(), this.parent.getUsername(), this.parent.getPassword(), this.parent.getCatalog(), new DefaultValueGatherer(this.id));
+        Processor processor = new Processor(this.parent.getHost(), this.parent.getUsername(), this.parent.getPassword(), this.parent.getCatalog(), () -> new DefaultValueGatherer(this.id), this.parent.getThreads(), this.parent.getFetchSize());
         processor.run();
         return null;
     }
@@ -4,6 +4,7 @@ import com.sap.fontus.gdpr.database.Application;
 import com.sap.fontus.gdpr.database.Processor;
 import picocli.CommandLine;
 
+import java.util.Set;
 import java.util.concurrent.Callable;
 
 @CommandLine.Command(name = "expired", description = "Collect Expired Data")
@@ -11,9 +12,27 @@ public class ExpiredData implements Callable<Void> {
     @CommandLine.ParentCommand
     private Application parent;
 
+    @CommandLine.Option(
+            names = {"--index-table"},
+            paramLabel = "Index Table",
+            description = "Taint index table of the application, only the tables it lists with expiring data are scanned"
+    )
+    private String indexTable;
+
+    @CommandLine.Option(
+            names = {"--scan-all"},
+            description = "Also scan the tables not listed in the index table, e.g. because data was written before the index was enabled"
+    )
+    private boolean scanAll;
+
     @Override
     public Void call() throws java.sql.SQLException {
-        Processor processor = new Processor(this.parent.getHost(), this.parent.getUsername(), this.parent.getPassword(), this.parent.getCatalog(), new ExpiredTaintColumnGatherer());
+        Processor processor = new Processor(this.parent.getHost(), this.parent.getUsername(), this.parent.getPassword(), this.parent.getCatalog(), ExpiredTaintColumnGatherer::new, this.parent.getThreads(), this.parent.getFetchSize());
+        if (this.indexTable != null) {
+            long threshold = new ExpiredTaintColumnGatherer().getThreshold().getEpochSecond();
+            Set<String> indexed = processor.findIndexedTables(this.indexTable, "expiry <= ?", threshold);
+            processor.useIndex(indexed, this.scanAll);
+        }
         processor.run();
         return null;
     }
@@ -24,6 +24,10 @@ class ExpiredTaintColumnGatherer extends AbstractInformationGatherer {
         this.now = Instant.now().plus(this.days, ChronoUnit.DAYS);
     }
 
+    Instant getThreshold() {
+        return this.now;
+    }
+
     @Override
     public void taintedColumn(int index, String name, String type, String value, IASTaintInformationable taintInformation) {
         if (Utils.isDataExpired(taintInformation, this.now)) {
@@ -4,17 +4,19 @@ import com.sap.fontus.gdpr.database.Application;
 import com.sap.fontus.gdpr.database.Processor;
 import picocli.CommandLine;
 
+import java.util.Collection;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 @CommandLine.Command(name = "stats", description = "Collect Statistics")
 public class Statistics implements Callable<Void> {
 
     @Override
     public Void call() throws java.sql.SQLException {
-        StatisticsGatherer gatherer = new StatisticsGatherer();
-        Processor statisticsProcessor = new Processor(this.parent.getHost(), this.parent.getUsername(), this.parent.getPassword(), this.parent.getCatalog(),  gatherer);
+        Collection<TableStatistics> tableStatistics = new ConcurrentLinkedQueue<>();
+        Processor statisticsProcessor = new Processor(this.parent.getHost(), this.parent.getUsername(), this.parent.getPassword(), this.parent.getCatalog(), () -> new StatisticsGatherer(tableStatistics), this.parent.getThreads(), this.parent.getFetchSize());
         statisticsProcessor.run();
-        gatherer.printStatistics();
+        StatisticsGatherer.printStatistics(tableStatistics);
         return null;
     }
 
@@ -6,11 +6,20 @@ import com.sap.fontus.taintaware.unified.IASTaintInformationable;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
 
 class StatisticsGatherer extends AbstractInformationGatherer {
-    private final Collection<TableStatistics> tableStatistics = new ArrayList<>();
+    private final Collection<TableStatistics> tableStatistics;
     private TableStatistics currentTable = null;
 
+    /**
+     * @param tableStatistics Collects the finished tables, shared by the gatherers of all tables
+     */
+    StatisticsGatherer(Collection<TableStatistics> tableStatistics) {
+        this.tableStatistics = tableStatistics;
+    }
+
     @Override
     public void beginTable(String catalog, String table) {
         super.beginTable(catalog, table);
@@ -47,8 +56,11 @@ class StatisticsGatherer extends AbstractInformationGatherer {
         this.currentTable.incrementUntainted();
     }
 
-    public void printStatistics() {
-        for (TableStatistics statistics : this.tableStatistics) {
+    public static void printStatistics(Collection<TableStatistics> tableStatistics) {
+        // Tables processed concurrently finish in any order
+        List<TableStatistics> sorted = new ArrayList<>(tableStatistics);
+        sorted.sort(Comparator.comparing(TableStatistics::getCatalog).thenComparing(TableStatistics::getName));
+        for (TableStatistics statistics : sorted) {
             statistics.printTableStatistics();
         }
     }
@@ -1,34 +1,84 @@
 package com.sap.fontus.gdpr.database.statistics;
 
-import java.util.ArrayList;
-import java.util.Collection;
-
 class TableStatistics {
 
     private final String catalog;
     private final String name;
-    private final Collection<RowStatistics> rowStats = new ArrayList<>();
     private RowStatistics currentRow = null;
+    private int total = 0;
+    private int hasTainted = 0;
+    private int oneThird = 0;
+    private int half = 0;
+    private int twoThirds = 0;
+    private int all = 0;
+    private int oneThirdString = 0;
+    private int halfString = 0;
+    private int twoThirdsString = 0;
+    private int allString = 0;
 
     TableStatistics(String catalog, String name) {
         this.catalog = catalog;
         this.name = name;
     }
 
+    String getCatalog() {
+        return this.catalog;
+    }
+
+    String getName() {
+        return this.name;
+    }
+
     void nextRow() {
         if (this.currentRow != null) {
-            this.rowStats.add(this.currentRow);
+            this.addRow(this.currentRow);
         }
         this.currentRow = new RowStatistics();
     }
 
     void endTable() {
         if (this.currentRow != null) {
-            this.rowStats.add(this.currentRow);
+            this.addRow(this.currentRow);
         }
         this.currentRow = null;
     }
 
+    /**
+     * Rows are only counted, so the memory needed does not grow with the table size
+     */
+    private void addRow(RowStatistics row) {
+        this.total++;
+        if (row.getTainted() > 0) {
+            this.hasTainted++;
+            double perc = row.taintedPercentage();
+            if (perc > 99.0) {
+                this.all++;
+            }
+            if (perc > 66.6) {
+                this.twoThirds++;
+            }
+            if (perc > 50.0) {
+                this.half++;
+            }
+            if (perc > 33.3) {
+                this.oneThird++;
+            }
+            double stringPerc = row.taintedPercentageStringColumns();
+            if (stringPerc > 99.0) {
+                this.allString++;
+            }
+            if (stringPerc > 66.6) {
+                this.twoThirdsString++;
+            }
+            if (stringPerc > 50.0) {
+                this.halfString++;
+            }
+            if (stringPerc > 33.3) {
+                this.oneThirdString++;
+            }
+        }
+    }
+
     void incrementTainted() {
         this.currentRow.incrementTainted();
     }
@@ -42,66 +92,24 @@ class TableStatistics {
     }
 
     void printTableStatistics() {
-        int total = this.rowStats.size();
-        if(total == 0) {
+        if(this.total == 0) {
             return;
         }
-        int hasTainted = 0;
-        int oneThird = 0;
-        int half = 0;
-        int twoThirds = 0;
-        int all = 0;
-        int oneThirdString = 0;
-        int halfString = 0;
-        int twoThirdsString = 0;
-        int allString = 0;
-        for (RowStatistics row : this.rowStats) {
-            if (row.getTainted() > 0) {
-                hasTainted++;
-                double perc = row.taintedPercentage();
-                if (perc > 99.0) {
-                    all++;
-                }
-                if (perc > 66.6) {
-                    twoThirds++;
-                }
-                if (perc > 50.0) {
-                    half++;
-                }
-                if (perc > 33.3) {
-                    oneThird++;
-                }
-                double stringPerc = row.taintedPercentageStringColumns();
-                if (stringPerc > 99.0) {
-                    allString++;
-                }
-                if (stringPerc > 66.6) {
-                    twoThirdsString++;
-                }
-                if (stringPerc > 50.0) {
-                    halfString++;
-                }
-                if (stringPerc > 33.3) {
-                    oneThirdString++;
-                }
-            }
-        }
-
-        if (hasTainted == 0) {
-            System.out.printf("%s.%s has no rows (of %d) with tainted values!%n", this.catalog, this.name, total);
+        if (this.hasTainted == 0) {
+            System.out.printf("%s.%s has no rows (of %d) with tainted values!%n", this.catalog, this.name, this.total);
         } else {
-            System.out.printf("%s.%s has %d rows (of %d) with tainted values!%n", this.catalog, this.name, hasTainted, total);
-            if(oneThirdString > 0) {
-                System.out.printf("\tRows with > 33.3%% of tainted String values: %d (Total: %d)%n", oneThirdString, oneThird);
+            System.out.printf("%s.%s has %d rows (of %d) with tainted values!%n", this.catalog, this.name, this.hasTainted, this.total);
+            if(this.oneThirdString > 0) {
+                System.out.printf("\tRows with > 33.3%% of tainted String values: %d (Total: %d)%n", this.oneThirdString, this.oneThird);
             }
-            if(halfString > 0) {
-                System.out.printf("\tRows with > 50%% of tainted String values: %d (Total: %d)%n", halfString, half);
+            if(this.halfString > 0) {
+                System.out.printf("\tRows with > 50%% of tainted String values: %d (Total: %d)%n", this.halfString, this.half);
             }
-            if(twoThirdsString > 0) {
-                System.out.printf("\tRows with > 66.6%% of tainted String values: %d (Total: %d)%n", twoThirdsString, twoThirds);
+            if(this.twoThirdsString > 0) {
+                System.out.printf("\tRows with > 66.6%% of tainted String values: %d (Total: %d)%n", this.twoThirdsString, this.twoThirds);
             }
-            if(allString > 0) {
-                System.out.printf("\tRows with > 99.0%% of tainted String values: %d (Total: %d)%n", allString, all);
+            if(this.allString > 0) {
+                System.out.printf("\tRows with > 99.0%% of tainted String values: %d (Total: %d)%n", this.allString, this.all);
             }
 
         }
@@ -0,0 +1,257 @@
+package com.sap.fontus.sql.tainter;
+
+/**
+ * Taints INSERT statements which only insert literal values, as written by mysqldump, without parsing them with JSQLParser.
+ * <p>
+ * Every value is followed by an untainted taint value and every column of the column list by its taint column,
+ * which is what the {@link StatementTainter} does for these statements. Values are copied as they are, so MySQL
+ * specific escapes and double quoted strings are kept. Statements with anything but literals, e.g. functions or sub selects,
+ * are left to the {@link StatementTainter}.
+ */
+final class InsertValuesTainter {
+    private static final String UNTAINTED = "'0'";
+
+    private final String statement;
+    private final int length;
+    private int position;
+
+    private InsertValuesTainter(String statement) {
+        this.statement = statement;
+        this.length = statement.length();
+    }
+
+    /**
+     * @return The tainted statement or null if the statement is no INSERT of literal values
+     */
+    static String taint(String statement) {
+        return new InsertValuesTainter(statement).taint();
+    }
+
+    private String taint() {
+        StringBuilder out = new StringBuilder(this.length + this.length / 2);
+        int start = this.skipWhitespace(0);
+        if (!this.keyword("INSERT")) {
+            return null;
+        }
+        this.keyword("IGNORE");
+        if (!this.keyword("INTO")) {
+            return null;
+        }
+        this.position = this.skipWhitespace(this.position);
+        if (this.identifier() == null) {
+            return null;
+        }
+        // Schema qualified table names
+        while (this.position < this.length && this.statement.charAt(this.position) == '.') {
+            this.position++;
+            if (this.identifier() == null) {
+                return null;
+            }
+        }
+        out.append(this.statement, start, this.position);
+        this.position = this.skipWhitespace(this.position);
+        if (this.position < this.length && this.statement.charAt(this.position) == '(') {
+            if (!this.columns(out)) {
+                return null;
+            }
+        }
+        if (!this.keyword("VALUES") && !this.keyword("VALUE")) {
+            return null;
+        }
+        out.append(" VALUES ");
+        boolean first = true;
+        do {
+            if (!first) {
+                out.append(", ");
+            }
+            first = false;
+            if (!this.row(out)) {
+                return null;
+            }
+        } while (this.consume(','));
+        return this.skipWhitespace(this.position) == this.length ? out.toString() : null;
+    }
+
+    private boolean columns(StringBuilder out) {
+        this.position++;
+        out.append(" (");
+        boolean first = true;
+        do {
+            this.position = this.skipWhitespace(this.position);
+            String column = this.identifier();
+            if (column == null) {
+                return false;
+            }
+            if (!first) {
+                out.append(", ");
+            }
+            first = false;
+            out.append(column).append(", ").append(Utils.taintColumnName(column));
+        } while (this.consume(','));
+        if (!this.consume(')')) {
+            return false;
+        }
+        out.append(')');
+        return true;
+    }
+
+    private boolean row(StringBuilder out) {
+        if (!this.consume('(')) {
+            return false;
+        }
+        out.append('(');
+        boolean first = true;
+        do {
+            this.position = this.skipWhitespace(this.position);
+            int start = this.position;
+            if (!this.literal()) {
+                return false;
+            }
+            if (!first) {
+                out.append(", ");
+            }
+            first = false;
+            out.append(this.statement, start, this.position).append(", ").append(UNTAINTED);
+        } while (this.consume(','));
+        if (!this.consume(')')) {
+            return false;
+        }
+        out.append(')');
+        return true;
+    }
+
+    private boolean literal() {
+        if (this.position >= this.length) {
+            return false;
+        }
+        char c = this.statement.charAt(this.position);
+        if (c == '\'' || c == '"') {
+            return this.string(c);
+        }
+        if ((c == 'x' || c == 'X') && this.position + 1 < this.length && this.statement.charAt(this.position + 1) == '\'') {
+            this.position++;
+            return this.string('\'');
+        }
+        if (c == '0' && this.position + 1 < this.length && (this.statement.charAt(this.position + 1) == 'x' || this.statement.charAt(this.position + 1) == 'X')) {
+            this.position += 2;
+            int start = this.position;
+            while (this.position < this.length && Character.digit(this.statement.charAt(this.position), 16) >= 0) {
+                this.position++;
+            }
+            return this.position > start;
+        }
+        if (c == '-' || c == '+' || c == '.' || Character.isDigit(c)) {
+            return this.number();
+        }
+        return this.keyword("NULL") || this.keyword("TRUE") || this.keyword("FALSE") || this.keyword("DEFAULT");
+    }
+
+    /**
+     * Reads a single or double quoted string, MySQL treats double quotes as string quotes unless ANSI_QUOTES is set
+     */
+    private boolean string(char quote) {
+        this.position++;
+        while (this.position < this.length) {
+            char c = this.statement.charAt(this.position++);
+            if (c == '\\') {
+                this.position++;
+            } else if (c == quote) {
+                if (this.position < this.length && this.statement.charAt(this.position) == quote) {
+                    this.position++;
+                } else {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean number() {
+        if (this.statement.charAt(this.position) == '-' || this.statement.charAt(this.position) == '+') {
+            this.position++;
+        }
+        int digits = this.digits();
+        if (this.position < this.length && this.statement.charAt(this.position) == '.') {
+            this.position++;
+            digits += this.digits();
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (this.position < this.length && (this.statement.charAt(this.position) == 'e' || this.statement.charAt(this.position) == 'E')) {
+            this.position++;
+            if (this.position < this.length && (this.statement.charAt(this.position) == '-' || this.statement.charAt(this.position) == '+')) {
+                this.position++;
+            }
+            return this.digits() > 0;
+        }
+        return true;
+    }
+
+    private int digits() {
+        int start = this.position;
+        while (this.position < this.length && Character.isDigit(this.statement.charAt(this.position))) {
+            this.position++;
+        }
+        return this.position - start;
+    }
+
+    /**
+     * Reads a plain or backticked identifier
+     */
+    private String identifier() {
+        if (this.position >= this.length) {
+            return null;
+        }
+        int start = this.position;
+        if (this.statement.charAt(this.position) == '`') {
+            int end = this.statement.indexOf('`', this.position + 1);
+            if (end < 0) {
+                return null;
+            }
+            this.position = end + 1;
+        } else {
+            while (this.position < this.length && isIdentifierPart(this.statement.charAt(this.position))) {
+                this.position++;
+            }
+        }
+        return this.position > start ? this.statement.substring(start, this.position) : null;
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+
+    /**
+     * Consumes the keyword if it follows after whitespace
+     */
+    private boolean keyword(String keyword) {
+        int start = this.skipWhitespace(this.position);
+        int end = start + keyword.length();
+        if (end > this.length || !this.statement.regionMatches(true, start, keyword, 0, keyword.length())) {
+            return false;
+        }
+        if (end < this.length && isIdentifierPart(this.statement.charAt(end))) {
+            return false;
+        }
+        this.position = end;
+        return true;
+    }
+
+    private boolean consume(char c) {
+        int next = this.skipWhitespace(this.position);
+        if (next < this.length && this.statement.charAt(next) == c) {
+            this.position = next + 1;
+            return true;
+        }
+        return false;
+    }
+
+    private int skipWhitespace(int from) {
+        int i = from;
+        while (i < this.length && Character.isWhitespace(this.statement.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+}
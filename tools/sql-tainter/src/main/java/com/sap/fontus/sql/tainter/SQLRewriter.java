@@ -2,10 +2,29 @@ package com.sap.fontus.sql.tainter;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+/**
+ * Taints all statements of a SQL dump and writes them to {@code tainted_<inputfile>}.
+ * <p>
+ * The dump is streamed: statements are split off the input as it is read, rewritten concurrently and written in their
+ * original order, so only the statements currently in flight are kept in memory.
+ * INSERT statements of literal values, which make up most of a dump, are tainted by the {@link InsertValuesTainter}
+ * without building a JSQLParser AST.
+ * <p>
+ * Usage: {@code SQLRewriter <inputfile> [threads]}, by default one thread per processor is used.
+ */
 public final class SQLRewriter {
 
 	//array of commands that should be taken into account when creating the new sql file
@@ -13,8 +32,13 @@ public final class SQLRewriter {
 			"UPDATE", "WITH", "DROP", "LOCK", "UNLOCK", "SELECT");
 	private final List<String> passThrough = Arrays.asList("LOCK", "UNLOCK");
 
+	private final int threads;
+	// Statements rewritten ahead of the writer per thread, bounds the memory used for huge dumps
+	private final int pending;
+
 	public static void main(String[] args) {
-		SQLRewriter rewriter = new SQLRewriter();
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		SQLRewriter rewriter = new SQLRewriter(threads);
 
 		try {
 			rewriter.readFile(args[0]);
@@ -26,52 +50,87 @@ public final class SQLRewriter {
 
 	}
 
-	private SQLRewriter() {}
+	private SQLRewriter(int threads) {
+		this.threads = Math.max(1, threads);
+		this.pending = this.threads * 4;
+	}
 
 	private String taintStatement(String statement) {
-		if (passThrough.stream().anyMatch(statement.substring(0, statement.indexOf(' '))::equalsIgnoreCase)) {
+		String keyword = firstKeyword(statement);
+		if (this.passThrough.stream().anyMatch(keyword::equalsIgnoreCase) || this.keyWords.stream().noneMatch(keyword::equalsIgnoreCase)) {
 			return statement;
 		}
-		try {
-			System.out.printf("Tainting: '%s'%n", statement);
-			String taintedStatement = Utils.taintSqlStatement(statement);
-			System.out.printf("Tainted: '%s'%n", taintedStatement);
+		String taintedStatement = InsertValuesTainter.taint(statement);
+		if (taintedStatement != null) {
 			return taintedStatement;
+		}
+		try {
+			String tainted = Utils.taintSqlStatement(statement);
+			// JSQLParser terminates the statement itself, the delimiter of the dump is added again when it is written
+			return tainted.endsWith(";") ? tainted.substring(0, tainted.length() - 1) : tainted;
 		} catch (Exception e) {
-			System.out.printf("Error parsing '%s': %s%n", statement, e);
+			System.err.printf("Error parsing '%s': %s%n", statement, e);
 		}
 		return null;
 	}
 
-	private void readFile(String file) {
-		try (BufferedReader br = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8)); PrintStream pr = new PrintStream("tainted_" + file)){
-			String line;
-			StringBuilder command = new StringBuilder(10);
-			boolean inCommand = true;
-			while ((line = br.readLine()) != null) {
-				if (line.isEmpty() || line.startsWith("-") || line.startsWith("/")) {
-					pr.println(line);
-					continue;
-				}
-				if (inCommand) {
-					// Add whitespace to ensure the removal of line breaks we implicitly do here does not mess up statements
-					command.append(line).append(" ");
-				} else if (keyWords.stream().anyMatch(line.substring(0, line.indexOf(' '))::equalsIgnoreCase)) {
-					command.append(line);
-					inCommand = true;
+	private static String firstKeyword(String statement) {
+		int start = 0;
+		while (start < statement.length() && Character.isWhitespace(statement.charAt(start))) {
+			start++;
+		}
+		int end = start;
+		while (end < statement.length() && Character.isLetter(statement.charAt(end))) {
+			end++;
+		}
+		return statement.substring(start, end).toUpperCase(Locale.ROOT);
+	}
+
+	private String rewrite(SqlStatementSplitter.Segment segment) {
+		if (!segment.isStatement()) {
+			return segment.getText();
+		}
+		String tainted = this.taintStatement(segment.getText());
+		if (tainted == null) {
+			// Kept in the output, so the dump can be fixed by hand
+			return String.format("-- Could not taint the following statement%n%s%s", segment.getText(), segment.getDelimiter());
+		}
+		return tainted + segment.getDelimiter();
+	}
+
+	private void readFile(String file) throws IOException, InterruptedException {
+		ExecutorService pool = Executors.newFixedThreadPool(this.threads);
+		try (Reader reader = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8);
+			 Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream("tainted_" + file), StandardCharsets.UTF_8), 1 << 16)) {
+			SqlStatementSplitter splitter = new SqlStatementSplitter(reader);
+			Deque<Future<String>> inFlight = new ArrayDeque<>(this.pending);
+			SqlStatementSplitter.Segment segment;
+			while ((segment = splitter.next()) != null) {
+				if (segment.isStatement()) {
+					SqlStatementSplitter.Segment statement = segment;
+					inFlight.add(pool.submit(() -> this.rewrite(statement)));
+				} else {
+					inFlight.add(CompletableFuture.completedFuture(segment.getText()));
 				}
-				if (line.stripTrailing().endsWith(";")) {
-					inCommand = false;
-					if (command.length() > 0) {
-						pr.println(this.taintStatement(command.toString()));
-						command = new StringBuilder(10);
-					}
+				// Written in input order, waiting for the oldest statement if too many are ahead
+				while (inFlight.size() >= this.pending || (!inFlight.isEmpty() && inFlight.peek().isDone())) {
+					writer.write(get(inFlight.poll()));
 				}
 			}
-		} catch (IOException e) {
-			e.printStackTrace();
+			while (!inFlight.isEmpty()) {
+				writer.write(get(inFlight.poll()));
+			}
+		} finally {
+			pool.shutdownNow();
 		}
+	}
 
+	private static String get(Future<String> rewritten) throws InterruptedException, IOException {
+		try {
+			return rewritten.get();
+		} catch (ExecutionException e) {
+			throw new IOException("Error while rewriting a statement", e.getCause());
+		}
 	}
 
 }
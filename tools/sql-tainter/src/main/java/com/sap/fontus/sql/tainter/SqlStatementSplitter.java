@@ -0,0 +1,214 @@
+package com.sap.fontus.sql.tainter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Locale;
+
+/**
+ * Splits a SQL dump into statements without reading it into memory at once.
+ * <p>
+ * Delimiters within quoted strings, identifiers and comments are ignored and {@code DELIMITER} commands (as used by
+ * mysqldump for triggers and procedures) change the delimiter. Comments, whitespace and empty statements between
+ * the statements are returned as verbatim segments, so the dump can be written again unchanged around the rewritten statements.
+ */
+final class SqlStatementSplitter {
+    private static final String DELIMITER_COMMAND = "DELIMITER";
+
+    private final Reader reader;
+    private final char[] buffer = new char[64 * 1024];
+    private int position;
+    private int limit;
+    private boolean eof;
+    private String delimiter = ";";
+
+    SqlStatementSplitter(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * A statement (without its delimiter) or text which is not part of a statement
+     */
+    static final class Segment {
+        private final String text;
+        private final String delimiter;
+
+        private Segment(String text, String delimiter) {
+            this.text = text;
+            this.delimiter = delimiter;
+        }
+
+        boolean isStatement() {
+            return this.delimiter != null;
+        }
+
+        String getText() {
+            return this.text;
+        }
+
+        /**
+         * @return The delimiter terminating the statement, empty if the input ended without one
+         */
+        String getDelimiter() {
+            return this.delimiter;
+        }
+    }
+
+    /**
+     * @return The next segment or null at the end of the input
+     */
+    Segment next() throws IOException {
+        StringBuilder verbatim = new StringBuilder();
+        // Comments and whitespace before a statement are returned on their own
+        while (this.ensure(1)) {
+            char c = this.buffer[this.position];
+            if (Character.isWhitespace(c)) {
+                verbatim.append(c);
+                this.position++;
+            } else if (this.startsWith("--") && this.isLineCommentAfterDashes() || c == '#') {
+                this.readLine(verbatim);
+            } else if (this.startsWith("/*")) {
+                this.readBlockComment(verbatim);
+            } else if (this.startsWith(this.delimiter)) {
+                // Empty statement, e.g. after a conditional comment like /*!40101 SET NAMES utf8 */;
+                verbatim.append(this.delimiter);
+                this.position += this.delimiter.length();
+            } else if (this.startsWithIgnoreCase(DELIMITER_COMMAND) && this.ensure(DELIMITER_COMMAND.length() + 1)
+                    && Character.isWhitespace(this.buffer[this.position + DELIMITER_COMMAND.length()])) {
+                int start = verbatim.length();
+                this.readLine(verbatim);
+                String newDelimiter = verbatim.substring(start + DELIMITER_COMMAND.length()).trim();
+                if (!newDelimiter.isEmpty()) {
+                    this.delimiter = newDelimiter;
+                }
+            } else {
+                break;
+            }
+        }
+        if (verbatim.length() > 0) {
+            return new Segment(verbatim.toString(), null);
+        }
+        if (!this.ensure(1)) {
+            return null;
+        }
+        return this.readStatement();
+    }
+
+    private Segment readStatement() throws IOException {
+        StringBuilder statement = new StringBuilder(256);
+        while (this.ensure(1)) {
+            char c = this.buffer[this.position];
+            if (c == '\'' || c == '"' || c == '`') {
+                this.readQuoted(statement, c);
+            } else if (this.startsWith("--") && this.isLineCommentAfterDashes() || c == '#') {
+                this.readLine(statement);
+            } else if (this.startsWith("/*")) {
+                this.readBlockComment(statement);
+            } else if (this.startsWith(this.delimiter)) {
+                this.position += this.delimiter.length();
+                return new Segment(statement.toString(), this.delimiter);
+            } else {
+                statement.append(c);
+                this.position++;
+            }
+        }
+        return new Segment(statement.toString(), "");
+    }
+
+    private void readQuoted(StringBuilder out, char quote) throws IOException {
+        out.append(quote);
+        this.position++;
+        while (this.ensure(1)) {
+            char c = this.buffer[this.position++];
+            out.append(c);
+            if (c == '\\' && quote != '`') {
+                // MySQL escapes within strings
+                if (this.ensure(1)) {
+                    out.append(this.buffer[this.position++]);
+                }
+            } else if (c == quote) {
+                // Doubled quotes are an escaped quote, which continues the string
+                if (this.ensure(1) && this.buffer[this.position] == quote) {
+                    out.append(quote);
+                    this.position++;
+                } else {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void readLine(StringBuilder out) throws IOException {
+        while (this.ensure(1)) {
+            char c = this.buffer[this.position++];
+            out.append(c);
+            if (c == '\n') {
+                return;
+            }
+        }
+    }
+
+    private void readBlockComment(StringBuilder out) throws IOException {
+        out.append("/*");
+        this.position += 2;
+        while (this.ensure(1)) {
+            if (this.startsWith("*/")) {
+                out.append("*/");
+                this.position += 2;
+                return;
+            }
+            out.append(this.buffer[this.position++]);
+        }
+    }
+
+    /**
+     * In MySQL, {@code --} only starts a comment if it is followed by whitespace or the end of the input
+     */
+    private boolean isLineCommentAfterDashes() throws IOException {
+        return !this.ensure(3) || Character.isWhitespace(this.buffer[this.position + 2]);
+    }
+
+    private boolean startsWith(String prefix) throws IOException {
+        if (!this.ensure(prefix.length())) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (this.buffer[this.position + i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean startsWithIgnoreCase(String prefix) throws IOException {
+        if (!this.ensure(prefix.length())) {
+            return false;
+        }
+        return new String(this.buffer, this.position, prefix.length()).toUpperCase(Locale.ROOT).equals(prefix);
+    }
+
+    /**
+     * Makes sure at least count characters are buffered
+     *
+     * @return false if the input ends before
+     */
+    private boolean ensure(int count) throws IOException {
+        if (this.limit - this.position >= count) {
+            return true;
+        }
+        if (this.eof) {
+            return false;
+        }
+        System.arraycopy(this.buffer, this.position, this.buffer, 0, this.limit - this.position);
+        this.limit -= this.position;
+        this.position = 0;
+        while (this.limit < count) {
+            int read = this.reader.read(this.buffer, this.limit, this.buffer.length - this.limit);
+            if (read < 0) {
+                this.eof = true;
+                return false;
+            }
+            this.limit += read;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,70 @@
+package com.sap.fontus.sql.tainter;
+
+import com.sap.fontus.config.Configuration;
+import com.sap.fontus.config.TaintMethod;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SuppressWarnings("SqlResolve")
+class InsertValuesTainterTests {
+
+    @BeforeAll
+    static void init() {
+        Configuration.setTestConfig(TaintMethod.RANGE);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "INSERT INTO t VALUES (2,'a;b')",
+            "INSERT INTO `t` (`id`, name) VALUES (1, 'x'), (2, NULL)",
+            "INSERT INTO t (a, b) VALUE (1, 'it''s')",
+            "INSERT IGNORE INTO t (a, b) VALUES (TRUE, DEFAULT), (FALSE, NULL)",
+            "INSERT INTO db.t (a, b) VALUES (-1.5e3, 0x1F)",
+            "INSERT INTO t VALUES (+.5, 'a,b)', '')",
+    })
+    void testSameAsStatementTainter(String statement) {
+        String tainted = InsertValuesTainter.taint(statement);
+        assertNotNull(tainted);
+        assertEquals(stripDelimiter(Utils.taintSqlStatement(statement)), tainted);
+    }
+
+    @Test
+    void testDoubleQuotedString() {
+        assertEquals("INSERT INTO t VALUES (2, '0', \"dq;str\", '0'), (3, '0', \"say \"\"hi\\\"\", '0')",
+                InsertValuesTainter.taint("INSERT INTO t VALUES (2,\"dq;str\"), (3, \"say \"\"hi\\\"\")"));
+    }
+
+    @Test
+    void testSingleColumnRows() {
+        assertEquals("INSERT INTO t (a, `__taint__a`) VALUES (1, '0'), ('b', '0')", InsertValuesTainter.taint("INSERT INTO t (a) VALUES (1), ('b')"));
+    }
+
+    @Test
+    void testEscapesAreKept() {
+        assertEquals("INSERT INTO t VALUES ('a\\'b\\\\', '0', X'0A', '0')", InsertValuesTainter.taint("INSERT INTO t VALUES ('a\\'b\\\\', X'0A')"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "INSERT INTO t VALUES (NOW())",
+            "INSERT INTO t VALUES (1 + 2)",
+            "INSERT INTO t SELECT * FROM s",
+            "INSERT INTO t VALUES ('unterminated)",
+            "INSERT INTO t VALUES (1) ON DUPLICATE KEY UPDATE a = 1",
+            "REPLACE INTO t VALUES (1)",
+            "UPDATE t SET a = 1",
+    })
+    void testLeftToStatementTainter(String statement) {
+        assertNull(InsertValuesTainter.taint(statement));
+    }
+
+    private static String stripDelimiter(String statement) {
+        return statement.endsWith(";") ? statement.substring(0, statement.length() - 1) : statement;
+    }
+}
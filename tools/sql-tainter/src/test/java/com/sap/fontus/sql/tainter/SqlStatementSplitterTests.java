@@ -0,0 +1,67 @@
+package com.sap.fontus.sql.tainter;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SuppressWarnings("SqlResolve")
+class SqlStatementSplitterTests {
+
+    /**
+     * Statements are listed with their delimiter in brackets, verbatim segments as they are
+     */
+    private static List<String> split(String dump) throws IOException {
+        SqlStatementSplitter splitter = new SqlStatementSplitter(new StringReader(dump));
+        List<String> segments = new ArrayList<>();
+        SqlStatementSplitter.Segment segment;
+        while ((segment = splitter.next()) != null) {
+            segments.add(segment.isStatement() ? segment.getText() + "[" + segment.getDelimiter() + "]" : segment.getText());
+        }
+        return segments;
+    }
+
+    @Test
+    void testStatements() throws IOException {
+        assertEquals(Arrays.asList("SELECT 1[;]", "\n", "SELECT 2[;]", " ", "SELECT 3[]"), split("SELECT 1;\nSELECT 2; SELECT 3"));
+    }
+
+    @Test
+    void testQuotedDelimiters() throws IOException {
+        assertEquals(Arrays.asList("INSERT INTO t VALUES ('a;b', \"c;d\", 'it''s;', 'e\\';f')[;]", "\n", "SELECT `x;y` FROM t[;]"),
+                split("INSERT INTO t VALUES ('a;b', \"c;d\", 'it''s;', 'e\\';f');\nSELECT `x;y` FROM t;"));
+    }
+
+    @Test
+    void testLineComments() throws IOException {
+        assertEquals(Arrays.asList("-- a; comment\n# another; one\n", "SELECT 1 -- trailing;\n[;]", "\n", "SELECT 2--1[;]"),
+                split("-- a; comment\n# another; one\nSELECT 1 -- trailing;\n;\nSELECT 2--1;"));
+    }
+
+    @Test
+    void testBlockComments() throws IOException {
+        assertEquals(Arrays.asList("/* a; comment */\n/*!40101 SET NAMES utf8 */;\n", "SELECT /* b; */ 1[;]"),
+                split("/* a; comment */\n/*!40101 SET NAMES utf8 */;\nSELECT /* b; */ 1;"));
+    }
+
+    @Test
+    void testDelimiterCommand() throws IOException {
+        String dump = "DELIMITER ;;\nCREATE TRIGGER t BEFORE INSERT ON x FOR EACH ROW BEGIN SET NEW.a = 1; END ;;\nDELIMITER ;\nSELECT 1;";
+        assertEquals(Arrays.asList("DELIMITER ;;\n", "CREATE TRIGGER t BEFORE INSERT ON x FOR EACH ROW BEGIN SET NEW.a = 1; END [;;]",
+                "\nDELIMITER ;\n", "SELECT 1[;]"), split(dump));
+    }
+
+    @Test
+    void testLongStatementAcrossBuffers() throws IOException {
+        StringBuilder values = new StringBuilder("INSERT INTO t VALUES ");
+        for (int i = 0; i < 20_000; i++) {
+            values.append(i == 0 ? "" : ",").append("('").append(i).append(";')");
+        }
+        assertEquals(Arrays.asList(values + "[;]", "\n"), split(values + ";\n"));
+    }
+}